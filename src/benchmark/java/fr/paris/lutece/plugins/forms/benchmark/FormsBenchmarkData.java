@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import fr.paris.lutece.plugins.forms.business.CompositeDisplayType;
+import fr.paris.lutece.plugins.forms.business.Form;
+import fr.paris.lutece.plugins.forms.business.FormDisplay;
+import fr.paris.lutece.plugins.forms.business.FormDisplayHome;
+import fr.paris.lutece.plugins.forms.business.FormHome;
+import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
+import fr.paris.lutece.plugins.forms.business.FormQuestionResponseHome;
+import fr.paris.lutece.plugins.forms.business.FormResponse;
+import fr.paris.lutece.plugins.forms.business.FormResponseHome;
+import fr.paris.lutece.plugins.forms.business.FormResponseStep;
+import fr.paris.lutece.plugins.forms.business.FormResponseStepHome;
+import fr.paris.lutece.plugins.forms.business.Question;
+import fr.paris.lutece.plugins.forms.business.QuestionHome;
+import fr.paris.lutece.plugins.forms.business.Step;
+import fr.paris.lutece.plugins.forms.business.StepHome;
+import fr.paris.lutece.plugins.genericattributes.business.Entry;
+import fr.paris.lutece.plugins.genericattributes.business.EntryHome;
+import fr.paris.lutece.plugins.genericattributes.business.EntryTypeHome;
+import fr.paris.lutece.plugins.genericattributes.business.Response;
+import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Synthetic data of the benchmarks : a form with one step of text questions and its responses, stored in the test database. The values are drawn from a
+ * seeded generator, so that every run measures the same data.
+ */
+public final class FormsBenchmarkData
+{
+    public static final String PROPERTY_SEED = "forms.benchmark.seed";
+    public static final String PROPERTY_NB_QUESTIONS = "forms.benchmark.questions";
+    public static final String PROPERTY_NB_RESPONSES = "forms.benchmark.responses";
+
+    private static final long DEFAULT_SEED = 20211L;
+    private static final int DEFAULT_NB_QUESTIONS = 20;
+    private static final int DEFAULT_NB_RESPONSES = 500;
+    private static final int ENTRY_TYPE_TEXT_ID = 106;
+    private static final int MAX_WORDS = 8;
+    private static final String [ ] WORDS = {
+            "paris", "mairie", "demande", "dossier", "rue", "avenue", "arrondissement", "rendez-vous", "inscription", "ecole", "travaux", "stationnement",
+            "bibliotheque", "piscine", "subvention", "association", "logement", "voirie", "proprete", "signalement"
+    };
+
+    private static FormsBenchmarkData _instance;
+
+    private final Random _random;
+    private final Form _form;
+    private final Step _step;
+    private final List<Question> _listQuestions = new ArrayList<>( );
+    private final List<Integer> _listIdFormResponse = new ArrayList<>( );
+
+    /**
+     * Constructor
+     * 
+     * @param lSeed
+     *            the seed of the generator
+     * @param nNbQuestions
+     *            the number of questions of the form
+     * @param nNbResponses
+     *            the number of responses of the form
+     */
+    private FormsBenchmarkData( long lSeed, int nNbQuestions, int nNbResponses )
+    {
+        _random = new Random( lSeed );
+        _form = createForm( lSeed );
+        _step = createStep( _form );
+
+        for ( int nQuestion = 0; nQuestion < nNbQuestions; nQuestion++ )
+        {
+            _listQuestions.add( createQuestion( _form, _step, nQuestion ) );
+        }
+
+        for ( int nResponse = 0; nResponse < nNbResponses; nResponse++ )
+        {
+            _listIdFormResponse.add( createFormResponse( nResponse ) );
+        }
+    }
+
+    /**
+     * Get the data of the benchmarks, created with the Lutece context at the first call
+     * 
+     * @return the data
+     */
+    public static synchronized FormsBenchmarkData getInstance( )
+    {
+        if ( _instance == null )
+        {
+            // Each benchmark runs in a JVM forked by JMH, which has to start the Lutece context of the tests before creating the data
+            try
+            {
+                new BenchmarkContext( ).init( );
+            }
+            catch( Exception e )
+            {
+                throw new AppException( "Unable to start the Lutece context of the benchmarks", e );
+            }
+
+            _instance = new FormsBenchmarkData( Long.getLong( PROPERTY_SEED, DEFAULT_SEED ), Integer.getInteger( PROPERTY_NB_QUESTIONS, DEFAULT_NB_QUESTIONS ),
+                    Integer.getInteger( PROPERTY_NB_RESPONSES, DEFAULT_NB_RESPONSES ) );
+        }
+
+        return _instance;
+    }
+
+    /**
+     * @return the form
+     */
+    public Form getForm( )
+    {
+        return _form;
+    }
+
+    /**
+     * @return the step of the form
+     */
+    public Step getStep( )
+    {
+        return _step;
+    }
+
+    /**
+     * @return the questions of the step
+     */
+    public List<Question> getQuestions( )
+    {
+        return Collections.unmodifiableList( _listQuestions );
+    }
+
+    /**
+     * @return the identifiers of the responses of the form
+     */
+    public List<Integer> getFormResponseIds( )
+    {
+        return Collections.unmodifiableList( _listIdFormResponse );
+    }
+
+    /**
+     * Load the responses of the form with their steps, question responses and entries
+     * 
+     * @return the responses
+     */
+    public List<FormResponse> loadFormResponses( )
+    {
+        return FormResponseHome.findByPrimaryKeyListForIndex( _listIdFormResponse );
+    }
+
+    /**
+     * Creates the form
+     * 
+     * @param lSeed
+     *            the seed of the generator
+     * @return the form
+     */
+    private static Form createForm( long lSeed )
+    {
+        Form form = new Form( );
+        form.setTitle( "Benchmark form " + lSeed );
+        form.setDescription( "Form generated for the benchmarks" );
+        form.setBreadcrumbName( "forms.horizontalBreadcrumb" );
+        FormHome.create( form );
+
+        return form;
+    }
+
+    /**
+     * Creates the step of the form
+     * 
+     * @param form
+     *            the form
+     * @return the step
+     */
+    private static Step createStep( Form form )
+    {
+        Step step = new Step( );
+        step.setTitle( "Benchmark step" );
+        step.setIdForm( form.getId( ) );
+        step.setInitial( true );
+        step.setFinal( true );
+        StepHome.create( step );
+
+        return step;
+    }
+
+    /**
+     * Creates a text question of the step with its entry and its display
+     * 
+     * @param form
+     *            the form
+     * @param step
+     *            the step
+     * @param nQuestion
+     *            the index of the question
+     * @return the question
+     */
+    private static Question createQuestion( Form form, Step step, int nQuestion )
+    {
+        String strCode = "benchmark_" + nQuestion;
+
+        Entry entry = new Entry( );
+        entry.setEntryType( EntryTypeHome.findByPrimaryKey( ENTRY_TYPE_TEXT_ID ) );
+        entry.setTitle( "Question " + nQuestion );
+        entry.setCode( strCode );
+        entry.setIndexed( true );
+        entry.setIdResource( form.getId( ) );
+        entry.setResourceType( Form.RESOURCE_TYPE );
+        EntryHome.create( entry );
+
+        Question question = new Question( );
+        question.setTitle( entry.getTitle( ) );
+        question.setCode( strCode );
+        question.setColumnTitle( entry.getTitle( ) );
+        question.setIdEntry( entry.getIdEntry( ) );
+        question.setIdStep( step.getId( ) );
+        question.setVisibleMultiviewGlobal( true );
+        QuestionHome.create( question );
+        question.setEntry( entry );
+
+        FormDisplay formDisplay = new FormDisplay( );
+        formDisplay.setFormId( form.getId( ) );
+        formDisplay.setStepId( step.getId( ) );
+        formDisplay.setCompositeId( question.getId( ) );
+        formDisplay.setCompositeType( CompositeDisplayType.QUESTION.getLabel( ) );
+        formDisplay.setDisplayOrder( nQuestion );
+        FormDisplayHome.create( formDisplay );
+
+        return question;
+    }
+
+    /**
+     * Creates a response of the form with a random value for each question
+     * 
+     * @param nResponse
+     *            the index of the response
+     * @return the identifier of the response
+     */
+    private int createFormResponse( int nResponse )
+    {
+        FormResponse formResponse = new FormResponse( );
+        formResponse.setFormId( _form.getId( ) );
+        formResponse.setGuid( "benchmark-" + nResponse );
+        formResponse.setFromSave( Boolean.FALSE );
+        FormResponseHome.create( formResponse );
+
+        List<FormQuestionResponse> listQuestionResponse = new ArrayList<>( _listQuestions.size( ) );
+
+        for ( Question question : _listQuestions )
+        {
+            Response response = new Response( );
+            response.setEntry( question.getEntry( ) );
+            response.setResponseValue( nextText( ) );
+
+            List<Response> listResponse = new ArrayList<>( 1 );
+            listResponse.add( response );
+
+            FormQuestionResponse formQuestionResponse = new FormQuestionResponse( );
+            formQuestionResponse.setIdFormResponse( formResponse.getId( ) );
+            formQuestionResponse.setIdStep( _step.getId( ) );
+            formQuestionResponse.setQuestion( question );
+            formQuestionResponse.setEntryResponse( listResponse );
+            listQuestionResponse.add( formQuestionResponse );
+        }
+
+        FormQuestionResponseHome.createList( listQuestionResponse );
+
+        FormResponseStep formResponseStep = new FormResponseStep( );
+        formResponseStep.setFormResponseId( formResponse.getId( ) );
+        formResponseStep.setStep( _step );
+        formResponseStep.setOrder( 0 );
+        FormResponseStepHome.create( formResponseStep );
+
+        return formResponse.getId( );
+    }
+
+    /**
+     * Draws a text of a few words
+     * 
+     * @return the text
+     */
+    private String nextText( )
+    {
+        int nNbWords = 1 + _random.nextInt( MAX_WORDS );
+        StringBuilder sbText = new StringBuilder( );
+
+        for ( int nWord = 0; nWord < nNbWords; nWord++ )
+        {
+            if ( nWord > 0 )
+            {
+                sbText.append( ' ' );
+            }
+
+            sbText.append( WORDS [_random.nextInt( WORDS.length )] );
+        }
+
+        return sbText.toString( );
+    }
+
+    /**
+     * Test case giving access to the initialization of the Lutece context of the tests
+     */
+    private static final class BenchmarkContext extends LuteceTestCase
+    {
+        /**
+         * Starts the Lutece context
+         * 
+         * @throws Exception
+         *             if the context cannot be started
+         */
+        void init( ) throws Exception
+        {
+            setUp( );
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import junit.framework.TestCase;
+
+/**
+ * Runs the JMH benchmarks of the plugin, each one in a forked JVM which starts the Lutece test context, and writes their scores. The benchmarks measure an
+ * average time.
+ * <p>
+ * Run with <code>mvn test -Pbenchmark</code>. Add <code>-Dforms.benchmark.updateBaseline=true</code> to record the scores as the baseline of the machine,
+ * and <code>-Dforms.benchmark.check=true</code> to compare the scores with this baseline : the run fails if a benchmark has no baseline score, or if the
+ * lower bound of its confidence interval is greater than the baseline score by more than the tolerance.
+ * </p>
+ */
+public class FormsBenchmarkRunner extends TestCase
+{
+    private static final String PROPERTY_BASELINE = "forms.benchmark.baseline";
+    private static final String PROPERTY_RESULTS = "forms.benchmark.results";
+    private static final String PROPERTY_UPDATE_BASELINE = "forms.benchmark.updateBaseline";
+    private static final String PROPERTY_CHECK = "forms.benchmark.check";
+    private static final String PROPERTY_FORKS = "forms.benchmark.forks";
+    private static final String PROPERTY_TOLERANCE = "forms.benchmark.tolerance";
+    private static final String PROPERTY_INCLUDE = "forms.benchmark.include";
+    private static final String PROPERTY_ITERATIONS = "forms.benchmark.iterations";
+    private static final String PROPERTY_ITERATION_TIME = "forms.benchmark.iterationTime";
+
+    private static final String DEFAULT_BASELINE = "src/benchmark/resources/benchmark-baseline.properties";
+    private static final String DEFAULT_RESULTS = "target/benchmark/benchmark-results.properties";
+    private static final String DEFAULT_TOLERANCE = "0.25";
+    private static final String DEFAULT_INCLUDE = "fr\\.paris\\.lutece\\.plugins\\.forms\\..*Benchmark\\.";
+    private static final int DEFAULT_ITERATIONS = 5;
+    private static final int DEFAULT_ITERATION_TIME = 2;
+    private static final int DEFAULT_FORKS = 1;
+    private static final String UNIT_SUFFIX = ".unit";
+    private static final String ERROR_SUFFIX = ".error";
+    private static final String [ ] FORWARDED_PROPERTIES = {
+            FormsBenchmarkData.PROPERTY_SEED, FormsBenchmarkData.PROPERTY_NB_QUESTIONS, FormsBenchmarkData.PROPERTY_NB_RESPONSES
+    };
+
+    /**
+     * Runs the benchmarks, records their scores and checks the regressions when asked
+     * 
+     * @throws RunnerException
+     *             if a benchmark fails
+     * @throws IOException
+     *             if the results cannot be written
+     */
+    public void testBenchmarks( ) throws RunnerException, IOException
+    {
+        int nIterations = Integer.getInteger( PROPERTY_ITERATIONS, DEFAULT_ITERATIONS );
+        TimeValue iterationTime = TimeValue.seconds( Integer.getInteger( PROPERTY_ITERATION_TIME, DEFAULT_ITERATION_TIME ) );
+
+        // Each benchmark runs in its own JVM, isolated from the JIT profile and the heap of the test JVM and of the other benchmarks
+        Options options = new OptionsBuilder( ).include( System.getProperty( PROPERTY_INCLUDE, DEFAULT_INCLUDE ) )
+                .forks( Math.max( 1, Integer.getInteger( PROPERTY_FORKS, DEFAULT_FORKS ) ) ).jvmArgsAppend( getForwardedProperties( ) )
+                .warmupIterations( nIterations ).warmupTime( iterationTime ).measurementIterations( nIterations ).measurementTime( iterationTime ).build( );
+
+        Collection<RunResult> listRunResults = new Runner( options ).run( );
+
+        Map<String, String> mapResults = new TreeMap<>( );
+
+        for ( RunResult runResult : listRunResults )
+        {
+            String strBenchmark = runResult.getParams( ).getBenchmark( );
+            mapResults.put( strBenchmark, String.format( Locale.ROOT, "%.3f", runResult.getPrimaryResult( ).getScore( ) ) );
+            mapResults.put( strBenchmark + ERROR_SUFFIX, String.format( Locale.ROOT, "%.3f", runResult.getPrimaryResult( ).getScoreError( ) ) );
+            mapResults.put( strBenchmark + UNIT_SUFFIX, runResult.getPrimaryResult( ).getScoreUnit( ) );
+        }
+
+        Path pathBaseline = Paths.get( System.getProperty( PROPERTY_BASELINE, DEFAULT_BASELINE ) );
+        writeScores( Paths.get( System.getProperty( PROPERTY_RESULTS, DEFAULT_RESULTS ) ), mapResults );
+
+        if ( Boolean.getBoolean( PROPERTY_UPDATE_BASELINE ) )
+        {
+            writeScores( pathBaseline, mapResults );
+
+            return;
+        }
+
+        if ( !Boolean.getBoolean( PROPERTY_CHECK ) )
+        {
+            return;
+        }
+
+        List<String> listRegressions = getRegressions( readScores( pathBaseline ), mapResults,
+                Double.parseDouble( System.getProperty( PROPERTY_TOLERANCE, DEFAULT_TOLERANCE ) ) );
+
+        assertTrue( "Benchmark regressions : " + listRegressions, listRegressions.isEmpty( ) );
+    }
+
+    /**
+     * Gives the system properties of the generated data, so that the forked JVMs generate the same data as asked to this one
+     * 
+     * @return the JVM options of the properties
+     */
+    private static String [ ] getForwardedProperties( )
+    {
+        List<String> listJvmArgs = new ArrayList<>( );
+
+        for ( String strProperty : FORWARDED_PROPERTIES )
+        {
+            String strValue = System.getProperty( strProperty );
+
+            if ( strValue != null )
+            {
+                listJvmArgs.add( "-D" + strProperty + '=' + strValue );
+            }
+        }
+
+        return listJvmArgs.toArray( new String [ listJvmArgs.size( )] );
+    }
+
+    /**
+     * Compares the scores with the baseline. A benchmark without baseline score is reported, since it cannot be checked.
+     * 
+     * @param baseline
+     *            the baseline scores
+     * @param mapResults
+     *            the measured scores
+     * @param dTolerance
+     *            the accepted increase, relative to the baseline score
+     * @return the description of the regressions
+     */
+    private static List<String> getRegressions( Properties baseline, Map<String, String> mapResults, double dTolerance )
+    {
+        List<String> listRegressions = new ArrayList<>( );
+
+        for ( Map.Entry<String, String> result : mapResults.entrySet( ) )
+        {
+            if ( result.getKey( ).endsWith( UNIT_SUFFIX ) || result.getKey( ).endsWith( ERROR_SUFFIX ) )
+            {
+                continue;
+            }
+
+            String strBaselineScore = baseline.getProperty( result.getKey( ) );
+
+            if ( strBaselineScore == null )
+            {
+                listRegressions.add( result.getKey( ) + " : no baseline score, record it with -D" + PROPERTY_UPDATE_BASELINE + "=true" );
+
+                continue;
+            }
+
+            double dBaselineScore = Double.parseDouble( strBaselineScore );
+            double dScore = Double.parseDouble( result.getValue( ) );
+            double dError = Double.parseDouble( mapResults.get( result.getKey( ) + ERROR_SUFFIX ) );
+
+            // The error is NaN when there are too few iterations to compute it : the score alone is then compared
+            double dLowerBound = Double.isNaN( dError ) ? dScore : dScore - dError;
+
+            if ( dLowerBound > dBaselineScore * ( 1 + dTolerance ) )
+            {
+                listRegressions.add( result.getKey( ) + " : " + result.getValue( ) + " +- " + mapResults.get( result.getKey( ) + ERROR_SUFFIX ) + " instead of "
+                        + strBaselineScore + " "
+                        + mapResults.get( result.getKey( ) + UNIT_SUFFIX ) );
+            }
+        }
+
+        return listRegressions;
+    }
+
+    /**
+     * Reads scores
+     * 
+     * @param path
+     *            the scores file
+     * @return the scores, empty if the file does not exist
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    private static Properties readScores( Path path ) throws IOException
+    {
+        Properties scores = new Properties( );
+
+        if ( Files.exists( path ) )
+        {
+            try ( InputStream inputStream = Files.newInputStream( path ) )
+            {
+                scores.load( inputStream );
+            }
+        }
+
+        return scores;
+    }
+
+    /**
+     * Writes scores, sorted by benchmark
+     * 
+     * @param path
+     *            the scores file
+     * @param mapScores
+     *            the scores
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private static void writeScores( Path path, Map<String, String> mapScores ) throws IOException
+    {
+        Path pathParent = path.toAbsolutePath( ).getParent( );
+
+        if ( pathParent != null )
+        {
+            Files.createDirectories( pathParent );
+        }
+
+        try ( Writer writer = Files.newBufferedWriter( path, StandardCharsets.ISO_8859_1 ) )
+        {
+            writer.write( "# Average time of the benchmarks of the plugin forms, written by FormsBenchmarkRunner\n" );
+
+            for ( Map.Entry<String, String> score : mapScores.entrySet( ) )
+            {
+                writer.write( score.getKey( ) + '=' + score.getValue( ) + '\n' );
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import fr.paris.lutece.plugins.forms.benchmark.FormsBenchmarkData;
+
+/**
+ * Benchmark of the loading of the form responses for the indexing
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class FormResponseHomeBenchmark
+{
+    private static final int PAGE_SIZE = 50;
+
+    private List<Integer> _listIdFormResponse;
+    private int _nIndex;
+
+    /**
+     * Loads the identifiers of the generated responses
+     */
+    @Setup
+    public void setUp( )
+    {
+        _listIdFormResponse = FormsBenchmarkData.getInstance( ).getFormResponseIds( );
+    }
+
+    /**
+     * Loads one response
+     * 
+     * @return the response
+     */
+    @Benchmark
+    public FormResponse findByPrimaryKeyForIndex( )
+    {
+        _nIndex = ( _nIndex + 1 ) % _listIdFormResponse.size( );
+
+        return FormResponseHome.findByPrimaryKeyForIndex( _listIdFormResponse.get( _nIndex ) );
+    }
+
+    /**
+     * Loads a page of responses, as the indexer does
+     * 
+     * @return the responses
+     */
+    @Benchmark
+    public List<FormResponse> findByPrimaryKeyListForIndex( )
+    {
+        int nFrom = ( _nIndex + PAGE_SIZE ) % _listIdFormResponse.size( );
+        _nIndex = nFrom;
+
+        return FormResponseHome.findByPrimaryKeyListForIndex( _listIdFormResponse.subList( nFrom, Math.min( nFrom + PAGE_SIZE, _listIdFormResponse.size( ) ) ) );
+    }
+}
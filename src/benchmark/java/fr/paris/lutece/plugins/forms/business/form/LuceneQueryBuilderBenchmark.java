@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.form;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import fr.paris.lutece.plugins.forms.benchmark.FormsBenchmarkData;
+import fr.paris.lutece.plugins.forms.business.form.filter.querypart.IFormFilterQueryPart;
+import fr.paris.lutece.plugins.forms.business.form.filter.querypart.impl.FormFilterFormsLuceneQueryPart;
+import fr.paris.lutece.plugins.forms.business.form.panel.initializer.querypart.IFormPanelInitializerQueryPart;
+import fr.paris.lutece.plugins.forms.business.form.panel.initializer.querypart.impl.FormPanelFormsInitializerQueryPart;
+import fr.paris.lutece.plugins.forms.business.form.search.FormResponseSearchItem;
+import fr.paris.lutece.plugins.forms.service.search.IFormSearchIndexer;
+import fr.paris.lutece.plugins.forms.service.search.LuceneFormSearchFactory;
+import fr.paris.lutece.portal.service.message.SiteMessageException;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+
+/**
+ * Benchmark of the building of the Lucene queries of the multiview and of the search on an index of the generated responses
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class LuceneQueryBuilderBenchmark
+{
+    private static final String PARAMETER_ID_FORM = "id_form";
+    private static final int PAGE_SIZE = 50;
+    private static final Sort SORT_DATE_CREATION = new Sort( new SortField( FormResponseSearchItem.FIELD_DATE_CREATION, SortField.Type.LONG, true ) );
+
+    private final List<IFormPanelInitializerQueryPart> _listFormPanelInitializerQueryPart = new ArrayList<>( );
+    private final List<IFormFilterQueryPart> _listFormFilterQueryPart = new ArrayList<>( );
+    private Directory _directory;
+    private DirectoryReader _reader;
+    private IndexSearcher _searcher;
+
+    /**
+     * Builds the query parts of the panel of a form and indexes the generated responses in memory
+     * 
+     * @throws IOException
+     *             if the index cannot be written
+     * @throws InterruptedException
+     *             if the indexing is interrupted
+     * @throws SiteMessageException
+     *             if a document cannot be built
+     */
+    @Setup
+    public void setUp( ) throws IOException, InterruptedException, SiteMessageException
+    {
+        FormsBenchmarkData data = FormsBenchmarkData.getInstance( );
+
+        Map<String, Object> mapFormParameters = new HashMap<>( );
+        mapFormParameters.put( PARAMETER_ID_FORM, data.getForm( ).getId( ) );
+        FormParameters formParameters = new FormParameters( );
+        formParameters.setFormParametersMap( mapFormParameters );
+
+        FormFilterFormsLuceneQueryPart formFilterFormsQueryPart = new FormFilterFormsLuceneQueryPart( );
+        formFilterFormsQueryPart.buildFormFilterQuery( formParameters );
+        _listFormFilterQueryPart.add( formFilterFormsQueryPart );
+        _listFormPanelInitializerQueryPart.add( new FormPanelFormsInitializerQueryPart( ) );
+
+        IFormSearchIndexer indexer = SpringContextService.getBean( "forms.luceneFormsSearchIndexer" );
+        LuceneFormSearchFactory luceneFormSearchFactory = SpringContextService.getBean( "forms.luceneFormsSearchFactory" );
+        _directory = new ByteBuffersDirectory( );
+
+        try ( IndexWriter indexWriter = new IndexWriter( _directory, new IndexWriterConfig( luceneFormSearchFactory.getAnalyzer( ) ) ) )
+        {
+            for ( Integer nIdFormResponse : data.getFormResponseIds( ) )
+            {
+                indexWriter.addDocuments( indexer.getDocuments( String.valueOf( nIdFormResponse ) ) );
+            }
+        }
+
+        _reader = DirectoryReader.open( _directory );
+        _searcher = new IndexSearcher( _reader );
+    }
+
+    /**
+     * Closes the index
+     * 
+     * @throws IOException
+     *             if the index cannot be closed
+     */
+    @TearDown
+    public void tearDown( ) throws IOException
+    {
+        _reader.close( );
+        _directory.close( );
+    }
+
+    /**
+     * Builds the query
+     * 
+     * @return the query
+     */
+    @Benchmark
+    public Query buildQuery( )
+    {
+        return LuceneQueryBuilder.buildQuery( _listFormPanelInitializerQueryPart, _listFormFilterQueryPart );
+    }
+
+    /**
+     * Builds the query and searches the first page of responses sorted by creation date
+     * 
+     * @return the first page
+     * @throws IOException
+     *             if the index cannot be read
+     */
+    @Benchmark
+    public TopDocs buildQueryAndSearch( ) throws IOException
+    {
+        Query query = LuceneQueryBuilder.buildQuery( _listFormPanelInitializerQueryPart, _listFormFilterQueryPart );
+
+        return _searcher.search( query, PAGE_SIZE, SORT_DATE_CREATION );
+    }
+}
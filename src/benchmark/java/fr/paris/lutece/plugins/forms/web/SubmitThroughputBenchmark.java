@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.web;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of the scaling of the submissions with the number of request threads. Each submission takes the lock of its session like
+ * {@link FormXPage#doSaveFormResponse(javax.servlet.http.HttpServletRequest)}, then runs a stubbed save. The average time of a submission should stay
+ * the same when the threads submit for different sessions, and grow with the threads when they submit for the same session.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class SubmitThroughputBenchmark
+{
+    private static final int LOCK_STRIPES = 256;
+    private static final long SAVE_TOKENS = 2000;
+    private static final String SHARED_SESSION_ID = "shared-session";
+
+    private final SessionLocks _sessionLocks = new SessionLocks( LOCK_STRIPES );
+    private final AtomicInteger _nSessionCounter = new AtomicInteger( );
+
+    /**
+     * Session of a request thread
+     */
+    @State( Scope.Thread )
+    public static class Session
+    {
+        private String _strSessionId;
+
+        /**
+         * Gives its own session to the thread
+         * 
+         * @param benchmark
+         *            the benchmark
+         */
+        @Setup
+        public void setUp( SubmitThroughputBenchmark benchmark )
+        {
+            _strSessionId = "session-" + benchmark._nSessionCounter.incrementAndGet( );
+        }
+    }
+
+    /**
+     * Submits with a single request thread
+     * 
+     * @param session
+     *            the session of the thread
+     */
+    @Benchmark
+    @Threads( 1 )
+    public void submitOneThread( Session session )
+    {
+        submit( session._strSessionId );
+    }
+
+    /**
+     * Submits with 4 request threads, each one for its own session
+     * 
+     * @param session
+     *            the session of the thread
+     */
+    @Benchmark
+    @Threads( 4 )
+    public void submitFourThreads( Session session )
+    {
+        submit( session._strSessionId );
+    }
+
+    /**
+     * Submits with 16 request threads, each one for its own session
+     * 
+     * @param session
+     *            the session of the thread
+     */
+    @Benchmark
+    @Threads( 16 )
+    public void submitSixteenThreads( Session session )
+    {
+        submit( session._strSessionId );
+    }
+
+    /**
+     * Submits with 4 request threads for the same session : the submissions are serialized
+     */
+    @Benchmark
+    @Threads( 4 )
+    public void submitFourThreadsSameSession( )
+    {
+        submit( SHARED_SESSION_ID );
+    }
+
+    /**
+     * Takes the lock of the session and runs the stubbed save
+     * 
+     * @param strSessionId
+     *            the session identifier
+     */
+    private void submit( String strSessionId )
+    {
+        Lock lock = _sessionLocks.getLock( strSessionId );
+        lock.lock( );
+
+        try
+        {
+            Blackhole.consumeCPU( SAVE_TOKENS );
+        }
+        finally
+        {
+            lock.unlock( );
+        }
+    }
+}
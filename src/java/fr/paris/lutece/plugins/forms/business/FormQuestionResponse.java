@@ -53,6 +53,8 @@ public class FormQuestionResponse
 
     private List<Response> _entryResponses;
 
+    private boolean _bUniqueValue;
+
     /**
      * @return the _nId
      */
@@ -142,6 +144,23 @@ public class FormQuestionResponse
         this._entryResponses = entryResponse;
     }
 
+    /**
+     * @return {@code true} if the values of the entry responses are stored for the uniqueness checks, {@code false} otherwise
+     */
+    public boolean isUniqueValue( )
+    {
+        return _bUniqueValue;
+    }
+
+    /**
+     * @param bUniqueValue
+     *            {@code true} if the values of the entry responses must be stored for the uniqueness checks, {@code false} otherwise
+     */
+    public void setUniqueValue( boolean bUniqueValue )
+    {
+        _bUniqueValue = bUniqueValue;
+    }
+
     /**
      * Tests if the instance has an error
      * 
@@ -36,7 +36,7 @@ package fr.paris.lutece.plugins.forms.business;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -46,6 +46,7 @@ import fr.paris.lutece.plugins.genericattributes.business.Response;
 import fr.paris.lutece.plugins.genericattributes.business.ResponseFilter;
 import fr.paris.lutece.plugins.genericattributes.business.ResponseHome;
 import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.sql.DAOUtil;
 
 /**
@@ -59,6 +60,7 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
     private static final String SQL_QUERY_SELECT_BY_FORM_RESPONSE = SQL_QUERY_SELECTALL + " WHERE id_form_response = ?";
     private static final String SQL_QUERY_INSERT = "INSERT INTO forms_question_response ( id_form_response, id_question, id_step, iteration_number ) VALUES ( ?, ?, ?, ? ) ";
     private static final String SQL_QUERY_DELETE = "DELETE FROM forms_question_response WHERE id_question_response = ? ";
+    private static final String SQL_QUERY_DELETE_BY_LIST_ID = "DELETE FROM forms_question_response WHERE id_question_response IN ( ";
     private static final String SQL_QUERY_UPDATE = "UPDATE forms_question_response SET id_form_response = ?, id_question = ?, id_step = ?, iteration_number = ? WHERE id_question_response = ?";
     private static final String SQL_QUERY_SELECT_BY_QUESTION = SQL_QUERY_SELECTALL + " WHERE id_question = ?";
     private static final String SQL_QUERY_SELECT_BY_RESPONSE_AND_QUESTION = SQL_QUERY_SELECTALL + " WHERE id_form_response = ? AND id_question = ?";
@@ -94,12 +96,8 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
 
         daoUtil.close( );
 
-        for ( Response response : formQuestionResponse.getEntryResponse( ) )
+        for ( FormQuestionEntryResponse formQuestionEntryResponse : createEntryResponses( formQuestionResponse, formQuestionResponse.getId( ) ) )
         {
-            FormQuestionEntryResponse formQuestionEntryResponse = new FormQuestionEntryResponse( );
-            formQuestionEntryResponse._nIdQuestionResponse = formQuestionResponse.getId( );
-            formQuestionEntryResponse._response = response;
-
             _formQuestionEntryResponseDAO.insert( formQuestionEntryResponse, plugin );
         }
     }
@@ -212,6 +210,127 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
 
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insertList( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin )
+    {
+        if ( CollectionUtils.isEmpty( listFormQuestionResponse ) )
+        {
+            return;
+        }
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+        {
+            for ( FormQuestionResponse formQuestionResponse : listFormQuestionResponse )
+            {
+                int nIndex = 0;
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getIdFormResponse( ) );
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getQuestion( ).getId( ) );
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getIdStep( ) );
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getQuestion( ).getIterationNumber( ) );
+                daoUtil.addBatch( );
+            }
+            daoUtil.executeBatch( );
+
+            for ( FormQuestionResponse formQuestionResponse : listFormQuestionResponse )
+            {
+                if ( !daoUtil.nextGeneratedKey( ) )
+                {
+                    throw new AppException( "Missing generated keys for the batch of " + listFormQuestionResponse.size( ) + " form question responses" );
+                }
+                formQuestionResponse.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+            }
+        }
+
+        List<FormQuestionEntryResponse> listFormQuestionEntryResponse = new ArrayList<>( );
+
+        for ( FormQuestionResponse formQuestionResponse : listFormQuestionResponse )
+        {
+            listFormQuestionEntryResponse.addAll( createEntryResponses( formQuestionResponse, formQuestionResponse.getId( ) ) );
+        }
+
+        _formQuestionEntryResponseDAO.insertList( listFormQuestionEntryResponse, plugin );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeList( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin )
+    {
+        if ( CollectionUtils.isEmpty( listFormQuestionResponse ) )
+        {
+            return;
+        }
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+        {
+            for ( FormQuestionResponse formQuestionResponse : listFormQuestionResponse )
+            {
+                int nIndex = 0;
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getIdFormResponse( ) );
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getQuestion( ).getId( ) );
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getIdStep( ) );
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getQuestion( ).getIterationNumber( ) );
+
+                daoUtil.setInt( ++nIndex, formQuestionResponse.getId( ) );
+                daoUtil.addBatch( );
+            }
+            daoUtil.executeBatch( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeEntryResponses( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin )
+    {
+        if ( CollectionUtils.isEmpty( listFormQuestionResponse ) )
+        {
+            return;
+        }
+
+        _formQuestionEntryResponseDAO.deleteByFormQuestionResponseList( listFormQuestionResponse, plugin );
+
+        List<FormQuestionEntryResponse> listFormQuestionEntryResponse = new ArrayList<>( );
+
+        for ( FormQuestionResponse formQuestionResponse : listFormQuestionResponse )
+        {
+            listFormQuestionEntryResponse.addAll( createEntryResponses( formQuestionResponse, formQuestionResponse.getId( ) ) );
+        }
+
+        _formQuestionEntryResponseDAO.insertList( listFormQuestionEntryResponse, plugin );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteList( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin )
+    {
+        if ( CollectionUtils.isEmpty( listFormQuestionResponse ) )
+        {
+            return;
+        }
+
+        _formQuestionEntryResponseDAO.deleteByFormQuestionResponseList( listFormQuestionResponse, plugin );
+
+        List<Integer> idList = listFormQuestionResponse.stream( ).map( FormQuestionResponse::getId ).distinct( ).collect( Collectors.toList( ) );
+        String query = SQL_QUERY_DELETE_BY_LIST_ID + idList.stream( ).map( i -> "?" ).collect( Collectors.joining( "," ) ) + " )";
+
+        try ( DAOUtil daoUtil = new DAOUtil( query, plugin ) )
+        {
+            for ( int i = 0; i < idList.size( ); i++ )
+            {
+                daoUtil.setInt( i + 1, idList.get( i ) );
+            }
+            daoUtil.executeUpdate( );
+        }
+    }
+
     /**
      * Stores the responses associated to the form question response
      * 
@@ -226,21 +345,43 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
     {
         List<FormQuestionEntryResponse> listFormQuestionEntryResponseSaved = _formQuestionEntryResponseDAO
                 .selectByFormQuestionResponse( formQuestionResponseSaved, plugin );
-        List<Response> listNewResponse = formQuestionResponseNew.getEntryResponse( );
 
         for ( FormQuestionEntryResponse formQuestionEntryResponseSaved : listFormQuestionEntryResponseSaved )
         {
             _formQuestionEntryResponseDAO.delete( formQuestionEntryResponseSaved, plugin );
         }
 
-        for ( Response responseNew : listNewResponse )
+        for ( FormQuestionEntryResponse formQuestionEntryResponse : createEntryResponses( formQuestionResponseNew, formQuestionResponseSaved.getId( ) ) )
+        {
+            _formQuestionEntryResponseDAO.insert( formQuestionEntryResponse, plugin );
+        }
+    }
+
+    /**
+     * Creates the links between a form question response and its entry responses. The values of the entry responses are only kept for the uniqueness checks
+     * when the form question response is flagged as such by the service saving it
+     * 
+     * @param formQuestionResponse
+     *            the form question response
+     * @param nIdQuestionResponse
+     *            the identifier of the stored form question response
+     * @return the links to insert
+     */
+    private static List<FormQuestionEntryResponse> createEntryResponses( FormQuestionResponse formQuestionResponse, int nIdQuestionResponse )
+    {
+        List<FormQuestionEntryResponse> listFormQuestionEntryResponse = new ArrayList<>( formQuestionResponse.getEntryResponse( ).size( ) );
+
+        for ( Response response : formQuestionResponse.getEntryResponse( ) )
         {
             FormQuestionEntryResponse formQuestionEntryResponse = new FormQuestionEntryResponse( );
-            formQuestionEntryResponse._nIdQuestionResponse = formQuestionResponseSaved.getId( );
-            formQuestionEntryResponse._response = responseNew;
+            formQuestionEntryResponse._nIdQuestionResponse = nIdQuestionResponse;
+            formQuestionEntryResponse._response = response;
+            formQuestionEntryResponse._bUnique = formQuestionResponse.isUniqueValue( );
 
-            _formQuestionEntryResponseDAO.insert( formQuestionEntryResponse, plugin );
+            listFormQuestionEntryResponse.add( formQuestionEntryResponse );
         }
+
+        return listFormQuestionEntryResponse;
     }
 
     /**
@@ -458,12 +599,14 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
             List<FormQuestionEntryResponse> listFormQuestionEntryResponse = _formQuestionEntryResponseDAO
                     .selectByFormQuestionResponseList( formQuestionResponsesList, plugin );
 
+            Map<Integer, List<Response>> mapEntryResponseByQuestionResponse = listFormQuestionEntryResponse.stream( )
+                    .filter( entryResponse -> entryResponse._response != null )
+                    .collect( Collectors.groupingBy( entryResponse -> entryResponse._nIdQuestionResponse,
+                            Collectors.mapping( entryResponse -> entryResponse._response, Collectors.toList( ) ) ) );
+
             for ( FormQuestionResponse formQuestionResponse : formQuestionResponsesList )
             {
-                List<FormQuestionEntryResponse> entryResponseList = listFormQuestionEntryResponse.stream( )
-                        .filter( entry -> entry._nIdQuestionResponse == formQuestionResponse.getId( ) ).collect( Collectors.toList( ) );
-                formQuestionResponse.setEntryResponse( entryResponseList.stream( ).map( entryResponse -> entryResponse._response ).filter( Objects::nonNull )
-                        .collect( Collectors.toList( ) ) );
+                formQuestionResponse.setEntryResponse( mapEntryResponseByQuestionResponse.getOrDefault( formQuestionResponse.getId( ), new ArrayList<>( ) ) );
             }
         }
     }
@@ -525,6 +668,7 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
         private int _nId;
         private int _nIdQuestionResponse;
         private Response _response;
+        private boolean _bUnique;
     }
 
     /**
@@ -539,6 +683,7 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
         private static final String SQL_QUERY_INSERT_ENTRY_RESPONSE = "INSERT INTO forms_question_entry_response ( id_question_response, id_entry_response ) VALUES ( ?, ? ) ";
         private static final String SQL_QUERY_DELETE_QUESTION_ENTRY_RESPONSE = "DELETE FROM forms_question_entry_response WHERE id_question_entry_response = ?";
         private static final String SQL_QUERY_SELECT_IN = SQL_QUERY_SELECT_ALL + " WHERE id_question_response IN ( ";
+        private static final String SQL_QUERY_DELETE_IN = "DELETE FROM forms_question_entry_response WHERE id_question_response IN ( ";
 
         /**
          * Selects the form question entry responses for the specified form question response
@@ -602,16 +747,21 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
                     listFormQuestionEntryResponse.add( dataToObjectWithoutResponse( daoUtil ) );
                 }
             }
+            if ( listFormQuestionEntryResponse.isEmpty( ) )
+            {
+                return listFormQuestionEntryResponse;
+            }
+
             ResponseFilter filter = new ResponseFilter( );
             filter.setListId( listFormQuestionEntryResponse.stream( ).map( entryReponse -> entryReponse._response.getIdResponse( ) ).distinct( )
                     .collect( Collectors.toList( ) ) );
 
-            List<Response> responseList = ResponseHome.getResponseList( filter );
+            Map<Integer, Response> mapResponse = ResponseHome.getResponseList( filter ).stream( )
+                    .collect( Collectors.toMap( Response::getIdResponse, response -> response, ( response1, response2 ) -> response1 ) );
 
             for ( FormQuestionEntryResponse formQuestionEntryResponse : listFormQuestionEntryResponse )
             {
-                Integer responseId = formQuestionEntryResponse._response.getIdResponse( );
-                formQuestionEntryResponse._response = responseList.stream( ).filter( resp -> resp.getIdResponse( ) == responseId ).findFirst( ).orElse( null );
+                formQuestionEntryResponse._response = mapResponse.get( formQuestionEntryResponse._response.getIdResponse( ) );
             }
 
             return listFormQuestionEntryResponse;
@@ -655,6 +805,10 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
         private void insert( FormQuestionEntryResponse formQuestionEntryResponse, Plugin plugin )
         {
             ResponseHome.create( formQuestionEntryResponse._response );
+            if ( formQuestionEntryResponse._bUnique )
+            {
+                ResponseUniqueValueHome.create( formQuestionEntryResponse._response );
+            }
 
             DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT_ENTRY_RESPONSE, Statement.RETURN_GENERATED_KEYS, plugin );
 
@@ -667,6 +821,53 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
             daoUtil.close( );
         }
 
+        /**
+         * Inserts the specified form question entry responses. The entry responses are created one by one, the links are inserted with a batch of
+         * statements
+         * 
+         * @param listFormQuestionEntryResponse
+         *            the form question entry responses to insert
+         * @param plugin
+         *            the plugin
+         */
+        private void insertList( List<FormQuestionEntryResponse> listFormQuestionEntryResponse, Plugin plugin )
+        {
+            if ( listFormQuestionEntryResponse.isEmpty( ) )
+            {
+                return;
+            }
+
+            for ( FormQuestionEntryResponse formQuestionEntryResponse : listFormQuestionEntryResponse )
+            {
+                ResponseHome.create( formQuestionEntryResponse._response );
+                if ( formQuestionEntryResponse._bUnique )
+                {
+                    ResponseUniqueValueHome.create( formQuestionEntryResponse._response );
+                }
+            }
+
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT_ENTRY_RESPONSE, Statement.RETURN_GENERATED_KEYS, plugin ) )
+            {
+                for ( FormQuestionEntryResponse formQuestionEntryResponse : listFormQuestionEntryResponse )
+                {
+                    int nIndex = 0;
+                    daoUtil.setInt( ++nIndex, formQuestionEntryResponse._nIdQuestionResponse );
+                    daoUtil.setInt( ++nIndex, formQuestionEntryResponse._response.getIdResponse( ) );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+
+                for ( FormQuestionEntryResponse formQuestionEntryResponse : listFormQuestionEntryResponse )
+                {
+                    if ( !daoUtil.nextGeneratedKey( ) )
+                    {
+                        throw new AppException( "Missing generated keys for the batch of form question entry responses" );
+                    }
+                    formQuestionEntryResponse._nId = daoUtil.getGeneratedKeyInt( 1 );
+                }
+            }
+        }
+
         /**
          * Deletes the specified form question entry response
          * 
@@ -686,10 +887,61 @@ public final class FormQuestionResponseDAO implements IFormQuestionResponseDAO
 
             if ( formQuestionEntryResponse._response != null )
             {
+                ResponseUniqueValueHome.remove( formQuestionEntryResponse._response.getIdResponse( ) );
                 ResponseHome.remove( formQuestionEntryResponse._response.getIdResponse( ) );
             }
         }
 
+        /**
+         * Deletes the form question entry responses of the specified form question responses, and the associated entry responses
+         * 
+         * @param formQuestionResponseList
+         *            the form question response list
+         * @param plugin
+         *            the plugin
+         */
+        private void deleteByFormQuestionResponseList( List<FormQuestionResponse> formQuestionResponseList, Plugin plugin )
+        {
+            List<Integer> idList = formQuestionResponseList.stream( ).map( FormQuestionResponse::getId ).distinct( ).collect( Collectors.toList( ) );
+            String strParameters = idList.stream( ).map( i -> "?" ).collect( Collectors.joining( "," ) ) + " )";
+
+            List<Integer> listIdResponse = new ArrayList<>( );
+
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_IN + strParameters, plugin ) )
+            {
+                for ( int i = 0; i < idList.size( ); i++ )
+                {
+                    daoUtil.setInt( i + 1, idList.get( i ) );
+                }
+                daoUtil.executeQuery( );
+
+                while ( daoUtil.next( ) )
+                {
+                    listIdResponse.add( dataToObjectWithoutResponse( daoUtil )._response.getIdResponse( ) );
+                }
+            }
+
+            if ( listIdResponse.isEmpty( ) )
+            {
+                return;
+            }
+
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_IN + strParameters, plugin ) )
+            {
+                for ( int i = 0; i < idList.size( ); i++ )
+                {
+                    daoUtil.setInt( i + 1, idList.get( i ) );
+                }
+                daoUtil.executeUpdate( );
+            }
+
+            for ( Integer nIdResponse : listIdResponse )
+            {
+                ResponseUniqueValueHome.remove( nIdResponse );
+                ResponseHome.remove( nIdResponse );
+            }
+        }
+
         /**
          * Creates a form question entry response from the specified {@code DAOUtil} object
          * 
@@ -95,6 +95,50 @@ public final class FormQuestionResponseHome
         _dao.delete( formQuestionResponse, _plugin );
     }
 
+    /**
+     * Create the formQuestionResponses of the specified list with batches of statements
+     * 
+     * @param listFormQuestionResponse
+     *            The formQuestionResponses to create, which receive their primary key
+     */
+    public static void createList( List<FormQuestionResponse> listFormQuestionResponse )
+    {
+        _dao.insertList( listFormQuestionResponse, _plugin );
+    }
+
+    /**
+     * Update the formQuestionResponses of the specified list with a batch of statements. The entry responses are not updated
+     * 
+     * @param listFormQuestionResponse
+     *            The formQuestionResponses to update
+     */
+    public static void updateList( List<FormQuestionResponse> listFormQuestionResponse )
+    {
+        _dao.storeList( listFormQuestionResponse, _plugin );
+    }
+
+    /**
+     * Replace the entry responses of the specified formQuestionResponses by their new entry responses
+     * 
+     * @param listFormQuestionResponse
+     *            The formQuestionResponses containing the new entry responses
+     */
+    public static void updateEntryResponses( List<FormQuestionResponse> listFormQuestionResponse )
+    {
+        _dao.storeEntryResponses( listFormQuestionResponse, _plugin );
+    }
+
+    /**
+     * Remove the formQuestionResponses of the specified list
+     * 
+     * @param listFormQuestionResponse
+     *            The formQuestionResponses to remove
+     */
+    public static void removeList( List<FormQuestionResponse> listFormQuestionResponse )
+    {
+        _dao.deleteList( listFormQuestionResponse, _plugin );
+    }
+
     /**
      * Remove the formQuestionResponse related to a Question whose identifier is specified in parameter
      * 
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.sql.Date;
+
+/**
+ * The number of submitted responses of a form on a given day
+ */
+public class FormResponseCount
+{
+    private int _nIdForm;
+    private Date _dateDay;
+    private int _nCount;
+
+    /**
+     * Constructor
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param dateDay
+     *            the day
+     * @param nCount
+     *            the number of responses
+     */
+    public FormResponseCount( int nIdForm, Date dateDay, int nCount )
+    {
+        _nIdForm = nIdForm;
+        _dateDay = dateDay;
+        _nCount = nCount;
+    }
+
+    /**
+     * @return the form identifier
+     */
+    public int getIdForm( )
+    {
+        return _nIdForm;
+    }
+
+    /**
+     * @return the day
+     */
+    public Date getDay( )
+    {
+        return _dateDay;
+    }
+
+    /**
+     * @return the number of responses
+     */
+    public int getCount( )
+    {
+        return _nCount;
+    }
+
+    /**
+     * @param nCount
+     *            the number of responses
+     */
+    public void setCount( int nCount )
+    {
+        _nCount = nCount;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * This class provides Data Access methods for the counters of the responses of the forms
+ */
+public final class FormResponseCountDAO implements IFormResponseCountDAO
+{
+    // Constants
+    private static final String SQL_QUERY_INSERT = "INSERT INTO forms_response_count ( id_form, response_day, nb_response ) VALUES ( ?, CAST( ? AS DATE ), ? ) ";
+    private static final String SQL_QUERY_INCREMENT = "UPDATE forms_response_count SET nb_response = nb_response + ? WHERE id_form = ? AND response_day = CAST( ? AS DATE )";
+    private static final String SQL_QUERY_COMPARE_AND_SET = "UPDATE forms_response_count SET nb_response = ? WHERE id_form = ? AND response_day = ? AND nb_response = ?";
+    private static final String SQL_QUERY_DELETE_BY_FORM = "DELETE FROM forms_response_count WHERE id_form = ? ";
+    private static final String SQL_QUERY_SELECT_COUNT = "SELECT SUM( nb_response ) FROM forms_response_count WHERE id_form = ?";
+    private static final String SQL_QUERY_SELECT_COUNT_BY_FORM = "SELECT id_form, SUM( nb_response ) FROM forms_response_count GROUP BY id_form";
+    private static final String SQL_QUERY_SELECTALL = "SELECT id_form, response_day, nb_response FROM forms_response_count";
+    private static final String SQL_QUERY_COUNT_RESPONSES = "SELECT id_form, CAST( creation_date AS DATE ), COUNT( id_response ) FROM forms_response WHERE from_save = 0 GROUP BY id_form, CAST( creation_date AS DATE )";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( int nIdForm, Timestamp timestampDay, int nCount, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            int nIndex = 0;
+            daoUtil.setInt( ++nIndex, nIdForm );
+            daoUtil.setTimestamp( ++nIndex, timestampDay );
+            daoUtil.setInt( ++nIndex, nCount );
+
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean increment( int nIdForm, Timestamp timestampDay, int nDelta, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INCREMENT, plugin ) )
+        {
+            int nIndex = 0;
+            daoUtil.setInt( ++nIndex, nDelta );
+            daoUtil.setInt( ++nIndex, nIdForm );
+            daoUtil.setTimestamp( ++nIndex, timestampDay );
+
+            return daoUtil.executeUpdate( ) > 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean compareAndSet( int nIdForm, Date dateDay, int nExpectedCount, int nCount, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_COMPARE_AND_SET, plugin ) )
+        {
+            int nIndex = 0;
+            daoUtil.setInt( ++nIndex, nCount );
+            daoUtil.setInt( ++nIndex, nIdForm );
+            daoUtil.setDate( ++nIndex, dateDay );
+            daoUtil.setInt( ++nIndex, nExpectedCount );
+
+            return daoUtil.executeUpdate( ) > 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteByForm( int nIdForm, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_BY_FORM, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdForm );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int selectCount( int nIdForm, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_COUNT, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdForm );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                return daoUtil.getInt( 1 );
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, Integer> selectCountByForm( Plugin plugin )
+    {
+        Map<Integer, Integer> mapCounts = new HashMap<>( );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_COUNT_BY_FORM, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                mapCounts.put( daoUtil.getInt( 1 ), daoUtil.getInt( 2 ) );
+            }
+        }
+
+        return mapCounts;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<FormResponseCount> selectAll( Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL, plugin ) )
+        {
+            return selectCounts( daoUtil );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<FormResponseCount> countResponses( Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_COUNT_RESPONSES, plugin ) )
+        {
+            return selectCounts( daoUtil );
+        }
+    }
+
+    /**
+     * Runs a query selecting the form identifier, the day and the number of responses
+     * 
+     * @param daoUtil
+     *            the prepared query
+     * @return the counts
+     */
+    private List<FormResponseCount> selectCounts( DAOUtil daoUtil )
+    {
+        List<FormResponseCount> listCounts = new ArrayList<>( );
+        daoUtil.executeQuery( );
+
+        while ( daoUtil.next( ) )
+        {
+            listCounts.add( new FormResponseCount( daoUtil.getInt( 1 ), daoUtil.getDate( 2 ), daoUtil.getInt( 3 ) ) );
+        }
+
+        return listCounts;
+    }
+}
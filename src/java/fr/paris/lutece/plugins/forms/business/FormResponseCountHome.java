@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * This class provides the management of the materialized counters of the responses of the forms. A counter is kept for each form and each day of
+ * submission, so that the dashboards and the lists of forms read the number of responses without counting the rows of forms_response. The day of a response
+ * is always computed by the database, as by the reconciliation. The counters are updated with the responses and corrected by {@link #reconcile()}.
+ */
+public final class FormResponseCountHome
+{
+    // Static variable pointed at the DAO instance
+    private static IFormResponseCountDAO _dao = SpringContextService.getBean( "forms.formResponseCountDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "forms" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private FormResponseCountHome( )
+    {
+    }
+
+    /**
+     * Counts a new submitted response. Must be called after the commit of the transaction which saves the response : each statement then only locks the
+     * counter of the day while it runs, so that the submits of a form are not serialized on this row, and a concurrent creation of the counter fails on its
+     * own without aborting the transaction of the submit. A response lost between the commit and the count is restored by {@link #reconcile()}.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param timestampCreation
+     *            the creation date of the response
+     */
+    public static void increment( int nIdForm, Timestamp timestampCreation )
+    {
+        Timestamp timestampDay = getDate( timestampCreation );
+
+        if ( _dao.increment( nIdForm, timestampDay, 1, _plugin ) )
+        {
+            return;
+        }
+
+        try
+        {
+            _dao.insert( nIdForm, timestampDay, 1, _plugin );
+        }
+        catch( AppException e )
+        {
+            AppLogService.debug( "Response counter of the form " + nIdForm + " already created for the day of " + timestampDay, e );
+            _dao.increment( nIdForm, timestampDay, 1, _plugin );
+        }
+    }
+
+    /**
+     * Uncounts a removed submitted response
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param timestampCreation
+     *            the creation date of the response
+     */
+    public static void decrement( int nIdForm, Timestamp timestampCreation )
+    {
+        _dao.increment( nIdForm, getDate( timestampCreation ), -1, _plugin );
+    }
+
+    /**
+     * Get the number of responses of a form
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @return the number of responses
+     */
+    public static int getCount( int nIdForm )
+    {
+        return _dao.selectCount( nIdForm, _plugin );
+    }
+
+    /**
+     * Get the number of responses of all the forms
+     * 
+     * @return the number of responses by form identifier. The forms without response are absent
+     */
+    public static Map<Integer, Integer> getCountByForm( )
+    {
+        return _dao.selectCountByForm( _plugin );
+    }
+
+    /**
+     * Remove the counters of a form
+     * 
+     * @param nIdForm
+     *            the form identifier
+     */
+    public static void removeByForm( int nIdForm )
+    {
+        _dao.deleteByForm( nIdForm, _plugin );
+    }
+
+    /**
+     * Corrects the counters with the responses stored in database. A counter is only set if it has not been modified since it has been read, so that a
+     * response counted meanwhile is not lost : the counter is then corrected by the next reconciliation.
+     * 
+     * @return the number of corrected counters
+     */
+    public static int reconcile( )
+    {
+        Map<String, FormResponseCount> mapCounters = new HashMap<>( );
+
+        for ( FormResponseCount counter : _dao.selectAll( _plugin ) )
+        {
+            mapCounters.put( getKey( counter ), counter );
+        }
+
+        int nCorrections = 0;
+
+        for ( FormResponseCount count : _dao.countResponses( _plugin ) )
+        {
+            FormResponseCount counter = mapCounters.remove( getKey( count ) );
+
+            if ( counter == null )
+            {
+                nCorrections += initCounter( count );
+            }
+            else
+                if ( counter.getCount( ) != count.getCount( )
+                        && _dao.compareAndSet( count.getIdForm( ), count.getDay( ), counter.getCount( ), count.getCount( ), _plugin ) )
+                {
+                    nCorrections++;
+                }
+        }
+
+        // The remaining counters have no more response
+        for ( FormResponseCount counter : mapCounters.values( ) )
+        {
+            if ( counter.getCount( ) != 0 && _dao.compareAndSet( counter.getIdForm( ), counter.getDay( ), counter.getCount( ), 0, _plugin ) )
+            {
+                nCorrections++;
+            }
+        }
+
+        return nCorrections;
+    }
+
+    /**
+     * Creates a missing counter
+     * 
+     * @param count
+     *            the counted responses
+     * @return 1 if the counter has been created, 0 if it has been created meanwhile
+     */
+    private static int initCounter( FormResponseCount count )
+    {
+        try
+        {
+            _dao.insert( count.getIdForm( ), new Timestamp( count.getDay( ).getTime( ) ), count.getCount( ), _plugin );
+
+            return 1;
+        }
+        catch( AppException e )
+        {
+            AppLogService.debug( "Response counter of the form " + count.getIdForm( ) + " already created for the day " + count.getDay( ), e );
+
+            return 0;
+        }
+    }
+
+    /**
+     * Get the key of a counter
+     * 
+     * @param count
+     *            the counter
+     * @return the key
+     */
+    private static String getKey( FormResponseCount count )
+    {
+        return count.getIdForm( ) + ":" + count.getDay( );
+    }
+
+    /**
+     * Get the date to count a response at
+     * 
+     * @param timestamp
+     *            the creation date of the response, or null for now
+     * @return the date
+     */
+    private static Timestamp getDate( Timestamp timestamp )
+    {
+        return ( timestamp != null ) ? timestamp : new Timestamp( System.currentTimeMillis( ) );
+    }
+}
@@ -51,6 +51,8 @@ public final class FormResponseDAO implements IFormResponseDAO
     // Constants
     private static final String SQL_QUERY_SELECTALL = "SELECT id_response, id_form, guid, creation_date, update_date, from_save FROM forms_response";
     private static final String SQL_QUERY_SELECT_ID = "SELECT id_response FROM forms_response";
+    private static final String SQL_QUERY_SELECT_ID_PAGE = SQL_QUERY_SELECT_ID + " WHERE id_response > ? AND from_save = 0 ORDER BY id_response LIMIT ?";
+    private static final String SQL_QUERY_COUNT_NOT_FROM_SAVE = "SELECT count(id_response) FROM forms_response WHERE from_save = 0";
     private static final String SQL_QUERY_SELECTALL_BY_ID_FORM = SQL_QUERY_SELECTALL + " WHERE id_form = ? ";
     private static final String SQL_QUERY_SELECT = SQL_QUERY_SELECTALL + " WHERE id_response = ?";
     private static final String SQL_QUERY_INSERT = "INSERT INTO forms_response ( id_form, guid, creation_date, update_date, from_save ) VALUES ( ?, ?, ?, ?, ? ) ";
@@ -86,6 +88,9 @@ public final class FormResponseDAO implements IFormResponseDAO
             {
                 formResponse.setId( daoUtil.getGeneratedKeyInt( 1 ) );
             }
+
+            formResponse.setDateCreation( timestampCurrentTime );
+            formResponse.setUpdate( timestampCurrentTime );
         }
         finally
         {
@@ -193,6 +198,46 @@ public final class FormResponseDAO implements IFormResponseDAO
         return formResponseIdList;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Integer> selectFormResponsesIdPage( int nIdFormResponseAfter, int nPageSize, Plugin plugin )
+    {
+        List<Integer> formResponseIdList = new ArrayList<>( nPageSize );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_ID_PAGE, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdFormResponseAfter );
+            daoUtil.setInt( 2, nPageSize );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                formResponseIdList.add( daoUtil.getInt( 1 ) );
+            }
+        }
+        return formResponseIdList;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countFormResponsesNotFromSave( Plugin plugin )
+    {
+        int nCount = 0;
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_COUNT_NOT_FROM_SAVE, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                nCount = daoUtil.getInt( 1 );
+            }
+        }
+        return nCount;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -33,9 +33,14 @@
  */
 package fr.paris.lutece.plugins.forms.business;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import fr.paris.lutece.plugins.forms.service.cache.FormsCacheService;
 import fr.paris.lutece.plugins.genericattributes.business.Entry;
 import fr.paris.lutece.plugins.genericattributes.business.EntryHome;
 import fr.paris.lutece.plugins.genericattributes.business.Field;
@@ -44,6 +49,7 @@ import fr.paris.lutece.plugins.genericattributes.business.Response;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
 
 /**
  * This class provides instances management methods (create, find, ...) for FormResponseHome objects
@@ -53,6 +59,7 @@ public final class FormResponseHome
     // Static variable pointed at the DAO instance
     private static IFormResponseDAO _dao = SpringContextService.getBean( "forms.formResponseDAO" );
     private static Plugin _plugin = PluginService.getPlugin( "forms" );
+    private static final int LOAD_CHUNK_SIZE = 50;
 
     /**
      * Private constructor - this class need not be instantiated
@@ -97,7 +104,16 @@ public final class FormResponseHome
      */
     public static void remove( int nKey )
     {
+        FormResponse formResponse = _dao.load( nKey, _plugin );
+
         _dao.delete( nKey, _plugin );
+
+        if ( formResponse != null && !formResponse.isFromSave( ) )
+        {
+            FormResponseCountHome.decrement( formResponse.getFormId( ), formResponse.getCreation( ) );
+            FormResponseQuotaHome.release( formResponse.getFormId( ), formResponse.getGuid( ) );
+            FormsCacheService.getInstance( ).onFormResponseRemoved( formResponse.getFormId( ) );
+        }
     }
 
     /**
@@ -137,59 +153,153 @@ public final class FormResponseHome
      */
     public static FormResponse findByPrimaryKeyForIndex( int nKey )
     {
-        // FormResponse
-        FormResponse formResponse = _dao.load( nKey, _plugin );
-        if ( formResponse.isFromSave( ) )
+        List<FormResponse> listFormResponse = findByPrimaryKeyListForIndex( Collections.singletonList( nKey ) );
+        if ( listFormResponse.isEmpty( ) )
         {
             return null;
         }
+        return listFormResponse.get( 0 );
+    }
+
+    /**
+     * Returns the formResponses whose identifiers are specified in parameter, with their steps, question responses, questions, entries and fields. The
+     * formResponses are loaded by chunks, with a fixed number of queries per chunk. The backups are not returned.
+     * 
+     * @param listIdFormResponse
+     *            The formResponse primary keys
+     * @return the formResponses, in the order of the given primary keys
+     */
+    public static List<FormResponse> findByPrimaryKeyListForIndex( List<Integer> listIdFormResponse )
+    {
+        Map<Integer, FormResponse> mapFormResponse = new HashMap<>( );
+        for ( int nFrom = 0; nFrom < listIdFormResponse.size( ); nFrom += LOAD_CHUNK_SIZE )
+        {
+            List<Integer> listIdChunk = listIdFormResponse.subList( nFrom, Math.min( nFrom + LOAD_CHUNK_SIZE, listIdFormResponse.size( ) ) );
+            mapFormResponse.putAll( loadChunkForIndex( listIdChunk ) );
+        }
+
+        List<FormResponse> listFormResponse = new ArrayList<>( mapFormResponse.size( ) );
+        for ( Integer nIdFormResponse : listIdFormResponse )
+        {
+            FormResponse formResponse = mapFormResponse.get( nIdFormResponse );
+            if ( formResponse != null )
+            {
+                listFormResponse.add( formResponse );
+            }
+        }
+        return listFormResponse;
+    }
+
+    /**
+     * Load a chunk of formResponses with their steps, question responses, questions, entries and fields
+     * 
+     * @param listIdFormResponse
+     *            The formResponse primary keys of the chunk
+     * @return the formResponses of the chunk by id, without the backups
+     */
+    private static Map<Integer, FormResponse> loadChunkForIndex( List<Integer> listIdFormResponse )
+    {
+        // FormResponse
+        Map<Integer, FormResponse> mapFormResponse = new HashMap<>( );
+        for ( FormResponse formResponse : _dao.selectFormResponseByPrimaryKeyList( listIdFormResponse, _plugin ) )
+        {
+            if ( !formResponse.isFromSave( ) )
+            {
+                formResponse.setSteps( new ArrayList<>( ) );
+                mapFormResponse.put( formResponse.getId( ), formResponse );
+            }
+        }
+        if ( mapFormResponse.isEmpty( ) )
+        {
+            return mapFormResponse;
+        }
+        List<Integer> listIdFormResponseToLoad = new ArrayList<>( mapFormResponse.keySet( ) );
 
-        // FormResponseStep
-        List<FormResponseStep> formResponseStepList = FormResponseStepHome.findStepsByFormResponsePartial( formResponse.getId( ) );
-        formResponse.setSteps( formResponseStepList );
+        // FormResponseStep, by form response and step
+        Map<Integer, Map<Integer, FormResponseStep>> mapFormResponseStep = new HashMap<>( );
+        for ( FormResponseStep formResponseStep : FormResponseStepHome.findStepsByFormResponseListPartial( listIdFormResponseToLoad ) )
+        {
+            formResponseStep.setQuestions( new ArrayList<>( ) );
+            mapFormResponse.get( formResponseStep.getFormResponseId( ) ).getSteps( ).add( formResponseStep );
+            mapFormResponseStep.computeIfAbsent( formResponseStep.getFormResponseId( ), nId -> new HashMap<>( ) ).put( formResponseStep.getStep( ).getId( ),
+                    formResponseStep );
+        }
 
         // FormQuestionResponse
         List<FormQuestionResponse> formQuestionResponseList = FormQuestionResponseHome
-                .selectFormQuestionResponseListByListFormResponseStep( formResponseStepList );
+                .getFormQuestionResponseListByFormResponseList( listIdFormResponseToLoad );
 
-        // Questions
-        List<Question> questionList = QuestionHome.findByPrimaryKeyList( formQuestionResponseList.stream( ).map( FormQuestionResponse::getQuestion )
-                .map( Question::getId ).distinct( ).collect( Collectors.toList( ) ) );
-        List<Entry> entryList = EntryHome
-                .findByPrimaryKeyList( questionList.stream( ).map( Question::getIdEntry ).distinct( ).collect( Collectors.toList( ) ) );
-        List<Field> fieldList = FieldHome.getFieldListByListIdEntry( entryList.stream( ).map( Entry::getIdEntry ).collect( Collectors.toList( ) ) );
+        // Questions, entries and fields
+        List<Integer> listIdQuestion = formQuestionResponseList.stream( ).map( fqr -> fqr.getQuestion( ).getId( ) ).distinct( ).collect( Collectors.toList( ) );
+        Map<Integer, Question> mapQuestion = QuestionHome.findByPrimaryKeyList( listIdQuestion ).stream( )
+                .collect( Collectors.toMap( Question::getId, question -> question, ( question1, question2 ) -> question1 ) );
+        List<Integer> listIdEntry = mapQuestion.values( ).stream( ).map( Question::getIdEntry ).distinct( ).collect( Collectors.toList( ) );
+        Map<Integer, Entry> mapEntry = listIdEntry.isEmpty( ) ? new HashMap<>( )
+                : EntryHome.findByPrimaryKeyList( listIdEntry ).stream( )
+                        .collect( Collectors.toMap( Entry::getIdEntry, entry -> entry, ( entry1, entry2 ) -> entry1 ) );
+        List<Field> fieldList = mapEntry.isEmpty( ) ? new ArrayList<>( ) : FieldHome.getFieldListByListIdEntry( new ArrayList<>( mapEntry.keySet( ) ) );
+        Map<Integer, Field> mapField = fieldList.stream( ).collect( Collectors.toMap( Field::getIdField, field -> field, ( field1, field2 ) -> field1 ) );
+        Map<Integer, List<Field>> mapFieldByEntry = fieldList.stream( ).collect( Collectors.groupingBy( field -> field.getParentEntry( ).getIdEntry( ) ) );
 
-        for ( Entry entry : entryList )
+        for ( Entry entry : mapEntry.values( ) )
         {
-            entry.setFields(
-                    fieldList.stream( ).filter( ( Field f ) -> f.getParentEntry( ).getIdEntry( ) == entry.getIdEntry( ) ).collect( Collectors.toList( ) ) );
+            entry.setFields( mapFieldByEntry.getOrDefault( entry.getIdEntry( ), new ArrayList<>( ) ) );
         }
-        for ( Question question : questionList )
+        for ( Question question : mapQuestion.values( ) )
         {
-            question.setEntry( entryList.stream( ).filter( entry -> entry.getIdEntry( ) == question.getIdEntry( ) ).findFirst( ).orElse( null ) );
+            question.setEntry( mapEntry.get( question.getIdEntry( ) ) );
         }
 
-        // Populate FormQuestionResponse
+        // Populate FormQuestionResponse and FormResponseStep
         for ( FormQuestionResponse fqr : formQuestionResponseList )
         {
-            fqr.setQuestion( questionList.stream( ).filter( q -> q.getId( ) == fqr.getQuestion( ).getId( ) ).findFirst( ).orElse( null ) );
+            // Each response gets its own copy of the shared question, holding the iteration number of the response
+            Question question = mapQuestion.get( fqr.getQuestion( ).getId( ) );
+            if ( question != null )
+            {
+                fqr.setQuestion( copyQuestion( question, fqr.getQuestion( ).getIterationNumber( ) ) );
+            }
 
             for ( Response resp : fqr.getEntryResponse( ) )
             {
                 if ( resp.getField( ) != null )
                 {
-                    resp.setField( fieldList.stream( ).filter( ( Field f ) -> f.getIdField( ) == resp.getField( ).getIdField( ) ).findFirst( ).orElse( null ) );
+                    resp.setField( mapField.get( resp.getField( ).getIdField( ) ) );
                 }
             }
+
+            FormResponseStep formResponseStep = mapFormResponseStep.getOrDefault( fqr.getIdFormResponse( ), Collections.emptyMap( ) ).get( fqr.getIdStep( ) );
+            if ( formResponseStep != null )
+            {
+                formResponseStep.getQuestions( ).add( fqr );
+            }
         }
+        return mapFormResponse;
+    }
 
-        // Populate FormResponseStep
-        for ( FormResponseStep formQuestionStep : formResponseStepList )
+    /**
+     * Copy a question loaded once for a chunk, so that the iteration number of a question response is not shared with the other responses
+     * 
+     * @param question
+     *            the question of the chunk
+     * @param nIterationNumber
+     *            the iteration number of the question response
+     * @return the copy of the question
+     */
+    private static Question copyQuestion( Question question, int nIterationNumber )
+    {
+        Question questionCopy;
+        try
         {
-            formQuestionStep.setQuestions( formQuestionResponseList.stream( ).filter( fqr -> formQuestionStep.getStep( ).getId( ) == fqr.getIdStep( ) )
-                    .collect( Collectors.toList( ) ) );
+            questionCopy = question.clone( );
         }
-        return formResponse;
+        catch( CloneNotSupportedException e )
+        {
+            throw new AppException( "Unable to copy the question " + question.getId( ), e );
+        }
+        questionCopy.setIterationNumber( nIterationNumber );
+
+        return questionCopy;
     }
 
     /**
@@ -229,6 +339,30 @@ public final class FormResponseHome
         return _dao.selectAllFormResponsesId( _plugin );
     }
 
+    /**
+     * Returns a page of the ids of the formResponses which are not backups, ordered by id
+     * 
+     * @param nIdFormResponseAfter
+     *            the id after which the page starts
+     * @param nPageSize
+     *            the maximum number of ids to return
+     * @return the formResponse ids of the page
+     */
+    public static List<Integer> selectFormResponsesIdPage( int nIdFormResponseAfter, int nPageSize )
+    {
+        return _dao.selectFormResponsesIdPage( nIdFormResponseAfter, nPageSize, _plugin );
+    }
+
+    /**
+     * Count the formResponses which are not backups
+     * 
+     * @return the number of formResponses which are not backups
+     */
+    public static int countFormResponsesNotFromSave( )
+    {
+        return _dao.countFormResponsesNotFromSave( _plugin );
+    }
+
     /**
      * Returns all the formResponse objects, completed with the steps
      * 
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * This class provides Data Access methods for the form response quotas
+ */
+public final class FormResponseQuotaDAO implements IFormResponseQuotaDAO
+{
+    // Constants
+    private static final String SQL_QUERY_SELECT = "SELECT nb_response FROM forms_response_quota WHERE id_form = ? AND guid = ?";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO forms_response_quota ( id_form, guid, nb_response ) VALUES ( ?, ?, ? ) ";
+    private static final String SQL_QUERY_INCREMENT = "UPDATE forms_response_quota SET nb_response = nb_response + 1 WHERE id_form = ? AND guid = ? AND nb_response < ?";
+    private static final String SQL_QUERY_DECREMENT = "UPDATE forms_response_quota SET nb_response = nb_response - 1 WHERE id_form = ? AND guid = ? AND nb_response > 0";
+    private static final String SQL_QUERY_DELETE_BY_FORM = "DELETE FROM forms_response_quota WHERE id_form = ? ";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( int nIdForm, String strGuid, int nNumberResponse, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            int nIndex = 0;
+            daoUtil.setInt( ++nIndex, nIdForm );
+            daoUtil.setString( ++nIndex, strGuid );
+            daoUtil.setInt( ++nIndex, nNumberResponse );
+
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean incrementIfBelow( int nIdForm, String strGuid, int nLimit, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INCREMENT, plugin ) )
+        {
+            int nIndex = 0;
+            daoUtil.setInt( ++nIndex, nIdForm );
+            daoUtil.setString( ++nIndex, strGuid );
+            daoUtil.setInt( ++nIndex, nLimit );
+
+            return daoUtil.executeUpdate( ) > 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void decrement( int nIdForm, String strGuid, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DECREMENT, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdForm );
+            daoUtil.setString( 2, strGuid );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteByForm( int nIdForm, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_BY_FORM, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdForm );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Integer load( int nIdForm, String strGuid, Plugin plugin )
+    {
+        Integer nNumberResponse = null;
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdForm );
+            daoUtil.setString( 2, strGuid );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                nNumberResponse = daoUtil.getInt( 1 );
+            }
+        }
+
+        return nNumberResponse;
+    }
+}
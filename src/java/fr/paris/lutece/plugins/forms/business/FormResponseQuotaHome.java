@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import org.apache.commons.lang3.StringUtils;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * This class provides the management of the response quotas of the forms. A quota is an atomic counter stored in database, for the whole form or for a
+ * form and a user, so that the response limits hold across all the servers of a cluster.
+ */
+public final class FormResponseQuotaHome
+{
+    // Static variable pointed at the DAO instance
+    private static IFormResponseQuotaDAO _dao = SpringContextService.getBean( "forms.formResponseQuotaDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "forms" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private FormResponseQuotaHome( )
+    {
+    }
+
+    /**
+     * Creates the counter of a quota if it does not exist yet. Must be called outside of the transaction which saves the response : the counter is created in
+     * its own statement, so that a concurrent creation by another server fails on its own and never aborts nor locks the transaction of the submit.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the user guid, or null for the quota of the whole form
+     */
+    public static void prepare( int nIdForm, String strGuid )
+    {
+        String strCounterGuid = StringUtils.defaultString( strGuid );
+
+        if ( _dao.load( nIdForm, strCounterGuid, _plugin ) == null )
+        {
+            initQuota( nIdForm, strCounterGuid );
+        }
+    }
+
+    /**
+     * Consumes one response of the quota of a form. Must be called inside the transaction which saves the response, after
+     * {@link #prepare(int, String)} : the counter row stays locked until the end of the transaction and is restored by a rollback.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the user guid, or null for the quota of the whole form
+     * @param nLimit
+     *            the maximum number of responses
+     * @return true if the response has been counted, false if the limit is reached
+     */
+    public static boolean consume( int nIdForm, String strGuid, int nLimit )
+    {
+        String strCounterGuid = StringUtils.defaultString( strGuid );
+
+        if ( _dao.incrementIfBelow( nIdForm, strCounterGuid, nLimit, _plugin ) )
+        {
+            return true;
+        }
+
+        if ( _dao.load( nIdForm, strCounterGuid, _plugin ) == null )
+        {
+            // The counter has been removed since it was prepared : fall back on the stored responses
+            AppLogService.error( "Quota counter of the form " + nIdForm + " not found, the stored responses are counted instead" );
+
+            return countResponses( nIdForm, strCounterGuid ) < nLimit;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gives back one response to the quotas of a form, when a response is removed
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the guid of the user who submitted the response, or null
+     */
+    public static void release( int nIdForm, String strGuid )
+    {
+        _dao.decrement( nIdForm, StringUtils.EMPTY, _plugin );
+
+        if ( StringUtils.isNotEmpty( strGuid ) )
+        {
+            _dao.decrement( nIdForm, strGuid, _plugin );
+        }
+    }
+
+    /**
+     * Check if the quota of a form is reached. This check does not lock anything : the limit is only guaranteed by {@link #consume(int, String, int)}.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the user guid, or null for the quota of the whole form
+     * @param nLimit
+     *            the maximum number of responses
+     * @return true if the limit is reached, false otherwise
+     */
+    public static boolean isReached( int nIdForm, String strGuid, int nLimit )
+    {
+        String strCounterGuid = StringUtils.defaultString( strGuid );
+        Integer nNumberResponse = _dao.load( nIdForm, strCounterGuid, _plugin );
+
+        if ( nNumberResponse == null )
+        {
+            nNumberResponse = countResponses( nIdForm, strCounterGuid );
+        }
+
+        return nNumberResponse >= nLimit;
+    }
+
+    /**
+     * Remove the quotas of a form
+     * 
+     * @param nIdForm
+     *            the form identifier
+     */
+    public static void removeByForm( int nIdForm )
+    {
+        _dao.deleteByForm( nIdForm, _plugin );
+    }
+
+    /**
+     * Creates the counter of a quota from the responses already stored. If another server creates the same counter at the same time, its counter is kept.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strCounterGuid
+     *            the user guid, or an empty string for the counter of the whole form
+     */
+    private static void initQuota( int nIdForm, String strCounterGuid )
+    {
+        try
+        {
+            _dao.insert( nIdForm, strCounterGuid, countResponses( nIdForm, strCounterGuid ), _plugin );
+        }
+        catch( AppException e )
+        {
+            AppLogService.debug( "Quota counter of the form " + nIdForm + " already created", e );
+        }
+    }
+
+    /**
+     * Counts the responses already stored for a quota
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strCounterGuid
+     *            the user guid, or an empty string for the counter of the whole form
+     * @return the number of responses
+     */
+    private static int countResponses( int nIdForm, String strCounterGuid )
+    {
+        if ( strCounterGuid.isEmpty( ) )
+        {
+            return FormHome.getNumberOfResponseForms( nIdForm );
+        }
+
+        return FormHome.getNumberOfResponseFormByUser( nIdForm, strCounterGuid );
+    }
+}
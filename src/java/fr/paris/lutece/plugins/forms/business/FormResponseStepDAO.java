@@ -36,8 +36,12 @@ package fr.paris.lutece.plugins.forms.business;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.collections.CollectionUtils;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.sql.DAOUtil;
 
 /**
@@ -52,8 +56,11 @@ public final class FormResponseStepDAO implements IFormResponseStepDAO
     private static final String SQL_QUERY_DELETE = "DELETE FROM forms_response_step WHERE id = ? ";
     private static final String SQL_QUERY_DELETE_BY_FORM_RESPONSE = "DELETE FROM forms_response_step WHERE id_form_response = ? ";
     private static final String SQL_QUERY_DELETE_BY_STEP = "DELETE FROM forms_response_step WHERE id_step = ? ";
+    private static final String SQL_QUERY_DELETE_BY_LIST_ID = "DELETE FROM forms_response_step WHERE id IN ( ";
     private static final String SQL_QUERY_UPDATE = "UPDATE forms_response_step SET id_form_response = ?, id_step = ?, order_response = ? WHERE id = ?";
     private static final String SQL_QUERY_SELECT_BY_ID_RESPONSE = SQL_QUERY_SELECTALL + " WHERE id_form_response = ? ORDER BY order_response ASC";
+    private static final String SQL_QUERY_SELECT_BY_LIST_ID_RESPONSE = SQL_QUERY_SELECTALL + " WHERE id_form_response IN ( ";
+    private static final String SQL_QUERY_ORDER_BY_RESPONSE_AND_ORDER = " ) ORDER BY id_form_response ASC, order_response ASC";
 
     /**
      * {@inheritDoc }
@@ -142,6 +149,89 @@ public final class FormResponseStepDAO implements IFormResponseStepDAO
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insertList( List<FormResponseStep> listFormResponseStep, Plugin plugin )
+    {
+        if ( CollectionUtils.isEmpty( listFormResponseStep ) )
+        {
+            return;
+        }
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+        {
+            for ( FormResponseStep formResponseStep : listFormResponseStep )
+            {
+                int nIndex = 1;
+                daoUtil.setInt( nIndex++, formResponseStep.getFormResponseId( ) );
+                daoUtil.setInt( nIndex++, formResponseStep.getStep( ).getId( ) );
+                daoUtil.setInt( nIndex, formResponseStep.getOrder( ) );
+                daoUtil.addBatch( );
+            }
+            daoUtil.executeBatch( );
+
+            for ( FormResponseStep formResponseStep : listFormResponseStep )
+            {
+                if ( !daoUtil.nextGeneratedKey( ) )
+                {
+                    throw new AppException( "Missing generated keys for the batch of " + listFormResponseStep.size( ) + " form response steps" );
+                }
+                formResponseStep.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeList( List<FormResponseStep> listFormResponseStep, Plugin plugin )
+    {
+        if ( CollectionUtils.isEmpty( listFormResponseStep ) )
+        {
+            return;
+        }
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+        {
+            for ( FormResponseStep formResponseStep : listFormResponseStep )
+            {
+                int nIndex = 1;
+                daoUtil.setInt( nIndex++, formResponseStep.getFormResponseId( ) );
+                daoUtil.setInt( nIndex++, formResponseStep.getStep( ).getId( ) );
+                daoUtil.setInt( nIndex++, formResponseStep.getOrder( ) );
+
+                daoUtil.setInt( nIndex, formResponseStep.getId( ) );
+                daoUtil.addBatch( );
+            }
+            daoUtil.executeBatch( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteList( List<Integer> listIdFormResponseStep, Plugin plugin )
+    {
+        if ( CollectionUtils.isEmpty( listIdFormResponseStep ) )
+        {
+            return;
+        }
+
+        String query = SQL_QUERY_DELETE_BY_LIST_ID + listIdFormResponseStep.stream( ).map( i -> "?" ).collect( Collectors.joining( "," ) ) + " )";
+        try ( DAOUtil daoUtil = new DAOUtil( query, plugin ) )
+        {
+            for ( int i = 0; i < listIdFormResponseStep.size( ); i++ )
+            {
+                daoUtil.setInt( i + 1, listIdFormResponseStep.get( i ) );
+            }
+            daoUtil.executeUpdate( );
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -202,6 +292,37 @@ public final class FormResponseStepDAO implements IFormResponseStepDAO
         return listIdStep;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<FormResponseStep> selectFormResponseStepsByFormResponseList( List<Integer> listIdFormResponse, Plugin plugin )
+    {
+        List<FormResponseStep> listFormResponseStep = new ArrayList<>( );
+        if ( CollectionUtils.isEmpty( listIdFormResponse ) )
+        {
+            return listFormResponseStep;
+        }
+
+        String query = SQL_QUERY_SELECT_BY_LIST_ID_RESPONSE + listIdFormResponse.stream( ).map( i -> "?" ).collect( Collectors.joining( "," ) )
+                + SQL_QUERY_ORDER_BY_RESPONSE_AND_ORDER;
+        try ( DAOUtil daoUtil = new DAOUtil( query, plugin ) )
+        {
+            for ( int i = 0; i < listIdFormResponse.size( ); i++ )
+            {
+                daoUtil.setInt( i + 1, listIdFormResponse.get( i ) );
+            }
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                listFormResponseStep.add( dataToObject( daoUtil ) );
+            }
+        }
+
+        return listFormResponseStep;
+    }
+
     /**
      * 
      * @param daoUtil
@@ -94,6 +94,39 @@ public final class FormResponseStepHome
         _dao.delete( nKey, _plugin );
     }
 
+    /**
+     * Create the formResponseSteps of the specified list with batches of statements
+     * 
+     * @param listFormResponseStep
+     *            The formResponseSteps to create, which receive their primary key
+     */
+    public static void createList( List<FormResponseStep> listFormResponseStep )
+    {
+        _dao.insertList( listFormResponseStep, _plugin );
+    }
+
+    /**
+     * Update the formResponseSteps of the specified list with a batch of statements
+     * 
+     * @param listFormResponseStep
+     *            The formResponseSteps to update
+     */
+    public static void updateList( List<FormResponseStep> listFormResponseStep )
+    {
+        _dao.storeList( listFormResponseStep, _plugin );
+    }
+
+    /**
+     * Remove the formResponseSteps whose identifiers are specified in parameter
+     * 
+     * @param listIdFormResponseStep
+     *            The formResponseStep Ids
+     */
+    public static void removeList( List<Integer> listIdFormResponseStep )
+    {
+        _dao.deleteList( listIdFormResponseStep, _plugin );
+    }
+
     /**
      * Returns an instance of a formResponseStep whose identifier is specified in parameter
      * 
@@ -238,4 +271,17 @@ public final class FormResponseStepHome
     {
         return _dao.selectFormResponseStepsByFormResponse( nIdFormResponse, _plugin );
     }
+
+    /**
+     * Load the order step list of several FormResponses <br />
+     * Doesn't load Steps and FormQuestionResponses
+     * 
+     * @param listIdFormResponse
+     *            The form response identifiers
+     * @return the list which contains the data of all the formResponseStep objects, ordered by form response and order
+     */
+    public static List<FormResponseStep> findStepsByFormResponseListPartial( List<Integer> listIdFormResponse )
+    {
+        return _dao.selectFormResponseStepsByFormResponseList( listIdFormResponse, _plugin );
+    }
 }
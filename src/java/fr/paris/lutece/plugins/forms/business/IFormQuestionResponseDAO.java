@@ -183,4 +183,45 @@ public interface IFormQuestionResponseDAO
      * @param plugin
      */
     void completeListWithEntryResponses( List<FormQuestionResponse> formQuestionResponsesList, Plugin plugin );
+
+    /**
+     * Update a list of form question responses with a batch of statements. The entry responses are not updated
+     * 
+     * @param listFormQuestionResponse
+     *            the form question responses to update
+     * @param plugin
+     *            the Plugin
+     */
+    void storeList( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin );
+
+    /**
+     * Replace the entry responses of a list of form question responses by their new entry responses
+     * 
+     * @param listFormQuestionResponse
+     *            the form question responses containing the new entry responses
+     * @param plugin
+     *            the Plugin
+     */
+    void storeEntryResponses( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin );
+
+    /**
+     * Delete a list of form question responses and their entry responses
+     * 
+     * @param listFormQuestionResponse
+     *            the form question responses to delete
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteList( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin );
+
+    /**
+     * Insert a list of form question responses and their entry responses with batches of statements. The generated keys are set on the form question
+     * responses
+     * 
+     * @param listFormQuestionResponse
+     *            the form question responses to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insertList( List<FormQuestionResponse> listFormQuestionResponse, Plugin plugin );
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+
+/**
+ * IFormResponseCountDAO Interface
+ */
+public interface IFormResponseCountDAO
+{
+    /**
+     * Insert the counter of a form and a day. The day is computed by the database from the given date, as for the counts of the stored responses.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param timestampDay
+     *            a date of the day
+     * @param nCount
+     *            the initial number of responses
+     * @param plugin
+     *            the Plugin
+     */
+    void insert( int nIdForm, Timestamp timestampDay, int nCount, Plugin plugin );
+
+    /**
+     * Add a value to the counter of a form and a day. The day is computed by the database from the given date, as for the counts of the stored responses.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param timestampDay
+     *            a date of the day
+     * @param nDelta
+     *            the value to add
+     * @param plugin
+     *            the Plugin
+     * @return true if the counter exists and has been updated
+     */
+    boolean increment( int nIdForm, Timestamp timestampDay, int nDelta, Plugin plugin );
+
+    /**
+     * Set the counter of a form and a day if it has not changed since it has been read
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param dateDay
+     *            the day
+     * @param nExpectedCount
+     *            the value read
+     * @param nCount
+     *            the new value
+     * @param plugin
+     *            the Plugin
+     * @return true if the counter has been updated
+     */
+    boolean compareAndSet( int nIdForm, Date dateDay, int nExpectedCount, int nCount, Plugin plugin );
+
+    /**
+     * Delete the counters of a form
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteByForm( int nIdForm, Plugin plugin );
+
+    /**
+     * Load the total number of responses of a form
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param plugin
+     *            the Plugin
+     * @return the number of responses
+     */
+    int selectCount( int nIdForm, Plugin plugin );
+
+    /**
+     * Load the total number of responses of each form
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return the number of responses by form identifier
+     */
+    Map<Integer, Integer> selectCountByForm( Plugin plugin );
+
+    /**
+     * Load all the counters
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return the counters
+     */
+    List<FormResponseCount> selectAll( Plugin plugin );
+
+    /**
+     * Count the submitted responses stored for each form and day
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return the counts
+     */
+    List<FormResponseCount> countResponses( Plugin plugin );
+}
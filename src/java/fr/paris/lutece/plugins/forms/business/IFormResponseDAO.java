@@ -102,6 +102,28 @@ public interface IFormResponseDAO
      */
     List<Integer> selectAllFormResponsesId( Plugin plugin );
 
+    /**
+     * Load a page of the ids of the form responses which are not backups, ordered by id
+     * 
+     * @param nIdFormResponseAfter
+     *            The id after which the page starts
+     * @param nPageSize
+     *            The maximum number of ids to load
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the ids of the page
+     */
+    List<Integer> selectFormResponsesIdPage( int nIdFormResponseAfter, int nPageSize, Plugin plugin );
+
+    /**
+     * Count the form responses which are not backups
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return the number of form responses which are not backups
+     */
+    int countFormResponsesNotFromSave( Plugin plugin );
+
     /**
      * Load the data of all the FormResponse objects and returns them as a list
      * 
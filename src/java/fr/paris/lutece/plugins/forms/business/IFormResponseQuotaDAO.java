@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+
+/**
+ * IFormResponseQuotaDAO Interface
+ */
+public interface IFormResponseQuotaDAO
+{
+    /**
+     * Insert a new quota counter in the table.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the user guid, or an empty string for the counter of the whole form
+     * @param nNumberResponse
+     *            the initial number of responses
+     * @param plugin
+     *            the Plugin
+     */
+    void insert( int nIdForm, String strGuid, int nNumberResponse, Plugin plugin );
+
+    /**
+     * Increment a quota counter only if its value is below the given limit. The update is atomic, so the limit holds whatever the number of concurrent
+     * submitters or servers.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the user guid, or an empty string for the counter of the whole form
+     * @param nLimit
+     *            the maximum number of responses
+     * @param plugin
+     *            the Plugin
+     * @return true if the counter has been incremented, false if it does not exist or the limit is reached
+     */
+    boolean incrementIfBelow( int nIdForm, String strGuid, int nLimit, Plugin plugin );
+
+    /**
+     * Decrements the counter of a quota, without going below zero
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the user guid, or an empty string for the counter of the whole form
+     * @param plugin
+     *            the plugin
+     */
+    void decrement( int nIdForm, String strGuid, Plugin plugin );
+
+    /**
+     * Delete the quota counters of a form
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteByForm( int nIdForm, Plugin plugin );
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Finders
+
+    /**
+     * Load the value of a quota counter
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param strGuid
+     *            the user guid, or an empty string for the counter of the whole form
+     * @param plugin
+     *            the Plugin
+     * @return the number of responses, or null if the counter does not exist
+     */
+    Integer load( int nIdForm, String strGuid, Plugin plugin );
+}
@@ -105,6 +105,17 @@ public interface IFormResponseStepDAO
      */
     List<FormResponseStep> selectFormResponseStepsByFormResponse( int nIdFormResponse, Plugin plugin );
 
+    /**
+     * Load the order steps list of several FormResponses
+     * 
+     * @param listIdFormResponse
+     *            The identifiers of the FormResponses
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of all the FormResponseStep objects, ordered by FormResponse and order
+     */
+    List<FormResponseStep> selectFormResponseStepsByFormResponseList( List<Integer> listIdFormResponse, Plugin plugin );
+
     /**
      * Remove all the formResponseStep linked to a given FormResponse
      * 
@@ -124,4 +135,34 @@ public interface IFormResponseStepDAO
      *            the Plugin
      */
     void deleteByStep( int nIdStep, Plugin plugin );
+
+    /**
+     * Update a list of formResponseStep with a batch of statements
+     * 
+     * @param listFormResponseStep
+     *            the formResponseSteps to update
+     * @param plugin
+     *            the Plugin
+     */
+    void storeList( List<FormResponseStep> listFormResponseStep, Plugin plugin );
+
+    /**
+     * Delete a list of formResponseStep
+     * 
+     * @param listIdFormResponseStep
+     *            The identifiers of the formResponseSteps to delete
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteList( List<Integer> listIdFormResponseStep, Plugin plugin );
+
+    /**
+     * Insert a list of formResponseStep with a batch of statements. The generated keys are set on the formResponseSteps
+     * 
+     * @param listFormResponseStep
+     *            the formResponseSteps to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insertList( List<FormResponseStep> listFormResponseStep, Plugin plugin );
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.util.List;
+
+import fr.paris.lutece.plugins.genericattributes.business.Response;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+
+/**
+ * IResponseUniqueValueDAO Interface
+ */
+public interface IResponseUniqueValueDAO
+{
+    /**
+     * Insert a new record in the table.
+     * 
+     * @param nIdEntryResponse
+     *            the identifier of the entry response
+     * @param nIdEntry
+     *            the identifier of the entry
+     * @param strCodeEntry
+     *            the code of the entry
+     * @param strValueKey
+     *            the normalized value key
+     * @param plugin
+     *            the Plugin
+     */
+    void insert( int nIdEntryResponse, int nIdEntry, String strCodeEntry, String strValueKey, Plugin plugin );
+
+    /**
+     * Delete the record of the given entry response
+     * 
+     * @param nIdEntryResponse
+     *            the identifier of the entry response
+     * @param plugin
+     *            the Plugin
+     */
+    void delete( int nIdEntryResponse, Plugin plugin );
+
+    /**
+     * Delete the records of the given entry
+     * 
+     * @param nIdEntry
+     *            the identifier of the entry
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteByEntry( int nIdEntry, Plugin plugin );
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Finders
+
+    /**
+     * Check if a value key is already stored for the given entry
+     * 
+     * @param nIdEntry
+     *            the identifier of the entry
+     * @param strValueKey
+     *            the normalized value key
+     * @param plugin
+     *            the Plugin
+     * @return true if the value key is already stored, false otherwise
+     */
+    boolean existsByEntry( int nIdEntry, String strValueKey, Plugin plugin );
+
+    /**
+     * Check if a value key is already stored for the entries of the given code
+     * 
+     * @param strCodeEntry
+     *            the code of the entry
+     * @param strValueKey
+     *            the normalized value key
+     * @param plugin
+     *            the Plugin
+     * @return true if the value key is already stored, false otherwise
+     */
+    boolean existsByCodeEntry( String strCodeEntry, String strValueKey, Plugin plugin );
+
+    /**
+     * Count the records of a value key for the given entry, locking the matching rows until the end of the current transaction
+     * 
+     * @param nIdEntry
+     *            the identifier of the entry
+     * @param strValueKey
+     *            the normalized value key
+     * @param plugin
+     *            the Plugin
+     * @return the number of records
+     */
+    int countByEntryForUpdate( int nIdEntry, String strValueKey, Plugin plugin );
+
+    /**
+     * Count the records of a value key for the entries of the given code, locking the matching rows until the end of the current transaction
+     * 
+     * @param strCodeEntry
+     *            the code of the entry
+     * @param strValueKey
+     *            the normalized value key
+     * @param plugin
+     *            the Plugin
+     * @return the number of records
+     */
+    int countByCodeEntryForUpdate( String strCodeEntry, String strValueKey, Plugin plugin );
+
+    /**
+     * Load the non empty entry responses of the questions having a control of the given validator which have no stored unique value. The responses are
+     * loaded by increasing identifier, with their entry identifier and code.
+     * 
+     * @param strValidatorName
+     *            the name of the validator of the control
+     * @param nIdResponseAfter
+     *            the identifier after which the responses are loaded
+     * @param nLimit
+     *            the maximum number of responses to load
+     * @param plugin
+     *            the Plugin
+     * @return the list of the entry responses
+     */
+    List<Response> selectResponsesWithoutValue( String strValidatorName, int nIdResponseAfter, int nLimit, Plugin plugin );
+}
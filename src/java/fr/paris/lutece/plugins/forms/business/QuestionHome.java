@@ -96,6 +96,7 @@ public final class QuestionHome
         Question questionToDelete = findByPrimaryKey( nKey );
         if ( questionToDelete != null )
         {
+            ResponseUniqueValueHome.removeByEntry( questionToDelete.getIdEntry( ) );
             EntryHome.remove( questionToDelete.getIdEntry( ) );
         }
         _dao.delete( nKey, _plugin );
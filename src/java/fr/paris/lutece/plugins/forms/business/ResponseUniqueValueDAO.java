@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.paris.lutece.plugins.genericattributes.business.Entry;
+import fr.paris.lutece.plugins.genericattributes.business.Response;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * This class provides Data Access methods for the unique values of the entry responses
+ */
+public final class ResponseUniqueValueDAO implements IResponseUniqueValueDAO
+{
+    // Constants
+    private static final String SQL_QUERY_INSERT = "INSERT INTO forms_response_unique_value ( id_entry_response, id_entry, code_entry, value_key ) VALUES ( ?, ?, ?, ? ) ";
+    private static final String SQL_QUERY_DELETE = "DELETE FROM forms_response_unique_value WHERE id_entry_response = ? ";
+    private static final String SQL_QUERY_DELETE_BY_ENTRY = "DELETE FROM forms_response_unique_value WHERE id_entry = ? ";
+    private static final String SQL_QUERY_EXISTS_BY_ENTRY = "SELECT id_entry_response FROM forms_response_unique_value WHERE id_entry = ? AND value_key = ? LIMIT 1";
+    private static final String SQL_QUERY_EXISTS_BY_CODE_ENTRY = "SELECT id_entry_response FROM forms_response_unique_value WHERE code_entry = ? AND value_key = ? LIMIT 1";
+    private static final String SQL_QUERY_SELECT_BY_ENTRY_FOR_UPDATE = "SELECT id_entry_response FROM forms_response_unique_value WHERE id_entry = ? AND value_key = ? FOR UPDATE";
+    private static final String SQL_QUERY_SELECT_BY_CODE_ENTRY_FOR_UPDATE = "SELECT id_entry_response FROM forms_response_unique_value WHERE code_entry = ? AND value_key = ? FOR UPDATE";
+    private static final String SQL_QUERY_SELECT_RESPONSES_WITHOUT_VALUE = "SELECT DISTINCT r.id_response, r.response_value, e.id_entry, e.code "
+            + " FROM forms_control fc JOIN forms_control_question fcq ON fcq.id_control = fc.id_control "
+            + " JOIN forms_question_response fqr ON fqr.id_question = fcq.id_question "
+            + " JOIN forms_question_entry_response fqer ON fqer.id_question_response = fqr.id_question_response "
+            + " JOIN genatt_response r ON r.id_response = fqer.id_entry_response JOIN genatt_entry e ON e.id_entry = r.id_entry "
+            + " WHERE fc.validator_name = ? AND r.id_response > ? AND r.response_value IS NOT NULL AND r.response_value <> '' "
+            + " AND NOT EXISTS ( SELECT 1 FROM forms_response_unique_value fruv WHERE fruv.id_entry_response = r.id_response ) "
+            + " ORDER BY r.id_response LIMIT ?";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( int nIdEntryResponse, int nIdEntry, String strCodeEntry, String strValueKey, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            int nIndex = 0;
+            daoUtil.setInt( ++nIndex, nIdEntryResponse );
+            daoUtil.setInt( ++nIndex, nIdEntry );
+            daoUtil.setString( ++nIndex, strCodeEntry );
+            daoUtil.setString( ++nIndex, strValueKey );
+
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void delete( int nIdEntryResponse, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdEntryResponse );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteByEntry( int nIdEntry, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_BY_ENTRY, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdEntry );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean existsByEntry( int nIdEntry, String strValueKey, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_EXISTS_BY_ENTRY, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdEntry );
+            daoUtil.setString( 2, strValueKey );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean existsByCodeEntry( String strCodeEntry, String strValueKey, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_EXISTS_BY_CODE_ENTRY, plugin ) )
+        {
+            daoUtil.setString( 1, strCodeEntry );
+            daoUtil.setString( 2, strValueKey );
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countByEntryForUpdate( int nIdEntry, String strValueKey, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_ENTRY_FOR_UPDATE, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdEntry );
+            daoUtil.setString( 2, strValueKey );
+            daoUtil.executeQuery( );
+
+            return count( daoUtil );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countByCodeEntryForUpdate( String strCodeEntry, String strValueKey, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_CODE_ENTRY_FOR_UPDATE, plugin ) )
+        {
+            daoUtil.setString( 1, strCodeEntry );
+            daoUtil.setString( 2, strValueKey );
+            daoUtil.executeQuery( );
+
+            return count( daoUtil );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Response> selectResponsesWithoutValue( String strValidatorName, int nIdResponseAfter, int nLimit, Plugin plugin )
+    {
+        List<Response> listResponses = new ArrayList<>( );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_RESPONSES_WITHOUT_VALUE, plugin ) )
+        {
+            daoUtil.setString( 1, strValidatorName );
+            daoUtil.setInt( 2, nIdResponseAfter );
+            daoUtil.setInt( 3, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                int nIndex = 0;
+                Response response = new Response( );
+                response.setIdResponse( daoUtil.getInt( ++nIndex ) );
+                response.setResponseValue( daoUtil.getString( ++nIndex ) );
+
+                Entry entry = new Entry( );
+                entry.setIdEntry( daoUtil.getInt( ++nIndex ) );
+                entry.setCode( daoUtil.getString( ++nIndex ) );
+                response.setEntry( entry );
+
+                listResponses.add( response );
+            }
+        }
+
+        return listResponses;
+    }
+
+    /**
+     * Count the rows of an executed query
+     * 
+     * @param daoUtil
+     *            the daoUtil
+     * @return the number of rows
+     */
+    private int count( DAOUtil daoUtil )
+    {
+        int nCount = 0;
+
+        while ( daoUtil.next( ) )
+        {
+            nCount++;
+        }
+
+        return nCount;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+
+import fr.paris.lutece.plugins.forms.util.FormsConstants;
+import fr.paris.lutece.plugins.genericattributes.business.Entry;
+import fr.paris.lutece.plugins.genericattributes.business.Response;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * This class provides instances management methods for the unique values of the entry responses. Each non empty response value is stored as a normalized
+ * key (case insensitive SHA-256 digest) so that the uniqueness of a value can be checked with an indexed lookup.
+ */
+public final class ResponseUniqueValueHome
+{
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final char [ ] HEX_DIGITS = "0123456789abcdef".toCharArray( );
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final String SQL_STATE_TRANSACTION_ROLLBACK = "40";
+    private static final int MYSQL_ERROR_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_ERROR_DEADLOCK = 1213;
+
+    // Static variable pointed at the DAO instance
+    private static IResponseUniqueValueDAO _dao = SpringContextService.getBean( "forms.responseUniqueValueDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "forms" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private ResponseUniqueValueHome( )
+    {
+    }
+
+    /**
+     * Stores the unique value of the given entry response. Responses without value are ignored.
+     * 
+     * @param response
+     *            the entry response, already created
+     */
+    public static void create( Response response )
+    {
+        Entry entry = response.getEntry( );
+
+        if ( entry != null && StringUtils.isNotEmpty( response.getResponseValue( ) ) )
+        {
+            _dao.insert( response.getIdResponse( ), entry.getIdEntry( ), entry.getCode( ), getValueKey( response.getResponseValue( ) ), _plugin );
+        }
+    }
+
+    /**
+     * Removes the unique value of the given entry response
+     * 
+     * @param nIdEntryResponse
+     *            the identifier of the entry response
+     */
+    public static void remove( int nIdEntryResponse )
+    {
+        _dao.delete( nIdEntryResponse, _plugin );
+    }
+
+    /**
+     * Removes the unique values of the given entry
+     * 
+     * @param nIdEntry
+     *            the identifier of the entry
+     */
+    public static void removeByEntry( int nIdEntry )
+    {
+        _dao.deleteByEntry( nIdEntry, _plugin );
+    }
+
+    /**
+     * Check if the value of the given response has already been submitted
+     * 
+     * @param response
+     *            the response to check
+     * @param bMultiForm
+     *            true to check all the entries sharing the code of the response entry, false to check the response entry only
+     * @return true if the value already exists, false otherwise
+     */
+    public static boolean exists( Response response, boolean bMultiForm )
+    {
+        String strValueKey = getValueKey( response.getResponseValue( ) );
+
+        if ( bMultiForm )
+        {
+            return _dao.existsByCodeEntry( response.getEntry( ).getCode( ), strValueKey, _plugin );
+        }
+
+        return _dao.existsByEntry( response.getEntry( ).getIdEntry( ), strValueKey, _plugin );
+    }
+
+    /**
+     * Check if the value of the given response, already stored, is stored more than once. The matching rows are locked until the end of the current
+     * transaction so that two concurrent submissions of the same value cannot both succeed. When two transactions storing the same value lock the row of
+     * each other, the database rolls one of them back as a deadlock victim, or makes it wait until its lock timeout : this transaction is then the one
+     * which has lost the race and its value is reported as duplicated.
+     * 
+     * @param response
+     *            the stored response to check
+     * @param bMultiForm
+     *            true to check all the entries sharing the code of the response entry, false to check the response entry only
+     * @return true if the value is duplicated, false otherwise
+     */
+    public static boolean isDuplicated( Response response, boolean bMultiForm )
+    {
+        String strValueKey = getValueKey( response.getResponseValue( ) );
+        int nCount;
+
+        try
+        {
+            if ( bMultiForm )
+            {
+                nCount = _dao.countByCodeEntryForUpdate( response.getEntry( ).getCode( ), strValueKey, _plugin );
+            }
+            else
+            {
+                nCount = _dao.countByEntryForUpdate( response.getEntry( ).getIdEntry( ), strValueKey, _plugin );
+            }
+        }
+        catch( AppException e )
+        {
+            if ( !isLockConflict( e ) )
+            {
+                throw e;
+            }
+
+            AppLogService.info( "Concurrent submission of the unique value of the entry response " + response.getIdResponse( ) + " : " + e.getMessage( ) );
+
+            return true;
+        }
+
+        return nCount > 1;
+    }
+
+    /**
+     * Tests if an exception has been raised by a lock conflict between two transactions : a deadlock (SQL state of the transaction rollback class, or MySQL
+     * error 1213) or a lock wait timeout (MySQL error 1205)
+     * 
+     * @param e
+     *            the exception raised by the DAO
+     * @return true if the exception has been caused by a lock conflict, false otherwise
+     */
+    private static boolean isLockConflict( AppException e )
+    {
+        for ( Throwable cause = e.getCause( ); cause != null; cause = cause.getCause( ) )
+        {
+            if ( cause instanceof SQLException )
+            {
+                SQLException sqlException = (SQLException) cause;
+                String strSQLState = sqlException.getSQLState( );
+
+                if ( ( strSQLState != null && strSQLState.startsWith( SQL_STATE_TRANSACTION_ROLLBACK ) )
+                        || sqlException.getErrorCode( ) == MYSQL_ERROR_DEADLOCK || sqlException.getErrorCode( ) == MYSQL_ERROR_LOCK_WAIT_TIMEOUT )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Stores the unique values of the existing responses of the questions having a unique control which have none yet, for instance the responses
+     * submitted before the upgrade or before the control was added. The keys are computed with {@link #getValueKey(String)} so that they match the keys of
+     * the new responses.
+     * 
+     * @return the number of stored values
+     */
+    public static int backfill( )
+    {
+        int nNbValues = 0;
+        int nIdResponseAfter = 0;
+        List<Response> listResponses;
+
+        do
+        {
+            listResponses = _dao.selectResponsesWithoutValue( FormsConstants.VALUE_VALIDATOR_UNIQUE_NAME, nIdResponseAfter, BACKFILL_BATCH_SIZE, _plugin );
+
+            for ( Response response : listResponses )
+            {
+                nIdResponseAfter = response.getIdResponse( );
+
+                try
+                {
+                    create( response );
+                    nNbValues++;
+                }
+                catch( AppException e )
+                {
+                    // The value may have been stored by a concurrent submission in the meantime
+                    AppLogService.error( "Unable to store the unique value of the entry response " + response.getIdResponse( ), e );
+                }
+            }
+        }
+        while ( listResponses.size( ) == BACKFILL_BATCH_SIZE );
+
+        return nNbValues;
+    }
+
+    /**
+     * Computes the normalized key of a response value
+     * 
+     * @param strValue
+     *            the response value
+     * @return the key of the value
+     */
+    public static String getValueKey( String strValue )
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance( DIGEST_ALGORITHM );
+            byte [ ] hash = digest.digest( strValue.toLowerCase( Locale.ROOT ).getBytes( StandardCharsets.UTF_8 ) );
+            char [ ] hex = new char [ hash.length * 2];
+
+            for ( int i = 0; i < hash.length; i++ )
+            {
+                hex [i * 2] = HEX_DIGITS [( hash [i] >> 4 ) & 0x0F];
+                hex [i * 2 + 1] = HEX_DIGITS [hash [i] & 0x0F];
+            }
+
+            return new String( hex );
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            throw new AppException( e.getMessage( ), e );
+        }
+    }
+}
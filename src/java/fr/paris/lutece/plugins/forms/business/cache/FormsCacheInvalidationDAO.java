@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.cache;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * This class provides Data Access methods for the invalidations of the cached form definitions
+ */
+public final class FormsCacheInvalidationDAO implements IFormsCacheInvalidationDAO
+{
+    // Constants
+    private static final String SQL_QUERY_INSERT = "INSERT INTO forms_cache_invalidation ( id_form ) VALUES ( ? ) ";
+    private static final String SQL_QUERY_SELECT_SINCE = "SELECT id_invalidation, id_form, date_invalidation FROM forms_cache_invalidation "
+            + " WHERE date_invalidation >= ? ORDER BY id_invalidation";
+    private static final String SQL_QUERY_SELECT_LAST_DATE = "SELECT MAX( date_invalidation ) FROM forms_cache_invalidation";
+    private static final String SQL_QUERY_DELETE_BEFORE = "DELETE FROM forms_cache_invalidation WHERE date_invalidation < ? ";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( int nIdForm, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdForm );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<FormsCacheInvalidation> selectInvalidationsSince( Timestamp dateFrom, Plugin plugin )
+    {
+        List<FormsCacheInvalidation> listInvalidations = new ArrayList<>( );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_SINCE, plugin ) )
+        {
+            daoUtil.setTimestamp( 1, dateFrom );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                FormsCacheInvalidation invalidation = new FormsCacheInvalidation( );
+                invalidation.setId( daoUtil.getInt( "id_invalidation" ) );
+                invalidation.setIdForm( daoUtil.getInt( "id_form" ) );
+                invalidation.setDateInvalidation( daoUtil.getTimestamp( "date_invalidation" ) );
+                listInvalidations.add( invalidation );
+            }
+        }
+
+        return listInvalidations;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Timestamp selectLastInvalidationDate( Plugin plugin )
+    {
+        Timestamp dateLastInvalidation = null;
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_LAST_DATE, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                dateLastInvalidation = daoUtil.getTimestamp( 1 );
+            }
+        }
+
+        return dateLastInvalidation;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteBefore( Timestamp dateLimit, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_BEFORE, plugin ) )
+        {
+            daoUtil.setTimestamp( 1, dateLimit );
+            daoUtil.executeUpdate( );
+        }
+    }
+}
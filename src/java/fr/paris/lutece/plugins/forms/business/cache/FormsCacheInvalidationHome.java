@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.cache;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+
+/**
+ * This class provides instances management methods for the invalidations of the cached form definitions
+ */
+public final class FormsCacheInvalidationHome
+{
+    // Static variable pointed at the DAO instance
+    private static IFormsCacheInvalidationDAO _dao = SpringContextService.getBean( "forms.formsCacheInvalidationDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "forms" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private FormsCacheInvalidationHome( )
+    {
+    }
+
+    /**
+     * Records the invalidation of a form
+     * 
+     * @param nIdForm
+     *            the identifier of the invalidated form
+     */
+    public static void create( int nIdForm )
+    {
+        _dao.insert( nIdForm, _plugin );
+    }
+
+    /**
+     * Returns the invalidations dated from a given date
+     * 
+     * @param dateFrom
+     *            the date of the first invalidation to return
+     * @return the invalidations, ordered by identifier
+     */
+    public static List<FormsCacheInvalidation> getInvalidationsSince( Timestamp dateFrom )
+    {
+        return _dao.selectInvalidationsSince( dateFrom, _plugin );
+    }
+
+    /**
+     * Returns the date of the last recorded invalidation, given by the database
+     * 
+     * @return the date, null if there is none
+     */
+    public static Timestamp getLastInvalidationDate( )
+    {
+        return _dao.selectLastInvalidationDate( _plugin );
+    }
+
+    /**
+     * Removes the invalidations older than a given date
+     * 
+     * @param dateLimit
+     *            the date limit
+     */
+    public static void removeBefore( Timestamp dateLimit )
+    {
+        _dao.deleteBefore( dateLimit, _plugin );
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.cache;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+
+/**
+ * IFormsCacheInvalidationDAO Interface
+ */
+public interface IFormsCacheInvalidationDAO
+{
+    /**
+     * Insert a new invalidation
+     * 
+     * @param nIdForm
+     *            the identifier of the invalidated form
+     * @param plugin
+     *            the Plugin
+     */
+    void insert( int nIdForm, Plugin plugin );
+
+    /**
+     * Load the invalidations dated from a given date, ordered by identifier
+     * 
+     * @param dateFrom
+     *            the date of the first invalidation to load
+     * @param plugin
+     *            the Plugin
+     * @return the list of the invalidations
+     */
+    List<FormsCacheInvalidation> selectInvalidationsSince( Timestamp dateFrom, Plugin plugin );
+
+    /**
+     * Load the date of the last invalidation
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return the date of the last invalidation, null if there is none
+     */
+    Timestamp selectLastInvalidationDate( Plugin plugin );
+
+    /**
+     * Delete the invalidations older than a given date
+     * 
+     * @param dateLimit
+     *            the date limit
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteBefore( Timestamp dateLimit, Plugin plugin );
+}
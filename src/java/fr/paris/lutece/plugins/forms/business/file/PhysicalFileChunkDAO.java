@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.file;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * This class provides Data Access methods to read the content of the physical files of the core by chunks
+ */
+public final class PhysicalFileChunkDAO implements IPhysicalFileChunkDAO
+{
+    // Constants
+    private static final String SQL_QUERY_SELECT_LENGTH = "SELECT OCTET_LENGTH( file_value ) FROM core_physical_file WHERE id_physical_file = ?";
+    private static final String SQL_QUERY_SELECT_CHUNK = "SELECT SUBSTRING( file_value, ?, ? ) FROM core_physical_file WHERE id_physical_file = ?";
+    private static final byte [ ] EMPTY_CHUNK = new byte [ 0];
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long selectLength( int nIdPhysicalFile, Plugin plugin )
+    {
+        long lLength = -1;
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_LENGTH, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdPhysicalFile );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                lLength = daoUtil.getLong( 1 );
+            }
+        }
+
+        return lLength;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public byte [ ] selectChunk( int nIdPhysicalFile, long lOffset, int nLength, Plugin plugin )
+    {
+        byte [ ] chunk = null;
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_CHUNK, plugin ) )
+        {
+            daoUtil.setLong( 1, lOffset + 1 );
+            daoUtil.setInt( 2, nLength );
+            daoUtil.setInt( 3, nIdPhysicalFile );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                chunk = daoUtil.getBytes( 1 );
+            }
+        }
+
+        return chunk != null ? chunk : EMPTY_CHUNK;
+    }
+}
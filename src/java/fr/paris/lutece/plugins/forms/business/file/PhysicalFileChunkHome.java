@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.file;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+
+/**
+ * This class provides methods to read the content of the physical files by chunks, without loading the whole content in memory
+ */
+public final class PhysicalFileChunkHome
+{
+    // Static variable pointed at the DAO instance
+    private static IPhysicalFileChunkDAO _dao = SpringContextService.getBean( "forms.physicalFileChunkDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "forms" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private PhysicalFileChunkHome( )
+    {
+    }
+
+    /**
+     * Returns the length of the content of a physical file
+     * 
+     * @param nIdPhysicalFile
+     *            the identifier of the physical file
+     * @return the length of the content in bytes, or -1 if the physical file does not exist
+     */
+    public static long getLength( int nIdPhysicalFile )
+    {
+        return _dao.selectLength( nIdPhysicalFile, _plugin );
+    }
+
+    /**
+     * Returns a chunk of the content of a physical file
+     * 
+     * @param nIdPhysicalFile
+     *            the identifier of the physical file
+     * @param lOffset
+     *            the offset of the first byte of the chunk, starting at 0
+     * @param nLength
+     *            the maximum length of the chunk
+     * @return the bytes of the chunk, empty after the end of the content
+     */
+    public static byte [ ] getChunk( int nIdPhysicalFile, long lOffset, int nLength )
+    {
+        return _dao.selectChunk( nIdPhysicalFile, lOffset, nLength, _plugin );
+    }
+}
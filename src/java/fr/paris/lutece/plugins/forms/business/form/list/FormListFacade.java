@@ -88,4 +88,31 @@ public class FormListFacade
 
         _formListDAO.populateFormColumns( formPanel, listFormColumn, listFormFilter, nStartIndex, nPageSize, sortConfig );
     }
+
+    /**
+     * Tell if a form response belongs to the given FormPanel, without populating it
+     * 
+     * @param formPanel
+     *            The FormPanel, whose initializers must be built
+     * @param nIdFormResponse
+     *            The identifier of the form response
+     * @return true if the form response belongs to the FormPanel
+     */
+    public boolean isFormResponseInPanel( FormPanel formPanel, int nIdFormResponse )
+    {
+        return _formListDAO.isFormResponseInPanel( formPanel, nIdFormResponse );
+    }
+
+    /**
+     * Set the number of FormResponseItem of each given FormPanel, without populating their columns
+     * 
+     * @param listFormPanel
+     *            The FormPanels to count the FormResponseItem of
+     * @param listFormFilter
+     *            The list of FormFilter to use
+     */
+    public void populateFormResponseItemCounts( List<FormPanel> listFormPanel, List<FormFilter> listFormFilter )
+    {
+        _formListDAO.populateFormResponseItemCounts( listFormPanel, listFormFilter );
+    }
 }
@@ -36,6 +36,7 @@ package fr.paris.lutece.plugins.forms.business.form.list;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections.CollectionUtils;
 
@@ -103,10 +104,89 @@ public class FormListLuceneDAO implements IFormListDAO
         List<IFormColumnQueryPart> listFormColumnQueryPart = buildformColumnQueryPartList( listFormColumn );
         List<IFormFilterQueryPart> listFormFilterQueryPart = buildFormFilterQueryPartList( listFormFilter, listQueryParametersValues );
 
-        List<FormResponseItem> listFormResponseItem = new ArrayList<>( );
+        return createFormResponseItemList( _formSearchEngine.getSearchResults( listFormPanelInitializerQueryPart, listFormColumnQueryPart,
+                listFormFilterQueryPart, sortConfig, nStartIndex, nPageSize, formPanel ), listFormColumnQueryPart );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void processAllFormResponseItem( FormPanel formPanel, List<IFormColumn> listFormColumn, List<FormFilter> listFormFilter,
+            FormResponseItemSortConfig sortConfig, int nChunkSize, Consumer<List<FormResponseItem>> chunkConsumer )
+    {
+        List<String> listQueryParametersValues = new ArrayList<>( );
+
+        List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart = buildFormPanelInitializerQueryPartList( formPanel, listQueryParametersValues );
+        List<IFormColumnQueryPart> listFormColumnQueryPart = buildformColumnQueryPartList( listFormColumn );
+        List<IFormFilterQueryPart> listFormFilterQueryPart = buildFormFilterQueryPartList( listFormFilter, listQueryParametersValues );
+
+        _formSearchEngine.processSearchResults( listFormPanelInitializerQueryPart, listFormFilterQueryPart, sortConfig, nChunkSize,
+                listFormResponseSearchItem -> chunkConsumer.accept( createFormResponseItemList( listFormResponseSearchItem, listFormColumnQueryPart ) ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void populateFormResponseItemCounts( List<FormPanel> listFormPanel, List<FormFilter> listFormFilter )
+    {
+        if ( CollectionUtils.isEmpty( listFormPanel ) )
+        {
+            return;
+        }
+
+        List<String> listQueryParametersValues = new ArrayList<>( );
+
+        List<IFormFilterQueryPart> listFormFilterQueryPart = buildFormFilterQueryPartList( listFormFilter, listQueryParametersValues );
+        List<List<IFormPanelInitializerQueryPart>> listFormPanelInitializerQueryParts = new ArrayList<>( listFormPanel.size( ) );
+        for ( FormPanel formPanel : listFormPanel )
+        {
+            listFormPanelInitializerQueryParts.add( buildFormPanelInitializerQueryPartList( formPanel, listQueryParametersValues ) );
+        }
+
+        List<Integer> listCount = _formSearchEngine.getSearchResultsCounts( listFormPanelInitializerQueryParts, listFormFilterQueryPart );
+
+        for ( int i = 0; i < listFormPanel.size( ); i++ )
+        {
+            FormPanel formPanel = listFormPanel.get( i );
+            formPanel.setTotalFormResponseItemCount( listCount.get( i ) );
+            formPanel.setFormResponseItemList( new ArrayList<>( ) );
+            formPanel.setSearchCursor( null );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFormResponseInPanel( FormPanel formPanel, int nIdFormResponse )
+    {
+        if ( formPanel == null )
+        {
+            return false;
+        }
+
+        List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart = buildFormPanelInitializerQueryPartList( formPanel, new ArrayList<>( ) );
+
+        return _formSearchEngine.isFormResponseMatching( listFormPanelInitializerQueryPart, nIdFormResponse );
+    }
+
+    /**
+     * Create the FormResponseItem list of search results, with their column cells
+     * 
+     * @param listFormResponseSearchItem
+     *            The search results
+     * @param listFormColumnQueryPart
+     *            The column query parts used to build the cells
+     * @return the list of FormResponseItem
+     */
+    private List<FormResponseItem> createFormResponseItemList( List<FormResponseSearchItem> listFormResponseSearchItem,
+            List<IFormColumnQueryPart> listFormColumnQueryPart )
+    {
+        List<FormResponseItem> listFormResponseItem = new ArrayList<>( listFormResponseSearchItem.size( ) );
 
-        for ( FormResponseSearchItem formResponseSearchItem : _formSearchEngine.getSearchResults( listFormPanelInitializerQueryPart, listFormColumnQueryPart,
-                listFormFilterQueryPart, sortConfig, nStartIndex, nPageSize, formPanel ) )
+        for ( FormResponseSearchItem formResponseSearchItem : listFormResponseSearchItem )
         {
             // Create a FormResponseItem sppfor the current result line
             FormResponseItem formResponseItem = createFormResponseItem( formResponseSearchItem );
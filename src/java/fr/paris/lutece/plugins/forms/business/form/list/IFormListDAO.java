@@ -36,6 +36,7 @@ package fr.paris.lutece.plugins.forms.business.form.list;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItem;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItemSortConfig;
 import java.util.List;
+import java.util.function.Consumer;
 
 import fr.paris.lutece.plugins.forms.business.form.column.IFormColumn;
 import fr.paris.lutece.plugins.forms.business.form.filter.FormFilter;
@@ -78,4 +79,44 @@ public interface IFormListDAO
      */
     List<FormResponseItem> searchAllFormResponseItem( FormPanel formPanel, List<IFormColumn> listFormColumn, List<FormFilter> listFormFilter,
             FormResponseItemSortConfig sortConfig );
+
+    /**
+     * Process all the FormResponseItem of the given FormPanel by chunks, without loading them all in memory
+     * 
+     * @param formPanel
+     *            The FormPanel
+     * @param listFormColumn
+     *            The list of FormColumn
+     * @param listFormFilter
+     *            The list of FormFilter
+     * @param sortConfig
+     *            The sort config
+     * @param nChunkSize
+     *            The number of FormResponseItem per chunk
+     * @param chunkConsumer
+     *            The consumer of each chunk of FormResponseItem
+     */
+    void processAllFormResponseItem( FormPanel formPanel, List<IFormColumn> listFormColumn, List<FormFilter> listFormFilter,
+            FormResponseItemSortConfig sortConfig, int nChunkSize, Consumer<List<FormResponseItem>> chunkConsumer );
+
+    /**
+     * Tell if a form response belongs to the FormPanel, whose initializers must be built
+     * 
+     * @param formPanel
+     *            The FormPanel
+     * @param nIdFormResponse
+     *            The identifier of the form response
+     * @return true if the form response belongs to the FormPanel
+     */
+    boolean isFormResponseInPanel( FormPanel formPanel, int nIdFormResponse );
+
+    /**
+     * Set the number of FormResponseItem of each FormPanel for the given FormFilters, without retrieving them
+     * 
+     * @param listFormPanel
+     *            The FormPanels to count the FormResponseItem of
+     * @param listFormFilter
+     *            The list of FormFilter used for filtering the data
+     */
+    void populateFormResponseItemCounts( List<FormPanel> listFormPanel, List<FormFilter> listFormFilter );
 }
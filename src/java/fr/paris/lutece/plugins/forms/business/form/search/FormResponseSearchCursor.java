@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.form.search;
+
+import org.apache.lucene.search.ScoreDoc;
+
+/**
+ * Position of the last hit returned for a page of a search. It allows to retrieve the next page with a searchAfter instead of collecting all the hits of the
+ * previous pages again.
+ */
+public class FormResponseSearchCursor
+{
+    private final String _strQueryKey;
+    private final long _lReaderVersion;
+    private final ScoreDoc _lastScoreDoc;
+    private final int _nNextStartIndex;
+
+    /**
+     * Constructor
+     * 
+     * @param strQueryKey
+     *            The key of the query and sort which produced the page
+     * @param lReaderVersion
+     *            The version of the index reader used to produce the page
+     * @param lastScoreDoc
+     *            The last hit of the page
+     * @param nNextStartIndex
+     *            The start index of the page following this cursor
+     */
+    public FormResponseSearchCursor( String strQueryKey, long lReaderVersion, ScoreDoc lastScoreDoc, int nNextStartIndex )
+    {
+        _strQueryKey = strQueryKey;
+        _lReaderVersion = lReaderVersion;
+        _lastScoreDoc = lastScoreDoc;
+        _nNextStartIndex = nNextStartIndex;
+    }
+
+    /**
+     * Get the last hit of the page
+     * 
+     * @return the last hit of the page
+     */
+    public ScoreDoc getLastScoreDoc( )
+    {
+        return _lastScoreDoc;
+    }
+
+    /**
+     * Get the start index of the page following this cursor
+     * 
+     * @return the start index of the next page
+     */
+    public int getNextStartIndex( )
+    {
+        return _nNextStartIndex;
+    }
+
+    /**
+     * Check if the requested page directly follows this cursor, for the same query and the same index reader
+     * 
+     * @param strQueryKey
+     *            The key of the query and sort of the requested page
+     * @param lReaderVersion
+     *            The version of the index reader used for the requested page
+     * @param nStartIndex
+     *            The start index of the requested page
+     * @return true if the requested page can be retrieved with a searchAfter from this cursor
+     */
+    public boolean isContinuation( String strQueryKey, long lReaderVersion, int nStartIndex )
+    {
+        return _lastScoreDoc != null && _nNextStartIndex == nStartIndex && _lReaderVersion == lReaderVersion && _strQueryKey.equals( strQueryKey );
+    }
+}
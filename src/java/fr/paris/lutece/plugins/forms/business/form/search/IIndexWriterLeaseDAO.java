@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.form.search;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+
+import java.sql.Timestamp;
+
+/**
+ * IIndexWriterLeaseDAO Interface
+ */
+public interface IIndexWriterLeaseDAO
+{
+    /**
+     * Extend the lease of an index held by an owner, or take it over if it has expired
+     * 
+     * @param strIndexName
+     *            the name of the index
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param dateLeaseExpiration
+     *            the new expiration date of the lease
+     * @param dateNow
+     *            the current date
+     * @param plugin
+     *            the plugin
+     * @return true if the owner holds the lease
+     */
+    boolean update( String strIndexName, String strLeaseOwner, Timestamp dateLeaseExpiration, Timestamp dateNow, Plugin plugin );
+
+    /**
+     * Create the lease of an index
+     * 
+     * @param strIndexName
+     *            the name of the index
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param dateLeaseExpiration
+     *            the expiration date of the lease
+     * @param plugin
+     *            the plugin
+     */
+    void insert( String strIndexName, String strLeaseOwner, Timestamp dateLeaseExpiration, Plugin plugin );
+
+    /**
+     * Delete the lease of an index if it is held by an owner
+     * 
+     * @param strIndexName
+     *            the name of the index
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param plugin
+     *            the plugin
+     */
+    void delete( String strIndexName, String strLeaseOwner, Plugin plugin );
+}
@@ -35,6 +35,7 @@ package fr.paris.lutece.plugins.forms.business.form.search;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 /**
@@ -95,4 +96,73 @@ public interface IIndexerActionDAO
      * @return The List which contains the data of all action
      */
     List<IndexerAction> selectList( IndexerActionFilter filter, Plugin plugin );
+
+    /**
+     * Load the identifiers of the oldest actions which are not leased, or whose lease has expired
+     * 
+     * @param dateNow
+     *            the current date
+     * @param nLimit
+     *            the maximum number of actions
+     * @param plugin
+     *            the plugin
+     * @return the identifiers of the actions, ordered by identifier
+     */
+    List<Integer> selectClaimableIds( Timestamp dateNow, int nLimit, Plugin plugin );
+
+    /**
+     * Lease actions to an owner. The actions leased in the meantime by another owner are left untouched
+     * 
+     * @param listIdAction
+     *            the identifiers of the actions
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param dateLeaseExpiration
+     *            the expiration date of the lease
+     * @param dateNow
+     *            the current date
+     * @param plugin
+     *            the plugin
+     * @return the number of actions leased
+     */
+    int claim( List<Integer> listIdAction, String strLeaseOwner, Timestamp dateLeaseExpiration, Timestamp dateNow, Plugin plugin );
+
+    /**
+     * Load the actions leased to an owner
+     * 
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param plugin
+     *            the plugin
+     * @return the actions, ordered by identifier
+     */
+    List<IndexerAction> selectByLeaseOwner( String strLeaseOwner, Plugin plugin );
+
+    /**
+     * Delete a list of actions
+     * 
+     * @param listIdAction
+     *            the identifiers of the actions
+     * @param plugin
+     *            the plugin
+     */
+    void deleteList( List<Integer> listIdAction, Plugin plugin );
+
+    /**
+     * Count the actions waiting in the queue, leased or not
+     * 
+     * @param plugin
+     *            the plugin
+     * @return the number of actions
+     */
+    int countActions( Plugin plugin );
+
+    /**
+     * Load the creation date of the oldest action of the queue
+     * 
+     * @param plugin
+     *            the plugin
+     * @return the creation date, or null if the queue is empty
+     */
+    Timestamp selectOldestCreationDate( Plugin plugin );
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.form.search;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+import java.sql.Timestamp;
+
+/**
+ * This class provides Data Access methods for the leases of the index writers
+ */
+public final class IndexWriterLeaseDAO implements IIndexWriterLeaseDAO
+{
+    // Constants
+    private static final String SQL_QUERY_UPDATE = "UPDATE forms_index_writer_lease SET lease_owner = ?, lease_expiration = ? WHERE index_name = ? AND ( lease_owner = ? OR lease_expiration < ? ) ";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO forms_index_writer_lease ( index_name, lease_owner, lease_expiration ) VALUES ( ?, ?, ? ) ";
+    private static final String SQL_QUERY_DELETE = "DELETE FROM forms_index_writer_lease WHERE index_name = ? AND lease_owner = ? ";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean update( String strIndexName, String strLeaseOwner, Timestamp dateLeaseExpiration, Timestamp dateNow, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, strLeaseOwner );
+            daoUtil.setTimestamp( nIndex++, dateLeaseExpiration );
+            daoUtil.setString( nIndex++, strIndexName );
+            daoUtil.setString( nIndex++, strLeaseOwner );
+            daoUtil.setTimestamp( nIndex, dateNow );
+
+            return daoUtil.executeUpdate( ) > 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insert( String strIndexName, String strLeaseOwner, Timestamp dateLeaseExpiration, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            daoUtil.setString( 1, strIndexName );
+            daoUtil.setString( 2, strLeaseOwner );
+            daoUtil.setTimestamp( 3, dateLeaseExpiration );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete( String strIndexName, String strLeaseOwner, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE, plugin ) )
+        {
+            daoUtil.setString( 1, strIndexName );
+            daoUtil.setString( 2, strLeaseOwner );
+            daoUtil.executeUpdate( );
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.form.search;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
+
+import java.sql.Timestamp;
+
+/**
+ * This class provides the management of the leases which give to a single server the right to write in an index
+ */
+public final class IndexWriterLeaseHome
+{
+    // Static variable pointed at the DAO instance
+    private static IIndexWriterLeaseDAO _dao = SpringContextService.getBean( "forms.indexWriterLeaseDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "forms" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private IndexWriterLeaseHome( )
+    {
+    }
+
+    /**
+     * Acquire or extend the lease of an index. The lease is granted if it is free, expired, or already held by the owner
+     * 
+     * @param strIndexName
+     *            the name of the index
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param dateLeaseExpiration
+     *            the expiration date of the lease
+     * @return true if the owner holds the lease
+     */
+    public static boolean acquire( String strIndexName, String strLeaseOwner, Timestamp dateLeaseExpiration )
+    {
+        if ( _dao.update( strIndexName, strLeaseOwner, dateLeaseExpiration, new Timestamp( System.currentTimeMillis( ) ), _plugin ) )
+        {
+            return true;
+        }
+
+        try
+        {
+            _dao.insert( strIndexName, strLeaseOwner, dateLeaseExpiration, _plugin );
+            return true;
+        }
+        catch( AppException e )
+        {
+            // The lease exists and is held by another owner
+            return false;
+        }
+    }
+
+    /**
+     * Release the lease of an index if it is held by the owner
+     * 
+     * @param strIndexName
+     *            the name of the index
+     * @param strLeaseOwner
+     *            the owner of the lease
+     */
+    public static void release( String strIndexName, String strLeaseOwner )
+    {
+        _dao.delete( strIndexName, strLeaseOwner, _plugin );
+    }
+}
@@ -36,8 +36,10 @@ package fr.paris.lutece.plugins.forms.business.form.search;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.sql.DAOUtil;
 import java.sql.Statement;
+import java.sql.Timestamp;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -52,6 +54,13 @@ public final class IndexerActionDAO implements IIndexerActionDAO
     private static final String SQL_QUERY_UPDATE = "UPDATE forms_indexer_action SET id_action=?,id_form_response=?,id_task=? WHERE id_action = ? ";
     private static final String SQL_QUERY_SELECT = "SELECT id_action,id_form_response,id_task" + " FROM forms_indexer_action  ";
     private static final String SQL_FILTER_ID_TASK = " WHERE id_task = ? ";
+    private static final String SQL_QUERY_SELECT_CLAIMABLE_IDS = "SELECT id_action FROM forms_indexer_action WHERE lease_owner IS NULL OR lease_expiration < ? ORDER BY id_action LIMIT ?";
+    private static final String SQL_QUERY_CLAIM = "UPDATE forms_indexer_action SET lease_owner = ?, lease_expiration = ? WHERE ( lease_owner IS NULL OR lease_expiration < ? ) AND id_action IN ( ";
+    private static final String SQL_QUERY_SELECT_BY_LEASE_OWNER = SQL_QUERY_SELECT + " WHERE lease_owner = ? ORDER BY id_action";
+    private static final String SQL_QUERY_DELETE_LIST = "DELETE FROM forms_indexer_action WHERE id_action IN ( ";
+    private static final String SQL_QUERY_COUNT = "SELECT COUNT( id_action ) FROM forms_indexer_action";
+    private static final String SQL_QUERY_SELECT_OLDEST_CREATION_DATE = "SELECT MIN( date_creation ) FROM forms_indexer_action";
+    private static final int IN_CLAUSE_SIZE = 500;
 
     /**
      * {@inheritDoc}
@@ -168,4 +177,164 @@ public final class IndexerActionDAO implements IIndexerActionDAO
 
         return indexerActionList;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> selectClaimableIds( Timestamp dateNow, int nLimit, Plugin plugin )
+    {
+        List<Integer> listIdAction = new ArrayList<>( );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_CLAIMABLE_IDS, plugin ) )
+        {
+            daoUtil.setTimestamp( 1, dateNow );
+            daoUtil.setInt( 2, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                listIdAction.add( daoUtil.getInt( 1 ) );
+            }
+        }
+
+        return listIdAction;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int claim( List<Integer> listIdAction, String strLeaseOwner, Timestamp dateLeaseExpiration, Timestamp dateNow, Plugin plugin )
+    {
+        int nClaimed = 0;
+
+        for ( List<Integer> listIdChunk : chunk( listIdAction ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_CLAIM + buildInClause( listIdChunk.size( ) ), plugin ) )
+            {
+                int nIndex = 1;
+                daoUtil.setString( nIndex++, strLeaseOwner );
+                daoUtil.setTimestamp( nIndex++, dateLeaseExpiration );
+                daoUtil.setTimestamp( nIndex++, dateNow );
+
+                for ( Integer nIdAction : listIdChunk )
+                {
+                    daoUtil.setInt( nIndex++, nIdAction );
+                }
+
+                nClaimed += daoUtil.executeUpdate( );
+            }
+        }
+
+        return nClaimed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IndexerAction> selectByLeaseOwner( String strLeaseOwner, Plugin plugin )
+    {
+        List<IndexerAction> indexerActionList = new ArrayList<>( );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_LEASE_OWNER, plugin ) )
+        {
+            daoUtil.setString( 1, strLeaseOwner );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                IndexerAction indexerAction = new IndexerAction( );
+                indexerAction.setIdAction( daoUtil.getInt( 1 ) );
+                indexerAction.setIdFormResponse( daoUtil.getInt( 2 ) );
+                indexerAction.setIdTask( daoUtil.getInt( 3 ) );
+
+                indexerActionList.add( indexerAction );
+            }
+        }
+
+        return indexerActionList;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteList( List<Integer> listIdAction, Plugin plugin )
+    {
+        for ( List<Integer> listIdChunk : chunk( listIdAction ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_LIST + buildInClause( listIdChunk.size( ) ), plugin ) )
+            {
+                int nIndex = 1;
+
+                for ( Integer nIdAction : listIdChunk )
+                {
+                    daoUtil.setInt( nIndex++, nIdAction );
+                }
+
+                daoUtil.executeUpdate( );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countActions( Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_COUNT, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getInt( 1 ) : 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Timestamp selectOldestCreationDate( Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_OLDEST_CREATION_DATE, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            return daoUtil.next( ) ? daoUtil.getTimestamp( 1 ) : null;
+        }
+    }
+
+    /**
+     * Split a list of identifiers into lists small enough for an IN clause
+     * 
+     * @param listId
+     *            the identifiers
+     * @return the lists of identifiers
+     */
+    private static List<List<Integer>> chunk( List<Integer> listId )
+    {
+        List<List<Integer>> listChunks = new ArrayList<>( );
+
+        for ( int nStart = 0; nStart < listId.size( ); nStart += IN_CLAUSE_SIZE )
+        {
+            listChunks.add( listId.subList( nStart, Math.min( nStart + IN_CLAUSE_SIZE, listId.size( ) ) ) );
+        }
+
+        return listChunks;
+    }
+
+    /**
+     * Build the end of an IN clause with the given number of parameters
+     * 
+     * @param nSize
+     *            the number of parameters
+     * @return the end of the IN clause
+     */
+    private static String buildInClause( int nSize )
+    {
+        return String.join( ", ", Collections.nCopies( nSize, "?" ) ) + " )";
+    }
 }
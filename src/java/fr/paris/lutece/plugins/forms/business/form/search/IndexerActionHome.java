@@ -36,6 +36,8 @@ package fr.paris.lutece.plugins.forms.business.form.search;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -124,4 +126,67 @@ public final class IndexerActionHome
     {
         return _dao.selectList( filter, plugin );
     }
+
+    /**
+     * Lease the oldest available actions to an owner, and returns all the actions leased to this owner
+     *
+     * @param strLeaseOwner
+     *            the owner of the lease, which must be unique for each call
+     * @param dateLeaseExpiration
+     *            the expiration date of the lease
+     * @param nLimit
+     *            the maximum number of actions
+     * @param plugin
+     *            the Plugin
+     * @return the actions leased to the owner, ordered by identifier
+     */
+    public static List<IndexerAction> claim( String strLeaseOwner, Timestamp dateLeaseExpiration, int nLimit, Plugin plugin )
+    {
+        Timestamp dateNow = new Timestamp( System.currentTimeMillis( ) );
+        List<Integer> listIdAction = _dao.selectClaimableIds( dateNow, nLimit, plugin );
+
+        if ( listIdAction.isEmpty( ) || _dao.claim( listIdAction, strLeaseOwner, dateLeaseExpiration, dateNow, plugin ) == 0 )
+        {
+            return new ArrayList<>( );
+        }
+
+        return _dao.selectByLeaseOwner( strLeaseOwner, plugin );
+    }
+
+    /**
+     * Remove a list of IndexerAction
+     *
+     * @param listIdAction
+     *            the identifiers of the actions
+     * @param plugin
+     *            the Plugin
+     */
+    public static void removeList( List<Integer> listIdAction, Plugin plugin )
+    {
+        _dao.deleteList( listIdAction, plugin );
+    }
+
+    /**
+     * Count the actions waiting in the queue
+     *
+     * @param plugin
+     *            the Plugin
+     * @return the number of actions
+     */
+    public static int countActions( Plugin plugin )
+    {
+        return _dao.countActions( plugin );
+    }
+
+    /**
+     * Returns the creation date of the oldest action of the queue
+     *
+     * @param plugin
+     *            the Plugin
+     * @return the creation date, or null if the queue is empty
+     */
+    public static Timestamp getOldestCreationDate( Plugin plugin )
+    {
+        return _dao.selectOldestCreationDate( plugin );
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.postsubmit;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+
+/**
+ * IPostSubmitTaskDAO Interface
+ */
+public interface IPostSubmitTaskDAO
+{
+    /**
+     * Insert a new task
+     * 
+     * @param task
+     *            the task
+     * @param plugin
+     *            the Plugin
+     */
+    void insert( PostSubmitTask task, Plugin plugin );
+
+    /**
+     * Load the waiting tasks whose next attempt is due and which are not preceded by a waiting or running task of the same form response, ordered by
+     * identifier
+     * 
+     * @param dateNow
+     *            the current date
+     * @param nLimit
+     *            the maximum number of tasks to load
+     * @param plugin
+     *            the Plugin
+     * @return the tasks
+     */
+    List<PostSubmitTask> selectReadyTasks( Timestamp dateNow, int nLimit, Plugin plugin );
+
+    /**
+     * Take a waiting task for a worker. Only one caller can take a given task
+     * 
+     * @param nIdTask
+     *            the identifier of the task
+     * @param dateLeaseEnd
+     *            the date after which the task is given back to the waiting tasks if it is still running
+     * @param plugin
+     *            the Plugin
+     * @return true if the task has been taken by the caller
+     */
+    boolean claim( int nIdTask, Timestamp dateLeaseEnd, Plugin plugin );
+
+    /**
+     * Update the status, the number of attempts, the date of next attempt and the last error of a task
+     * 
+     * @param task
+     *            the task
+     * @param plugin
+     *            the Plugin
+     */
+    void store( PostSubmitTask task, Plugin plugin );
+
+    /**
+     * Delete a task
+     * 
+     * @param nIdTask
+     *            the identifier of the task
+     * @param plugin
+     *            the Plugin
+     */
+    void delete( int nIdTask, Plugin plugin );
+
+    /**
+     * Give back to the waiting tasks the running tasks whose lease has expired
+     * 
+     * @param dateNow
+     *            the current date
+     * @param plugin
+     *            the Plugin
+     * @return the number of tasks given back
+     */
+    int releaseExpiredLeases( Timestamp dateNow, Plugin plugin );
+
+    /**
+     * Count the tasks by status
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return the number of tasks by status
+     */
+    Map<Integer, Integer> countByStatus( Plugin plugin );
+}
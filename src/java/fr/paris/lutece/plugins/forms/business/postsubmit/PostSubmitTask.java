@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.postsubmit;
+
+import java.sql.Timestamp;
+
+/**
+ * This is the business class for the tasks run after the submission of a form response
+ */
+public class PostSubmitTask
+{
+    /**
+     * The task waits for its next attempt
+     */
+    public static final int STATUS_WAITING = 0;
+
+    /**
+     * The task is run by a worker until the lease given by its date of next attempt expires
+     */
+    public static final int STATUS_RUNNING = 1;
+
+    /**
+     * All the attempts of the task have failed
+     */
+    public static final int STATUS_FAILED = 2;
+
+    private int _nId;
+    private int _nIdFormResponse;
+    private int _nIdForm;
+    private String _strTaskType;
+    private int _nStatus;
+    private int _nNbAttempts;
+    private Timestamp _dateCreation;
+    private Timestamp _dateNextAttempt;
+    private String _strLastError;
+
+    /**
+     * @return the identifier of the task
+     */
+    public int getId( )
+    {
+        return _nId;
+    }
+
+    /**
+     * @param nId
+     *            the identifier of the task to set
+     */
+    public void setId( int nId )
+    {
+        _nId = nId;
+    }
+
+    /**
+     * @return the identifier of the form response
+     */
+    public int getIdFormResponse( )
+    {
+        return _nIdFormResponse;
+    }
+
+    /**
+     * @param nIdFormResponse
+     *            the identifier of the form response to set
+     */
+    public void setIdFormResponse( int nIdFormResponse )
+    {
+        _nIdFormResponse = nIdFormResponse;
+    }
+
+    /**
+     * @return the identifier of the form
+     */
+    public int getIdForm( )
+    {
+        return _nIdForm;
+    }
+
+    /**
+     * @param nIdForm
+     *            the identifier of the form to set
+     */
+    public void setIdForm( int nIdForm )
+    {
+        _nIdForm = nIdForm;
+    }
+
+    /**
+     * @return the type of the task
+     */
+    public String getTaskType( )
+    {
+        return _strTaskType;
+    }
+
+    /**
+     * @param strTaskType
+     *            the type of the task to set
+     */
+    public void setTaskType( String strTaskType )
+    {
+        _strTaskType = strTaskType;
+    }
+
+    /**
+     * @return the status of the task
+     */
+    public int getStatus( )
+    {
+        return _nStatus;
+    }
+
+    /**
+     * @param nStatus
+     *            the status of the task to set
+     */
+    public void setStatus( int nStatus )
+    {
+        _nStatus = nStatus;
+    }
+
+    /**
+     * @return the number of failed attempts
+     */
+    public int getNbAttempts( )
+    {
+        return _nNbAttempts;
+    }
+
+    /**
+     * @param nNbAttempts
+     *            the number of failed attempts to set
+     */
+    public void setNbAttempts( int nNbAttempts )
+    {
+        _nNbAttempts = nNbAttempts;
+    }
+
+    /**
+     * @return the creation date of the task
+     */
+    public Timestamp getDateCreation( )
+    {
+        return _dateCreation;
+    }
+
+    /**
+     * @param dateCreation
+     *            the creation date of the task to set
+     */
+    public void setDateCreation( Timestamp dateCreation )
+    {
+        _dateCreation = dateCreation;
+    }
+
+    /**
+     * @return the date of the next attempt, or the end of the lease of a running task
+     */
+    public Timestamp getDateNextAttempt( )
+    {
+        return _dateNextAttempt;
+    }
+
+    /**
+     * @param dateNextAttempt
+     *            the date of the next attempt to set
+     */
+    public void setDateNextAttempt( Timestamp dateNextAttempt )
+    {
+        _dateNextAttempt = dateNextAttempt;
+    }
+
+    /**
+     * @return the error of the last failed attempt
+     */
+    public String getLastError( )
+    {
+        return _strLastError;
+    }
+
+    /**
+     * @param strLastError
+     *            the error of the last failed attempt to set
+     */
+    public void setLastError( String strLastError )
+    {
+        _strLastError = strLastError;
+    }
+}
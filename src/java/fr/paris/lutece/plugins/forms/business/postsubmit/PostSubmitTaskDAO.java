@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.postsubmit;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+/**
+ * This class provides Data Access methods for the tasks run after the submission of a form response
+ */
+public final class PostSubmitTaskDAO implements IPostSubmitTaskDAO
+{
+    // Constants
+    private static final String SQL_QUERY_INSERT = "INSERT INTO forms_post_submit_task ( id_form_response, id_form, task_type, status, nb_attempts, date_creation, date_next_attempt ) VALUES ( ?, ?, ?, ?, ?, ?, ? ) ";
+    private static final String SQL_QUERY_SELECT_READY = "SELECT id_task, id_form_response, id_form, task_type, status, nb_attempts, date_creation, date_next_attempt, last_error "
+            + " FROM forms_post_submit_task t WHERE t.status = ? AND t.date_next_attempt <= ? AND NOT EXISTS ( SELECT 1 FROM forms_post_submit_task p "
+            + " WHERE p.id_form_response = t.id_form_response AND p.id_task < t.id_task AND p.status IN ( ?, ? ) ) ORDER BY t.id_task LIMIT ?";
+    private static final String SQL_QUERY_CLAIM = "UPDATE forms_post_submit_task SET status = ?, date_next_attempt = ? WHERE id_task = ? AND status = ? ";
+    private static final String SQL_QUERY_STORE = "UPDATE forms_post_submit_task SET status = ?, nb_attempts = ?, date_next_attempt = ?, last_error = ? WHERE id_task = ? ";
+    private static final String SQL_QUERY_DELETE = "DELETE FROM forms_post_submit_task WHERE id_task = ? ";
+    private static final String SQL_QUERY_RELEASE_EXPIRED = "UPDATE forms_post_submit_task SET status = ? WHERE status = ? AND date_next_attempt < ? ";
+    private static final String SQL_QUERY_COUNT_BY_STATUS = "SELECT status, COUNT( id_task ) FROM forms_post_submit_task GROUP BY status";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( PostSubmitTask task, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setInt( nIndex++, task.getIdFormResponse( ) );
+            daoUtil.setInt( nIndex++, task.getIdForm( ) );
+            daoUtil.setString( nIndex++, task.getTaskType( ) );
+            daoUtil.setInt( nIndex++, task.getStatus( ) );
+            daoUtil.setInt( nIndex++, task.getNbAttempts( ) );
+            daoUtil.setTimestamp( nIndex++, task.getDateCreation( ) );
+            daoUtil.setTimestamp( nIndex, task.getDateNextAttempt( ) );
+            daoUtil.executeUpdate( );
+
+            if ( daoUtil.nextGeneratedKey( ) )
+            {
+                task.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<PostSubmitTask> selectReadyTasks( Timestamp dateNow, int nLimit, Plugin plugin )
+    {
+        List<PostSubmitTask> listTasks = new ArrayList<>( );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_READY, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setInt( nIndex++, PostSubmitTask.STATUS_WAITING );
+            daoUtil.setTimestamp( nIndex++, dateNow );
+            daoUtil.setInt( nIndex++, PostSubmitTask.STATUS_WAITING );
+            daoUtil.setInt( nIndex++, PostSubmitTask.STATUS_RUNNING );
+            daoUtil.setInt( nIndex, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                listTasks.add( dataToObject( daoUtil ) );
+            }
+        }
+
+        return listTasks;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean claim( int nIdTask, Timestamp dateLeaseEnd, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_CLAIM, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setInt( nIndex++, PostSubmitTask.STATUS_RUNNING );
+            daoUtil.setTimestamp( nIndex++, dateLeaseEnd );
+            daoUtil.setInt( nIndex++, nIdTask );
+            daoUtil.setInt( nIndex, PostSubmitTask.STATUS_WAITING );
+
+            return daoUtil.executeUpdate( ) > 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void store( PostSubmitTask task, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_STORE, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setInt( nIndex++, task.getStatus( ) );
+            daoUtil.setInt( nIndex++, task.getNbAttempts( ) );
+            daoUtil.setTimestamp( nIndex++, task.getDateNextAttempt( ) );
+            daoUtil.setString( nIndex++, task.getLastError( ) );
+            daoUtil.setInt( nIndex, task.getId( ) );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void delete( int nIdTask, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdTask );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int releaseExpiredLeases( Timestamp dateNow, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_RELEASE_EXPIRED, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setInt( nIndex++, PostSubmitTask.STATUS_WAITING );
+            daoUtil.setInt( nIndex++, PostSubmitTask.STATUS_RUNNING );
+            daoUtil.setTimestamp( nIndex, dateNow );
+
+            return daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, Integer> countByStatus( Plugin plugin )
+    {
+        Map<Integer, Integer> mapCounts = new HashMap<>( );
+
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_COUNT_BY_STATUS, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                mapCounts.put( daoUtil.getInt( 1 ), daoUtil.getInt( 2 ) );
+            }
+        }
+
+        return mapCounts;
+    }
+
+    /**
+     * Build a task from the current row
+     * 
+     * @param daoUtil
+     *            the daoUtil
+     * @return the task
+     */
+    private PostSubmitTask dataToObject( DAOUtil daoUtil )
+    {
+        PostSubmitTask task = new PostSubmitTask( );
+        task.setId( daoUtil.getInt( "id_task" ) );
+        task.setIdFormResponse( daoUtil.getInt( "id_form_response" ) );
+        task.setIdForm( daoUtil.getInt( "id_form" ) );
+        task.setTaskType( daoUtil.getString( "task_type" ) );
+        task.setStatus( daoUtil.getInt( "status" ) );
+        task.setNbAttempts( daoUtil.getInt( "nb_attempts" ) );
+        task.setDateCreation( daoUtil.getTimestamp( "date_creation" ) );
+        task.setDateNextAttempt( daoUtil.getTimestamp( "date_next_attempt" ) );
+        task.setLastError( daoUtil.getString( "last_error" ) );
+
+        return task;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business.postsubmit;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+
+/**
+ * This class provides instances management methods for the tasks run after the submission of a form response
+ */
+public final class PostSubmitTaskHome
+{
+    // Static variable pointed at the DAO instance
+    private static IPostSubmitTaskDAO _dao = SpringContextService.getBean( "forms.postSubmitTaskDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "forms" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private PostSubmitTaskHome( )
+    {
+    }
+
+    /**
+     * Create a task
+     * 
+     * @param task
+     *            the task
+     * @return the task with its identifier
+     */
+    public static PostSubmitTask create( PostSubmitTask task )
+    {
+        _dao.insert( task, _plugin );
+
+        return task;
+    }
+
+    /**
+     * Returns the waiting tasks which can be run now, at most one by form response
+     * 
+     * @param dateNow
+     *            the current date
+     * @param nLimit
+     *            the maximum number of tasks
+     * @return the tasks, ordered by identifier
+     */
+    public static List<PostSubmitTask> getReadyTasks( Timestamp dateNow, int nLimit )
+    {
+        return _dao.selectReadyTasks( dateNow, nLimit, _plugin );
+    }
+
+    /**
+     * Take a waiting task for a worker
+     * 
+     * @param nIdTask
+     *            the identifier of the task
+     * @param dateLeaseEnd
+     *            the date after which the task is given back to the waiting tasks if it is still running
+     * @return true if the task has been taken by the caller
+     */
+    public static boolean claim( int nIdTask, Timestamp dateLeaseEnd )
+    {
+        return _dao.claim( nIdTask, dateLeaseEnd, _plugin );
+    }
+
+    /**
+     * Update the state of a task
+     * 
+     * @param task
+     *            the task
+     */
+    public static void update( PostSubmitTask task )
+    {
+        _dao.store( task, _plugin );
+    }
+
+    /**
+     * Remove a task
+     * 
+     * @param nIdTask
+     *            the identifier of the task
+     */
+    public static void remove( int nIdTask )
+    {
+        _dao.delete( nIdTask, _plugin );
+    }
+
+    /**
+     * Give back to the waiting tasks the running tasks whose lease has expired
+     * 
+     * @param dateNow
+     *            the current date
+     * @return the number of tasks given back
+     */
+    public static int releaseExpiredLeases( Timestamp dateNow )
+    {
+        return _dao.releaseExpiredLeases( dateNow, _plugin );
+    }
+
+    /**
+     * Count the tasks by status
+     * 
+     * @return the number of tasks by status
+     */
+    public static Map<Integer, Integer> countByStatus( )
+    {
+        return _dao.countByStatus( _plugin );
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.exception;
+
+import fr.paris.lutece.plugins.forms.business.Control;
+import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
+
+/**
+ *
+ * Exception thrown when the value of a response, checked by a unique control, has been submitted concurrently by another form response
+ *
+ */
+public class FormResponseUniqueValueException extends Exception
+{
+    /**
+     * Generated serial ID
+     */
+    private static final long serialVersionUID = 6237816502847165123L;
+
+    private final transient FormQuestionResponse _formQuestionResponse;
+    private final transient Control _control;
+
+    /**
+     * Constructor
+     *
+     * @param formQuestionResponse
+     *            the form question response whose value is duplicated
+     * @param control
+     *            the unique control which is not satisfied
+     */
+    public FormResponseUniqueValueException( FormQuestionResponse formQuestionResponse, Control control )
+    {
+        super( "The response to the question " + formQuestionResponse.getQuestion( ).getId( ) + " has already been submitted" );
+        _formQuestionResponse = formQuestionResponse;
+        _control = control;
+    }
+
+    /**
+     * @return the form question response whose value is duplicated
+     */
+    public FormQuestionResponse getFormQuestionResponse( )
+    {
+        return _formQuestionResponse;
+    }
+
+    /**
+     * @return the unique control which is not satisfied
+     */
+    public Control getControl( )
+    {
+        return _control;
+    }
+}
@@ -36,7 +36,9 @@ package fr.paris.lutece.plugins.forms.export;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -45,17 +47,27 @@ import fr.paris.lutece.plugins.filegenerator.service.IFileGenerator;
 import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormHome;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
+import fr.paris.lutece.plugins.forms.business.FormResponseHome;
 import fr.paris.lutece.plugins.forms.business.export.FormExportConfig;
 import fr.paris.lutece.plugins.forms.business.export.FormExportConfigHome;
+import fr.paris.lutece.plugins.forms.business.form.FormResponseItem;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItemSortConfig;
 import fr.paris.lutece.plugins.forms.business.form.column.IFormColumn;
 import fr.paris.lutece.plugins.forms.business.form.filter.FormFilter;
 import fr.paris.lutece.plugins.forms.business.form.panel.FormPanel;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.file.FileUtil;
 
 public abstract class AbstractFileGenerator implements IFileGenerator
 {
     protected static final String TMP_DIR = System.getProperty( "java.io.tmpdir" );
+    private static final String PROPERTY_EXPORT_CHUNK_SIZE = "forms.export.chunk.size";
+    private static final int DEFAULT_EXPORT_CHUNK_SIZE = 500;
+
+    /**
+     * Number of responses read and loaded at once by all the exports
+     */
+    protected static final int EXPORT_CHUNK_SIZE = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_EXPORT_CHUNK_SIZE, DEFAULT_EXPORT_CHUNK_SIZE ) );
 
     protected final FormPanel _formPanel;
     protected final List<IFormColumn> _listFormColumn;
@@ -66,6 +78,7 @@ public abstract class AbstractFileGenerator implements IFileGenerator
 
     private List<FormExportConfig> _configList = null;
     private Form _form;
+    private final Set<String> _setUsedFileNames = new HashSet<>( );
 
     /**
      * Constructor
@@ -104,4 +117,37 @@ public abstract class AbstractFileGenerator implements IFileGenerator
         }
         return FileUtil.normalizeFileName( nameValues.stream( ).collect( Collectors.joining( "_" ) ) );
     }
+
+    /**
+     * Generates the name of the file of a response, suffixed by a number if the name has already been given to a previous response of the export
+     * 
+     * @param response
+     *            the response
+     * @return the name of the file
+     */
+    protected String generateUniqueFileName( FormResponse response )
+    {
+        String strFileName = generateFileName( response );
+        String strUniqueFileName = strFileName;
+
+        for ( int nSuffix = 2; !_setUsedFileNames.add( strUniqueFileName ); nSuffix++ )
+        {
+            strUniqueFileName = strFileName + "_" + nSuffix;
+        }
+        return strUniqueFileName;
+    }
+
+    /**
+     * Loads the responses of a chunk of items, with their steps and question responses. Each question response has its own question, holding the iteration
+     * number of the response, which the pdf exports use to place the responses of the iterable groups.
+     * 
+     * @param listFormResponseItems
+     *            the items
+     * @return the responses, in the order of the items
+     */
+    protected List<FormResponse> loadFormResponses( List<FormResponseItem> listFormResponseItems )
+    {
+        return FormResponseHome.findByPrimaryKeyListForIndex(
+                listFormResponseItems.stream( ).map( FormResponseItem::getIdFormResponse ).collect( Collectors.toList( ) ) );
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.export;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Bounded pool of workers used by the exports to render files concurrently. The number of submitted tasks not yet completed is bounded : a submission blocks
+ * until a worker is available, so the reading of the responses never runs far ahead of the rendering.
+ */
+public class ExportTaskExecutor implements AutoCloseable
+{
+    private static final String PROPERTY_EXPORT_THREADS = "forms.export.threads";
+    private static final String THREAD_NAME_PREFIX = "forms-export-";
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger( );
+
+    private final ExecutorService _executor;
+    private final Semaphore _semaphore;
+    private final int _nMaxTasks;
+    private final AtomicReference<IOException> _firstException = new AtomicReference<>( );
+
+    /**
+     * A task of an export
+     */
+    @FunctionalInterface
+    public interface ExportTask
+    {
+        /**
+         * Runs the task
+         * 
+         * @throws IOException
+         *             if the task fails
+         */
+        void run( ) throws IOException;
+    }
+
+    /**
+     * Constructor. The number of workers is given by the property forms.export.threads, the number of processors by default.
+     */
+    public ExportTaskExecutor( )
+    {
+        int nThreads = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_EXPORT_THREADS, Runtime.getRuntime( ).availableProcessors( ) ) );
+        _nMaxTasks = nThreads * 2;
+        _semaphore = new Semaphore( _nMaxTasks );
+        _executor = Executors.newFixedThreadPool( nThreads, runnable -> {
+            Thread thread = new Thread( runnable, THREAD_NAME_PREFIX + THREAD_COUNTER.incrementAndGet( ) );
+            thread.setDaemon( true );
+            return thread;
+        } );
+    }
+
+    /**
+     * Submits a task, waiting for a free slot if too many tasks are pending
+     * 
+     * @param task
+     *            the task
+     * @throws IOException
+     *             if a previous task has failed
+     */
+    public void submit( ExportTask task ) throws IOException
+    {
+        throwFirstException( );
+        acquire( 1 );
+        _executor.execute( ( ) -> {
+            try
+            {
+                task.run( );
+            }
+            catch( IOException e )
+            {
+                _firstException.compareAndSet( null, e );
+            }
+            catch( RuntimeException e )
+            {
+                _firstException.compareAndSet( null, new IOException( e.getMessage( ), e ) );
+            }
+            finally
+            {
+                _semaphore.release( );
+            }
+        } );
+    }
+
+    /**
+     * Waits for the completion of all the submitted tasks
+     * 
+     * @throws IOException
+     *             if a task has failed
+     */
+    public void awaitCompletion( ) throws IOException
+    {
+        acquire( _nMaxTasks );
+        _semaphore.release( _nMaxTasks );
+        throwFirstException( );
+    }
+
+    /**
+     * Stops the workers
+     */
+    @Override
+    public void close( )
+    {
+        _executor.shutdownNow( );
+    }
+
+    /**
+     * Acquires slots of the pool
+     * 
+     * @param nPermits
+     *            the number of slots
+     * @throws IOException
+     *             if the thread is interrupted
+     */
+    private void acquire( int nPermits ) throws IOException
+    {
+        try
+        {
+            _semaphore.acquire( nPermits );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new IOException( "Export interrupted", e );
+        }
+    }
+
+    /**
+     * Throws the exception of the first failed task, if any
+     * 
+     * @throws IOException
+     *             the exception of the first failed task
+     */
+    private void throwFirstException( ) throws IOException
+    {
+        IOException exception = _firstException.get( );
+        if ( exception != null )
+        {
+            throw exception;
+        }
+    }
+}
@@ -37,10 +37,8 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
-import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormHome;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
@@ -70,14 +68,30 @@ public class CSVDataLine
      *            the form response associated to this instance
      */
     public CSVDataLine( FormResponse formResponse, String state )
+    {
+        this( formResponse, state, FormHome.findByPrimaryKey( formResponse.getFormId( ) ).getTitle( ),
+                new SimpleDateFormat( AppPropertiesService.getProperty( FormsConstants.PROPERTY_EXPORT_FORM_DATE_CREATION_FORMAT ),
+                        I18nService.getDefaultLocale( ) ) );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param formResponse
+     *            the form response associated to this instance
+     * @param state
+     *            the workflow state of the form response
+     * @param strFormTitle
+     *            the title of the form of the form response
+     * @param dateFormat
+     *            the format of the dates
+     */
+    public CSVDataLine( FormResponse formResponse, String state, String strFormTitle, DateFormat dateFormat )
     {
         _mapDataToExport = new HashMap<>( );
 
-        Locale locale = I18nService.getDefaultLocale( );
-        DateFormat dateFormat = new SimpleDateFormat( AppPropertiesService.getProperty( FormsConstants.PROPERTY_EXPORT_FORM_DATE_CREATION_FORMAT ), locale );
-        Form form = FormHome.findByPrimaryKey( formResponse.getFormId( ) );
         StringBuilder commonData = new StringBuilder( );
-        commonData.append( CSVUtil.safeString( form.getTitle( ) ) ).append( FormsConstants.SEPARATOR_SEMICOLON );
+        commonData.append( CSVUtil.safeString( strFormTitle ) ).append( FormsConstants.SEPARATOR_SEMICOLON );
         commonData.append( CSVUtil.safeString( dateFormat.format( formResponse.getCreation( ) ) ) ).append( FormsConstants.SEPARATOR_SEMICOLON );
         commonData.append( CSVUtil.safeString( dateFormat.format( formResponse.getUpdate( ) ) ) ).append( FormsConstants.SEPARATOR_SEMICOLON );
         commonData.append( state ).append( FormsConstants.SEPARATOR_SEMICOLON );
@@ -35,14 +35,18 @@ package fr.paris.lutece.plugins.forms.export.csv;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import fr.paris.lutece.plugins.forms.business.FormResponse;
-import fr.paris.lutece.plugins.forms.business.FormResponseHome;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItem;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItemSortConfig;
 import fr.paris.lutece.plugins.forms.business.form.column.FormColumnCell;
@@ -51,6 +55,7 @@ import fr.paris.lutece.plugins.forms.business.form.filter.FormFilter;
 import fr.paris.lutece.plugins.forms.business.form.panel.FormPanel;
 import fr.paris.lutece.plugins.forms.export.AbstractFileGenerator;
 import fr.paris.lutece.plugins.forms.service.MultiviewFormService;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
 import fr.paris.lutece.plugins.forms.util.FormMultiviewWorkflowStateNameConstants;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.file.FileUtil;
@@ -61,7 +66,6 @@ import fr.paris.lutece.util.file.FileUtil;
 public class CSVFileGenerator extends AbstractFileGenerator
 {
     private static final boolean ZIP_EXPORT = Boolean.parseBoolean( AppPropertiesService.getProperty( "forms.export.csv.zip", "false" ) );
-    private static final int FLUSH_SIZE = 1000;
     public static final String UTF8_BOM = "\uFEFF";
 
     /**
@@ -79,7 +83,9 @@ public class CSVFileGenerator extends AbstractFileGenerator
     public Path generateFile( ) throws IOException
     {
         Path csvFile = Paths.get( TMP_DIR, _fileName + FileUtil.EXTENSION_CSV );
+        long lStart = System.nanoTime( );
         writeExportFile( csvFile );
+        FormsMetricsService.getInstance( ).recordTime( FormsMetricsService.TIMER_EXPORT_CSV, lStart );
         return csvFile;
     }
 
@@ -104,34 +110,62 @@ public class CSVFileGenerator extends AbstractFileGenerator
     private void writeExportFile( Path tempFile ) throws IOException
     {
         FormResponseCsvExport formResponseExport = new FormResponseCsvExport( );
-
-        boolean first = true;
-        int count = 0;
+        AtomicBoolean bHeaderWritten = new AtomicBoolean( false );
 
         try ( BufferedWriter bos = Files.newBufferedWriter( tempFile, StandardCharsets.UTF_8 ) )
         {
             bos.write( UTF8_BOM );
-            List<FormResponseItem> listFormResponseItems = MultiviewFormService.getInstance( ).searchAllListFormResponseItem( _formPanel, _listFormColumn,
-                    _listFormFilter, _sortConfig );
+            MultiviewFormService.getInstance( ).processAllListFormResponseItem( _formPanel, _listFormColumn, _listFormFilter, _sortConfig, EXPORT_CHUNK_SIZE,
+                    listFormResponseItems -> writeExportChunk( bos, formResponseExport, listFormResponseItems, bHeaderWritten ) );
+            bos.flush( );
+        }
+        catch( UncheckedIOException e )
+        {
+            throw e.getCause( );
+        }
+    }
+
+    /**
+     * Writes the lines of a chunk of form responses. The form responses of the chunk are loaded together.
+     * 
+     * @param bos
+     *            the writer of the export file
+     * @param formResponseExport
+     *            the CSV export builder
+     * @param listFormResponseItems
+     *            the chunk of form response items
+     * @param bHeaderWritten
+     *            true if the header line has already been written
+     */
+    private void writeExportChunk( BufferedWriter bos, FormResponseCsvExport formResponseExport, List<FormResponseItem> listFormResponseItems,
+            AtomicBoolean bHeaderWritten )
+    {
+        Map<Integer, FormResponse> mapFormResponse = loadFormResponses( listFormResponseItems ).stream( )
+                .collect( Collectors.toMap( FormResponse::getId, Function.identity( ) ) );
+
+        try
+        {
             for ( FormResponseItem formResponseItem : listFormResponseItems )
             {
-                count++;
-                FormResponse formResponse = FormResponseHome.findByPrimaryKeyForIndex( formResponseItem.getIdFormResponse( ) );
-                if ( first )
+                FormResponse formResponse = mapFormResponse.get( formResponseItem.getIdFormResponse( ) );
+                if ( formResponse == null )
+                {
+                    continue;
+                }
+                if ( bHeaderWritten.compareAndSet( false, true ) )
                 {
                     bos.write( formResponseExport.buildCsvColumnToExport( formResponse ) );
                     bos.newLine( );
-                    first = false;
                 }
                 bos.write( formResponseExport.buildCsvDataToExport( formResponse, findWorkflowState( formResponseItem ) ) );
                 bos.newLine( );
-                if ( count % FLUSH_SIZE == 0 )
-                {
-                    bos.flush( );
-                }
             }
             bos.flush( );
         }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
     }
 
     private String findWorkflowState( FormResponseItem formResponseItem )
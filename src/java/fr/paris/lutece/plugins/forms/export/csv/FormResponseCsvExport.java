@@ -33,11 +33,16 @@
  */
 package fr.paris.lutece.plugins.forms.export.csv;
 
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.apache.commons.lang3.StringUtils;
 
+import fr.paris.lutece.plugins.forms.business.FormHome;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponseStep;
@@ -50,10 +55,12 @@ import fr.paris.lutece.plugins.forms.business.TransitionHome;
 import fr.paris.lutece.plugins.forms.service.StepService;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.portal.service.i18n.I18nService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 
 /**
  * 
- * Class which contains all the data needed to build the CSV export
+ * Class which contains all the data needed to build the CSV export. An instance is used for a single export, by a single thread : the titles of the forms
+ * and the date format are shared by all the lines.
  *
  */
 public class FormResponseCsvExport
@@ -65,6 +72,9 @@ public class FormResponseCsvExport
     private static final String MESSAGE_EXPORT_FORM_DATE_UPDATE = "forms.export.formResponse.form.date.update";
 
     private final CSVHeader _csvHeader = new CSVHeader( );
+    private final Map<Integer, String> _mapFormTitle = new HashMap<>( );
+    private final DateFormat _dateFormat = new SimpleDateFormat( AppPropertiesService.getProperty( FormsConstants.PROPERTY_EXPORT_FORM_DATE_CREATION_FORMAT ),
+            I18nService.getDefaultLocale( ) );
 
     /**
      * Build the CSV string for column line
@@ -112,7 +122,8 @@ public class FormResponseCsvExport
      */
     public String buildCsvDataToExport( FormResponse formResponse, String state )
     {
-        CSVDataLine csvDataLine = new CSVDataLine( formResponse, state );
+        String strFormTitle = _mapFormTitle.computeIfAbsent( formResponse.getFormId( ), nIdForm -> FormHome.findByPrimaryKey( nIdForm ).getTitle( ) );
+        CSVDataLine csvDataLine = new CSVDataLine( formResponse, state, strFormTitle, _dateFormat );
 
         for ( FormResponseStep formResponseStep : formResponse.getSteps( ) )
         {
@@ -37,6 +37,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -49,13 +51,11 @@ import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import fr.paris.lutece.plugins.forms.business.CompositeDisplayType;
 import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormDisplay;
-import fr.paris.lutece.plugins.forms.business.FormDisplayHome;
 import fr.paris.lutece.plugins.forms.business.FormHome;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponseStep;
 import fr.paris.lutece.plugins.forms.business.Group;
-import fr.paris.lutece.plugins.forms.business.GroupHome;
 import fr.paris.lutece.plugins.forms.business.Question;
 import fr.paris.lutece.plugins.forms.business.Step;
 import fr.paris.lutece.plugins.forms.service.entrytype.EntryTypeTermsOfService;
@@ -68,17 +68,25 @@ import fr.paris.lutece.portal.business.file.FileHome;
 import fr.paris.lutece.portal.service.i18n.I18nService;
 import fr.paris.lutece.portal.service.util.AppLogService;
 
+/**
+ * Builds the pdf of form responses. The forms and the layouts of the steps are loaded once per instance and shared by all the responses, so an instance can
+ * be used by several threads for the same export.
+ */
 public class FormResponsePdfExport
 {
     private static final String KEY_LABEL_YES = "portal.util.labelYes";
     private static final String KEY_LABEL_NO = "portal.util.labelNo";
 
+    private final Map<Integer, Form> _mapForm = new ConcurrentHashMap<>( );
+    private final Map<Integer, PdfStepLayout> _mapStepLayout = new ConcurrentHashMap<>( );
+
     public void buildPdfExport( FormResponse formResponse, OutputStream outputStream )
     {
+        PDDocument pdDocument = null;
         try
         {
-            PDDocument pdDocument = new PDDocument( );
-            Form form = FormHome.findByPrimaryKey( formResponse.getFormId( ) );
+            pdDocument = new PDDocument( );
+            Form form = _mapForm.computeIfAbsent( formResponse.getFormId( ), FormHome::findByPrimaryKey );
 
             // Filters the FormResponseStep with at least one question exportable in pdf
             List<FormResponseStep> filteredList = formResponse.getSteps( ).stream( ).filter(
@@ -100,13 +108,50 @@ public class FormResponsePdfExport
         {
             AppLogService.error( "Error generating pdf for response " + formResponse.getId( ), e );
         }
+        finally
+        {
+            closeDocument( pdDocument );
+        }
+    }
+
+    /**
+     * Closes a pdf document
+     * 
+     * @param pdDocument
+     *            the document, may be null
+     */
+    private void closeDocument( PDDocument pdDocument )
+    {
+        if ( pdDocument != null )
+        {
+            try
+            {
+                pdDocument.close( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Error closing pdf document", e );
+            }
+        }
+    }
+
+    /**
+     * Gives the layout of a step, loaded on first use
+     * 
+     * @param step
+     *            the step
+     * @return the layout of the step
+     */
+    private PdfStepLayout getStepLayout( Step step )
+    {
+        return _mapStepLayout.computeIfAbsent( step.getId( ), PdfStepLayout::new );
     }
 
     private void createStepTable( PDPage page, PDPageContentStream contentStream, FormResponseStep formResponseStep )
     {
         try
         {
-            PdfUtil.addCenteredText( page, contentStream, PDType1Font.HELVETICA, 14, 60, formResponseStep.getStep( ).getTitle( ) );
+            PdfUtil.addCenteredText( page, contentStream, PDType1Font.HELVETICA, 14, 60, getStepLayout( formResponseStep.getStep( ) ).getTitle( ) );
             List<PdfCell> listContent = createCellsForStep( formResponseStep );
             PdfUtil.drawTable( page, contentStream, 700, 10, listContent );
             contentStream.close( );
@@ -119,16 +164,14 @@ public class FormResponsePdfExport
 
     private List<PdfCell> createCellsForStep( FormResponseStep formResponseStep )
     {
-        Step step = formResponseStep.getStep( );
-
-        List<FormDisplay> listStepFormDisplay = FormDisplayHome.getFormDisplayListByParent( step.getId( ), 0 );
+        PdfStepLayout stepLayout = getStepLayout( formResponseStep.getStep( ) );
 
         List<PdfCell> listContent = new ArrayList<>( );
-        for ( FormDisplay formDisplay : listStepFormDisplay )
+        for ( FormDisplay formDisplay : stepLayout.getFormDisplayList( ) )
         {
             if ( CompositeDisplayType.GROUP.getLabel( ).equals( formDisplay.getCompositeType( ) ) )
             {
-                List<PdfCell> listContentGroup = createCellsForGroup( formResponseStep, formDisplay );
+                List<PdfCell> listContentGroup = createCellsForGroup( formResponseStep, stepLayout, formDisplay );
                 listContent.addAll( listContentGroup );
             }
             else
@@ -143,12 +186,12 @@ public class FormResponsePdfExport
         return listContent;
     }
 
-    private List<PdfCell> createCellsForGroup( FormResponseStep formResponseStep, FormDisplay formDisplay )
+    private List<PdfCell> createCellsForGroup( FormResponseStep formResponseStep, PdfStepLayout stepLayout, FormDisplay formDisplay )
     {
         List<PdfCell> listContent = new ArrayList<>( );
-        Group group = GroupHome.findByPrimaryKey( formDisplay.getCompositeId( ) );
+        Group group = stepLayout.getGroup( formDisplay );
 
-        List<FormDisplay> listGroupDisplay = FormDisplayHome.getFormDisplayListByParent( formResponseStep.getStep( ).getId( ), formDisplay.getId( ) );
+        List<FormDisplay> listGroupDisplay = stepLayout.getGroupFormDisplayList( formDisplay );
         for ( int ite = 0; ite < group.getIterationMax( ); ite++ )
         {
             for ( FormDisplay formDisplayGroup : listGroupDisplay )
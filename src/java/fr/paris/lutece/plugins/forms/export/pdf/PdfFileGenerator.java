@@ -33,23 +33,26 @@
  */
 package fr.paris.lutece.plugins.forms.export.pdf;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import fr.paris.lutece.plugins.forms.business.FormResponse;
-import fr.paris.lutece.plugins.forms.business.FormResponseHome;
-import fr.paris.lutece.plugins.forms.business.form.FormResponseItem;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItemSortConfig;
 import fr.paris.lutece.plugins.forms.business.form.column.IFormColumn;
 import fr.paris.lutece.plugins.forms.business.form.filter.FormFilter;
 import fr.paris.lutece.plugins.forms.business.form.panel.FormPanel;
 import fr.paris.lutece.plugins.forms.export.AbstractFileGenerator;
+import fr.paris.lutece.plugins.forms.export.ExportTaskExecutor;
 import fr.paris.lutece.plugins.forms.service.MultiviewFormService;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.file.FileUtil;
 
@@ -75,7 +78,9 @@ public class PdfFileGenerator extends AbstractFileGenerator
         {
             directoryFile.toFile( ).mkdir( );
         }
+        long lStart = System.nanoTime( );
         writeExportFile( directoryFile );
+        FormsMetricsService.getInstance( ).recordTime( FormsMetricsService.TIMER_EXPORT_PDF, lStart );
         if ( hasMultipleFiles( ) )
         {
             return directoryFile;
@@ -117,18 +122,67 @@ public class PdfFileGenerator extends AbstractFileGenerator
     private void writeExportFile( Path directoryFile ) throws IOException
     {
         FormResponsePdfExport export = new FormResponsePdfExport( );
+        AtomicInteger nNumberOfFiles = new AtomicInteger( );
 
-        List<FormResponseItem> listFormResponseItems = MultiviewFormService.getInstance( ).searchAllListFormResponseItem( _formPanel, _listFormColumn,
-                _listFormFilter, _sortConfig );
+        // The responses are read and named in order by this thread, the pdfs are rendered by the workers
+        try ( ExportTaskExecutor executor = new ExportTaskExecutor( ) )
+        {
+            MultiviewFormService.getInstance( ).processAllListFormResponseItem( _formPanel, _listFormColumn, _listFormFilter, _sortConfig, EXPORT_CHUNK_SIZE,
+                    listFormResponseItems -> {
+                        for ( FormResponse formResponse : loadFormResponses( listFormResponseItems ) )
+                        {
+                            Path pdfFile = directoryFile.resolve( generateUniqueFileName( formResponse ) + EXTENSION_PDF );
+                            submit( executor, ( ) -> writePdf( export, formResponse, pdfFile ) );
+                            nNumberOfFiles.incrementAndGet( );
+                        }
+                    } );
+            executor.awaitCompletion( );
+        }
+        catch( UncheckedIOException e )
+        {
+            throw e.getCause( );
+        }
+
+        _hasMultipleFiles = nNumberOfFiles.get( ) > 1;
+    }
+
+    /**
+     * Submits a task to the executor
+     * 
+     * @param executor
+     *            the executor
+     * @param task
+     *            the task
+     */
+    private static void submit( ExportTaskExecutor executor, ExportTaskExecutor.ExportTask task )
+    {
+        try
+        {
+            executor.submit( task );
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
 
-        _hasMultipleFiles = listFormResponseItems.size( ) > 1;
-        for ( FormResponseItem responseItem : listFormResponseItems )
+    /**
+     * Writes the pdf of a response
+     * 
+     * @param export
+     *            the pdf export builder
+     * @param formResponse
+     *            the response
+     * @param pdfFile
+     *            the pdf file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private static void writePdf( FormResponsePdfExport export, FormResponse formResponse, Path pdfFile ) throws IOException
+    {
+        try ( OutputStream outputStream = new BufferedOutputStream( Files.newOutputStream( pdfFile ) ) )
         {
-            FormResponse formResponse = FormResponseHome.findByPrimaryKey( responseItem.getIdFormResponse( ) );
-            try ( OutputStream outputStream = Files.newOutputStream( directoryFile.resolve( generateFileName( formResponse ) + ".pdf" ) ) )
-            {
-                export.buildPdfExport( formResponse, outputStream );
-            }
+            export.buildPdfExport( formResponse, outputStream );
         }
     }
 }
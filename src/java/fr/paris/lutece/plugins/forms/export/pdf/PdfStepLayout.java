@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.export.pdf;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.forms.business.CompositeDisplayType;
+import fr.paris.lutece.plugins.forms.business.FormDisplay;
+import fr.paris.lutece.plugins.forms.business.FormDisplayHome;
+import fr.paris.lutece.plugins.forms.business.Group;
+import fr.paris.lutece.plugins.forms.business.GroupHome;
+import fr.paris.lutece.plugins.forms.business.Step;
+import fr.paris.lutece.plugins.forms.business.StepHome;
+
+/**
+ * Layout of a step used by the pdf export : the title of the step, its displays, and the groups with their displays. The layout is loaded once and is then
+ * read only, so it can be shared by the threads rendering the responses.
+ */
+final class PdfStepLayout
+{
+    private final String _strTitle;
+    private final List<FormDisplay> _listFormDisplay;
+    private final Map<Integer, Group> _mapGroup = new HashMap<>( );
+    private final Map<Integer, List<FormDisplay>> _mapGroupFormDisplay = new HashMap<>( );
+
+    /**
+     * Constructor
+     * 
+     * @param nIdStep
+     *            the step identifier
+     */
+    PdfStepLayout( int nIdStep )
+    {
+        Step step = StepHome.findByPrimaryKey( nIdStep );
+        _strTitle = ( step != null ) ? step.getTitle( ) : null;
+        _listFormDisplay = FormDisplayHome.getFormDisplayListByParent( nIdStep, 0 );
+
+        for ( FormDisplay formDisplay : _listFormDisplay )
+        {
+            if ( CompositeDisplayType.GROUP.getLabel( ).equals( formDisplay.getCompositeType( ) ) )
+            {
+                _mapGroup.put( formDisplay.getId( ), GroupHome.findByPrimaryKey( formDisplay.getCompositeId( ) ) );
+                _mapGroupFormDisplay.put( formDisplay.getId( ), FormDisplayHome.getFormDisplayListByParent( nIdStep, formDisplay.getId( ) ) );
+            }
+        }
+    }
+
+    /**
+     * @return the title of the step
+     */
+    String getTitle( )
+    {
+        return _strTitle;
+    }
+
+    /**
+     * @return the displays at the root of the step
+     */
+    List<FormDisplay> getFormDisplayList( )
+    {
+        return _listFormDisplay;
+    }
+
+    /**
+     * @param formDisplay
+     *            the display of a group
+     * @return the group of the display
+     */
+    Group getGroup( FormDisplay formDisplay )
+    {
+        return _mapGroup.get( formDisplay.getId( ) );
+    }
+
+    /**
+     * @param formDisplay
+     *            the display of a group
+     * @return the displays of the group
+     */
+    List<FormDisplay> getGroupFormDisplayList( FormDisplay formDisplay )
+    {
+        return _mapGroupFormDisplay.getOrDefault( formDisplay.getId( ), Collections.emptyList( ) );
+    }
+}
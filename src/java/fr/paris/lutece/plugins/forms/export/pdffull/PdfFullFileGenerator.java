@@ -33,32 +33,36 @@
  */
 package fr.paris.lutece.plugins.forms.export.pdffull;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FilenameUtils;
 
 import fr.paris.lutece.plugins.forms.business.FormResponse;
-import fr.paris.lutece.plugins.forms.business.FormResponseHome;
-import fr.paris.lutece.plugins.forms.business.form.FormResponseItem;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItemSortConfig;
 import fr.paris.lutece.plugins.forms.business.form.column.IFormColumn;
 import fr.paris.lutece.plugins.forms.business.form.filter.FormFilter;
 import fr.paris.lutece.plugins.forms.business.form.panel.FormPanel;
 import fr.paris.lutece.plugins.forms.export.AbstractFileGenerator;
+import fr.paris.lutece.plugins.forms.export.ExportTaskExecutor;
 import fr.paris.lutece.plugins.forms.export.pdf.FormResponsePdfExport;
 import fr.paris.lutece.plugins.forms.service.MultiviewFormService;
+import fr.paris.lutece.plugins.forms.service.download.PhysicalFileInputStream;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
 import fr.paris.lutece.plugins.genericattributes.business.Response;
 import fr.paris.lutece.portal.business.file.FileHome;
-import fr.paris.lutece.portal.business.physicalfile.PhysicalFile;
-import fr.paris.lutece.portal.business.physicalfile.PhysicalFileHome;
 import fr.paris.lutece.util.file.FileUtil;
 
 public class PdfFullFileGenerator extends AbstractFileGenerator
@@ -109,7 +113,9 @@ public class PdfFullFileGenerator extends AbstractFileGenerator
         {
             directoryFile.toFile( ).mkdir( );
         }
+        long lStart = System.nanoTime( );
         writeExportFile( directoryFile );
+        FormsMetricsService.getInstance( ).recordTime( FormsMetricsService.TIMER_EXPORT_PDF_FULL, lStart );
         if ( hasMultipleFiles( ) )
         {
             return directoryFile;
@@ -121,35 +127,88 @@ public class PdfFullFileGenerator extends AbstractFileGenerator
     private void writeExportFile( Path directoryFile ) throws IOException
     {
         FormResponsePdfExport export = new FormResponsePdfExport( );
+        AtomicInteger nNumberOfFiles = new AtomicInteger( );
 
-        List<FormResponseItem> listFormResponseItems = MultiviewFormService.getInstance( ).searchAllListFormResponseItem( _formPanel, _listFormColumn,
-                _listFormFilter, _sortConfig );
+        // The responses are read and named in order by this thread, the archives are built by the workers
+        try ( ExportTaskExecutor executor = new ExportTaskExecutor( ) )
+        {
+            MultiviewFormService.getInstance( ).processAllListFormResponseItem( _formPanel, _listFormColumn, _listFormFilter, _sortConfig, EXPORT_CHUNK_SIZE,
+                    listFormResponseItems -> {
+                        for ( FormResponse formResponse : loadFormResponses( listFormResponseItems ) )
+                        {
+                            String generatedName = generateUniqueFileName( formResponse );
+                            submit( executor, ( ) -> writeResponseArchive( export, formResponse, directoryFile, generatedName ) );
+                            nNumberOfFiles.incrementAndGet( );
+                        }
+                    } );
+            executor.awaitCompletion( );
+        }
+        catch( UncheckedIOException e )
+        {
+            throw e.getCause( );
+        }
 
-        _hasMultipleFiles = listFormResponseItems.size( ) > 1;
-        for ( FormResponseItem responseItem : listFormResponseItems )
+        _hasMultipleFiles = nNumberOfFiles.get( ) > 1;
+    }
+
+    /**
+     * Submits a task to the executor
+     * 
+     * @param executor
+     *            the executor
+     * @param task
+     *            the task
+     */
+    private static void submit( ExportTaskExecutor executor, ExportTaskExecutor.ExportTask task )
+    {
+        try
+        {
+            executor.submit( task );
+        }
+        catch( IOException e )
         {
-            FormResponse formResponse = FormResponseHome.findByPrimaryKey( responseItem.getIdFormResponse( ) );
-            String generatedName = generateFileName( formResponse );
+            throw new UncheckedIOException( e );
+        }
+    }
 
-            Path pdfFile = directoryFile.resolve( generatedName + ".pdf" );
-            try ( OutputStream outputStream = Files.newOutputStream( pdfFile ) )
-            {
-                export.buildPdfExport( formResponse, outputStream );
-            }
+    /**
+     * Writes the archive of a response, with its pdf and its attachments. The files are prepared in a directory of their own, so that the responses can be
+     * processed concurrently.
+     * 
+     * @param export
+     *            the pdf export builder
+     * @param formResponse
+     *            the response
+     * @param directoryFile
+     *            the directory of the export
+     * @param generatedName
+     *            the name of the archive
+     * @throws IOException
+     *             if a file cannot be written
+     */
+    private void writeResponseArchive( FormResponsePdfExport export, FormResponse formResponse, Path directoryFile, String generatedName ) throws IOException
+    {
+        Path responseDirectory = Files.createDirectories( directoryFile.resolve( generatedName ) );
 
-            List<Path> listAttachments = writeAndGetAttachments( directoryFile, formResponse );
+        Path pdfFile = responseDirectory.resolve( generatedName + ".pdf" );
+        try ( OutputStream outputStream = new BufferedOutputStream( Files.newOutputStream( pdfFile ) ) )
+        {
+            export.buildPdfExport( formResponse, outputStream );
+        }
 
-            Path [ ] filesToZip = listAttachments.toArray( new Path [ listAttachments.size( ) + 1] );
-            filesToZip [listAttachments.size( )] = pdfFile;
+        List<Path> listAttachments = writeAndGetAttachments( responseDirectory, formResponse );
 
-            Path zipfile = directoryFile.resolve( generatedName + FileUtil.EXTENSION_ZIP );
-            FileUtil.zipFiles( zipfile, filesToZip );
+        Path [ ] filesToZip = listAttachments.toArray( new Path [ listAttachments.size( ) + 1] );
+        filesToZip [listAttachments.size( )] = pdfFile;
 
-            for ( Path file : filesToZip )
-            {
-                FileUtil.deleteFile( file.toFile( ) );
-            }
+        Path zipfile = directoryFile.resolve( generatedName + FileUtil.EXTENSION_ZIP );
+        FileUtil.zipFiles( zipfile, filesToZip );
+
+        for ( Path file : filesToZip )
+        {
+            FileUtil.deleteFile( file.toFile( ) );
         }
+        Files.deleteIfExists( responseDirectory );
     }
 
     /**
@@ -190,10 +249,10 @@ public class PdfFullFileGenerator extends AbstractFileGenerator
 
                 Path attachment = directoryFile.resolve( filename );
 
-                PhysicalFile physicalFile = PhysicalFileHome.findByPrimaryKey( coreFile.getPhysicalFile( ).getIdPhysicalFile( ) );
-                try ( OutputStream outputStream = Files.newOutputStream( attachment ) )
+                // The content is streamed from the database instead of being loaded in memory
+                try ( InputStream inputStream = new PhysicalFileInputStream( coreFile.getPhysicalFile( ).getIdPhysicalFile( ) ) )
                 {
-                    outputStream.write( physicalFile.getValue( ) );
+                    Files.copy( inputStream, attachment, StandardCopyOption.REPLACE_EXISTING );
                 }
                 listAttachments.add( attachment );
             }
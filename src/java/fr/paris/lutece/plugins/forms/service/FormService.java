@@ -33,16 +33,21 @@
  */
 package fr.paris.lutece.plugins.forms.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 import fr.paris.lutece.api.user.User;
+import fr.paris.lutece.plugins.forms.business.Control;
 import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormDisplay;
 import fr.paris.lutece.plugins.forms.business.FormHome;
@@ -51,12 +56,24 @@ import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponseHome;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponseHome;
+import fr.paris.lutece.plugins.forms.business.FormResponseCountHome;
+import fr.paris.lutece.plugins.forms.business.FormResponseQuotaHome;
 import fr.paris.lutece.plugins.forms.business.FormResponseStep;
 import fr.paris.lutece.plugins.forms.business.FormResponseStepHome;
 import fr.paris.lutece.plugins.forms.business.Question;
+import fr.paris.lutece.plugins.forms.business.ResponseUniqueValueHome;
 import fr.paris.lutece.plugins.forms.business.Step;
 import fr.paris.lutece.plugins.forms.business.StepHome;
 import fr.paris.lutece.plugins.forms.business.export.FormExportConfigHome;
+import fr.paris.lutece.plugins.forms.exception.FormResponseQuotaException;
+import fr.paris.lutece.plugins.forms.exception.FormResponseUniqueValueException;
+import fr.paris.lutece.plugins.forms.service.cache.FormsCacheService;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
+import fr.paris.lutece.plugins.forms.service.definition.StepValidationPlan;
+import fr.paris.lutece.plugins.forms.service.entrytype.IResponseComparator;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
+import fr.paris.lutece.plugins.forms.service.postsubmit.PostSubmitService;
+import fr.paris.lutece.plugins.forms.service.postsubmit.PostSubmitTaskType;
 import fr.paris.lutece.plugins.forms.service.workflow.IFormWorkflowService;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.forms.web.CompositeGroupDisplay;
@@ -102,30 +119,133 @@ public class FormService
      *            the form to save
      * @param formResponse
      *            the form response to save
+     * @throws FormResponseQuotaException
+     *             if the response quota of the form or of the user is reached
+     * @throws FormResponseUniqueValueException
+     *             if the value of a unique response has been submitted meanwhile by another form response
      */
-    public void saveForm( Form form, FormResponse formResponse )
+    public void saveForm( Form form, FormResponse formResponse ) throws FormResponseQuotaException, FormResponseUniqueValueException
     {
+        long lStart = System.nanoTime( );
+        FormsMetricsService metricsService = FormsMetricsService.getInstance( );
+        PostSubmitService postSubmitService = PostSubmitService.getInstance( );
+        prepareResponseQuota( form, formResponse );
         TransactionManager.beginTransaction( FormsPlugin.getPlugin( ) );
 
         try
         {
             formResponse.setFromSave( Boolean.FALSE );
 
+            consumeResponseQuota( form, formResponse );
             filterFinalSteps( formResponse );
             saveFormResponse( formResponse );
-            saveFormResponseSteps( formResponse );
+            checkUniqueResponses( formResponse );
+
+            if ( postSubmitService.isAsynchronous( ) )
+            {
+                // All the tasks following the submission are stored with the form response, so that none is lost if the server stops after the commit
+                postSubmitService.enqueue( form, formResponse, PostSubmitTaskType.FORM_RESPONSE_CREATED, PostSubmitTaskType.WORKFLOW_ON_CREATION,
+                        PostSubmitTaskType.FORM_RESPONSE_UPDATED );
+            }
+
             TransactionManager.commitTransaction( FormsPlugin.getPlugin( ) );
         }
+        catch( FormResponseQuotaException e )
+        {
+            TransactionManager.rollBack( FormsPlugin.getPlugin( ) );
+            metricsService.increment( FormsMetricsService.COUNTER_SUBMIT_QUOTA_REACHED );
+            throw e;
+        }
+        catch( FormResponseUniqueValueException e )
+        {
+            TransactionManager.rollBack( FormsPlugin.getPlugin( ) );
+            resetIdentifiers( formResponse );
+            metricsService.increment( FormsMetricsService.COUNTER_VALIDATION_ERRORS );
+            throw e;
+        }
         catch( Exception e )
         {
             TransactionManager.rollBack( FormsPlugin.getPlugin( ) );
+            metricsService.increment( FormsMetricsService.COUNTER_SUBMIT_ERRORS );
             throw new AppException( e.getMessage( ), e );
         }
-        fireFormResponseEventCreation( formResponse );
+
+        FormResponseCountHome.increment( form.getId( ), formResponse.getCreation( ) );
+        FormsCacheService.getInstance( ).onFormResponseCreated( form.getId( ) );
+
+        if ( postSubmitService.isAsynchronous( ) )
+        {
+            postSubmitService.dispatch( );
+        }
+        else
+        {
+            fireFormResponseEventCreation( formResponse );
+        }
+
+        metricsService.recordTime( FormsMetricsService.TIMER_SUBMIT, form.getId( ), lStart );
+    }
+
+    /**
+     * Creates the response quota counters of the form and of the user if needed. Called before the transaction of the submit is opened.
+     * 
+     * @param form
+     *            the form
+     * @param formResponse
+     *            the form response to save
+     */
+    private void prepareResponseQuota( Form form, FormResponse formResponse )
+    {
+        if ( form.getMaxNumberResponse( ) != 0 )
+        {
+            FormResponseQuotaHome.prepare( form.getId( ), null );
+        }
+
+        if ( hasUserQuota( form, formResponse ) )
+        {
+            FormResponseQuotaHome.prepare( form.getId( ), formResponse.getGuid( ) );
+        }
+    }
+
+    /**
+     * Consumes the response quotas of the form and of the user. The quota counters stay locked until the end of the current transaction.
+     * 
+     * @param form
+     *            the form
+     * @param formResponse
+     *            the form response to save
+     * @throws FormResponseQuotaException
+     *             if the response quota of the form or of the user is reached
+     */
+    private void consumeResponseQuota( Form form, FormResponse formResponse ) throws FormResponseQuotaException
+    {
+        if ( form.getMaxNumberResponse( ) != 0 && !FormResponseQuotaHome.consume( form.getId( ), null, form.getMaxNumberResponse( ) ) )
+        {
+            throw new FormResponseQuotaException( false );
+        }
+
+        if ( hasUserQuota( form, formResponse ) && !FormResponseQuotaHome.consume( form.getId( ), formResponse.getGuid( ), 1 ) )
+        {
+            throw new FormResponseQuotaException( true );
+        }
+    }
+
+    /**
+     * Tells if the response is limited by the quota of one response by user
+     * 
+     * @param form
+     *            the form
+     * @param formResponse
+     *            the form response to save
+     * @return true if the user quota applies, false otherwise
+     */
+    private boolean hasUserQuota( Form form, FormResponse formResponse )
+    {
+        return form.isAuthentificationNeeded( ) && form.isOneResponseByUser( ) && StringUtils.isNotEmpty( formResponse.getGuid( ) );
     }
 
     /**
-     * Process action on form creation
+     * Process action on form creation. When the post submit tasks are asynchronous, the workflow action and the update event have been enqueued by
+     * {@link #saveForm(Form, FormResponse)} in the transaction of the form response : they are only dispatched
      *
      * @param form
      *            the workflow form
@@ -134,8 +254,17 @@ public class FormService
      */
     public void processFormAction( Form form, FormResponse formResponse )
     {
-        _formWorkflowService.doProcessActionOnFormCreation( form, formResponse );
-        fireFormResponseEventUpdate( formResponse );
+        PostSubmitService postSubmitService = PostSubmitService.getInstance( );
+
+        if ( postSubmitService.isAsynchronous( ) )
+        {
+            postSubmitService.dispatch( );
+        }
+        else
+        {
+            _formWorkflowService.doProcessActionOnFormCreation( form, formResponse );
+            fireFormResponseEventUpdate( formResponse );
+        }
     }
 
     /**
@@ -151,7 +280,7 @@ public class FormService
     }
 
     /**
-     * Saves the form response
+     * Saves the form response and its steps. An existing form response is updated by difference with the stored one
      * 
      * @param formResponse
      *            the form response to save
@@ -161,55 +290,313 @@ public class FormService
         if ( formResponse.getId( ) > 0 )
         {
             FormResponseHome.update( formResponse );
-
-            for ( FormQuestionResponse formQuestionResponse : FormQuestionResponseHome.getFormQuestionResponseListByFormResponse( formResponse.getId( ) ) )
-            {
-                FormQuestionResponseHome.remove( formQuestionResponse );
-            }
-
-            FormResponseStepHome.removeByFormResponse( formResponse.getId( ) );
+            updateFormResponseSteps( formResponse );
         }
         else
         {
             FormResponseHome.create( formResponse );
+            saveFormResponseSteps( formResponse );
         }
     }
 
     /**
-     * Saves the form response steps
+     * Saves the form response steps and their form question responses with batches of statements. The responses of the entry types which have their own
+     * storage are saved by their data service
      * 
      * @param formResponse
      *            the form response containing the form response steps to save
      */
     private void saveFormResponseSteps( FormResponse formResponse )
     {
+        List<FormQuestionResponse> listQuestionResponseToCreate = new ArrayList<>( );
+
+        for ( FormResponseStep formResponseStep : formResponse.getSteps( ) )
+        {
+            formResponseStep.setFormResponseId( formResponse.getId( ) );
+
+            for ( FormQuestionResponse formQuestionResponse : formResponseStep.getQuestions( ) )
+            {
+                Question question = formQuestionResponse.getQuestion( );
+
+                if ( question != null && question.isVisible( ) )
+                {
+                    formQuestionResponse.setIdFormResponse( formResponse.getId( ) );
+                    formQuestionResponse.setUniqueValue( hasUniqueControl( question ) );
+                    IEntryDataService dataService = getEntryDataService( question );
+
+                    if ( isBatchSaveSupported( dataService ) )
+                    {
+                        listQuestionResponseToCreate.add( formQuestionResponse );
+                    }
+                    else
+                    {
+                        dataService.save( formQuestionResponse );
+                    }
+                }
+            }
+        }
+
+        FormQuestionResponseHome.createList( listQuestionResponseToCreate );
+        FormResponseStepHome.createList( formResponse.getSteps( ) );
+    }
+
+    /**
+     * Updates the steps and the form question responses of an existing form response. Only the difference with the stored rows is written: the unchanged
+     * rows are kept, the changed ones are updated and the removed ones are deleted with a single statement. The responses of the entry types which have their
+     * own storage are saved by their data service
+     * 
+     * @param formResponse
+     *            the form response containing the form response steps to save
+     */
+    private void updateFormResponseSteps( FormResponse formResponse )
+    {
+        Map<Integer, FormResponseStep> mapStoredStep = new HashMap<>( );
+        List<Integer> listIdStepToRemove = new ArrayList<>( );
+
+        for ( FormResponseStep formResponseStepStored : FormResponseStepHome.findStepsByFormResponsePartial( formResponse.getId( ) ) )
+        {
+            if ( mapStoredStep.putIfAbsent( formResponseStepStored.getStep( ).getId( ), formResponseStepStored ) != null )
+            {
+                listIdStepToRemove.add( formResponseStepStored.getId( ) );
+            }
+        }
+
+        Map<String, FormQuestionResponse> mapStoredQuestionResponse = new HashMap<>( );
+        List<FormQuestionResponse> listQuestionResponseToRemove = new ArrayList<>( );
+
+        for ( FormQuestionResponse formQuestionResponseStored : FormQuestionResponseHome.getFormQuestionResponseListByFormResponse( formResponse.getId( ) ) )
+        {
+            if ( mapStoredQuestionResponse.putIfAbsent( getQuestionResponseKey( formQuestionResponseStored ), formQuestionResponseStored ) != null )
+            {
+                listQuestionResponseToRemove.add( formQuestionResponseStored );
+            }
+        }
+
+        List<FormResponseStep> listStepToCreate = new ArrayList<>( );
+        List<FormResponseStep> listStepToUpdate = new ArrayList<>( );
+        List<FormQuestionResponse> listQuestionResponseToCreate = new ArrayList<>( );
+        List<FormQuestionResponse> listQuestionResponseToUpdate = new ArrayList<>( );
+        List<FormQuestionResponse> listQuestionResponseToReplace = new ArrayList<>( );
+
         for ( FormResponseStep formResponseStep : formResponse.getSteps( ) )
         {
             formResponseStep.setFormResponseId( formResponse.getId( ) );
 
-            saveFormQuestionResponse( formResponseStep );
+            for ( FormQuestionResponse formQuestionResponse : formResponseStep.getQuestions( ) )
+            {
+                Question question = formQuestionResponse.getQuestion( );
+
+                if ( question == null || !question.isVisible( ) )
+                {
+                    continue;
+                }
+
+                formQuestionResponse.setIdFormResponse( formResponse.getId( ) );
+                formQuestionResponse.setUniqueValue( hasUniqueControl( question ) );
+
+                FormQuestionResponse formQuestionResponseStored = mapStoredQuestionResponse.remove( getQuestionResponseKey( formQuestionResponse ) );
+                IEntryDataService dataService = getEntryDataService( question );
+
+                if ( !isBatchSaveSupported( dataService ) )
+                {
+                    formQuestionResponse.setId( formQuestionResponseStored != null ? formQuestionResponseStored.getId( ) : 0 );
+                    dataService.save( formQuestionResponse );
+                    continue;
+                }
+
+                if ( formQuestionResponseStored == null )
+                {
+                    listQuestionResponseToCreate.add( formQuestionResponse );
+                    continue;
+                }
+
+                int nIdStepStored = formQuestionResponseStored.getIdStep( );
+                formQuestionResponse.setId( formQuestionResponseStored.getId( ) );
+
+                if ( isQuestionResponseChanged( formQuestionResponseStored, formQuestionResponse ) )
+                {
+                    listQuestionResponseToReplace.add( formQuestionResponse );
+                }
+
+                if ( nIdStepStored != formQuestionResponse.getIdStep( ) )
+                {
+                    listQuestionResponseToUpdate.add( formQuestionResponse );
+                }
+            }
+
+            FormResponseStep formResponseStepStored = mapStoredStep.remove( formResponseStep.getStep( ).getId( ) );
+
+            if ( formResponseStepStored == null )
+            {
+                listStepToCreate.add( formResponseStep );
+            }
+            else
+            {
+                formResponseStep.setId( formResponseStepStored.getId( ) );
+
+                if ( formResponseStepStored.getOrder( ) != formResponseStep.getOrder( ) )
+                {
+                    listStepToUpdate.add( formResponseStep );
+                }
+            }
+        }
+
+        listQuestionResponseToRemove.addAll( mapStoredQuestionResponse.values( ) );
+        mapStoredStep.values( ).forEach( formResponseStepStored -> listIdStepToRemove.add( formResponseStepStored.getId( ) ) );
+
+        FormQuestionResponseHome.removeList( listQuestionResponseToRemove );
+        FormQuestionResponseHome.updateEntryResponses( listQuestionResponseToReplace );
+        FormQuestionResponseHome.updateList( listQuestionResponseToUpdate );
+        FormResponseStepHome.removeList( listIdStepToRemove );
+        FormResponseStepHome.updateList( listStepToUpdate );
+        FormQuestionResponseHome.createList( listQuestionResponseToCreate );
+        FormResponseStepHome.createList( listStepToCreate );
+    }
+
+    /**
+     * Tests if a question has a unique control in the compiled validation plan of its step. The values of its responses are then stored for the
+     * uniqueness checks
+     * 
+     * @param question
+     *            the question
+     * @return {@code true} if the question has a unique control, {@code false} otherwise
+     */
+    private boolean hasUniqueControl( Question question )
+    {
+        return CompiledFormService.getInstance( ).getValidationPlan( question.getIdStep( ) ).getUniqueControl( question.getId( ) ) != null;
+    }
+
+    /**
+     * Get the data service of the entry type of a question
+     * 
+     * @param question
+     *            the question
+     * @return the data service, or null if there is none
+     */
+    private static IEntryDataService getEntryDataService( Question question )
+    {
+        return EntryServiceManager.getInstance( ).getEntryDataService( question.getEntry( ).getEntryType( ) );
+    }
+
+    /**
+     * Tells if the responses of an entry type are saved with the batches of statements
+     * 
+     * @param dataService
+     *            the data service of the entry type, or null
+     * @return true if the responses are saved by batch, false if they are saved by the data service
+     */
+    private static boolean isBatchSaveSupported( IEntryDataService dataService )
+    {
+        return dataService == null || dataService.isBatchSaveSupported( );
+    }
+
+    /**
+     * Builds the key identifying a form question response inside its form response
+     * 
+     * @param formQuestionResponse
+     *            the form question response
+     * @return the key made of the question id and of the iteration number
+     */
+    private static String getQuestionResponseKey( FormQuestionResponse formQuestionResponse )
+    {
+        return formQuestionResponse.getQuestion( ).getId( ) + ":" + formQuestionResponse.getQuestion( ).getIterationNumber( );
+    }
+
+    /**
+     * Tells if the entry responses of a form question response differ from the stored ones. When they do not, the new entry responses take the identifiers of
+     * the stored ones. Entry types which cannot compare their responses are always considered as changed
+     * 
+     * @param formQuestionResponseStored
+     *            the stored form question response
+     * @param formQuestionResponse
+     *            the new form question response
+     * @return {@code true} if the entry responses must be replaced, {@code false} otherwise
+     */
+    private static boolean isQuestionResponseChanged( FormQuestionResponse formQuestionResponseStored, FormQuestionResponse formQuestionResponse )
+    {
+        List<Response> listResponseStored = formQuestionResponseStored.getEntryResponse( );
+        List<Response> listResponseNew = formQuestionResponse.getEntryResponse( );
+
+        if ( listResponseStored == null || listResponseNew == null || listResponseStored.size( ) != listResponseNew.size( ) )
+        {
+            return true;
+        }
+
+        if ( !listResponseNew.isEmpty( ) )
+        {
+            Entry entry = formQuestionResponse.getQuestion( ).getEntry( );
+            IEntryTypeService entryTypeService = EntryTypeServiceManager.getEntryTypeService( entry );
+
+            if ( !( entryTypeService instanceof IResponseComparator )
+                    || ( (IResponseComparator) entryTypeService ).isResponseChanged( listResponseStored, listResponseNew ) )
+            {
+                return true;
+            }
+        }
+
+        for ( int i = 0; i < listResponseNew.size( ); i++ )
+        {
+            listResponseNew.get( i ).setIdResponse( listResponseStored.get( i ).getIdResponse( ) );
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks, once the responses are stored, that the responses of the questions with a unique control have not been submitted concurrently by another user.
+     * The checked values stay locked until the end of the current transaction.
+     * 
+     * @param formResponse
+     *            the stored form response
+     * @throws FormResponseUniqueValueException
+     *             if the value of a unique response has been submitted meanwhile
+     */
+    private void checkUniqueResponses( FormResponse formResponse ) throws FormResponseUniqueValueException
+    {
+        for ( FormResponseStep formResponseStep : formResponse.getSteps( ) )
+        {
+            StepValidationPlan validationPlan = CompiledFormService.getInstance( ).getValidationPlan( formResponseStep.getStep( ).getId( ) );
+
+            for ( FormQuestionResponse formQuestionResponse : formResponseStep.getQuestions( ) )
+            {
+                Question question = formQuestionResponse.getQuestion( );
+
+                if ( question == null || !question.isVisible( ) || formQuestionResponse.getEntryResponse( ).isEmpty( ) )
+                {
+                    continue;
+                }
+
+                Response response = formQuestionResponse.getEntryResponse( ).get( 0 );
+                Control control = validationPlan.getUniqueControl( question.getId( ) );
 
-            FormResponseStepHome.create( formResponseStep );
+                if ( control != null && StringUtils.isNotEmpty( response.getResponseValue( ) )
+                        && ResponseUniqueValueHome.isDuplicated( response, Boolean.parseBoolean( control.getValue( ) ) ) )
+                {
+                    throw new FormResponseUniqueValueException( formQuestionResponse, control );
+                }
+            }
         }
     }
 
     /**
-     * Saves the form question responses of the specified step
+     * Resets the identifiers given to a form response and to its parts by a save which has been rolled back, so that it can be saved again as a new
+     * response
      * 
-     * @param formResponseStep
-     *            the form response step containing the form questions responses to save
+     * @param formResponse
+     *            the form response
      */
-    private void saveFormQuestionResponse( FormResponseStep formResponseStep )
+    private void resetIdentifiers( FormResponse formResponse )
     {
-        for ( FormQuestionResponse formQuestionResponse : formResponseStep.getQuestions( ) )
+        formResponse.setId( 0 );
+
+        for ( FormResponseStep formResponseStep : formResponse.getSteps( ) )
         {
-            Question question = formQuestionResponse.getQuestion( );
+            formResponseStep.setId( 0 );
 
-            if ( question != null && question.isVisible( ) )
+            for ( FormQuestionResponse formQuestionResponse : formResponseStep.getQuestions( ) )
             {
-                IEntryDataService dataService = EntryServiceManager.getInstance( ).getEntryDataService( question.getEntry( ).getEntryType( ) );
-                formQuestionResponse.setIdFormResponse( formResponseStep.getFormResponseId( ) );
-                dataService.save( formQuestionResponse );
+                formQuestionResponse.setId( 0 );
+                formQuestionResponse.getEntryResponse( ).forEach( response -> response.setIdResponse( 0 ) );
             }
         }
     }
@@ -226,7 +613,6 @@ public class FormService
         formResponse.setFromSave( Boolean.TRUE );
 
         saveFormResponse( formResponse );
-        saveFormResponseSteps( formResponse );
     }
 
     /**
@@ -315,6 +701,8 @@ public class FormService
         }
 
         FormResponseHome.removeByForm( nIdForm );
+        FormResponseQuotaHome.removeByForm( nIdForm );
+        FormResponseCountHome.removeByForm( nIdForm );
         FormMessageHome.removeByForm( nIdForm );
         FormExportConfigHome.removeByForm( nIdForm );
 
@@ -33,45 +33,30 @@
  */
 package fr.paris.lutece.plugins.forms.service;
 
-import fr.paris.lutece.api.user.User;
-import fr.paris.lutece.plugins.forms.business.form.FormParameters;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Collections;
 
 import javax.servlet.http.HttpServletRequest;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
-import fr.paris.lutece.plugins.forms.business.form.FormResponseItem;
-import fr.paris.lutece.plugins.forms.business.form.column.FormColumnFactory;
-import fr.paris.lutece.plugins.forms.business.form.column.IFormColumn;
-import fr.paris.lutece.plugins.forms.business.form.filter.FormFilter;
-import fr.paris.lutece.plugins.forms.business.form.filter.configuration.FormFilterFormResponseIdConfiguration;
 import fr.paris.lutece.plugins.forms.business.form.list.FormListFacade;
 import fr.paris.lutece.plugins.forms.business.form.panel.FormPanel;
 import fr.paris.lutece.plugins.forms.business.form.panel.FormPanelFactory;
 import fr.paris.lutece.plugins.forms.business.form.panel.configuration.IFormPanelConfiguration;
-import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.forms.web.form.FormDisplayFactory;
-import fr.paris.lutece.portal.service.admin.AdminUserService;
-
-import java.util.HashMap;
-import java.util.Map;
-import org.apache.commons.lang3.StringUtils;
 
 /**
- * Implementation of the IFormsMultiviewAuthorizationService interface
+ * Implementation of the IFormsMultiviewAuthorizationService interface. The FormPanel is built for each request, its initializers depending on the request
+ * and on the current rights of the user, so that checking a form response only costs a lookup of its document in the index.
  */
 public class FormsMultiviewAuthorizationService implements IFormsMultiviewAuthorizationService
 {
     public static final String BEAN_NAME = "forms.formsMultiviewAuthorizationService";
 
     // Variables
-    private FormPanel _formPanel;
+    private final IFormPanelConfiguration _formPanelConfiguration;
     private final FormListFacade _formListFacade;
-    private final FormColumnFactory _formColumnFactory;
+    private final FormPanelFactory _formPanelFactory;
 
     /**
      * Constructor
@@ -80,16 +65,12 @@ public class FormsMultiviewAuthorizationService implements IFormsMultiviewAuthor
      *            The FormPanelConfiguration to set to the FormPanel
      * @param formListFacade
      *            The FormListFacade to use by the service
-     * @param formColumnFactory
-     *            The FormColumnFactory to use by the service
      */
-    public FormsMultiviewAuthorizationService( IFormPanelConfiguration formPanelConfiguration, FormListFacade formListFacade,
-            FormColumnFactory formColumnFactory )
+    public FormsMultiviewAuthorizationService( IFormPanelConfiguration formPanelConfiguration, FormListFacade formListFacade )
     {
-        _formPanel = new FormPanel( );
-        _formPanel.setFormPanelConfiguration( formPanelConfiguration );
+        _formPanelConfiguration = formPanelConfiguration;
         _formListFacade = formListFacade;
-        _formColumnFactory = formColumnFactory;
+        _formPanelFactory = new FormPanelFactory( Collections.singletonList( formPanelConfiguration ) );
     }
 
     /**
@@ -98,54 +79,26 @@ public class FormsMultiviewAuthorizationService implements IFormsMultiviewAuthor
     @Override
     public boolean isUserAuthorizedOnFormResponse( HttpServletRequest request, int nIdFormResponse )
     {
-        boolean bIsUserAuthorizedOnFormResponse = Boolean.FALSE;
-
-        if ( nIdFormResponse != NumberUtils.INTEGER_MINUS_ONE && _formPanel.getFormPanelConfiguration( ) != null )
+        if ( nIdFormResponse == NumberUtils.INTEGER_MINUS_ONE || _formPanelConfiguration == null )
         {
-            _formPanel = new FormPanelFactory( ).buildFormPanel( _formPanel.getFormPanelConfiguration( ) );
-
-            List<IFormColumn> listFormResponseColumn = _formColumnFactory.buildFormColumnList( null, request.getLocale( ),
-                    (User) AdminUserService.getAdminUser( request ) );
-
-            // Rebuild all the FormPanelInitializer to reset the previous data
-            FormDisplayFactory.buildFormPanelDisplayInitializer( request, _formPanel );
-
-            List<FormFilter> listFormFilters = new ArrayList<>( );
-            listFormFilters.add( buildFormResponseIdFilter( nIdFormResponse ) );
-
-            _formListFacade.populateFormColumns( _formPanel, listFormResponseColumn, listFormFilters, 0, 1, null );
-            List<FormResponseItem> listFormResponseItem = _formPanel.getFormResponseItemList( );
-
-            if ( !CollectionUtils.isEmpty( listFormResponseItem ) )
-            {
-                List<Integer> listIdFormResponse = listFormResponseItem.stream( ).map( FormResponseItem::getIdFormResponse ).collect( Collectors.toList( ) );
-                bIsUserAuthorizedOnFormResponse = listIdFormResponse.contains( nIdFormResponse );
-            }
+            return false;
         }
 
-        return bIsUserAuthorizedOnFormResponse;
+        return _formListFacade.isFormResponseInPanel( buildFormPanel( request ), nIdFormResponse );
     }
 
     /**
-     * Build a form response id filter from an id response
+     * Build the FormPanel of the user, with the parameters of its initializers
      * 
-     * @param nIdFormResponse
-     *            The form response id
-     * @return the FormFilter
+     * @param request
+     *            The request of the user
+     * @return the FormPanel
      */
-    private FormFilter buildFormResponseIdFilter( int nIdFormResponse )
+    private FormPanel buildFormPanel( HttpServletRequest request )
     {
-        FormFilter formFilterId = new FormFilter( );
-        FormFilterFormResponseIdConfiguration config = new FormFilterFormResponseIdConfiguration( 1, StringUtils.EMPTY, StringUtils.EMPTY );
-        FormParameters formParam = new FormParameters( );
-
-        Map<String, Object> mapFormParam = new HashMap<>( );
-        mapFormParam.put( FormsConstants.PARAMETER_ID_RESPONSE, nIdFormResponse );
-
-        formParam.setFormParametersMap( mapFormParam );
-        formFilterId.setFormFilterConfiguration( config );
-        formFilterId.setFormParameters( formParam );
+        FormPanel formPanel = _formPanelFactory.buildFormPanel( _formPanelConfiguration );
+        FormDisplayFactory.buildFormPanelDisplayInitializer( request, formPanel );
 
-        return formFilterId;
+        return formPanel;
     }
 }
@@ -73,6 +73,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -120,6 +121,20 @@ public final class MultiviewFormService
         formListFacade.populateFormColumns( formPanel, listFormColumn, listFormFilter, nStartIndex, nPageSize, sortConfig );
     }
 
+    /**
+     * Set the number of FormResponseItem of each given FormPanel, without populating their columns. The counts are computed concurrently.
+     * 
+     * @param listFormPanel
+     *            The FormPanels to count the FormResponseItem of
+     * @param listFormFilter
+     *            The list of FormFilter
+     */
+    public void populateFormResponseItemCounts( List<FormPanel> listFormPanel, List<FormFilter> listFormFilter )
+    {
+        FormListFacade formListFacade = SpringContextService.getBean( FormListFacade.BEAN_NAME );
+        formListFacade.populateFormResponseItemCounts( listFormPanel, listFormFilter );
+    }
+
     public List<FormResponseItem> searchAllListFormResponseItem( FormPanel formPanel, List<IFormColumn> listFormColumn, List<FormFilter> listFormFilter,
             FormResponseItemSortConfig sortConfig )
     {
@@ -127,6 +142,29 @@ public final class MultiviewFormService
         return formListDAO.searchAllFormResponseItem( formPanel, listFormColumn, listFormFilter, sortConfig );
     }
 
+    /**
+     * Process all the FormResponseItem of the given FormPanel by chunks, without loading them all in memory
+     * 
+     * @param formPanel
+     *            The FormPanel
+     * @param listFormColumn
+     *            The list of FormColumn
+     * @param listFormFilter
+     *            The list of FormFilter
+     * @param sortConfig
+     *            The sort config
+     * @param nChunkSize
+     *            The number of FormResponseItem per chunk
+     * @param chunkConsumer
+     *            The consumer of each chunk of FormResponseItem
+     */
+    public void processAllListFormResponseItem( FormPanel formPanel, List<IFormColumn> listFormColumn, List<FormFilter> listFormFilter,
+            FormResponseItemSortConfig sortConfig, int nChunkSize, Consumer<List<FormResponseItem>> chunkConsumer )
+    {
+        IFormListDAO formListDAO = SpringContextService.getBean( FormListLuceneDAO.BEAN_NAME );
+        formListDAO.processAllFormResponseItem( formPanel, listFormColumn, listFormFilter, sortConfig, nChunkSize, chunkConsumer );
+    }
+
     /**
      * Find the FormPanel which is active in the given list
      * 
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.cache;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.forms.business.cache.FormsCacheInvalidation;
+import fr.paris.lutece.plugins.forms.business.cache.FormsCacheInvalidationHome;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Invalidation bus shared by all the servers using the same database. The invalidations are recorded in a table which every server polls through the
+ * {@link FormsCacheInvalidationDaemon}, so no message broker is needed. An invalidation may be received late by the other servers (up to the interval of the
+ * daemon) : the time to live of the caches bounds the staleness if an invalidation is missed.
+ * <p>
+ * The identifiers are allocated when the invalidations are inserted, not when they are committed, so an invalidation may become visible after one with a
+ * greater identifier. Each poll therefore reads again the invalidations of an overlap window before the last one received, dated by the database, and skips
+ * the ones already received.
+ * </p>
+ */
+public class DatabaseFormsCacheInvalidationBus extends LocalFormsCacheInvalidationBus
+{
+    // Properties
+    private static final String PROPERTY_RETENTION = "forms.cache.invalidation.retention";
+    private static final String PROPERTY_OVERLAP = "forms.cache.invalidation.overlap";
+
+    private static final int DEFAULT_RETENTION = 60;
+    private static final int DEFAULT_OVERLAP = 60;
+
+    private final long _lOverlapMillis = TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_OVERLAP, DEFAULT_OVERLAP ) );
+    private final long _lRetentionMillis = Math.max( TimeUnit.MINUTES.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_RETENTION, DEFAULT_RETENTION ) ),
+            2 * _lOverlapMillis );
+    private final Map<Integer, Long> _mapReceivedInvalidations = new HashMap<>( );
+    private Timestamp _dateLastInvalidation;
+    private boolean _bInitialized;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish( int nIdForm )
+    {
+        FormsCacheInvalidationHome.create( nIdForm );
+        notifyListeners( nIdForm );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void addListener( IFormsCacheInvalidationListener listener )
+    {
+        // The invalidations recorded before the registration of the first cache are useless
+        initLastInvalidation( );
+        super.addListener( listener );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int poll( )
+    {
+        if ( initLastInvalidation( ) )
+        {
+            return 0;
+        }
+
+        int nNbInvalidations = 0;
+
+        for ( FormsCacheInvalidation invalidation : getInvalidationsOfWindow( ) )
+        {
+            if ( receive( invalidation ) )
+            {
+                notifyListeners( invalidation.getIdForm( ) );
+                nNbInvalidations++;
+            }
+        }
+
+        if ( _dateLastInvalidation != null )
+        {
+            long lWindowStart = _dateLastInvalidation.getTime( ) - _lOverlapMillis;
+            _mapReceivedInvalidations.values( ).removeIf( lDate -> lDate < lWindowStart );
+        }
+
+        FormsCacheInvalidationHome.removeBefore( new Timestamp( System.currentTimeMillis( ) - _lRetentionMillis ) );
+
+        return nNbInvalidations;
+    }
+
+    /**
+     * Initializes the date of the last received invalidation if needed. The invalidations of the overlap window are marked as received.
+     * 
+     * @return true if the date has been initialized by this call
+     */
+    private boolean initLastInvalidation( )
+    {
+        if ( _bInitialized )
+        {
+            return false;
+        }
+
+        _dateLastInvalidation = FormsCacheInvalidationHome.getLastInvalidationDate( );
+        getInvalidationsOfWindow( ).forEach( this::receive );
+        _bInitialized = true;
+
+        return true;
+    }
+
+    /**
+     * Loads the invalidations dated from the beginning of the overlap window
+     * 
+     * @return the invalidations
+     */
+    private List<FormsCacheInvalidation> getInvalidationsOfWindow( )
+    {
+        long lWindowStart = ( _dateLastInvalidation != null ) ? ( _dateLastInvalidation.getTime( ) - _lOverlapMillis ) : 0;
+
+        return FormsCacheInvalidationHome.getInvalidationsSince( new Timestamp( lWindowStart ) );
+    }
+
+    /**
+     * Records an invalidation as received
+     * 
+     * @param invalidation
+     *            the invalidation
+     * @return true if the invalidation had not been received yet
+     */
+    private boolean receive( FormsCacheInvalidation invalidation )
+    {
+        Timestamp dateInvalidation = invalidation.getDateInvalidation( );
+
+        if ( _dateLastInvalidation == null || dateInvalidation.after( _dateLastInvalidation ) )
+        {
+            _dateLastInvalidation = dateInvalidation;
+        }
+
+        return _mapReceivedInvalidations.putIfAbsent( invalidation.getId( ), dateInvalidation.getTime( ) ) == null;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In memory cache bounded in size (least recently used entries are evicted first) and in time to live, which counts its hits, misses and evictions. The
+ * reads do not lock : the entries are kept in a concurrent map, and the least recently used entries are only looked for when the cache is full.
+ * 
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ */
+public class FormsCache<K, V>
+{
+    private final String _strName;
+    private final int _nMaxSize;
+    private final long _lTimeToLiveMillis;
+    private final Map<K, CacheElement<V>> _mapElements = new ConcurrentHashMap<>( );
+    private final AtomicLong _lHitCount = new AtomicLong( );
+    private final AtomicLong _lMissCount = new AtomicLong( );
+    private final AtomicLong _lEvictionCount = new AtomicLong( );
+    private final AtomicLong _lAccessCount = new AtomicLong( );
+    private final AtomicLong _lGeneration = new AtomicLong( );
+
+    /**
+     * Constructor
+     * 
+     * @param strName
+     *            the name of the cache
+     * @param nMaxSize
+     *            the maximum number of entries, 0 to disable the cache
+     * @param lTimeToLiveSeconds
+     *            the time to live of the entries in seconds, 0 for no expiration
+     */
+    public FormsCache( String strName, int nMaxSize, long lTimeToLiveSeconds )
+    {
+        _strName = strName;
+        _nMaxSize = Math.max( nMaxSize, 0 );
+        _lTimeToLiveMillis = TimeUnit.SECONDS.toMillis( Math.max( lTimeToLiveSeconds, 0 ) );
+    }
+
+    /**
+     * Gives the value associated to a key, loading it if it is not in the cache. A {@code null} value is not cached. Concurrent calls may load the same key
+     * twice. A value loaded while the cache is cleared is not kept.
+     * 
+     * @param key
+     *            the key
+     * @param loader
+     *            the function loading the value of a key
+     * @return the value
+     */
+    public V get( K key, Function<K, V> loader )
+    {
+        if ( _nMaxSize == 0 )
+        {
+            _lMissCount.incrementAndGet( );
+            return loader.apply( key );
+        }
+
+        V value = getIfPresent( key );
+
+        if ( value != null )
+        {
+            _lHitCount.incrementAndGet( );
+            return value;
+        }
+
+        _lMissCount.incrementAndGet( );
+
+        long lGeneration = _lGeneration.get( );
+        value = loader.apply( key );
+
+        if ( value != null )
+        {
+            long lExpiration = ( _lTimeToLiveMillis > 0 ) ? ( System.currentTimeMillis( ) + _lTimeToLiveMillis ) : Long.MAX_VALUE;
+            CacheElement<V> element = new CacheElement<>( value, lExpiration, _lAccessCount.incrementAndGet( ) );
+            _mapElements.put( key, element );
+
+            if ( _lGeneration.get( ) != lGeneration )
+            {
+                _mapElements.remove( key, element );
+            }
+            else
+            {
+                evictIfFull( );
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Gives the value associated to a key if it is in the cache, without loading it
+     * 
+     * @param key
+     *            the key
+     * @return the value, or {@code null} if the key is not in the cache or has expired
+     */
+    public V getIfPresent( K key )
+    {
+        CacheElement<V> element = _mapElements.get( key );
+
+        if ( element == null )
+        {
+            return null;
+        }
+
+        if ( element.isExpired( ) )
+        {
+            if ( _mapElements.remove( key, element ) )
+            {
+                _lEvictionCount.incrementAndGet( );
+            }
+
+            return null;
+        }
+
+        element._lLastAccess = _lAccessCount.incrementAndGet( );
+
+        return element._value;
+    }
+
+    /**
+     * Removes all the entries of the cache
+     */
+    public void clear( )
+    {
+        _lGeneration.incrementAndGet( );
+        _mapElements.clear( );
+    }
+
+    /**
+     * Evicts the expired entries, then the least recently used ones, while the cache holds more entries than its maximum size
+     */
+    private void evictIfFull( )
+    {
+        if ( _mapElements.size( ) <= _nMaxSize )
+        {
+            return;
+        }
+
+        _mapElements.forEach( ( key, element ) -> {
+            if ( element.isExpired( ) && _mapElements.remove( key, element ) )
+            {
+                _lEvictionCount.incrementAndGet( );
+            }
+        } );
+
+        while ( _mapElements.size( ) > _nMaxSize )
+        {
+            Map.Entry<K, CacheElement<V>> entryEldest = null;
+
+            for ( Map.Entry<K, CacheElement<V>> entry : _mapElements.entrySet( ) )
+            {
+                if ( entryEldest == null || entry.getValue( )._lLastAccess < entryEldest.getValue( )._lLastAccess )
+                {
+                    entryEldest = entry;
+                }
+            }
+
+            if ( entryEldest == null )
+            {
+                return;
+            }
+
+            if ( _mapElements.remove( entryEldest.getKey( ), entryEldest.getValue( ) ) )
+            {
+                _lEvictionCount.incrementAndGet( );
+            }
+        }
+    }
+
+    /**
+     * @return the name of the cache
+     */
+    public String getName( )
+    {
+        return _strName;
+    }
+
+    /**
+     * @return the maximum number of entries
+     */
+    public int getMaxSize( )
+    {
+        return _nMaxSize;
+    }
+
+    /**
+     * @return the time to live of the entries in seconds, 0 for no expiration
+     */
+    public long getTimeToLiveSeconds( )
+    {
+        return TimeUnit.MILLISECONDS.toSeconds( _lTimeToLiveMillis );
+    }
+
+    /**
+     * @return the current number of entries
+     */
+    public int getSize( )
+    {
+        return _mapElements.size( );
+    }
+
+    /**
+     * @return the number of values found in the cache
+     */
+    public long getHitCount( )
+    {
+        return _lHitCount.get( );
+    }
+
+    /**
+     * @return the number of values loaded because they were not in the cache
+     */
+    public long getMissCount( )
+    {
+        return _lMissCount.get( );
+    }
+
+    /**
+     * @return the number of entries evicted because of the size limit or of their expiration
+     */
+    public long getEvictionCount( )
+    {
+        return _lEvictionCount.get( );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString( )
+    {
+        return _strName + " [size=" + getSize( ) + ", hits=" + getHitCount( ) + ", misses=" + getMissCount( ) + ", evictions=" + getEvictionCount( ) + "]";
+    }
+
+    /**
+     * Value stored in the cache with its expiration time and its last access
+     * 
+     * @param <V>
+     *            the type of the value
+     */
+    private static final class CacheElement<V>
+    {
+        private final V _value;
+        private final long _lExpiration;
+        private volatile long _lLastAccess;
+
+        /**
+         * Constructor
+         * 
+         * @param value
+         *            the value
+         * @param lExpiration
+         *            the expiration time in milliseconds
+         * @param lLastAccess
+         *            the order of the last access to the value
+         */
+        CacheElement( V value, long lExpiration, long lLastAccess )
+        {
+            _value = value;
+            _lExpiration = lExpiration;
+            _lLastAccess = lLastAccess;
+        }
+
+        /**
+         * @return true if the element has expired
+         */
+        boolean isExpired( )
+        {
+            return System.currentTimeMillis( ) > _lExpiration;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import fr.paris.lutece.plugins.forms.business.Control;
+import fr.paris.lutece.plugins.forms.business.ControlHome;
+import fr.paris.lutece.plugins.forms.business.ControlType;
+import fr.paris.lutece.plugins.forms.business.Form;
+import fr.paris.lutece.plugins.forms.business.FormHome;
+import fr.paris.lutece.plugins.forms.business.FormResponseCountHome;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Read-through cache over the Homes, for the front office, of the data which are not part of the compiled definition of a form : the catalogue of the forms,
+ * the transition controls and the numbers of responses. The steps, questions, displays and transitions of a form are given by the
+ * {@link fr.paris.lutece.plugins.forms.service.definition.CompiledFormService}. The objects given by this service are shared between the requests and must
+ * not be modified : the callers which need to modify them must load them from the Homes. The caches are bounded in size and in time to live, and are cleared
+ * by the invalidations published on the {@link IFormsCacheInvalidationBus}.
+ */
+public final class FormsCacheService implements IFormsCacheInvalidationListener
+{
+    // Properties
+    private static final String PROPERTY_PREFIX = "forms.cache.";
+    private static final String PROPERTY_MAX_SIZE = "maxSize";
+    private static final String PROPERTY_TIME_TO_LIVE = "timeToLive";
+
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final int DEFAULT_TIME_TO_LIVE = 600;
+
+    // Cache names
+    private static final String CACHE_CONTROLS = "controls";
+    private static final String CACHE_FORM_LIST = "formList";
+    private static final String CACHE_RESPONSE_COUNTS = "responseCounts";
+
+    private static final String KEY_SEPARATOR = ":";
+    private static final Integer KEY_FORM_LIST = 0;
+
+    private final FormsCache<String, List<Control>> _cacheControls = createCache( CACHE_CONTROLS );
+    private final FormsCache<Integer, List<Form>> _cacheFormList = createCache( CACHE_FORM_LIST );
+    private final FormsCache<Integer, AtomicInteger> _cacheResponseCounts = createCache( CACHE_RESPONSE_COUNTS );
+    private final List<FormsCache<?, ?>> _listCaches = Arrays.asList( _cacheControls, _cacheFormList, _cacheResponseCounts );
+
+    /**
+     * Private constructor
+     */
+    private FormsCacheService( )
+    {
+        IFormsCacheInvalidationBus bus = SpringContextService.getBean( IFormsCacheInvalidationBus.BEAN_NAME );
+        bus.addListener( this );
+    }
+
+    /**
+     * Returns the unique instance of the service
+     * 
+     * @return The instance of the service
+     */
+    public static FormsCacheService getInstance( )
+    {
+        return FormsCacheServiceHolder._instance;
+    }
+
+    /**
+     * Creates a cache configured by the properties {@code forms.cache.<name>.maxSize} and {@code forms.cache.<name>.timeToLive} (in seconds), which default
+     * to {@code forms.cache.maxSize} and {@code forms.cache.timeToLive}
+     * 
+     * @param strName
+     *            the name of the cache
+     * @return the cache
+     */
+    private static <K, V> FormsCache<K, V> createCache( String strName )
+    {
+        int nDefaultMaxSize = AppPropertiesService.getPropertyInt( PROPERTY_PREFIX + PROPERTY_MAX_SIZE, DEFAULT_MAX_SIZE );
+        int nDefaultTimeToLive = AppPropertiesService.getPropertyInt( PROPERTY_PREFIX + PROPERTY_TIME_TO_LIVE, DEFAULT_TIME_TO_LIVE );
+        String strPrefix = PROPERTY_PREFIX + strName + ".";
+
+        return new FormsCache<>( strName, AppPropertiesService.getPropertyInt( strPrefix + PROPERTY_MAX_SIZE, nDefaultMaxSize ),
+                AppPropertiesService.getPropertyInt( strPrefix + PROPERTY_TIME_TO_LIVE, nDefaultTimeToLive ) );
+    }
+
+    /**
+     * Gives the controls of a given type targeting an object
+     * 
+     * @param nIdControlTarget
+     *            the identifier of the target
+     * @param controlType
+     *            the type of the controls
+     * @return the shared controls
+     */
+    public List<Control> getControlByControlTargetAndType( int nIdControlTarget, ControlType controlType )
+    {
+        return _cacheControls.get( controlType.name( ) + KEY_SEPARATOR + nIdControlTarget,
+                key -> Collections.unmodifiableList( ControlHome.getControlByControlTargetAndType( nIdControlTarget, controlType ) ) );
+    }
+
+    /**
+     * Gives the catalogue of the forms displayed by the front office
+     * 
+     * @return the shared list of all the forms
+     */
+    public List<Form> getFormList( )
+    {
+        return _cacheFormList.get( KEY_FORM_LIST, key -> Collections.unmodifiableList( FormHome.getFormList( ) ) );
+    }
+
+    /**
+     * Gives the number of submitted responses of a form. The number is read from the response counters when it is not cached, then maintained by the submits and
+     * the deletions of responses of this server until it expires
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @return the number of responses
+     */
+    public int getNumberOfResponseForms( int nIdForm )
+    {
+        return _cacheResponseCounts.get( nIdForm, key -> new AtomicInteger( FormResponseCountHome.getCount( nIdForm ) ) ).get( );
+    }
+
+    /**
+     * Counts a new response of a form. Must be called once the response is committed
+     * 
+     * @param nIdForm
+     *            the form identifier
+     */
+    public void onFormResponseCreated( int nIdForm )
+    {
+        AtomicInteger count = _cacheResponseCounts.getIfPresent( nIdForm );
+
+        if ( count != null )
+        {
+            count.incrementAndGet( );
+        }
+    }
+
+    /**
+     * Uncounts a deleted response of a form
+     * 
+     * @param nIdForm
+     *            the form identifier, or a negative or null value if it is unknown: all the numbers are then counted again
+     */
+    public void onFormResponseRemoved( int nIdForm )
+    {
+        if ( nIdForm <= 0 )
+        {
+            _cacheResponseCounts.clear( );
+            return;
+        }
+
+        AtomicInteger count = _cacheResponseCounts.getIfPresent( nIdForm );
+
+        if ( count != null )
+        {
+            count.updateAndGet( nCount -> Math.max( 0, nCount - 1 ) );
+        }
+    }
+
+    /**
+     * Gives the caches of the service, for their statistics
+     * 
+     * @return the caches
+     */
+    public List<FormsCache<?, ?>> getCaches( )
+    {
+        return new ArrayList<>( _listCaches );
+    }
+
+    /**
+     * {@inheritDoc} The cached objects are not indexed by form : all the caches are cleared.
+     */
+    @Override
+    public void onInvalidation( int nIdForm )
+    {
+        _listCaches.forEach( FormsCache::clear );
+    }
+
+    /**
+     * Holder of the unique instance, lazily initialized
+     */
+    private static final class FormsCacheServiceHolder
+    {
+        private static FormsCacheService _instance = new FormsCacheService( );
+    }
+}
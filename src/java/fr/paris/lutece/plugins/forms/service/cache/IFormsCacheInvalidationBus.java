@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.cache;
+
+/**
+ * Bus carrying the invalidations of the cached form definitions to the caches of the server, and possibly to the caches of the other servers of a cluster.
+ * The implementation is chosen with the bean {@value #BEAN_NAME} of the plugin context.
+ */
+public interface IFormsCacheInvalidationBus
+{
+    /**
+     * Name of the bean of the bus
+     */
+    String BEAN_NAME = "forms.cacheInvalidationBus";
+
+    /**
+     * Form identifier invalidating all the forms
+     */
+    int ALL_FORMS = -1;
+
+    /**
+     * Publishes the modification of a form. The listeners of this server are notified before the method returns.
+     * 
+     * @param nIdForm
+     *            the identifier of the modified form, or {@link #ALL_FORMS}
+     */
+    void publish( int nIdForm );
+
+    /**
+     * Registers a listener of the invalidations
+     * 
+     * @param listener
+     *            the listener
+     */
+    void addListener( IFormsCacheInvalidationListener listener );
+
+    /**
+     * Receives the invalidations published by the other servers and notifies the listeners. Called periodically by the
+     * {@link FormsCacheInvalidationDaemon}.
+     * 
+     * @return the number of invalidations received
+     */
+    default int poll( )
+    {
+        return 0;
+    }
+}
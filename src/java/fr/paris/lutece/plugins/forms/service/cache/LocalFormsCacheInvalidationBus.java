@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Invalidation bus limited to the current server
+ */
+public class LocalFormsCacheInvalidationBus implements IFormsCacheInvalidationBus
+{
+    private final List<IFormsCacheInvalidationListener> _listListeners = new CopyOnWriteArrayList<>( );
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish( int nIdForm )
+    {
+        notifyListeners( nIdForm );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addListener( IFormsCacheInvalidationListener listener )
+    {
+        _listListeners.add( listener );
+    }
+
+    /**
+     * Notifies the listeners of the current server. A failing listener does not prevent the others from being notified.
+     * 
+     * @param nIdForm
+     *            the identifier of the modified form, or {@link #ALL_FORMS}
+     */
+    protected void notifyListeners( int nIdForm )
+    {
+        for ( IFormsCacheInvalidationListener listener : _listListeners )
+        {
+            try
+            {
+                listener.onInvalidation( nIdForm );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Error while invalidating the cached definition of the form " + nIdForm, e );
+            }
+        }
+    }
+}
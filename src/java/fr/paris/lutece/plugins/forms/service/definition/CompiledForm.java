@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.definition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import fr.paris.lutece.plugins.forms.business.Form;
+import fr.paris.lutece.plugins.forms.business.FormDisplay;
+import fr.paris.lutece.plugins.forms.business.FormDisplayHome;
+import fr.paris.lutece.plugins.forms.business.FormHome;
+import fr.paris.lutece.plugins.forms.business.Group;
+import fr.paris.lutece.plugins.forms.business.GroupHome;
+import fr.paris.lutece.plugins.forms.business.Question;
+import fr.paris.lutece.plugins.forms.business.QuestionHome;
+import fr.paris.lutece.plugins.forms.business.Step;
+import fr.paris.lutece.plugins.forms.business.StepHome;
+import fr.paris.lutece.plugins.forms.business.Transition;
+import fr.paris.lutece.plugins.forms.business.TransitionHome;
+
+/**
+ * Read-only snapshot of the whole definition of a form : steps, display tree, groups, questions with their entries and fields, display and validation
+ * controls, transitions. A compiled form is built once by the {@link CompiledFormService} and shared by all the sessions until the form is modified in the
+ * back office. The objects it holds must therefore never be modified by the callers : copy them before changing their state.
+ */
+public final class CompiledForm
+{
+    private final long _lVersion;
+    private final Form _form;
+    private final Map<Integer, Step> _mapSteps;
+    private final Map<Integer, Question> _mapQuestions;
+    private final Map<Integer, Group> _mapGroups;
+    private final Map<Integer, FormDisplay> _mapFormDisplays;
+    private final Map<Integer, Map<Integer, List<FormDisplay>>> _mapFormDisplayChildren;
+    private final Map<Integer, List<Transition>> _mapTransitions;
+    private final Map<Integer, StepValidationPlan> _mapValidationPlans = new ConcurrentHashMap<>( );
+
+    /**
+     * Constructor
+     * 
+     * @param lVersion
+     *            the version of the definition
+     * @param form
+     *            the form
+     * @param listSteps
+     *            the steps of the form
+     * @param listQuestions
+     *            the questions of the form
+     * @param listGroups
+     *            the groups of the form
+     * @param listFormDisplays
+     *            the form displays of the form
+     * @param listTransitions
+     *            the transitions of the form, ordered by priority
+     */
+    private CompiledForm( long lVersion, Form form, List<Step> listSteps, List<Question> listQuestions, List<Group> listGroups,
+            List<FormDisplay> listFormDisplays, List<Transition> listTransitions )
+    {
+        _lVersion = lVersion;
+        _form = form;
+
+        Map<Integer, Step> mapSteps = new LinkedHashMap<>( );
+        listSteps.forEach( step -> mapSteps.put( step.getId( ), step ) );
+        _mapSteps = Collections.unmodifiableMap( mapSteps );
+
+        Map<Integer, Question> mapQuestions = new HashMap<>( );
+        listQuestions.forEach( question -> mapQuestions.put( question.getId( ), question ) );
+        _mapQuestions = Collections.unmodifiableMap( mapQuestions );
+
+        Map<Integer, Group> mapGroups = new HashMap<>( );
+        listGroups.forEach( group -> mapGroups.put( group.getId( ), group ) );
+        _mapGroups = Collections.unmodifiableMap( mapGroups );
+
+        Map<Integer, FormDisplay> mapFormDisplays = new HashMap<>( );
+        Map<Integer, Map<Integer, List<FormDisplay>>> mapChildren = new HashMap<>( );
+        List<FormDisplay> listSortedFormDisplays = new ArrayList<>( listFormDisplays );
+        listSortedFormDisplays.sort( Comparator.comparingInt( FormDisplay::getDisplayOrder ) );
+
+        for ( FormDisplay formDisplay : listSortedFormDisplays )
+        {
+            mapFormDisplays.put( formDisplay.getId( ), formDisplay );
+            mapChildren.computeIfAbsent( formDisplay.getStepId( ), k -> new HashMap<>( ) ).computeIfAbsent( formDisplay.getParentId( ), k -> new ArrayList<>( ) )
+                    .add( formDisplay );
+        }
+
+        _mapFormDisplays = Collections.unmodifiableMap( mapFormDisplays );
+        _mapFormDisplayChildren = freeze( mapChildren );
+
+        Map<Integer, List<Transition>> mapTransitions = new HashMap<>( );
+        listTransitions.forEach( transition -> mapTransitions.computeIfAbsent( transition.getFromStep( ), k -> new ArrayList<>( ) ).add( transition ) );
+        mapTransitions.replaceAll( ( nIdStep, list ) -> Collections.unmodifiableList( list ) );
+        _mapTransitions = Collections.unmodifiableMap( mapTransitions );
+    }
+
+    /**
+     * Loads the definition of a form from the database
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @param lVersion
+     *            the version to give to the definition
+     * @return the compiled form, or {@code null} if the form does not exist
+     */
+    static CompiledForm compile( int nIdForm, long lVersion )
+    {
+        Form form = FormHome.findByPrimaryKey( nIdForm );
+
+        if ( form == null )
+        {
+            return null;
+        }
+
+        List<Step> listSteps = StepHome.getStepsListByForm( nIdForm );
+        List<Integer> listIdSteps = new ArrayList<>( );
+        listSteps.forEach( step -> listIdSteps.add( step.getId( ) ) );
+
+        List<Group> listGroups = listIdSteps.isEmpty( ) ? new ArrayList<>( ) : GroupHome.getGroupsListByIdStepList( listIdSteps );
+
+        List<FormDisplay> listFormDisplays = FormDisplayHome.getFormDisplayByForm( nIdForm );
+        listFormDisplays.forEach( FormDisplayHome::initConditionalDisplayForFormDisplay );
+
+        return new CompiledForm( lVersion, form, listSteps, QuestionHome.getListQuestionByIdForm( nIdForm ), listGroups, listFormDisplays,
+                TransitionHome.getTransitionsListFromForm( nIdForm ) );
+    }
+
+    /**
+     * Makes the lists of children read-only
+     * 
+     * @param mapChildren
+     *            the children of the form displays, by step and by parent
+     * @return the read-only map
+     */
+    private static Map<Integer, Map<Integer, List<FormDisplay>>> freeze( Map<Integer, Map<Integer, List<FormDisplay>>> mapChildren )
+    {
+        Map<Integer, Map<Integer, List<FormDisplay>>> mapFrozen = new HashMap<>( );
+
+        for ( Map.Entry<Integer, Map<Integer, List<FormDisplay>>> entryStep : mapChildren.entrySet( ) )
+        {
+            Map<Integer, List<FormDisplay>> mapByParent = new HashMap<>( );
+            entryStep.getValue( ).forEach( ( nIdParent, list ) -> mapByParent.put( nIdParent, Collections.unmodifiableList( list ) ) );
+            mapFrozen.put( entryStep.getKey( ), Collections.unmodifiableMap( mapByParent ) );
+        }
+
+        return Collections.unmodifiableMap( mapFrozen );
+    }
+
+    /**
+     * @return the version of this definition. A greater version means a more recent definition
+     */
+    public long getVersion( )
+    {
+        return _lVersion;
+    }
+
+    /**
+     * @return the form
+     */
+    public Form getForm( )
+    {
+        return _form;
+    }
+
+    /**
+     * @return the steps of the form
+     */
+    public List<Step> getSteps( )
+    {
+        return Collections.unmodifiableList( new ArrayList<>( _mapSteps.values( ) ) );
+    }
+
+    /**
+     * Gives a step of the form
+     * 
+     * @param nIdStep
+     *            the step identifier
+     * @return the step, or {@code null} if the step does not belong to the form
+     */
+    public Step getStep( int nIdStep )
+    {
+        return _mapSteps.get( nIdStep );
+    }
+
+    /**
+     * Gives the initial step of the form
+     * 
+     * @return the initial step, or {@code null} if the form has none
+     */
+    public Step getInitialStep( )
+    {
+        for ( Step step : _mapSteps.values( ) )
+        {
+            if ( step.isInitial( ) )
+            {
+                return step;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gives a question of the form, with its entry and the fields of the entry
+     * 
+     * @param nIdQuestion
+     *            the question identifier
+     * @return the question, or {@code null} if the question does not belong to the form
+     */
+    public Question getQuestion( int nIdQuestion )
+    {
+        return _mapQuestions.get( nIdQuestion );
+    }
+
+    /**
+     * @return the questions of the form
+     */
+    public List<Question> getQuestions( )
+    {
+        return Collections.unmodifiableList( new ArrayList<>( _mapQuestions.values( ) ) );
+    }
+
+    /**
+     * Gives a group of the form
+     * 
+     * @param nIdGroup
+     *            the group identifier
+     * @return the group, or {@code null} if the group does not belong to the form
+     */
+    public Group getGroup( int nIdGroup )
+    {
+        return _mapGroups.get( nIdGroup );
+    }
+
+    /**
+     * Gives a form display of the form, with its display and validation controls
+     * 
+     * @param nIdFormDisplay
+     *            the form display identifier
+     * @return the form display, or {@code null} if the form display does not belong to the form
+     */
+    public FormDisplay getFormDisplay( int nIdFormDisplay )
+    {
+        return _mapFormDisplays.get( nIdFormDisplay );
+    }
+
+    /**
+     * Gives the direct children of a form display, ordered by display order
+     * 
+     * @param nIdStep
+     *            the step identifier
+     * @param nIdParent
+     *            the parent form display identifier, 0 for the root of the step
+     * @return the children
+     */
+    public List<FormDisplay> getFormDisplayChildren( int nIdStep, int nIdParent )
+    {
+        return _mapFormDisplayChildren.getOrDefault( nIdStep, Collections.emptyMap( ) ).getOrDefault( nIdParent, Collections.emptyList( ) );
+    }
+
+    /**
+     * Gives the transitions starting from a step, ordered by priority
+     * 
+     * @param nIdStep
+     *            the step identifier
+     * @return the transitions
+     */
+    public List<Transition> getTransitionsFromStep( int nIdStep )
+    {
+        return _mapTransitions.getOrDefault( nIdStep, Collections.emptyList( ) );
+    }
+
+    /**
+     * Gives the validation plan of a step, compiling it on the first call
+     * 
+     * @param nIdStep
+     *            the step identifier
+     * @return the validation plan
+     */
+    public StepValidationPlan getValidationPlan( int nIdStep )
+    {
+        return _mapValidationPlans.computeIfAbsent( nIdStep, nId -> {
+            List<Question> listQuestions = new ArrayList<>( );
+
+            for ( Question question : _mapQuestions.values( ) )
+            {
+                if ( question.getIdStep( ) == nId )
+                {
+                    listQuestions.add( question );
+                }
+            }
+
+            return StepValidationPlan.build( listQuestions );
+        } );
+    }
+}
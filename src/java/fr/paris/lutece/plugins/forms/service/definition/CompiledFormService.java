@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.definition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.paris.lutece.plugins.forms.business.QuestionHome;
+import fr.paris.lutece.plugins.forms.business.Step;
+import fr.paris.lutece.plugins.forms.business.StepHome;
+import fr.paris.lutece.plugins.forms.service.FormsPlugin;
+import fr.paris.lutece.plugins.forms.service.cache.IFormsCacheInvalidationBus;
+import fr.paris.lutece.plugins.forms.service.cache.IFormsCacheInvalidationListener;
+import fr.paris.lutece.plugins.regularexpression.business.RegularExpressionHome;
+import fr.paris.lutece.portal.business.regularexpression.RegularExpression;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Service giving the compiled definition of the forms. Each definition is loaded from the database the first time it is asked for, then shared until it is
+ * invalidated by a modification of the form in the back office, published on the {@link IFormsCacheInvalidationBus}. The regular expressions compiled by
+ * the pattern validators are managed by another plugin : they are checked by the daemon {@link CompiledFormRegularExpressionDaemon}, which invalidates the
+ * definitions when one of them is modified or removed.
+ */
+public final class CompiledFormService implements IFormsCacheInvalidationListener
+{
+    private final Map<Integer, CompiledForm> _mapCompiledForms = new ConcurrentHashMap<>( );
+    private final Map<Integer, Integer> _mapFormByStep = new ConcurrentHashMap<>( );
+    private final Map<Integer, String> _mapRegularExpressions = new ConcurrentHashMap<>( );
+    private final AtomicLong _lVersion = new AtomicLong( );
+
+    /**
+     * Private constructor
+     */
+    private CompiledFormService( )
+    {
+        IFormsCacheInvalidationBus bus = SpringContextService.getBean( IFormsCacheInvalidationBus.BEAN_NAME );
+        bus.addListener( this );
+    }
+
+    /**
+     * Returns the unique instance of the service
+     * 
+     * @return The instance of the service
+     */
+    public static CompiledFormService getInstance( )
+    {
+        return CompiledFormServiceHolder._instance;
+    }
+
+    /**
+     * Gives the compiled definition of a form
+     * 
+     * @param nIdForm
+     *            the form identifier
+     * @return the compiled form, or {@code null} if the form does not exist
+     */
+    public CompiledForm getCompiledForm( int nIdForm )
+    {
+        CompiledForm compiledForm = _mapCompiledForms.get( nIdForm );
+
+        if ( compiledForm == null )
+        {
+            long lVersion = _lVersion.get( );
+            CompiledForm compiledFormNew = CompiledForm.compile( nIdForm, lVersion );
+
+            if ( compiledFormNew == null )
+            {
+                return null;
+            }
+
+            compiledFormNew.getSteps( ).forEach( step -> _mapFormByStep.put( step.getId( ), nIdForm ) );
+
+            // The definition is only kept if no invalidation happened while it was loading
+            compiledForm = _mapCompiledForms.compute( nIdForm, ( nId, compiledFormCurrent ) -> {
+                if ( compiledFormCurrent != null )
+                {
+                    return compiledFormCurrent;
+                }
+                return _lVersion.get( ) == lVersion ? compiledFormNew : null;
+            } );
+
+            if ( compiledForm == null )
+            {
+                compiledForm = compiledFormNew;
+            }
+        }
+
+        return compiledForm;
+    }
+
+    /**
+     * Gives the compiled definition of the form containing a step
+     * 
+     * @param nIdStep
+     *            the step identifier
+     * @return the compiled form, or {@code null} if the step does not exist
+     */
+    public CompiledForm getCompiledFormByStep( int nIdStep )
+    {
+        Integer nIdForm = _mapFormByStep.get( nIdStep );
+
+        if ( nIdForm == null )
+        {
+            Step step = StepHome.findByPrimaryKey( nIdStep );
+
+            if ( step == null )
+            {
+                return null;
+            }
+
+            nIdForm = step.getIdForm( );
+        }
+
+        return getCompiledForm( nIdForm );
+    }
+
+    /**
+     * Gives the validation plan of a step, shared with the compiled definition of its form
+     * 
+     * @param nIdStep
+     *            the step identifier
+     * @return the validation plan
+     */
+    public StepValidationPlan getValidationPlan( int nIdStep )
+    {
+        CompiledForm compiledForm = getCompiledFormByStep( nIdStep );
+
+        if ( compiledForm == null )
+        {
+            return StepValidationPlan.build( QuestionHome.getQuestionsListByStep( nIdStep ) );
+        }
+
+        return compiledForm.getValidationPlan( nIdStep );
+    }
+
+    /**
+     * Invalidates the compiled definition of a form. The next call to {@link #getCompiledForm(int)} reloads it from the database.
+     * 
+     * @param nIdForm
+     *            the form identifier
+     */
+    public void invalidate( int nIdForm )
+    {
+        _mapCompiledForms.compute( nIdForm, ( nId, compiledForm ) -> {
+            _lVersion.incrementAndGet( );
+            return null;
+        } );
+    }
+
+    /**
+     * Invalidates the compiled definitions of all the forms
+     */
+    public void invalidateAll( )
+    {
+        _lVersion.incrementAndGet( );
+        _mapCompiledForms.clear( );
+        _mapFormByStep.clear( );
+    }
+
+    /**
+     * Records the value of a regular expression compiled in a validation plan, checked by {@link #checkRegularExpressions()}
+     * 
+     * @param regularExpression
+     *            the compiled regular expression
+     */
+    public void addRegularExpression( RegularExpression regularExpression )
+    {
+        _mapRegularExpressions.put( regularExpression.getIdExpression( ), regularExpression.getValue( ) );
+    }
+
+    /**
+     * Invalidates the compiled definitions of all the forms if a regular expression compiled in a validation plan has been modified or removed since it was
+     * compiled
+     * 
+     * @return true if the definitions have been invalidated
+     */
+    public boolean checkRegularExpressions( )
+    {
+        if ( _mapRegularExpressions.isEmpty( ) )
+        {
+            return false;
+        }
+
+        Map<Integer, String> mapCurrentValues = new HashMap<>( );
+
+        for ( RegularExpression regularExpression : RegularExpressionHome.getList( FormsPlugin.getPlugin( ) ) )
+        {
+            mapCurrentValues.put( regularExpression.getIdExpression( ), regularExpression.getValue( ) );
+        }
+
+        for ( Map.Entry<Integer, String> regularExpression : _mapRegularExpressions.entrySet( ) )
+        {
+            if ( !Objects.equals( regularExpression.getValue( ), mapCurrentValues.get( regularExpression.getKey( ) ) ) )
+            {
+                AppLogService.info( "The regular expression " + regularExpression.getKey( ) + " has changed : the compiled forms are invalidated" );
+
+                // The expressions are recorded again by the next compilations
+                _mapRegularExpressions.clear( );
+                invalidateAll( );
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInvalidation( int nIdForm )
+    {
+        if ( nIdForm == IFormsCacheInvalidationBus.ALL_FORMS )
+        {
+            invalidateAll( );
+        }
+        else
+        {
+            invalidate( nIdForm );
+        }
+    }
+
+    /**
+     * Holder of the unique instance, lazily initialized
+     */
+    private static final class CompiledFormServiceHolder
+    {
+        private static CompiledFormService _instance = new CompiledFormService( );
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.definition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.forms.business.Control;
+import fr.paris.lutece.plugins.forms.business.ControlHome;
+import fr.paris.lutece.plugins.forms.business.ControlType;
+import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
+import fr.paris.lutece.plugins.forms.business.Question;
+import fr.paris.lutece.plugins.forms.service.EntryServiceManager;
+import fr.paris.lutece.plugins.forms.util.FormsConstants;
+import fr.paris.lutece.plugins.forms.validation.CompiledControl;
+import fr.paris.lutece.plugins.forms.validation.IValidator;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Validation controls of the questions of a step, grouped by question and compiled by their validator. A plan is built once per step of a
+ * {@link CompiledForm} and shares its lifecycle.
+ */
+public final class StepValidationPlan
+{
+    private final Map<Integer, List<CompiledControl>> _mapControls;
+
+    /**
+     * Constructor
+     * 
+     * @param mapControls
+     *            the compiled controls by question identifier
+     */
+    private StepValidationPlan( Map<Integer, List<CompiledControl>> mapControls )
+    {
+        _mapControls = Collections.unmodifiableMap( mapControls );
+    }
+
+    /**
+     * Loads and compiles the validation controls of questions
+     * 
+     * @param questions
+     *            the questions
+     * @return the validation plan
+     */
+    static StepValidationPlan build( Collection<Question> questions )
+    {
+        Map<Integer, List<CompiledControl>> mapControls = new HashMap<>( );
+
+        for ( Question question : questions )
+        {
+            List<Control> listControl = ControlHome.getControlByQuestionAndType( question.getId( ), ControlType.VALIDATION.getLabel( ) );
+
+            if ( listControl.isEmpty( ) )
+            {
+                continue;
+            }
+
+            List<CompiledControl> listCompiledControl = new ArrayList<>( listControl.size( ) );
+
+            for ( Control control : listControl )
+            {
+                IValidator validator = EntryServiceManager.getInstance( ).getValidator( control.getValidatorName( ) );
+
+                if ( validator == null )
+                {
+                    AppLogService.error( "Unknown validator " + control.getValidatorName( ) + " for the control " + control.getId( ) );
+                    continue;
+                }
+
+                listCompiledControl.add( validator.compile( control ) );
+            }
+
+            mapControls.put( question.getId( ), Collections.unmodifiableList( listCompiledControl ) );
+        }
+
+        return new StepValidationPlan( mapControls );
+    }
+
+    /**
+     * Gives the compiled validation controls of a question
+     * 
+     * @param nIdQuestion
+     *            the question identifier
+     * @return the compiled controls, in the order of the database
+     */
+    public List<CompiledControl> getControls( int nIdQuestion )
+    {
+        return _mapControls.getOrDefault( nIdQuestion, Collections.emptyList( ) );
+    }
+
+    /**
+     * Gives the unique control of a question
+     * 
+     * @param nIdQuestion
+     *            the question identifier
+     * @return the control checking that the responses of the question are unique, or {@code null} if there is none
+     */
+    public Control getUniqueControl( int nIdQuestion )
+    {
+        for ( CompiledControl compiledControl : getControls( nIdQuestion ) )
+        {
+            if ( FormsConstants.VALUE_VALIDATOR_UNIQUE_NAME.equals( compiledControl.getControl( ).getValidatorName( ) ) )
+            {
+                return compiledControl.getControl( );
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Validates a response against the controls of its question
+     * 
+     * @param formQuestionResponse
+     *            the response to validate
+     * @return the first control which is not satisfied, or {@code null} if the response is valid
+     */
+    public Control validate( FormQuestionResponse formQuestionResponse )
+    {
+        for ( CompiledControl compiledControl : getControls( formQuestionResponse.getQuestion( ).getId( ) ) )
+        {
+            if ( !compiledControl.validate( formQuestionResponse ) )
+            {
+                return compiledControl.getControl( );
+            }
+        }
+
+        return null;
+    }
+}
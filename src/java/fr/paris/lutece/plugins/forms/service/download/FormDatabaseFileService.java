@@ -33,6 +33,12 @@
  */
 package fr.paris.lutece.plugins.forms.service.download;
 
+import java.io.InputStream;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import fr.paris.lutece.portal.business.file.File;
+import fr.paris.lutece.portal.business.file.FileHome;
 import fr.paris.lutece.portal.service.file.IFileDownloadUrlService;
 import fr.paris.lutece.portal.service.file.IFileRBACService;
 import fr.paris.lutece.portal.service.file.implementation.LocalDatabaseFileService;
@@ -54,4 +60,24 @@ public class FormDatabaseFileService extends LocalDatabaseFileService
     {
         return FILE_STORE_PROVIDER_NAME;
     }
+
+    /**
+     * Gives a stream on the content of the file, read from the database by chunks instead of being loaded at once
+     * 
+     * @param strKey
+     *            the identifier of the file
+     * @return the stream on the content of the file, or null if the file does not exist
+     */
+    @Override
+    public InputStream getInputStream( String strKey )
+    {
+        File file = FileHome.findByPrimaryKey( NumberUtils.toInt( strKey, NumberUtils.INTEGER_MINUS_ONE ) );
+
+        if ( file == null || file.getPhysicalFile( ) == null )
+        {
+            return null;
+        }
+
+        return new PhysicalFileInputStream( file.getPhysicalFile( ).getIdPhysicalFile( ) );
+    }
 }
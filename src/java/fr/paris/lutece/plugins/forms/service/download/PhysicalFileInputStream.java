@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.download;
+
+import java.io.InputStream;
+
+import fr.paris.lutece.plugins.forms.business.file.PhysicalFileChunkHome;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Input stream on the content of a physical file. The content is read from the database by chunks of fixed size, each with its own query, so that only one
+ * chunk is held in memory and no database connection is held between two reads. Some databases read the blob up to the end of the chunk for each query :
+ * the chunks are large enough for a file to be read with a few queries.
+ */
+public class PhysicalFileInputStream extends InputStream
+{
+    // Properties
+    private static final String PROPERTY_CHUNK_SIZE = "forms.download.chunk.size";
+
+    // Constants
+    private static final int DEFAULT_CHUNK_SIZE = 4194304;
+
+    private final int _nIdPhysicalFile;
+    private final long _lEnd;
+    private final int _nChunkSize;
+    private long _lPosition;
+    private byte [ ] _chunk = new byte [ 0];
+    private int _nChunkPosition;
+    private boolean _bEndOfContent;
+
+    /**
+     * Constructor
+     * 
+     * @param nIdPhysicalFile
+     *            the identifier of the physical file
+     * @param lStart
+     *            the offset of the first byte to read
+     * @param lEnd
+     *            the offset following the last byte to read
+     */
+    public PhysicalFileInputStream( int nIdPhysicalFile, long lStart, long lEnd )
+    {
+        _nIdPhysicalFile = nIdPhysicalFile;
+        _lPosition = lStart;
+        _lEnd = lEnd;
+        _nChunkSize = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_CHUNK_SIZE, DEFAULT_CHUNK_SIZE ) );
+    }
+
+    /**
+     * Constructor for the whole content of a physical file. The end of the content is found by the first chunk shorter than asked, without querying its length.
+     * 
+     * @param nIdPhysicalFile
+     *            the identifier of the physical file
+     */
+    public PhysicalFileInputStream( int nIdPhysicalFile )
+    {
+        this( nIdPhysicalFile, 0, Long.MAX_VALUE );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read( )
+    {
+        if ( !fillChunk( ) )
+        {
+            return -1;
+        }
+
+        return _chunk [_nChunkPosition++] & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read( byte [ ] buffer, int nOffset, int nLength )
+    {
+        if ( nLength == 0 )
+        {
+            return 0;
+        }
+
+        if ( !fillChunk( ) )
+        {
+            return -1;
+        }
+
+        int nRead = Math.min( nLength, _chunk.length - _nChunkPosition );
+        System.arraycopy( _chunk, _nChunkPosition, buffer, nOffset, nRead );
+        _nChunkPosition += nRead;
+
+        return nRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long skip( long lLength )
+    {
+        if ( lLength <= 0 )
+        {
+            return 0;
+        }
+
+        long lBuffered = (long) _chunk.length - _nChunkPosition;
+
+        if ( lLength <= lBuffered )
+        {
+            _nChunkPosition += (int) lLength;
+
+            return lLength;
+        }
+
+        long lSkipped = _bEndOfContent ? lBuffered : lBuffered + Math.min( lLength - lBuffered, _lEnd - _lPosition );
+        _lPosition += lSkipped - lBuffered;
+        _chunk = new byte [ 0];
+        _nChunkPosition = 0;
+
+        return lSkipped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available( )
+    {
+        return _chunk.length - _nChunkPosition;
+    }
+
+    /**
+     * Loads the next chunk if the current one has been read
+     * 
+     * @return {@code true} if there are bytes to read, {@code false} at the end of the stream
+     */
+    private boolean fillChunk( )
+    {
+        if ( _nChunkPosition < _chunk.length )
+        {
+            return true;
+        }
+
+        if ( _bEndOfContent || _lPosition >= _lEnd )
+        {
+            return false;
+        }
+
+        int nLength = (int) Math.min( _nChunkSize, _lEnd - _lPosition );
+        _chunk = PhysicalFileChunkHome.getChunk( _nIdPhysicalFile, _lPosition, nLength );
+        _nChunkPosition = 0;
+
+        // A chunk shorter than asked is the last one of the content
+        _bEndOfContent = _chunk.length < nLength;
+
+        if ( _chunk.length == 0 )
+        {
+            return false;
+        }
+
+        _lPosition += _chunk.length;
+
+        return true;
+    }
+}
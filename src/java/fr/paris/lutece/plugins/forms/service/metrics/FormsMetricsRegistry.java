@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Registry keeping the metrics in memory, exposed in the Prometheus text format. The metrics are those of this server only. A labeled timer keeps at most
+ * {@value #PROPERTY_MAX_LABEL_VALUES} values of its label : the durations of the following values are recorded under the value {@value #LABEL_VALUE_OTHER}.
+ */
+public class FormsMetricsRegistry implements IFormsMetricsRegistry
+{
+    private static final String PROPERTY_MAX_LABEL_VALUES = "forms.metrics.label.maxValues";
+    private static final int DEFAULT_MAX_LABEL_VALUES = 100;
+    private static final String LABEL_VALUE_OTHER = "other";
+    private static final String SUFFIX_SECONDS = "_seconds";
+    private static final String SUFFIX_TOTAL = "_total";
+
+    private final int _nMaxLabelValues = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_MAX_LABEL_VALUES, DEFAULT_MAX_LABEL_VALUES ) );
+    private final Map<String, TimerFamily> _mapTimers = new ConcurrentSkipListMap<>( );
+    private final Map<String, LongAdder> _mapCounters = new ConcurrentSkipListMap<>( );
+    private final Map<String, LongSupplier> _mapRegisteredCounters = new ConcurrentHashMap<>( );
+    private final Map<String, DoubleSupplier> _mapGauges = new ConcurrentHashMap<>( );
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTime( String strName, long lDurationNanos )
+    {
+        _mapTimers.computeIfAbsent( strName, name -> new TimerFamily( null ) ).getTimer( null ).record( lDurationNanos );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTime( String strName, String strLabel, String strLabelValue, long lDurationNanos )
+    {
+        _mapTimers.computeIfAbsent( strName, name -> new TimerFamily( strLabel ) ).getTimer( strLabelValue ).record( lDurationNanos );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void increment( String strName, long lDelta )
+    {
+        _mapCounters.computeIfAbsent( strName, name -> new LongAdder( ) ).add( lDelta );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerCounter( String strName, LongSupplier supplier )
+    {
+        _mapRegisteredCounters.put( strName, supplier );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerGauge( String strName, DoubleSupplier supplier )
+    {
+        _mapGauges.put( strName, supplier );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String scrape( )
+    {
+        StringBuilder sbMetrics = new StringBuilder( );
+
+        for ( Map.Entry<String, TimerFamily> timer : _mapTimers.entrySet( ) )
+        {
+            timer.getValue( ).write( sbMetrics, timer.getKey( ) + SUFFIX_SECONDS );
+        }
+
+        for ( Map.Entry<String, LongAdder> counter : _mapCounters.entrySet( ) )
+        {
+            writeCounter( sbMetrics, counter.getKey( ), counter.getValue( ).sum( ) );
+        }
+
+        for ( Map.Entry<String, LongSupplier> counter : new ConcurrentSkipListMap<>( _mapRegisteredCounters ).entrySet( ) )
+        {
+            try
+            {
+                writeCounter( sbMetrics, counter.getKey( ), counter.getValue( ).getAsLong( ) );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Unable to read the counter " + counter.getKey( ), e );
+            }
+        }
+
+        for ( Map.Entry<String, DoubleSupplier> gauge : new ConcurrentSkipListMap<>( _mapGauges ).entrySet( ) )
+        {
+            try
+            {
+                double dValue = gauge.getValue( ).getAsDouble( );
+                sbMetrics.append( "# TYPE " ).append( gauge.getKey( ) ).append( " gauge\n" );
+                sbMetrics.append( gauge.getKey( ) ).append( ' ' ).append( dValue ).append( '\n' );
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Unable to read the gauge " + gauge.getKey( ), e );
+            }
+        }
+
+        return sbMetrics.toString( );
+    }
+
+    /**
+     * Writes a counter
+     * 
+     * @param sbMetrics
+     *            the metrics being written
+     * @param strName
+     *            the name of the counter, without the suffix {@value #SUFFIX_TOTAL}
+     * @param lValue
+     *            the value of the counter
+     */
+    private static void writeCounter( StringBuilder sbMetrics, String strName, long lValue )
+    {
+        String strMetric = strName + SUFFIX_TOTAL;
+        sbMetrics.append( "# TYPE " ).append( strMetric ).append( " counter\n" );
+        sbMetrics.append( strMetric ).append( ' ' ).append( lValue ).append( '\n' );
+    }
+
+    /**
+     * Timers of a histogram, one by value of its label
+     */
+    private final class TimerFamily
+    {
+        private static final String NO_LABEL_VALUE = "";
+
+        private final String _strLabel;
+        private final Map<String, FormsTimer> _mapTimersByLabelValue = new ConcurrentSkipListMap<>( );
+
+        /**
+         * Constructor
+         * 
+         * @param strLabel
+         *            the name of the label, or null if the timer has no label
+         */
+        TimerFamily( String strLabel )
+        {
+            _strLabel = strLabel;
+        }
+
+        /**
+         * Gives the timer of a label value, the timer of the value {@value FormsMetricsRegistry#LABEL_VALUE_OTHER} once the maximum number of values is
+         * reached
+         * 
+         * @param strLabelValue
+         *            the value of the label, ignored if the timer has no label
+         * @return the timer
+         */
+        FormsTimer getTimer( String strLabelValue )
+        {
+            String strKey = ( _strLabel == null || strLabelValue == null ) ? NO_LABEL_VALUE : strLabelValue;
+            FormsTimer timer = _mapTimersByLabelValue.get( strKey );
+
+            if ( timer == null )
+            {
+                String strBoundedKey = ( _mapTimersByLabelValue.size( ) < _nMaxLabelValues ) ? strKey : LABEL_VALUE_OTHER;
+                timer = _mapTimersByLabelValue.computeIfAbsent( strBoundedKey, key -> new FormsTimer( ) );
+            }
+
+            return timer;
+        }
+
+        /**
+         * Writes the timers as a Prometheus histogram
+         * 
+         * @param sbMetrics
+         *            the metrics being written
+         * @param strMetric
+         *            the name of the histogram
+         */
+        void write( StringBuilder sbMetrics, String strMetric )
+        {
+            sbMetrics.append( "# TYPE " ).append( strMetric ).append( " histogram\n" );
+
+            for ( Map.Entry<String, FormsTimer> timer : _mapTimersByLabelValue.entrySet( ) )
+            {
+                String strLabels = NO_LABEL_VALUE.equals( timer.getKey( ) ) ? null : _strLabel + "=\"" + timer.getKey( ) + '"';
+                timer.getValue( ).write( sbMetrics, strMetric, strLabels );
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.forms.service.cache.FormsCache;
+import fr.paris.lutece.plugins.forms.service.cache.FormsCacheService;
+import fr.paris.lutece.plugins.forms.service.postsubmit.PostSubmitService;
+import fr.paris.lutece.plugins.forms.service.search.IndexerActionQueue;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+
+/**
+ * Service measuring the hot paths of the plugin : submission, validation, search, indexing, export and display of the steps. The metrics are kept by the
+ * registry {@value IFormsMetricsRegistry#BEAN_NAME}, which also reads the counters of the caches and of the post submit tasks, and the gauges of the indexer
+ * queue.
+ */
+public final class FormsMetricsService
+{
+    public static final String TIMER_SUBMIT = "forms_submit";
+    public static final String TIMER_VALIDATION = "forms_validation";
+    public static final String TIMER_SEARCH = "forms_search";
+    public static final String TIMER_INDEX_BATCH = "forms_index_batch";
+    public static final String TIMER_EXPORT_CSV = "forms_export_csv";
+    public static final String TIMER_EXPORT_PDF = "forms_export_pdf";
+    public static final String TIMER_EXPORT_PDF_FULL = "forms_export_pdf_full";
+    public static final String TIMER_STEP_DISPLAY = "forms_step_display";
+    public static final String COUNTER_SUBMIT_ERRORS = "forms_submit_errors";
+    public static final String COUNTER_SUBMIT_QUOTA_REACHED = "forms_submit_quota_reached";
+    public static final String COUNTER_VALIDATION_ERRORS = "forms_validation_errors";
+    public static final String COUNTER_INDEXED_DOCUMENTS = "forms_index_documents";
+
+    private static final String METRIC_CACHE_PREFIX = "forms_cache_";
+    private static final String LABEL_ID_FORM = "id_form";
+    private static final double MILLIS_PER_SECOND = TimeUnit.SECONDS.toMillis( 1 );
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos( 1 );
+
+    private final IFormsMetricsRegistry _registry = SpringContextService.getBean( IFormsMetricsRegistry.BEAN_NAME );
+    private volatile int _nLastIndexBatchSize;
+    private volatile double _dLastIndexBatchThroughput;
+
+    /**
+     * Private constructor
+     */
+    private FormsMetricsService( )
+    {
+        for ( FormsCache<?, ?> cache : FormsCacheService.getInstance( ).getCaches( ) )
+        {
+            String strPrefix = METRIC_CACHE_PREFIX + cache.getName( );
+            _registry.registerGauge( strPrefix + "_size", cache::getSize );
+            _registry.registerCounter( strPrefix + "_hits", cache::getHitCount );
+            _registry.registerCounter( strPrefix + "_misses", cache::getMissCount );
+            _registry.registerCounter( strPrefix + "_evictions", cache::getEvictionCount );
+        }
+
+        _registry.registerGauge( "forms_index_queue_depth", ( ) -> IndexerActionQueue.getInstance( ).getQueueDepth( ) );
+        _registry.registerGauge( "forms_index_queue_lag_seconds", ( ) -> IndexerActionQueue.getInstance( ).getQueueLagMillis( ) / MILLIS_PER_SECOND );
+        _registry.registerGauge( "forms_index_last_batch_size", ( ) -> _nLastIndexBatchSize );
+        _registry.registerGauge( "forms_index_last_batch_documents_per_second", ( ) -> _dLastIndexBatchThroughput );
+        _registry.registerCounter( "forms_post_submit_processed", ( ) -> PostSubmitService.getInstance( ).getProcessedCount( ) );
+        _registry.registerCounter( "forms_post_submit_retries", ( ) -> PostSubmitService.getInstance( ).getRetryCount( ) );
+        _registry.registerCounter( "forms_post_submit_failures", ( ) -> PostSubmitService.getInstance( ).getFailureCount( ) );
+    }
+
+    /**
+     * Returns the unique instance of the service
+     * 
+     * @return The instance of the service
+     */
+    public static FormsMetricsService getInstance( )
+    {
+        return FormsMetricsServiceHolder._instance;
+    }
+
+    /**
+     * Records the time elapsed since a start
+     * 
+     * @param strTimer
+     *            the name of the timer
+     * @param lStartNanos
+     *            the start, given by {@link System#nanoTime()}
+     */
+    public void recordTime( String strTimer, long lStartNanos )
+    {
+        _registry.recordTime( strTimer, System.nanoTime( ) - lStartNanos );
+    }
+
+    /**
+     * Records the time elapsed since a start for a form. The timer is labeled by the identifier of the form.
+     * 
+     * @param strTimer
+     *            the name of the timer
+     * @param nIdForm
+     *            the identifier of the form
+     * @param lStartNanos
+     *            the start, given by {@link System#nanoTime()}
+     */
+    public void recordTime( String strTimer, int nIdForm, long lStartNanos )
+    {
+        _registry.recordTime( strTimer, LABEL_ID_FORM, Integer.toString( nIdForm ), System.nanoTime( ) - lStartNanos );
+    }
+
+    /**
+     * Adds one to a counter
+     * 
+     * @param strCounter
+     *            the name of the counter
+     */
+    public void increment( String strCounter )
+    {
+        _registry.increment( strCounter, 1 );
+    }
+
+    /**
+     * Records a batch of the indexer
+     * 
+     * @param nNbDocuments
+     *            the number of indexed documents
+     * @param lStartNanos
+     *            the start of the batch, given by {@link System#nanoTime()}
+     */
+    public void recordIndexBatch( int nNbDocuments, long lStartNanos )
+    {
+        long lDurationNanos = System.nanoTime( ) - lStartNanos;
+        _registry.recordTime( TIMER_INDEX_BATCH, lDurationNanos );
+        _registry.increment( COUNTER_INDEXED_DOCUMENTS, nNbDocuments );
+        _nLastIndexBatchSize = nNbDocuments;
+        _dLastIndexBatchThroughput = ( lDurationNanos > 0 ) ? nNbDocuments * NANOS_PER_SECOND / lDurationNanos : 0;
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format
+     * 
+     * @return the metrics
+     */
+    public String scrape( )
+    {
+        return _registry.scrape( );
+    }
+
+    /**
+     * Holder of the unique instance, lazily initialized
+     */
+    private static final class FormsMetricsServiceHolder
+    {
+        private static final FormsMetricsService _instance = new FormsMetricsService( );
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timer recording durations in a histogram with fixed buckets. The percentiles are computed from the buckets by the monitoring system.
+ */
+public final class FormsTimer
+{
+    private static final double [ ] BUCKETS_SECONDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60
+    };
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos( 1 );
+
+    private final LongAdder [ ] _bucketCounts = new LongAdder [ BUCKETS_SECONDS.length + 1];
+    private final LongAdder _sumNanos = new LongAdder( );
+
+    /**
+     * Constructor
+     */
+    public FormsTimer( )
+    {
+        for ( int nBucket = 0; nBucket < _bucketCounts.length; nBucket++ )
+        {
+            _bucketCounts [nBucket] = new LongAdder( );
+        }
+    }
+
+    /**
+     * Records a duration
+     * 
+     * @param lDurationNanos
+     *            the duration in nanoseconds
+     */
+    public void record( long lDurationNanos )
+    {
+        double dSeconds = Math.max( 0, lDurationNanos ) / NANOS_PER_SECOND;
+        int nBucket = 0;
+
+        while ( nBucket < BUCKETS_SECONDS.length && dSeconds > BUCKETS_SECONDS [nBucket] )
+        {
+            nBucket++;
+        }
+
+        _bucketCounts [nBucket].increment( );
+        _sumNanos.add( Math.max( 0, lDurationNanos ) );
+    }
+
+    /**
+     * Writes the samples of the timer as a Prometheus histogram
+     * 
+     * @param sbMetrics
+     *            the metrics being written
+     * @param strMetric
+     *            the name of the histogram
+     * @param strLabels
+     *            the labels of the samples, as <code>name="value"</code>, or null
+     */
+    void write( StringBuilder sbMetrics, String strMetric, String strLabels )
+    {
+        String strBucketLabels = ( strLabels == null ) ? "{le=\"" : "{" + strLabels + ",le=\"";
+        String strSampleLabels = ( strLabels == null ) ? "" : "{" + strLabels + "}";
+        long lCumulativeCount = 0;
+
+        for ( int nBucket = 0; nBucket < _bucketCounts.length; nBucket++ )
+        {
+            lCumulativeCount += _bucketCounts [nBucket].sum( );
+            String strBound = ( nBucket < BUCKETS_SECONDS.length ) ? Double.toString( BUCKETS_SECONDS [nBucket] ) : "+Inf";
+            sbMetrics.append( strMetric ).append( "_bucket" ).append( strBucketLabels ).append( strBound ).append( "\"} " ).append( lCumulativeCount )
+                    .append( '\n' );
+        }
+
+        sbMetrics.append( strMetric ).append( "_sum" ).append( strSampleLabels ).append( ' ' ).append( _sumNanos.sum( ) / NANOS_PER_SECOND ).append( '\n' );
+        sbMetrics.append( strMetric ).append( "_count" ).append( strSampleLabels ).append( ' ' ).append( lCumulativeCount ).append( '\n' );
+    }
+}
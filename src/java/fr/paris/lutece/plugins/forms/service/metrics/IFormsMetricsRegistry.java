@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.metrics;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the metrics of the plugin : timers, counters and gauges. The implementation is chosen with the bean {@value #BEAN_NAME} of the plugin
+ * context, so that the metrics can be sent to another monitoring system.
+ */
+public interface IFormsMetricsRegistry
+{
+    /**
+     * Name of the bean of the registry
+     */
+    String BEAN_NAME = "forms.metricsRegistry";
+
+    /**
+     * Records a duration in a timer
+     * 
+     * @param strName
+     *            the name of the timer
+     * @param lDurationNanos
+     *            the duration in nanoseconds
+     */
+    void recordTime( String strName, long lDurationNanos );
+
+    /**
+     * Records a duration in the timer of a label value. The number of values of a label is bounded by the registry.
+     * 
+     * @param strName
+     *            the name of the timer
+     * @param strLabel
+     *            the name of the label
+     * @param strLabelValue
+     *            the value of the label
+     * @param lDurationNanos
+     *            the duration in nanoseconds
+     */
+    void recordTime( String strName, String strLabel, String strLabelValue, long lDurationNanos );
+
+    /**
+     * Adds a value to a counter
+     * 
+     * @param strName
+     *            the name of the counter
+     * @param lDelta
+     *            the value to add
+     */
+    void increment( String strName, long lDelta );
+
+    /**
+     * Registers a counter kept by another component, read each time the metrics are exposed. The value must never decrease.
+     * 
+     * @param strName
+     *            the name of the counter
+     * @param supplier
+     *            the supplier of the value of the counter
+     */
+    void registerCounter( String strName, LongSupplier supplier );
+
+    /**
+     * Registers a gauge, read each time the metrics are exposed
+     * 
+     * @param strName
+     *            the name of the gauge
+     * @param supplier
+     *            the supplier of the value of the gauge
+     */
+    void registerGauge( String strName, DoubleSupplier supplier );
+
+    /**
+     * Writes the metrics in the Prometheus text format
+     * 
+     * @return the metrics
+     */
+    String scrape( );
+}
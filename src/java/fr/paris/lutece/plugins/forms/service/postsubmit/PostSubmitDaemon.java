@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.postsubmit;
+
+import java.util.Map;
+
+import fr.paris.lutece.plugins.forms.business.postsubmit.PostSubmitTask;
+import fr.paris.lutece.plugins.forms.business.postsubmit.PostSubmitTaskHome;
+import fr.paris.lutece.portal.service.daemon.Daemon;
+
+/**
+ * Daemon dispatching the tasks run after the submission of the form responses which are due for a retry, or which were enqueued by another server
+ */
+public class PostSubmitDaemon extends Daemon
+{
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run( )
+    {
+        PostSubmitService postSubmitService = PostSubmitService.getInstance( );
+        postSubmitService.dispatch( );
+
+        Map<Integer, Integer> mapCounts = PostSubmitTaskHome.countByStatus( );
+
+        setLastRunLogs( "Waiting tasks: " + mapCounts.getOrDefault( PostSubmitTask.STATUS_WAITING, 0 ) + ", running tasks: "
+                + mapCounts.getOrDefault( PostSubmitTask.STATUS_RUNNING, 0 ) + ", failed tasks: " + mapCounts.getOrDefault( PostSubmitTask.STATUS_FAILED, 0 )
+                + ", tasks processed since startup: " + postSubmitService.getProcessedCount( ) + ", retries: " + postSubmitService.getRetryCount( )
+                + ", failures: " + postSubmitService.getFailureCount( ) );
+    }
+}
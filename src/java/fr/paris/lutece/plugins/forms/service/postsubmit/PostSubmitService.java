@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.postsubmit;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+import fr.paris.lutece.plugins.forms.business.Form;
+import fr.paris.lutece.plugins.forms.business.FormHome;
+import fr.paris.lutece.plugins.forms.business.FormResponse;
+import fr.paris.lutece.plugins.forms.business.FormResponseHome;
+import fr.paris.lutece.plugins.forms.business.postsubmit.PostSubmitTask;
+import fr.paris.lutece.plugins.forms.business.postsubmit.PostSubmitTaskHome;
+import fr.paris.lutece.plugins.forms.service.FormService;
+import fr.paris.lutece.plugins.forms.service.workflow.IFormWorkflowService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Service running the tasks following the submission of a form response (workflow actions, resource events) outside of the request of the submitter. The
+ * tasks are stored in the database in the transaction of the form response, then run by a bounded pool of workers. The tasks of a form response are run one
+ * after the other, in the order they were enqueued. A failed task is retried later, with an increasing delay, until the maximum number of attempts is
+ * reached.
+ */
+public final class PostSubmitService
+{
+    private static final String PROPERTY_ASYNCHRONOUS = "forms.postSubmit.asynchronous";
+    private static final String PROPERTY_THREADS = "forms.postSubmit.threads";
+    private static final String PROPERTY_MAX_ATTEMPTS = "forms.postSubmit.maxAttempts";
+    private static final String PROPERTY_RETRY_DELAY = "forms.postSubmit.retryDelay";
+    private static final String PROPERTY_LEASE_DURATION = "forms.postSubmit.leaseDuration";
+    private static final String BEAN_FORM_WORKFLOW_SERVICE = "forms.formWorkflowService";
+    private static final String THREAD_NAME_PREFIX = "forms-post-submit-";
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final boolean _bAsynchronous = AppPropertiesService.getPropertyBoolean( PROPERTY_ASYNCHRONOUS, true );
+    private final int _nMaxAttempts = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_MAX_ATTEMPTS, 5 ) );
+    private final long _lRetryDelayMillis = TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_RETRY_DELAY, 30 ) );
+    private final long _lLeaseDurationMillis = TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_LEASE_DURATION, 600 ) );
+    private final AtomicInteger _nThreadCounter = new AtomicInteger( );
+    private final ExecutorService _dispatcher;
+    private final ExecutorService _workers;
+    private final Semaphore _semaphore;
+    private final AtomicBoolean _bDispatchRequested = new AtomicBoolean( );
+    private final AtomicLong _lProcessedCount = new AtomicLong( );
+    private final AtomicLong _lRetryCount = new AtomicLong( );
+    private final AtomicLong _lFailureCount = new AtomicLong( );
+
+    /**
+     * Private constructor
+     */
+    private PostSubmitService( )
+    {
+        int nThreads = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_THREADS, 2 ) );
+        _semaphore = new Semaphore( nThreads );
+        _dispatcher = Executors.newSingleThreadExecutor( this::newThread );
+        _workers = Executors.newFixedThreadPool( nThreads, this::newThread );
+    }
+
+    /**
+     * Returns the unique instance of the service
+     * 
+     * @return The instance of the service
+     */
+    public static PostSubmitService getInstance( )
+    {
+        return PostSubmitServiceHolder._instance;
+    }
+
+    /**
+     * Tell if the tasks following a submission are run asynchronously. When they are not, the callers run them directly
+     * 
+     * @return true if the tasks are enqueued
+     */
+    public boolean isAsynchronous( )
+    {
+        return _bAsynchronous;
+    }
+
+    /**
+     * Enqueues tasks for a form response. Called inside the transaction saving the form response, the tasks are only stored if the form response is. The
+     * tasks are not run before {@link #dispatch()} is called.
+     * 
+     * @param form
+     *            the form
+     * @param formResponse
+     *            the form response
+     * @param taskTypes
+     *            the types of the tasks, in the order they must be run
+     */
+    public void enqueue( Form form, FormResponse formResponse, PostSubmitTaskType... taskTypes )
+    {
+        Timestamp dateNow = new Timestamp( System.currentTimeMillis( ) );
+
+        for ( PostSubmitTaskType taskType : taskTypes )
+        {
+            PostSubmitTask task = new PostSubmitTask( );
+            task.setIdFormResponse( formResponse.getId( ) );
+            task.setIdForm( form.getId( ) );
+            task.setTaskType( taskType.name( ) );
+            task.setStatus( PostSubmitTask.STATUS_WAITING );
+            task.setDateCreation( dateNow );
+            task.setDateNextAttempt( dateNow );
+
+            PostSubmitTaskHome.create( task );
+        }
+    }
+
+    /**
+     * Asks for the ready tasks to be given to the workers. The dispatch runs in the background, several requests are merged.
+     */
+    public void dispatch( )
+    {
+        if ( _bDispatchRequested.compareAndSet( false, true ) )
+        {
+            _dispatcher.execute( this::dispatchReadyTasks );
+        }
+    }
+
+    /**
+     * @return the number of tasks run successfully since the startup
+     */
+    public long getProcessedCount( )
+    {
+        return _lProcessedCount.get( );
+    }
+
+    /**
+     * @return the number of failed attempts which will be retried since the startup
+     */
+    public long getRetryCount( )
+    {
+        return _lRetryCount.get( );
+    }
+
+    /**
+     * @return the number of tasks which failed definitively since the startup
+     */
+    public long getFailureCount( )
+    {
+        return _lFailureCount.get( );
+    }
+
+    /**
+     * Gives the ready tasks to the free workers
+     */
+    private void dispatchReadyTasks( )
+    {
+        _bDispatchRequested.set( false );
+
+        try
+        {
+            long lNow = System.currentTimeMillis( );
+            PostSubmitTaskHome.releaseExpiredLeases( new Timestamp( lNow ) );
+
+            int nFreeWorkers = _semaphore.availablePermits( );
+
+            if ( nFreeWorkers == 0 )
+            {
+                return;
+            }
+
+            List<PostSubmitTask> listTasks = PostSubmitTaskHome.getReadyTasks( new Timestamp( lNow ), nFreeWorkers );
+            Timestamp dateLeaseEnd = new Timestamp( lNow + _lLeaseDurationMillis );
+
+            for ( PostSubmitTask task : listTasks )
+            {
+                if ( !_semaphore.tryAcquire( ) )
+                {
+                    break;
+                }
+
+                if ( PostSubmitTaskHome.claim( task.getId( ), dateLeaseEnd ) )
+                {
+                    _workers.execute( ( ) -> runTask( task ) );
+                }
+                else
+                {
+                    _semaphore.release( );
+                }
+            }
+        }
+        catch( RuntimeException e )
+        {
+            AppLogService.error( "Unable to dispatch the post submit tasks", e );
+        }
+    }
+
+    /**
+     * Runs a task taken by this worker, then asks for the next tasks
+     * 
+     * @param task
+     *            the task
+     */
+    private void runTask( PostSubmitTask task )
+    {
+        try
+        {
+            execute( task );
+            PostSubmitTaskHome.remove( task.getId( ) );
+            _lProcessedCount.incrementAndGet( );
+        }
+        catch( RuntimeException e )
+        {
+            onFailure( task, e );
+        }
+        finally
+        {
+            _semaphore.release( );
+            dispatch( );
+        }
+    }
+
+    /**
+     * Executes the work of a task
+     * 
+     * @param task
+     *            the task
+     */
+    private void execute( PostSubmitTask task )
+    {
+        FormResponse formResponse = FormResponseHome.loadById( task.getIdFormResponse( ) );
+
+        if ( formResponse == null )
+        {
+            // The form response has been removed in the meantime
+            return;
+        }
+
+        FormService formService = SpringContextService.getBean( FormService.BEAN_NAME );
+
+        switch( PostSubmitTaskType.valueOf( task.getTaskType( ) ) )
+        {
+            case FORM_RESPONSE_CREATED:
+                formService.fireFormResponseEventCreation( formResponse );
+                break;
+            case WORKFLOW_ON_CREATION:
+                processWorkflowAction( task.getIdForm( ), formResponse );
+                break;
+            case FORM_RESPONSE_UPDATED:
+                formService.fireFormResponseEventUpdate( formResponse );
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Runs the automatic actions of the workflow of a form on a form response
+     * 
+     * @param nIdForm
+     *            the identifier of the form
+     * @param formResponse
+     *            the form response
+     */
+    private void processWorkflowAction( int nIdForm, FormResponse formResponse )
+    {
+        Form form = FormHome.findByPrimaryKey( nIdForm );
+
+        if ( form != null )
+        {
+            IFormWorkflowService formWorkflowService = SpringContextService.getBean( BEAN_FORM_WORKFLOW_SERVICE );
+            formWorkflowService.doProcessActionOnFormCreation( form, formResponse );
+        }
+    }
+
+    /**
+     * Schedules the next attempt of a failed task, or marks it as failed if it has no attempt left
+     * 
+     * @param task
+     *            the task
+     * @param exception
+     *            the failure
+     */
+    private void onFailure( PostSubmitTask task, RuntimeException exception )
+    {
+        task.setNbAttempts( task.getNbAttempts( ) + 1 );
+        task.setLastError( StringUtils.abbreviate( String.valueOf( exception.getMessage( ) ), MAX_ERROR_LENGTH ) );
+
+        if ( task.getNbAttempts( ) >= _nMaxAttempts )
+        {
+            AppLogService.error( "The post submit task " + task.getTaskType( ) + " of the form response " + task.getIdFormResponse( ) + " failed "
+                    + task.getNbAttempts( ) + " times, it is abandoned", exception );
+            task.setStatus( PostSubmitTask.STATUS_FAILED );
+            _lFailureCount.incrementAndGet( );
+        }
+        else
+        {
+            AppLogService.error( "The post submit task " + task.getTaskType( ) + " of the form response " + task.getIdFormResponse( ) + " failed, it will be retried",
+                    exception );
+            long lDelay = _lRetryDelayMillis << Math.min( task.getNbAttempts( ) - 1, 16 );
+            task.setStatus( PostSubmitTask.STATUS_WAITING );
+            task.setDateNextAttempt( new Timestamp( System.currentTimeMillis( ) + lDelay ) );
+            _lRetryCount.incrementAndGet( );
+        }
+
+        try
+        {
+            PostSubmitTaskHome.update( task );
+        }
+        catch( RuntimeException e )
+        {
+            // The lease will expire and the task will be run again
+            AppLogService.error( "Unable to store the failure of the post submit task " + task.getId( ), e );
+        }
+    }
+
+    /**
+     * Creates a worker thread
+     * 
+     * @param runnable
+     *            the work of the thread
+     * @return the thread
+     */
+    private Thread newThread( Runnable runnable )
+    {
+        Thread thread = new Thread( runnable, THREAD_NAME_PREFIX + _nThreadCounter.incrementAndGet( ) );
+        thread.setDaemon( true );
+        return thread;
+    }
+
+    /**
+     * Holder of the unique instance, lazily initialized
+     */
+    private static final class PostSubmitServiceHolder
+    {
+        private static final PostSubmitService _instance = new PostSubmitService( );
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+
+import fr.paris.lutece.plugins.forms.business.FormResponseHome;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Pipeline used to rebuild the whole forms index. A producer pages the ids of the form responses, a bounded pool of loaders builds the Lucene documents and
+ * a single writer feeds the index writer. The bounded queues between the stages make the fastest stages wait for the slowest one. No commit is done by the
+ * pipeline, it is up to the caller to commit once the pipeline has run. The first failure of a stage stops the whole pipeline and is thrown by
+ * {@link #run()}, which only returns normally when every form response has been given to the index writer.
+ */
+public class FormResponseIndexingPipeline
+{
+    // Properties
+    private static final String PROPERTY_LOADER_THREADS = "forms.index.rebuild.loader.threads";
+    private static final String PROPERTY_QUEUE_SIZE = "forms.index.rebuild.queue.size";
+    private static final String PROPERTY_ID_PAGE_SIZE = "forms.index.rebuild.id.page.size";
+    private static final String PROPERTY_PROGRESS_INTERVAL = "forms.index.rebuild.progress.interval";
+
+    // Constants
+    private static final int DEFAULT_LOADER_THREADS = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 8;
+    private static final int DEFAULT_ID_PAGE_SIZE = 10000;
+    private static final int DEFAULT_PROGRESS_INTERVAL = 30;
+    private static final String THREAD_NAME_LOADER = "forms-index-loader-";
+    private static final String THREAD_NAME_WRITER = "forms-index-writer";
+    private static final long QUEUE_POLL_TIMEOUT_MILLIS = 500;
+    private static final IndexingBatch END_OF_DOCUMENTS = new IndexingBatch( 0, Collections.emptyList( ) );
+
+    // Variables
+    private final IndexWriter _indexWriter;
+    private final Function<List<Integer>, List<Document>> _documentBuilder;
+    private final int _nBatchSize;
+    private final int _nLoaderThreads;
+    private final int _nQueueSize;
+    private final int _nIdPageSize;
+    private final long _lProgressInterval;
+    private final BlockingQueue<IndexingBatch> _documentQueue;
+    private final AtomicInteger _nLoadedResponses = new AtomicInteger( );
+    private final AtomicInteger _nIndexedResponses = new AtomicInteger( );
+    private final AtomicInteger _nIndexedDocuments = new AtomicInteger( );
+    private final AtomicReference<Exception> _failure = new AtomicReference<>( );
+    private int _nProducedResponses;
+    private final AtomicLong _lLastProgressTime = new AtomicLong( );
+    private int _nTotalResponses;
+    private long _lStartTime;
+
+    /**
+     * Constructor
+     * 
+     * @param indexWriter
+     *            The index writer to feed
+     * @param documentBuilder
+     *            The function which loads the form responses of a list of ids and builds their documents. It is called concurrently by the loaders
+     * @param nBatchSize
+     *            The number of form responses handled by a loader at once
+     */
+    public FormResponseIndexingPipeline( IndexWriter indexWriter, Function<List<Integer>, List<Document>> documentBuilder, int nBatchSize )
+    {
+        _indexWriter = indexWriter;
+        _documentBuilder = documentBuilder;
+        _nBatchSize = Math.max( 1, nBatchSize );
+        _nLoaderThreads = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_LOADER_THREADS, DEFAULT_LOADER_THREADS ) );
+        _nQueueSize = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_QUEUE_SIZE, DEFAULT_QUEUE_SIZE ) );
+        _nIdPageSize = Math.max( _nBatchSize, AppPropertiesService.getPropertyInt( PROPERTY_ID_PAGE_SIZE, DEFAULT_ID_PAGE_SIZE ) );
+        _lProgressInterval = TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_PROGRESS_INTERVAL, DEFAULT_PROGRESS_INTERVAL ) );
+        _documentQueue = new ArrayBlockingQueue<>( _nQueueSize );
+    }
+
+    /**
+     * Run the pipeline until all the form responses have been given to the index writer
+     * 
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting for the loaders or the writer
+     * @throws IOException
+     *             if a form response could not be loaded or indexed : the index writer then misses documents and must not be committed
+     */
+    public void run( ) throws InterruptedException, IOException
+    {
+        _lStartTime = System.currentTimeMillis( );
+        _lLastProgressTime.set( _lStartTime );
+        _nTotalResponses = FormResponseHome.countFormResponsesNotFromSave( );
+        AppLogService.info( "Forms index rebuild started for " + _nTotalResponses + " responses with " + _nLoaderThreads + " loaders" );
+
+        Thread writerThread = new Thread( this::write, THREAD_NAME_WRITER );
+        writerThread.setDaemon( true );
+        writerThread.start( );
+
+        AtomicInteger nLoaderThreadCount = new AtomicInteger( );
+        ThreadPoolExecutor loaderPool = new ThreadPoolExecutor( _nLoaderThreads, _nLoaderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>( _nQueueSize ), runnable -> {
+                    Thread thread = new Thread( runnable, THREAD_NAME_LOADER + nLoaderThreadCount.incrementAndGet( ) );
+                    thread.setDaemon( true );
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy( ) );
+
+        try
+        {
+            produce( loaderPool );
+        }
+        catch( RuntimeException e )
+        {
+            fail( e );
+        }
+        finally
+        {
+            if ( _failure.get( ) != null || Thread.currentThread( ).isInterrupted( ) )
+            {
+                loaderPool.shutdownNow( );
+            }
+            else
+            {
+                loaderPool.shutdown( );
+            }
+            try
+            {
+                while ( !loaderPool.awaitTermination( 1, TimeUnit.MINUTES ) )
+                {
+                    logProgress( true );
+                }
+                put( END_OF_DOCUMENTS, writerThread );
+                writerThread.join( );
+            }
+            catch( InterruptedException e )
+            {
+                fail( e );
+                loaderPool.shutdownNow( );
+                writerThread.interrupt( );
+                throw e;
+            }
+        }
+
+        Exception failure = _failure.get( );
+        if ( failure instanceof InterruptedException )
+        {
+            throw (InterruptedException) failure;
+        }
+        if ( failure != null )
+        {
+            throw new IOException( "Forms index rebuild failed, the index is incomplete", failure );
+        }
+        if ( _nIndexedResponses.get( ) != _nProducedResponses )
+        {
+            throw new IOException( "Forms index rebuild incomplete: " + _nIndexedResponses.get( ) + " of " + _nProducedResponses + " responses indexed" );
+        }
+
+        long lDuration = System.currentTimeMillis( ) - _lStartTime;
+        AppLogService.info( "Forms index rebuild loaded " + _nLoadedResponses.get( ) + " responses and indexed " + _nIndexedDocuments.get( )
+                + " documents in " + TimeUnit.MILLISECONDS.toSeconds( lDuration ) + " s" );
+    }
+
+    /**
+     * Page the ids of the form responses and give them by batches to the loaders. When all the loaders are busy and their queue is full, the batch is
+     * loaded by the producer itself.
+     * 
+     * @param loaderPool
+     *            The pool of loaders
+     */
+    private void produce( ThreadPoolExecutor loaderPool )
+    {
+        int nLastId = 0;
+        List<Integer> listIds = FormResponseHome.selectFormResponsesIdPage( nLastId, _nIdPageSize );
+        while ( !listIds.isEmpty( ) )
+        {
+            for ( int nFrom = 0; nFrom < listIds.size( ); nFrom += _nBatchSize )
+            {
+                if ( _failure.get( ) != null || Thread.currentThread( ).isInterrupted( ) )
+                {
+                    return;
+                }
+                List<Integer> listBatch = new ArrayList<>( listIds.subList( nFrom, Math.min( nFrom + _nBatchSize, listIds.size( ) ) ) );
+                _nProducedResponses += listBatch.size( );
+                loaderPool.execute( ( ) -> load( listBatch ) );
+            }
+            nLastId = listIds.get( listIds.size( ) - 1 );
+            listIds = FormResponseHome.selectFormResponsesIdPage( nLastId, _nIdPageSize );
+        }
+    }
+
+    /**
+     * Build the documents of a batch of form responses and give them to the writer. Nothing is done once the pipeline has failed.
+     * 
+     * @param listIds
+     *            The ids of the form responses of the batch
+     */
+    private void load( List<Integer> listIds )
+    {
+        if ( _failure.get( ) != null )
+        {
+            return;
+        }
+
+        try
+        {
+            List<Document> listDocuments = _documentBuilder.apply( listIds );
+            _nLoadedResponses.addAndGet( listIds.size( ) );
+            put( new IndexingBatch( listIds.size( ), listDocuments ), null );
+        }
+        catch( InterruptedException e )
+        {
+            fail( e );
+            Thread.currentThread( ).interrupt( );
+        }
+        catch( Exception e )
+        {
+            AppLogService.error( "Unable to build the documents of the form responses " + listIds, e );
+            fail( e );
+        }
+        finally
+        {
+            logProgress( false );
+        }
+    }
+
+    /**
+     * Give a batch to the writer. The wait for a free place in the queue stops as soon as the pipeline has failed, or the writer thread has ended, so that
+     * a dead writer never blocks the loaders.
+     * 
+     * @param batch
+     *            The batch
+     * @param writerThread
+     *            The writer thread to watch, or null if the failure of the pipeline is enough
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting
+     */
+    private void put( IndexingBatch batch, Thread writerThread ) throws InterruptedException
+    {
+        while ( !_documentQueue.offer( batch, QUEUE_POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS ) )
+        {
+            if ( ( writerThread == null && _failure.get( ) != null ) || ( writerThread != null && !writerThread.isAlive( ) ) )
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Give the documents built by the loaders to the index writer, until the end of the documents is reached. The writer stops at the first failure.
+     */
+    private void write( )
+    {
+        try
+        {
+            IndexingBatch batch = _documentQueue.take( );
+            while ( batch != END_OF_DOCUMENTS )
+            {
+                if ( !batch._listDocuments.isEmpty( ) )
+                {
+                    _indexWriter.addDocuments( batch._listDocuments );
+                }
+                _nIndexedResponses.addAndGet( batch._nResponses );
+                _nIndexedDocuments.addAndGet( batch._listDocuments.size( ) );
+                batch = _documentQueue.take( );
+            }
+        }
+        catch( InterruptedException e )
+        {
+            fail( e );
+            Thread.currentThread( ).interrupt( );
+        }
+        catch( IOException | RuntimeException e )
+        {
+            AppLogService.error( "Unable to index form responses", e );
+            fail( e );
+        }
+    }
+
+    /**
+     * Record the failure of a stage. Only the first failure is kept, it stops the other stages
+     * 
+     * @param exception
+     *            The failure
+     */
+    private void fail( Exception exception )
+    {
+        _failure.compareAndSet( null, exception );
+    }
+
+    /**
+     * Log the progress of the rebuild, at most once per progress interval unless forced
+     * 
+     * @param bForce
+     *            true to log whatever the time of the last log
+     */
+    private void logProgress( boolean bForce )
+    {
+        long lNow = System.currentTimeMillis( );
+        long lLastProgressTime = _lLastProgressTime.get( );
+        if ( !bForce && ( lNow - lLastProgressTime < _lProgressInterval || !_lLastProgressTime.compareAndSet( lLastProgressTime, lNow ) ) )
+        {
+            return;
+        }
+
+        int nLoaded = _nLoadedResponses.get( );
+        long lElapsed = Math.max( 1, lNow - _lStartTime );
+        long lRate = nLoaded * 1000L / lElapsed;
+        StringBuilder sbProgress = new StringBuilder( "Forms index rebuild: " );
+        sbProgress.append( nLoaded ).append( " / " ).append( _nTotalResponses ).append( " responses loaded, " );
+        sbProgress.append( _nIndexedDocuments.get( ) ).append( " documents indexed, " ).append( lRate ).append( " responses/s" );
+        if ( lRate > 0 && _nTotalResponses > nLoaded )
+        {
+            sbProgress.append( ", ETA " ).append( ( _nTotalResponses - nLoaded ) / lRate ).append( " s" );
+        }
+        AppLogService.info( sbProgress.toString( ) );
+    }
+
+    /**
+     * The documents built for a batch of form responses
+     */
+    private static final class IndexingBatch
+    {
+        private final int _nResponses;
+        private final List<Document> _listDocuments;
+
+        /**
+         * Constructor
+         * 
+         * @param nResponses
+         *            The number of form responses of the batch
+         * @param listDocuments
+         *            The documents of the form responses
+         */
+        IndexingBatch( int nResponses, List<Document> listDocuments )
+        {
+            _nResponses = nResponses;
+            _listDocuments = listDocuments;
+        }
+    }
+}
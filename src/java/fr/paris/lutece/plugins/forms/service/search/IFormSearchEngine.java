@@ -40,6 +40,8 @@ import fr.paris.lutece.plugins.forms.business.form.panel.FormPanel;
 import fr.paris.lutece.plugins.forms.business.form.panel.initializer.querypart.IFormPanelInitializerQueryPart;
 import fr.paris.lutece.plugins.forms.business.form.search.FormResponseSearchItem;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface IFormSearchEngine
 {
@@ -75,4 +77,59 @@ public interface IFormSearchEngine
     List<FormResponseSearchItem> getSearchResults( List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart,
             List<IFormColumnQueryPart> listFormColumnQueryPart, List<IFormFilterQueryPart> listFormFilterQueryPart, FormResponseItemSortConfig sortConfig,
             int nStartIndex, int nPageSize, FormPanel formPanel );
+
+    /**
+     * Process all the FormResponseSearchItem matching the given FormPanel and FormFilterList by chunks. Each chunk is read from the current view of the index
+     * after the last result of the previous one, the results being sorted by form response identifier after the given sort, so no index view is held while a
+     * chunk is processed. A form response is read once, unless its sort value changes during the processing.
+     * 
+     * @param listFormPanelInitializerQueryPart
+     *            the list of form panel initializer query parts
+     * @param listFormFilterQueryPart
+     *            the list of form filter query parts
+     * @param sortConfig
+     *            the sort config
+     * @param nChunkSize
+     *            the number of results per chunk
+     * @param chunkConsumer
+     *            the consumer of each chunk of results
+     */
+    void processSearchResults( List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart, List<IFormFilterQueryPart> listFormFilterQueryPart,
+            FormResponseItemSortConfig sortConfig, int nChunkSize, Consumer<List<FormResponseSearchItem>> chunkConsumer );
+
+    /**
+     * Count the form responses matching each FormPanel and the FormFilterList, without collecting them. The counts are computed concurrently on the same
+     * point in time view of the index.
+     * 
+     * @param listFormPanelInitializerQueryParts
+     *            the list of form panel initializer query parts of each FormPanel
+     * @param listFormFilterQueryPart
+     *            the list of form filter query parts, shared by all the FormPanels
+     * @return the number of form responses of each FormPanel, in the same order
+     */
+    List<Integer> getSearchResultsCounts( List<List<IFormPanelInitializerQueryPart>> listFormPanelInitializerQueryParts,
+            List<IFormFilterQueryPart> listFormFilterQueryPart );
+
+    /**
+     * Count the distinct values indexed for the first iteration of the questions having the given codes, fields included. At most nMaxValues values are
+     * returned : the most frequent ones when the questions have more distinct values.
+     * 
+     * @param listQuestionCode
+     *            the codes of the questions
+     * @param nMaxValues
+     *            the maximum number of values to return
+     * @return the number of form responses by value, sorted by value
+     */
+    Map<String, Integer> getDistinctValues( List<String> listQuestionCode, int nMaxValues );
+
+    /**
+     * Tell if a form response matches the given FormPanel initializers. Only the document of the form response is looked up.
+     * 
+     * @param listFormPanelInitializerQueryPart
+     *            the list of form panel initializer query parts
+     * @param nIdFormResponse
+     *            the identifier of the form response
+     * @return true if the form response is indexed and matches the initializers
+     */
+    boolean isFormResponseMatching( List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart, int nIdFormResponse );
 }
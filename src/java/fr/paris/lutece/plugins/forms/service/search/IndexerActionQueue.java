@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.search;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.paris.lutece.plugins.forms.business.form.search.IndexWriterLeaseHome;
+import fr.paris.lutece.plugins.forms.business.form.search.IndexerAction;
+import fr.paris.lutece.plugins.forms.business.form.search.IndexerActionHome;
+import fr.paris.lutece.plugins.forms.service.FormsPlugin;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Queue of the indexer actions, shared by all the servers using the same database. The actions are leased by batch to a server, and removed once the
+ * index is committed, so an action left by a server which stopped is processed by another one when its lease expires. A lease on the index itself makes
+ * sure a single server writes in it at a time.
+ */
+public final class IndexerActionQueue
+{
+    private static final String PROPERTY_BATCH_SIZE = "forms.index.queue.batch.size";
+    private static final String PROPERTY_LEASE_DURATION = "forms.index.queue.lease";
+    private static final String SEPARATOR = "-";
+
+    private final int _nBatchSize = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_BATCH_SIZE, 1000 ) );
+    private final long _lLeaseDurationMillis = TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( PROPERTY_LEASE_DURATION, 300 ) );
+    private final String _strNodeId = getHostName( ) + SEPARATOR + UUID.randomUUID( );
+    private final AtomicLong _lClaimCounter = new AtomicLong( );
+    private final AtomicLong _lLastLeaseRenewal = new AtomicLong( );
+
+    /**
+     * Private constructor
+     */
+    private IndexerActionQueue( )
+    {
+    }
+
+    /**
+     * Returns the unique instance of the queue
+     * 
+     * @return The instance of the queue
+     */
+    public static IndexerActionQueue getInstance( )
+    {
+        return IndexerActionQueueHolder._instance;
+    }
+
+    /**
+     * Lease the next batch of actions to this server
+     * 
+     * @return the leased actions, ordered by identifier, or an empty list if there is nothing to do
+     */
+    public List<IndexerAction> claim( )
+    {
+        String strLeaseOwner = _strNodeId + SEPARATOR + _lClaimCounter.incrementAndGet( );
+
+        return IndexerActionHome.claim( strLeaseOwner, getLeaseExpiration( ), _nBatchSize, getPlugin( ) );
+    }
+
+    /**
+     * Remove the processed actions from the queue. Must only be called once the index has been committed
+     * 
+     * @param listIndexerAction
+     *            the processed actions
+     */
+    public void acknowledge( List<IndexerAction> listIndexerAction )
+    {
+        List<Integer> listIdAction = new ArrayList<>( listIndexerAction.size( ) );
+        for ( IndexerAction indexerAction : listIndexerAction )
+        {
+            listIdAction.add( indexerAction.getIdAction( ) );
+        }
+        IndexerActionHome.removeList( listIdAction, getPlugin( ) );
+    }
+
+    /**
+     * Coalesce the actions of a batch: only the last action of each form response is kept, as it reflects the final state to index
+     * 
+     * @param listIndexerAction
+     *            the actions
+     * @return the task of the last action of each form response, by form response identifier
+     */
+    static Map<Integer, Integer> coalesce( List<IndexerAction> listIndexerAction )
+    {
+        Map<Integer, IndexerAction> mapLastAction = new LinkedHashMap<>( );
+        for ( IndexerAction indexerAction : listIndexerAction )
+        {
+            mapLastAction.merge( indexerAction.getIdFormResponse( ), indexerAction,
+                    ( previous, current ) -> current.getIdAction( ) > previous.getIdAction( ) ? current : previous );
+        }
+
+        Map<Integer, Integer> mapTaskByFormResponse = new LinkedHashMap<>( );
+        for ( Map.Entry<Integer, IndexerAction> entry : mapLastAction.entrySet( ) )
+        {
+            mapTaskByFormResponse.put( entry.getKey( ), entry.getValue( ).getIdTask( ) );
+        }
+        return mapTaskByFormResponse;
+    }
+
+    /**
+     * Acquire or extend the lease giving to this server the right to write in an index
+     * 
+     * @param strIndexName
+     *            the name of the index
+     * @return true if this server may write in the index
+     */
+    public boolean acquireWriterLease( String strIndexName )
+    {
+        long lNow = System.currentTimeMillis( );
+        if ( IndexWriterLeaseHome.acquire( strIndexName, _strNodeId, getLeaseExpiration( ) ) )
+        {
+            _lLastLeaseRenewal.set( lNow );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Extend the lease of an index during a long work. The lease is only extended in database once a third of its duration has elapsed since it was last
+     * acquired, so this method may be called often, and concurrently.
+     * 
+     * @param strIndexName
+     *            the name of the index
+     * @return true if this server still holds the lease
+     */
+    public boolean renewWriterLease( String strIndexName )
+    {
+        long lNow = System.currentTimeMillis( );
+        long lLastRenewal = _lLastLeaseRenewal.get( );
+        if ( lNow - lLastRenewal < _lLeaseDurationMillis / 3 || !_lLastLeaseRenewal.compareAndSet( lLastRenewal, lNow ) )
+        {
+            return true;
+        }
+        return acquireWriterLease( strIndexName );
+    }
+
+    /**
+     * Tests if the lease of an index acquired last by this server may have expired, in which case another server may have written the index meanwhile
+     * 
+     * @return true if the lease has not been extended for longer than its duration
+     */
+    public boolean isWriterLeaseLapsed( )
+    {
+        return System.currentTimeMillis( ) - _lLastLeaseRenewal.get( ) >= _lLeaseDurationMillis;
+    }
+
+    /**
+     * Release the lease of an index held by this server
+     * 
+     * @param strIndexName
+     *            the name of the index
+     */
+    public void releaseWriterLease( String strIndexName )
+    {
+        IndexWriterLeaseHome.release( strIndexName, _strNodeId );
+    }
+
+    /**
+     * Returns the number of actions waiting in the queue
+     * 
+     * @return the depth of the queue
+     */
+    public int getQueueDepth( )
+    {
+        return IndexerActionHome.countActions( getPlugin( ) );
+    }
+
+    /**
+     * Returns the age of the oldest action waiting in the queue
+     * 
+     * @return the lag of the index in milliseconds, or 0 if the queue is empty
+     */
+    public long getQueueLagMillis( )
+    {
+        Timestamp dateOldest = IndexerActionHome.getOldestCreationDate( getPlugin( ) );
+
+        return dateOldest == null ? 0 : Math.max( 0, System.currentTimeMillis( ) - dateOldest.getTime( ) );
+    }
+
+    /**
+     * Returns the identifier of this server in the leases
+     * 
+     * @return the identifier of the server
+     */
+    public String getNodeId( )
+    {
+        return _strNodeId;
+    }
+
+    private Timestamp getLeaseExpiration( )
+    {
+        return new Timestamp( System.currentTimeMillis( ) + _lLeaseDurationMillis );
+    }
+
+    private static Plugin getPlugin( )
+    {
+        return PluginService.getPlugin( FormsPlugin.PLUGIN_NAME );
+    }
+
+    private static String getHostName( )
+    {
+        try
+        {
+            return InetAddress.getLocalHost( ).getHostName( );
+        }
+        catch( UnknownHostException e )
+        {
+            return "unknown";
+        }
+    }
+
+    /**
+     * Holder of the unique instance
+     */
+    private static final class IndexerActionQueueHolder
+    {
+        private static final IndexerActionQueue _instance = new IndexerActionQueue( );
+    }
+}
@@ -39,25 +39,54 @@ import fr.paris.lutece.plugins.forms.business.form.column.querypart.IFormColumnQ
 import fr.paris.lutece.plugins.forms.business.form.filter.querypart.IFormFilterQueryPart;
 import fr.paris.lutece.plugins.forms.business.form.panel.FormPanel;
 import fr.paris.lutece.plugins.forms.business.form.panel.initializer.querypart.IFormPanelInitializerQueryPart;
+import fr.paris.lutece.plugins.forms.business.form.search.FormResponseSearchCursor;
 import fr.paris.lutece.plugins.forms.business.form.search.FormResponseSearchItem;
+import fr.paris.lutece.plugins.forms.service.cache.FormsCache;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
+import fr.paris.lutece.plugins.forms.util.LuceneUtils;
 import fr.paris.lutece.portal.service.search.IndexationService;
 import fr.paris.lutece.portal.service.search.LuceneSearchEngine;
 import fr.paris.lutece.portal.service.search.SearchItem;
 import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.IntPoint;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
@@ -65,27 +94,41 @@ import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
 
 public class LuceneFormSearchEngine implements IFormSearchEngine
 {
     public static final String BEAN_NAME = "forms.luceneFormsSearchEngine";
 
+    private static final String PROPERTY_COUNT_THREADS = "forms.multiview.panel.count.threads";
+    private static final String PROPERTY_COUNT_CACHE_MAX_SIZE = "forms.multiview.panel.count.cache.maxSize";
+    private static final String CACHE_COUNTS = "multiviewPanelCounts";
+    private static final String THREAD_NAME_PREFIX_COUNT = "forms-panel-count-";
+    private static final int DEFAULT_COUNT_THREADS = 4;
+    private static final int DEFAULT_COUNT_CACHE_MAX_SIZE = 1000;
+
     @Inject
     private LuceneFormSearchFactory _luceneFormSearchFactory;
 
+    private final Map<String, DistinctValues> _mapDistinctValues = new ConcurrentHashMap<>( );
+    private final FormsCache<String, Integer> _cacheCounts = new FormsCache<>( CACHE_COUNTS,
+            AppPropertiesService.getPropertyInt( PROPERTY_COUNT_CACHE_MAX_SIZE, DEFAULT_COUNT_CACHE_MAX_SIZE ), 0 );
+    private final AtomicInteger _nThreadCounter = new AtomicInteger( );
+    private ExecutorService _countExecutor;
+
     /**
      * {@inheritDoc }
      */
     @Override
     public List<Integer> getSearchResults( FormSearchConfig formSearchConfig )
     {
+        long lStart = System.nanoTime( );
         ArrayList<Integer> listResults = new ArrayList<>( );
         IndexSearcher searcher = null;
 
-        try ( Directory directory = _luceneFormSearchFactory.getDirectory( ) ; IndexReader ir = DirectoryReader.open( directory ) ; )
+        try
         {
-            searcher = new IndexSearcher( ir );
+            searcher = _luceneFormSearchFactory.acquireSearcher( );
 
             Collection<String> queries = new ArrayList<>( );
             Collection<String> fields = new ArrayList<>( );
@@ -139,6 +182,11 @@ public class LuceneFormSearchEngine implements IFormSearchEngine
         {
             AppLogService.error( e.getMessage( ), e );
         }
+        finally
+        {
+            _luceneFormSearchFactory.releaseSearcher( searcher );
+            FormsMetricsService.getInstance( ).recordTime( FormsMetricsService.TIMER_SEARCH, lStart );
+        }
 
         return listResults;
     }
@@ -162,6 +210,7 @@ public class LuceneFormSearchEngine implements IFormSearchEngine
             List<IFormColumnQueryPart> listFormColumnQueryPart, List<IFormFilterQueryPart> listFormFilterQueryPart, FormResponseItemSortConfig sortConfig,
             int nStartIndex, int nPageSize, FormPanel formPanel )
     {
+        long lStart = System.nanoTime( );
 
         // Build the query to execute
         Query query = LuceneQueryBuilder.buildQuery( listFormPanelInitializerQueryPart, listFormFilterQueryPart );
@@ -172,42 +221,505 @@ public class LuceneFormSearchEngine implements IFormSearchEngine
         List<FormResponseSearchItem> listResults = new ArrayList<>( );
         IndexSearcher searcher = null;
 
-        try ( Directory directory = _luceneFormSearchFactory.getDirectory( ) ; IndexReader ir = DirectoryReader.open( directory ) ; )
+        try
         {
+            searcher = _luceneFormSearchFactory.acquireSearcher( );
 
-            searcher = new IndexSearcher( ir );
-            TopDocs topDocs = null;
-            // Get results documents
-            if ( sort != null )
+            // The total is given by a count query, which does not collect nor sort any hit
+            int nTotal = searcher.count( query );
+            formPanel.setTotalFormResponseItemCount( nTotal );
+
+            if ( nTotal == 0 || nStartIndex >= nTotal )
             {
-                topDocs = searcher.search( query, LuceneSearchEngine.MAX_RESPONSES, sort );
+                formPanel.setSearchCursor( null );
+                return listResults;
             }
-            else
+
+            String strQueryKey = buildQueryKey( query, sort );
+            long lReaderVersion = getReaderVersion( searcher );
+            FormResponseSearchCursor searchCursor = formPanel.getSearchCursor( );
+
+            ScoreDoc [ ] hits;
+            int nFirstHit;
+            if ( nPageSize > 0 && searchCursor != null && searchCursor.isContinuation( strQueryKey, lReaderVersion, nStartIndex ) )
             {
-                topDocs = searcher.search( query, LuceneSearchEngine.MAX_RESPONSES );
+                // Next page: only collect the hits of the page from the last hit of the previous one
+                hits = searchAfter( searcher, searchCursor.getLastScoreDoc( ), query, nPageSize, sort ).scoreDocs;
+                nFirstHit = 0;
             }
-            ScoreDoc [ ] hits = topDocs.scoreDocs;
-
-            int nMaxIndex = hits.length;
-            if ( nPageSize > 0 )
+            else
             {
-                nMaxIndex = Math.min( nStartIndex + nPageSize, hits.length );
+                // Only collect the hits up to the end of the requested page
+                int nNumberOfHits = Math.min( nTotal, LuceneSearchEngine.MAX_RESPONSES );
+                if ( nPageSize > 0 )
+                {
+                    nNumberOfHits = Math.min( nStartIndex + nPageSize, nNumberOfHits );
+                }
+                hits = search( searcher, query, nNumberOfHits, sort ).scoreDocs;
+                nFirstHit = nStartIndex;
             }
-            formPanel.setTotalFormResponseItemCount( hits.length );
-            for ( int i = nStartIndex; i < nMaxIndex; i++ )
+
+            for ( int i = nFirstHit; i < hits.length; i++ )
             {
                 Document document = searcher.doc( hits [i].doc );
                 listResults.add( new FormResponseSearchItem( document ) );
             }
+
+            if ( nPageSize > 0 && hits.length > nFirstHit )
+            {
+                formPanel.setSearchCursor( new FormResponseSearchCursor( strQueryKey, lReaderVersion, hits [hits.length - 1],
+                        nStartIndex + hits.length - nFirstHit ) );
+            }
+            else
+            {
+                formPanel.setSearchCursor( null );
+            }
         }
         catch( IOException e )
         {
             AppLogService.error( e.getMessage( ), e );
         }
+        finally
+        {
+            _luceneFormSearchFactory.releaseSearcher( searcher );
+            FormsMetricsService.getInstance( ).recordTime( FormsMetricsService.TIMER_SEARCH, lStart );
+        }
 
         return listResults;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void processSearchResults( List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart,
+            List<IFormFilterQueryPart> listFormFilterQueryPart, FormResponseItemSortConfig sortConfig, int nChunkSize,
+            Consumer<List<FormResponseSearchItem>> chunkConsumer )
+    {
+        Query query = LuceneQueryBuilder.buildQuery( listFormPanelInitializerQueryPart, listFormFilterQueryPart );
+        Sort sort = buildPagingSort( buildLuceneSort( sortConfig ) );
+        FieldDoc lastHit = null;
+        List<FormResponseSearchItem> listResults;
+
+        do
+        {
+            listResults = new ArrayList<>( nChunkSize );
+            IndexSearcher searcher = null;
+
+            try
+            {
+                // A searcher is acquired for each chunk and released before the chunk is processed
+                searcher = _luceneFormSearchFactory.acquireSearcher( );
+
+                ScoreDoc [ ] hits;
+                if ( lastHit == null )
+                {
+                    hits = search( searcher, query, nChunkSize, sort ).scoreDocs;
+                }
+                else
+                {
+                    hits = searchAfter( searcher, getPagingCursor( searcher, lastHit ), query, nChunkSize, sort ).scoreDocs;
+                }
+
+                for ( ScoreDoc hit : hits )
+                {
+                    listResults.add( new FormResponseSearchItem( searcher.doc( hit.doc ) ) );
+                }
+                if ( hits.length > 0 )
+                {
+                    lastHit = (FieldDoc) hits [hits.length - 1];
+                }
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( e.getMessage( ), e );
+                return;
+            }
+            finally
+            {
+                _luceneFormSearchFactory.releaseSearcher( searcher );
+            }
+
+            if ( !listResults.isEmpty( ) )
+            {
+                chunkConsumer.accept( listResults );
+            }
+        }
+        while ( listResults.size( ) == nChunkSize );
+    }
+
+    /**
+     * Build the sort used to read the results by chunks : the given sort followed by the identifier of the form response, so that the position of a result
+     * does not depend on the version of the index
+     * 
+     * @param sort
+     *            The sort, may be null
+     * @return the sort of the chunks
+     */
+    private static Sort buildPagingSort( Sort sort )
+    {
+        SortField sortFieldId = new SortField( FormResponseSearchItem.FIELD_ID_FORM_RESPONSE, SortField.Type.INT );
+
+        if ( sort == null )
+        {
+            return new Sort( sortFieldId );
+        }
+
+        SortField [ ] sortFields = Arrays.copyOf( sort.getSort( ), sort.getSort( ).length + 1 );
+        sortFields [sortFields.length - 1] = sortFieldId;
+
+        return new Sort( sortFields );
+    }
+
+    /**
+     * Gives the cursor following the last hit of the previous chunk, which may have been read from another version of the index. The sort values identify
+     * the form response, so the document identifier is set to the last document of the searcher : the form response of the last hit is not read again.
+     * 
+     * @param searcher
+     *            The searcher of the next chunk
+     * @param lastHit
+     *            The last hit of the previous chunk
+     * @return the cursor
+     */
+    private static FieldDoc getPagingCursor( IndexSearcher searcher, FieldDoc lastHit )
+    {
+        return new FieldDoc( Math.max( 0, searcher.getIndexReader( ).maxDoc( ) - 1 ), lastHit.score, lastHit.fields );
+    }
+
+    /**
+     * {@inheritDoc } The counts are cached by version of the index reader and query.
+     */
+    @Override
+    public List<Integer> getSearchResultsCounts( List<List<IFormPanelInitializerQueryPart>> listFormPanelInitializerQueryParts,
+            List<IFormFilterQueryPart> listFormFilterQueryPart )
+    {
+        // The queries are built by the calling thread, as the query parts are not thread safe
+        List<Query> listQuery = new ArrayList<>( listFormPanelInitializerQueryParts.size( ) );
+        for ( List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart : listFormPanelInitializerQueryParts )
+        {
+            listQuery.add( LuceneQueryBuilder.buildQuery( listFormPanelInitializerQueryPart, listFormFilterQueryPart ) );
+        }
+
+        List<Integer> listCount = new ArrayList<>( Collections.nCopies( listQuery.size( ), 0 ) );
+        IndexSearcher searcher = null;
+
+        try
+        {
+            searcher = _luceneFormSearchFactory.acquireSearcher( );
+
+            IndexSearcher sharedSearcher = searcher;
+            long lReaderVersion = getReaderVersion( searcher );
+            List<CompletableFuture<Integer>> listFuture = new ArrayList<>( listQuery.size( ) );
+            for ( Query query : listQuery )
+            {
+                listFuture.add( CompletableFuture.supplyAsync( ( ) -> getCount( sharedSearcher, lReaderVersion, query ), getCountExecutor( ) ) );
+            }
+            // All the counts are over before the searcher is released, even if one of them fails
+            CompletableFuture.allOf( listFuture.toArray( new CompletableFuture<?> [ listFuture.size( )] ) ).handle( ( result, e ) -> result ).join( );
+            for ( int i = 0; i < listFuture.size( ); i++ )
+            {
+                listCount.set( i, listFuture.get( i ).join( ) );
+            }
+        }
+        catch( IOException | CompletionException e )
+        {
+            AppLogService.error( e.getMessage( ), e );
+        }
+        finally
+        {
+            _luceneFormSearchFactory.releaseSearcher( searcher );
+        }
+
+        return listCount;
+    }
+
+    /**
+     * {@inheritDoc } The initializer clauses are only evaluated on the document found by a point lookup on the form response identifier.
+     */
+    @Override
+    public boolean isFormResponseMatching( List<IFormPanelInitializerQueryPart> listFormPanelInitializerQueryPart, int nIdFormResponse )
+    {
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder( );
+        booleanQueryBuilder.add( IntPoint.newExactQuery( FormResponseSearchItem.FIELD_ID_FORM_RESPONSE, nIdFormResponse ), BooleanClause.Occur.FILTER );
+        BooleanQuery initializerQuery = (BooleanQuery) LuceneQueryBuilder.buildQuery( listFormPanelInitializerQueryPart, Collections.emptyList( ) );
+        for ( BooleanClause clause : initializerQuery.clauses( ) )
+        {
+            booleanQueryBuilder.add( clause );
+        }
+
+        IndexSearcher searcher = null;
+        try
+        {
+            searcher = _luceneFormSearchFactory.acquireSearcher( );
+
+            return searcher.count( booleanQueryBuilder.build( ) ) > 0;
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( e.getMessage( ), e );
+        }
+        finally
+        {
+            _luceneFormSearchFactory.releaseSearcher( searcher );
+        }
+
+        return false;
+    }
+
+    /**
+     * {@inheritDoc } The values are read from the sorted doc values of the entry fields and cached until the index changes.
+     */
+    @Override
+    public Map<String, Integer> getDistinctValues( List<String> listQuestionCode, int nMaxValues )
+    {
+        String strKey = String.join( ",", listQuestionCode ) + '|' + nMaxValues;
+        IndexSearcher searcher = null;
+
+        try
+        {
+            searcher = _luceneFormSearchFactory.acquireSearcher( );
+
+            long lReaderVersion = getReaderVersion( searcher );
+            DistinctValues distinctValues = _mapDistinctValues.get( strKey );
+
+            if ( distinctValues == null || distinctValues._lReaderVersion != lReaderVersion || lReaderVersion == -1 )
+            {
+                distinctValues = new DistinctValues( lReaderVersion, countDistinctValues( searcher.getIndexReader( ), listQuestionCode, nMaxValues ) );
+                _mapDistinctValues.put( strKey, distinctValues );
+            }
+
+            return distinctValues._mapValues;
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( e.getMessage( ), e );
+        }
+        finally
+        {
+            _luceneFormSearchFactory.releaseSearcher( searcher );
+        }
+
+        return Collections.emptyMap( );
+    }
+
+    /**
+     * Count the values of the sorted doc values of the entry fields of the given questions, ignoring the deleted documents
+     * 
+     * @param indexReader
+     *            The index reader
+     * @param listQuestionCode
+     *            The codes of the questions
+     * @param nMaxValues
+     *            The maximum number of values to keep
+     * @return the number of documents by value, sorted by value
+     * @throws IOException
+     *             - if the doc values cannot be read
+     */
+    private Map<String, Integer> countDistinctValues( IndexReader indexReader, List<String> listQuestionCode, int nMaxValues ) throws IOException
+    {
+        Map<String, Integer> mapCounts = new HashMap<>( );
+
+        for ( LeafReaderContext leafReaderContext : indexReader.leaves( ) )
+        {
+            LeafReader leafReader = leafReaderContext.reader( );
+            Bits liveDocs = leafReader.getLiveDocs( );
+
+            for ( FieldInfo fieldInfo : leafReader.getFieldInfos( ) )
+            {
+                if ( fieldInfo.getDocValuesType( ) != DocValuesType.SORTED || !isEntryField( fieldInfo.name, listQuestionCode ) )
+                {
+                    continue;
+                }
+
+                SortedDocValues sortedDocValues = leafReader.getSortedDocValues( fieldInfo.name );
+                int [ ] counts = new int [ sortedDocValues.getValueCount( )];
+
+                for ( int nDoc = sortedDocValues.nextDoc( ); nDoc != DocIdSetIterator.NO_MORE_DOCS; nDoc = sortedDocValues.nextDoc( ) )
+                {
+                    if ( liveDocs == null || liveDocs.get( nDoc ) )
+                    {
+                        counts [sortedDocValues.ordValue( )]++;
+                    }
+                }
+
+                for ( int nOrd = 0; nOrd < counts.length; nOrd++ )
+                {
+                    if ( counts [nOrd] > 0 )
+                    {
+                        mapCounts.merge( sortedDocValues.lookupOrd( nOrd ).utf8ToString( ), counts [nOrd], Integer::sum );
+                    }
+                }
+            }
+        }
+
+        Stream<Map.Entry<String, Integer>> streamCounts = mapCounts.entrySet( ).stream( );
+
+        if ( mapCounts.size( ) > nMaxValues )
+        {
+            streamCounts = streamCounts.sorted( Map.Entry.<String, Integer> comparingByValue( ).reversed( ) ).limit( nMaxValues );
+        }
+
+        Map<String, Integer> mapValues = new TreeMap<>( );
+        streamCounts.forEach( entry -> mapValues.put( entry.getKey( ), entry.getValue( ) ) );
+
+        return Collections.unmodifiableMap( mapValues );
+    }
+
+    /**
+     * Tell if an index field holds the first iteration of one of the given questions, or of one of their fields
+     * 
+     * @param strFieldName
+     *            The name of the index field
+     * @param listQuestionCode
+     *            The codes of the questions
+     * @return true if the field belongs to one of the questions
+     */
+    private boolean isEntryField( String strFieldName, List<String> listQuestionCode )
+    {
+        for ( String strQuestionCode : listQuestionCode )
+        {
+            String strEntryKey = LuceneUtils.createLuceneEntryKey( strQuestionCode, 0 );
+
+            if ( strFieldName.equals( strEntryKey ) || strFieldName.startsWith( strEntryKey + FormResponseSearchItem.FIELD_RESPONSE_FIELD_SEPARATOR ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Collect the top hits of a query
+     * 
+     * @param searcher
+     *            The searcher
+     * @param query
+     *            The query
+     * @param nNumberOfHits
+     *            The number of hits to collect
+     * @param sort
+     *            The sort, may be null
+     * @return the top hits
+     * @throws IOException
+     *             - if there is a low level IO error
+     */
+    private TopDocs search( IndexSearcher searcher, Query query, int nNumberOfHits, Sort sort ) throws IOException
+    {
+        if ( sort != null )
+        {
+            return searcher.search( query, nNumberOfHits, sort );
+        }
+        return searcher.search( query, nNumberOfHits );
+    }
+
+    /**
+     * Collect the top hits of a query following the given hit
+     * 
+     * @param searcher
+     *            The searcher
+     * @param after
+     *            The last hit of the previous page
+     * @param query
+     *            The query
+     * @param nNumberOfHits
+     *            The number of hits to collect
+     * @param sort
+     *            The sort, may be null
+     * @return the top hits following the given hit
+     * @throws IOException
+     *             - if there is a low level IO error
+     */
+    private TopDocs searchAfter( IndexSearcher searcher, ScoreDoc after, Query query, int nNumberOfHits, Sort sort ) throws IOException
+    {
+        if ( sort != null )
+        {
+            return searcher.searchAfter( after, query, nNumberOfHits, sort );
+        }
+        return searcher.searchAfter( after, query, nNumberOfHits );
+    }
+
+    /**
+     * Count the hits of a query, from the cache if the query has already been counted on the same version of the index
+     * 
+     * @param searcher
+     *            The searcher
+     * @param lReaderVersion
+     *            The version of the reader of the searcher, or -1 if it is unknown
+     * @param query
+     *            The query
+     * @return the number of hits
+     */
+    private Integer getCount( IndexSearcher searcher, long lReaderVersion, Query query )
+    {
+        Function<String, Integer> loader = strKey -> {
+            try
+            {
+                return searcher.count( query );
+            }
+            catch( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        };
+
+        if ( lReaderVersion < 0 )
+        {
+            return loader.apply( null );
+        }
+        return _cacheCounts.get( buildQueryKey( query, null ) + '|' + lReaderVersion, loader );
+    }
+
+    /**
+     * Returns the executor running the counts, created on first use
+     * 
+     * @return the executor
+     */
+    private synchronized ExecutorService getCountExecutor( )
+    {
+        if ( _countExecutor == null )
+        {
+            int nThreads = Math.max( 1, AppPropertiesService.getPropertyInt( PROPERTY_COUNT_THREADS, DEFAULT_COUNT_THREADS ) );
+            _countExecutor = Executors.newFixedThreadPool( nThreads, runnable -> {
+                Thread thread = new Thread( runnable, THREAD_NAME_PREFIX_COUNT + _nThreadCounter.incrementAndGet( ) );
+                thread.setDaemon( true );
+                return thread;
+            } );
+        }
+        return _countExecutor;
+    }
+
+    /**
+     * Build the key identifying a query and its sort
+     * 
+     * @param query
+     *            The query
+     * @param sort
+     *            The sort, may be null
+     * @return the key of the query and the sort
+     */
+    private String buildQueryKey( Query query, Sort sort )
+    {
+        return query.toString( ) + '|' + sort;
+    }
+
+    /**
+     * Get the version of the reader of the given searcher
+     * 
+     * @param searcher
+     *            The searcher
+     * @return the version of the reader, or -1 if it is unknown
+     */
+    private long getReaderVersion( IndexSearcher searcher )
+    {
+        IndexReader indexReader = searcher.getIndexReader( );
+        if ( indexReader instanceof DirectoryReader )
+        {
+            return ( (DirectoryReader) indexReader ).getVersion( );
+        }
+        return -1;
+    }
+
     /**
      * Build the Lucene Sort obj
      * 
@@ -238,4 +750,26 @@ public class LuceneFormSearchEngine implements IFormSearchEngine
         return null;
     }
 
+    /**
+     * Distinct values computed for a version of the index
+     */
+    private static final class DistinctValues
+    {
+        private final long _lReaderVersion;
+        private final Map<String, Integer> _mapValues;
+
+        /**
+         * Constructor
+         * 
+         * @param lReaderVersion
+         *            The version of the reader the values were read from
+         * @param mapValues
+         *            The number of documents by value
+         */
+        DistinctValues( long lReaderVersion, Map<String, Integer> mapValues )
+        {
+            _lReaderVersion = lReaderVersion;
+            _mapValues = mapValues;
+        }
+    }
 }
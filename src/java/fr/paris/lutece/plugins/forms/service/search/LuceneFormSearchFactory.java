@@ -34,16 +34,29 @@
 package fr.paris.lutece.plugins.forms.service.search;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 
@@ -59,6 +72,14 @@ public class LuceneFormSearchFactory
     // Constants
     private static final String PATH_INDEX = "forms.internalIndexer.lucene.indexPath";
     private static final String PATH_INDEX_IN_WEBAPP = "forms.internalIndexer.lucene.indexInWebapp";
+    private static final String PROPERTY_SEARCHER_REFRESH_INTERVAL = "forms.internalIndexer.lucene.searcher.refreshInterval";
+    private static final int DEFAULT_SEARCHER_REFRESH_INTERVAL = 60;
+    private static final String PROPERTY_STALE_INDEX_GRACE_PERIOD = "forms.internalIndexer.lucene.staleIndex.gracePeriod";
+    private static final int DEFAULT_STALE_INDEX_GRACE_PERIOD = 10;
+    private static final String THREAD_NAME_SEARCHER_REFRESH = "forms-lucene-searcher-refresh";
+    private static final String SIDE_INDEX_SEPARATOR = "_";
+    private static final String CURRENT_INDEX_MARKER_SUFFIX = ".current";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
 
     // Variables
     @Inject
@@ -66,6 +87,11 @@ public class LuceneFormSearchFactory
     private Analyzer _analyzer;
 
     private IndexWriter _indexWriter;
+    private Path _currentIndexPath;
+    private volatile SearcherManager _searcherManager;
+    private IndexWriter _searcherManagerWriter;
+    private Path _searcherManagerPath;
+    private ScheduledExecutorService _searcherRefreshExecutor;
 
     /**
      * Return the Analyzer to use for the search
@@ -86,12 +112,14 @@ public class LuceneFormSearchFactory
      * @throws IOException
      *             - if there is a low level IO error
      */
-    public IndexWriter getIndexWriter( Boolean bCreateIndex )
+    public synchronized IndexWriter getIndexWriter( Boolean bCreateIndex )
     {
         if ( _indexWriter == null || !_indexWriter.isOpen( ) )
         {
             try
             {
+                // Another server may have swapped the index since this one last wrote it
+                reloadIndexPath( );
                 Directory luceneDirectory = getDirectory( );
 
                 if ( !DirectoryReader.indexExists( luceneDirectory ) )
@@ -129,6 +157,361 @@ public class LuceneFormSearchFactory
      *             - if the path string cannot be converted to a Path
      */
     public Directory getDirectory( ) throws IOException
+    {
+        return FSDirectory.open( getIndexPath( ) );
+    }
+
+    /**
+     * Create an IndexWriter on a new empty index, next to the live one. The live index keeps serving the searches until the new one is swapped with
+     * {@link #swapIndex(IndexWriter)}. The indexes replaced by the previous rebuilds are deleted first, once the grace period given to the other servers to
+     * switch to the live index has elapsed.
+     * 
+     * @return the IndexWriter of the new index
+     * @throws IOException
+     *             - if there is a low level IO error
+     */
+    public IndexWriter createSideIndexWriter( ) throws IOException
+    {
+        Path basePath = getBaseIndexPath( );
+        deleteStaleIndexDirectories( basePath, reloadIndexPath( ) ? null : getIndexPath( ) );
+        Path sidePath = basePath.resolveSibling( basePath.getFileName( ) + SIDE_INDEX_SEPARATOR + System.currentTimeMillis( ) );
+
+        IndexWriterConfig conf = new IndexWriterConfig( getAnalyzer( ) );
+        conf.setOpenMode( OpenMode.CREATE );
+
+        return new IndexWriter( FSDirectory.open( sidePath ), conf );
+    }
+
+    /**
+     * Make the index of the given IndexWriter the live index. The IndexWriter must have been created by {@link #createSideIndexWriter()} and its changes
+     * committed. It becomes the shared IndexWriter, the searches started before the swap end on the previous index. The previous index is kept, as the other
+     * servers search it until they read the new marker : it is deleted by the next rebuild.
+     * 
+     * @param sideIndexWriter
+     *            the IndexWriter of the new index
+     * @throws IOException
+     *             - if the new index cannot be recorded as the live one
+     */
+    public void swapIndex( IndexWriter sideIndexWriter ) throws IOException
+    {
+        Path sidePath = getPath( sideIndexWriter );
+        Path previousPath;
+        IndexWriter previousIndexWriter;
+
+        synchronized( this )
+        {
+            writeCurrentIndexMarker( sidePath );
+
+            previousPath = getIndexPath( );
+            previousIndexWriter = _indexWriter;
+            _indexWriter = sideIndexWriter;
+            _currentIndexPath = sidePath;
+            closeSearcherManager( );
+        }
+
+        if ( previousIndexWriter != null && previousIndexWriter.isOpen( ) )
+        {
+            try
+            {
+                previousIndexWriter.close( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to close the previous Lucene Index Writer", e );
+            }
+        }
+        AppLogService.info( "Forms index swapped from " + previousPath + " to " + sidePath );
+    }
+
+    /**
+     * Discard an index created by {@link #createSideIndexWriter()} which will not be swapped
+     * 
+     * @param sideIndexWriter
+     *            the IndexWriter of the index to discard
+     */
+    public void discardSideIndex( IndexWriter sideIndexWriter )
+    {
+        try
+        {
+            Path sidePath = getPath( sideIndexWriter );
+            sideIndexWriter.rollback( );
+            deleteIndexDirectory( sidePath );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to discard the side Lucene index", e );
+        }
+    }
+
+    /**
+     * Roll back the shared index writer : its changes since the last commit are discarded and it is closed. The next call to
+     * {@link #getIndexWriter(Boolean)} opens a new one on the last commit.
+     */
+    public synchronized void rollbackIndexWriter( )
+    {
+        if ( _searcherManagerWriter != null )
+        {
+            closeSearcherManager( );
+        }
+        if ( _indexWriter != null && _indexWriter.isOpen( ) )
+        {
+            try
+            {
+                _indexWriter.rollback( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to rollback the Lucene Index Writer", e );
+            }
+        }
+        _indexWriter = null;
+    }
+
+    /**
+     * Acquire a searcher on the reader shared by all the searches. The returned searcher must always be given back with
+     * {@link #releaseSearcher(IndexSearcher)}. Acquiring a searcher never opens the index writer, so that the servers which do not write the index can search
+     * it.
+     * 
+     * @return the shared IndexSearcher
+     * @throws IOException
+     *             - if the searcher manager cannot be opened, for instance if the index has not been created yet
+     */
+    public synchronized IndexSearcher acquireSearcher( ) throws IOException
+    {
+        return getSearcherManager( ).acquire( );
+    }
+
+    /**
+     * Release a searcher previously acquired with {@link #acquireSearcher()}
+     * 
+     * @param searcher
+     *            the searcher to release, may be null
+     */
+    public void releaseSearcher( IndexSearcher searcher )
+    {
+        if ( searcher == null )
+        {
+            return;
+        }
+        try
+        {
+            // Releasing only decrements the reader reference count, whichever manager opened it
+            searcher.getIndexReader( ).decRef( );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to release the Lucene Index Searcher", e );
+        }
+    }
+
+    /**
+     * Refresh the shared searcher so that it sees the last changes made by the index writer. Must be called after each commit of the indexer. The marker of
+     * the live index is read again, so that the searches switch to the index swapped by another server.
+     */
+    public void refreshSearcher( )
+    {
+        try
+        {
+            reloadIndexPath( );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to read the marker of the live Lucene index", e );
+        }
+
+        SearcherManager searcherManager = _searcherManager;
+        if ( searcherManager == null )
+        {
+            return;
+        }
+        try
+        {
+            searcherManager.maybeRefresh( );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to refresh the Lucene Index Searcher", e );
+        }
+    }
+
+    /**
+     * Close the searcher manager, its refresh task and the index writer
+     */
+    public synchronized void shutdown( )
+    {
+        if ( _searcherRefreshExecutor != null )
+        {
+            _searcherRefreshExecutor.shutdownNow( );
+            _searcherRefreshExecutor = null;
+        }
+        closeSearcherManager( );
+        if ( _indexWriter != null && _indexWriter.isOpen( ) )
+        {
+            try
+            {
+                _indexWriter.close( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to close the Lucene Index Writer", e );
+            }
+        }
+        _indexWriter = null;
+    }
+
+    /**
+     * Get the searcher manager. While this server holds the index writer, the manager is built on it and sees its changes in near real time. Otherwise the
+     * index writer belongs to another server : the manager is built on the directory of the index and sees the changes committed by the other server when it
+     * is refreshed. A new manager is opened when the index writer is opened or closed, or the index is swapped.
+     * 
+     * @return the searcher manager
+     * @throws IOException
+     *             - if the searcher manager cannot be opened
+     */
+    private synchronized SearcherManager getSearcherManager( ) throws IOException
+    {
+        IndexWriter indexWriter = ( _indexWriter != null && _indexWriter.isOpen( ) ) ? _indexWriter : null;
+        Path indexPath = getIndexPath( );
+
+        if ( _searcherManager == null || _searcherManagerWriter != indexWriter || !indexPath.equals( _searcherManagerPath ) )
+        {
+            closeSearcherManager( );
+            if ( indexWriter != null )
+            {
+                _searcherManager = new SearcherManager( indexWriter, null );
+            }
+            else
+            {
+                _searcherManager = new SearcherManager( getDirectory( ), null );
+            }
+            _searcherManagerWriter = indexWriter;
+            _searcherManagerPath = indexPath;
+            startSearcherRefresh( );
+        }
+        return _searcherManager;
+    }
+
+    /**
+     * Close the current searcher manager. The searchers still acquired stay usable until they are released.
+     */
+    private void closeSearcherManager( )
+    {
+        if ( _searcherManager != null )
+        {
+            try
+            {
+                _searcherManager.close( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to close the Lucene Searcher Manager", e );
+            }
+        }
+        _searcherManager = null;
+        _searcherManagerWriter = null;
+        _searcherManagerPath = null;
+    }
+
+    /**
+     * Start the periodic refresh of the searcher, if a refresh interval is configured
+     */
+    private void startSearcherRefresh( )
+    {
+        int nRefreshInterval = AppPropertiesService.getPropertyInt( PROPERTY_SEARCHER_REFRESH_INTERVAL, DEFAULT_SEARCHER_REFRESH_INTERVAL );
+        if ( _searcherRefreshExecutor != null || nRefreshInterval <= 0 )
+        {
+            return;
+        }
+
+        _searcherRefreshExecutor = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, THREAD_NAME_SEARCHER_REFRESH );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        _searcherRefreshExecutor.scheduleWithFixedDelay( this::refreshSearcher, nRefreshInterval, nRefreshInterval, TimeUnit.SECONDS );
+    }
+
+    /**
+     * Read again the marker of the live index, which may have been swapped by another server. If the live index has changed, the searcher manager and the
+     * index writer opened on the previous one are closed : the next searches and writes use the new one. Must be called when the lease of the index writer is
+     * acquired.
+     * 
+     * @return true if the live index has changed
+     * @throws IOException
+     *             - if the marker of the live index cannot be read
+     */
+    public synchronized boolean reloadIndexPath( ) throws IOException
+    {
+        Path indexPath = readIndexPath( );
+
+        if ( _currentIndexPath == null || indexPath.equals( _currentIndexPath ) )
+        {
+            _currentIndexPath = indexPath;
+            return false;
+        }
+
+        AppLogService.info( "Forms index swapped by another server from " + _currentIndexPath + " to " + indexPath );
+        _currentIndexPath = indexPath;
+        closeSearcherManager( );
+        if ( _indexWriter != null && _indexWriter.isOpen( ) && !indexPath.equals( getPath( _indexWriter ) ) )
+        {
+            try
+            {
+                _indexWriter.rollback( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to close the Lucene Index Writer of the previous index", e );
+            }
+            _indexWriter = null;
+        }
+        return true;
+    }
+
+    /**
+     * Get the path of the live index, as read by the last call to {@link #reloadIndexPath()}
+     * 
+     * @return the path of the live index
+     * @throws IOException
+     *             - if the marker of the live index cannot be read
+     */
+    private synchronized Path getIndexPath( ) throws IOException
+    {
+        if ( _currentIndexPath == null )
+        {
+            _currentIndexPath = readIndexPath( );
+        }
+        return _currentIndexPath;
+    }
+
+    /**
+     * Read the path of the live index. It is the configured path, unless a rebuild has swapped the index to another directory.
+     * 
+     * @return the path of the live index
+     * @throws IOException
+     *             - if the marker of the live index cannot be read
+     */
+    private Path readIndexPath( ) throws IOException
+    {
+        Path basePath = getBaseIndexPath( );
+        Path markerPath = getCurrentIndexMarkerPath( basePath );
+        if ( Files.exists( markerPath ) )
+        {
+            String strCurrentIndex = new String( Files.readAllBytes( markerPath ), StandardCharsets.UTF_8 ).trim( );
+            if ( !strCurrentIndex.isEmpty( ) )
+            {
+                return basePath.resolveSibling( strCurrentIndex );
+            }
+        }
+        return basePath;
+    }
+
+    /**
+     * Get the configured path of the index
+     * 
+     * @return the configured path of the index
+     */
+    private Path getBaseIndexPath( )
     {
         String strIndex;
 
@@ -142,6 +525,129 @@ public class LuceneFormSearchFactory
             strIndex = AppPropertiesService.getProperty( PATH_INDEX );
         }
 
-        return FSDirectory.open( Paths.get( strIndex ) );
+        return Paths.get( strIndex );
+    }
+
+    /**
+     * Get the path of the file which records the directory of the live index
+     * 
+     * @param basePath
+     *            the configured path of the index
+     * @return the path of the marker file
+     */
+    private Path getCurrentIndexMarkerPath( Path basePath )
+    {
+        return basePath.resolveSibling( basePath.getFileName( ) + CURRENT_INDEX_MARKER_SUFFIX );
+    }
+
+    /**
+     * Record the given directory as the live index. The marker is replaced atomically so that a restart always finds a complete index.
+     * 
+     * @param indexPath
+     *            the directory of the live index
+     * @throws IOException
+     *             - if the marker cannot be written
+     */
+    private void writeCurrentIndexMarker( Path indexPath ) throws IOException
+    {
+        Path markerPath = getCurrentIndexMarkerPath( getBaseIndexPath( ) );
+        Path tempMarkerPath = markerPath.resolveSibling( markerPath.getFileName( ) + TEMP_FILE_SUFFIX );
+        Files.write( tempMarkerPath, indexPath.getFileName( ).toString( ).getBytes( StandardCharsets.UTF_8 ) );
+        try
+        {
+            Files.move( tempMarkerPath, markerPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch( AtomicMoveNotSupportedException e )
+        {
+            Files.move( tempMarkerPath, markerPath, StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    /**
+     * Get the path of the directory of an IndexWriter
+     * 
+     * @param indexWriter
+     *            the IndexWriter
+     * @return the path of its directory
+     * @throws IOException
+     *             - if the IndexWriter does not write in a file system directory
+     */
+    private static Path getPath( IndexWriter indexWriter ) throws IOException
+    {
+        Directory directory = indexWriter.getDirectory( );
+        if ( directory instanceof FSDirectory )
+        {
+            return ( (FSDirectory) directory ).getDirectory( );
+        }
+        throw new IOException( "The Lucene index is not stored in a file system directory" );
+    }
+
+    /**
+     * Delete the indexes replaced by the previous rebuilds : the configured directory and the side directories other than the live one. They are kept while
+     * the live index has been swapped for less than the grace period, as the other servers may still search them until their searcher is refreshed.
+     * 
+     * @param basePath
+     *            the configured path of the index
+     * @param livePath
+     *            the path of the live index, or null if it has just been swapped by another server
+     * @throws IOException
+     *             - if the directories cannot be listed
+     */
+    private void deleteStaleIndexDirectories( Path basePath, Path livePath ) throws IOException
+    {
+        Path markerPath = getCurrentIndexMarkerPath( basePath );
+        long lGracePeriodMillis = TimeUnit.MINUTES
+                .toMillis( AppPropertiesService.getPropertyInt( PROPERTY_STALE_INDEX_GRACE_PERIOD, DEFAULT_STALE_INDEX_GRACE_PERIOD ) );
+
+        if ( livePath == null || !Files.exists( markerPath )
+                || System.currentTimeMillis( ) - Files.getLastModifiedTime( markerPath ).toMillis( ) < lGracePeriodMillis )
+        {
+            return;
+        }
+
+        String strBaseName = basePath.getFileName( ).toString( );
+        try ( Stream<Path> streamPaths = Files.list( basePath.toAbsolutePath( ).getParent( ) ) )
+        {
+            streamPaths.filter( path -> Files.isDirectory( path ) && !path.toAbsolutePath( ).equals( livePath.toAbsolutePath( ) ) ).filter( path -> {
+                String strName = path.getFileName( ).toString( );
+                String strSuffix = StringUtils.removeStart( strName, strBaseName + SIDE_INDEX_SEPARATOR );
+                return strName.equals( strBaseName ) || ( !strSuffix.equals( strName ) && StringUtils.isNumeric( strSuffix ) );
+            } ).forEach( path -> {
+                AppLogService.info( "Deleting the replaced forms index " + path );
+                deleteIndexDirectory( path );
+            } );
+        }
+    }
+
+    /**
+     * Delete an index directory which is no longer used. The files still opened by a searcher may not be deleted on some file systems, the failure is only
+     * logged.
+     * 
+     * @param indexPath
+     *            the directory to delete
+     */
+    private static void deleteIndexDirectory( Path indexPath )
+    {
+        if ( !Files.exists( indexPath ) )
+        {
+            return;
+        }
+        try ( Stream<Path> streamPaths = Files.walk( indexPath ) )
+        {
+            streamPaths.sorted( Comparator.reverseOrder( ) ).forEach( path -> {
+                try
+                {
+                    Files.delete( path );
+                }
+                catch( IOException e )
+                {
+                    AppLogService.error( "Unable to delete the Lucene index file " + path, e );
+                }
+            } );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to delete the Lucene index directory " + indexPath, e );
+        }
     }
 }
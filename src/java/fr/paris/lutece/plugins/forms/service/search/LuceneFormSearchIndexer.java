@@ -39,7 +39,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -67,11 +69,10 @@ import fr.paris.lutece.plugins.forms.business.FormResponseHome;
 import fr.paris.lutece.plugins.forms.business.FormResponseStep;
 import fr.paris.lutece.plugins.forms.business.form.search.FormResponseSearchItem;
 import fr.paris.lutece.plugins.forms.business.form.search.IndexerAction;
-import fr.paris.lutece.plugins.forms.business.form.search.IndexerActionFilter;
 import fr.paris.lutece.plugins.forms.business.form.search.IndexerActionHome;
-import fr.paris.lutece.plugins.forms.service.FormsPlugin;
 import fr.paris.lutece.plugins.forms.service.entrytype.EntryTypeDate;
 import fr.paris.lutece.plugins.forms.service.entrytype.EntryTypeNumbering;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
 import fr.paris.lutece.plugins.forms.util.LuceneUtils;
 import fr.paris.lutece.plugins.genericattributes.business.Entry;
 import fr.paris.lutece.plugins.genericattributes.business.Response;
@@ -82,7 +83,6 @@ import fr.paris.lutece.plugins.workflowcore.service.state.StateService;
 import fr.paris.lutece.portal.service.content.XPageAppService;
 import fr.paris.lutece.portal.service.message.SiteMessageException;
 import fr.paris.lutece.portal.service.plugin.Plugin;
-import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.search.IndexationService;
 import fr.paris.lutece.portal.service.search.SearchItem;
 import fr.paris.lutece.portal.service.util.AppLogService;
@@ -101,14 +101,19 @@ public class LuceneFormSearchIndexer implements IFormSearchIndexer
     private static final String INDEXER_VERSION = "1.0.0";
     private static final String PROPERTY_INDEXER_ENABLE = "forms.globalIndexer.enable";
     private static final String FILTER_DATE_FORMAT = AppPropertiesService.getProperty( "forms.index.date.format", "dd/MM/yyyy" );
+    private static final String PROPERTY_REBUILD_SIDE_INDEX = "forms.index.rebuild.sideIndex";
     private static final int TAILLE_LOT = AppPropertiesService.getPropertyInt( "forms.index.writer.commit.size", 100 );
+    private static final long WRITER_IDLE_TIMEOUT = TimeUnit.SECONDS.toMillis( AppPropertiesService.getPropertyInt( "forms.index.writer.idleTimeout", 600 ) );
 
     private static AtomicBoolean _bIndexIsRunning = new AtomicBoolean( false );
     private static AtomicBoolean _bIndexToLunch = new AtomicBoolean( false );
+    private static AtomicBoolean _bRebuildToLaunch = new AtomicBoolean( false );
 
     @Inject
     private LuceneFormSearchFactory _luceneFormSearchFactory;
     private IndexWriter _indexWriter;
+    private boolean _bWriterLeaseHeld;
+    private long _lLastWrite;
     @Autowired( required = false )
     private StateService _stateService;
 
@@ -202,36 +207,47 @@ public class LuceneFormSearchIndexer implements IFormSearchIndexer
     @Override
     public synchronized void indexDocuments( ) throws IOException, InterruptedException, SiteMessageException
     {
-        List<Integer> listFormResponsesId = FormResponseHome.selectAllFormResponsesId( );
+        _bRebuildToLaunch.set( true );
+        launchIndexing( );
+    }
 
-        deleteIndex( );
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void indexDocument( int nIdFormResponse, int nIdTask, Plugin plugin )
+    {
+        addIndexerAction( nIdFormResponse, nIdTask, plugin );
         _bIndexToLunch.set( true );
+        launchIndexing( );
+    }
+
+    /**
+     * Launch the indexing thread if it is not already running. The thread rebuilds the whole index if requested, then processes the indexer actions until
+     * there is no more work to do.
+     */
+    private void launchIndexing( )
+    {
         if ( _bIndexIsRunning.compareAndSet( false, true ) )
         {
             new Thread( ( ) -> {
                 try
                 {
-                    List<FormResponse> listFormResponses = new ArrayList<>( TAILLE_LOT );
-                    for ( Integer nIdFormResponse : listFormResponsesId )
+                    do
                     {
-                        FormResponse response = FormResponseHome.findByPrimaryKeyForIndex( nIdFormResponse );
-                        if ( response != null )
+                        if ( _bRebuildToLaunch.compareAndSet( true, false ) )
                         {
-                            listFormResponses.add( response );
+                            rebuildIndex( );
+                            // The actions queued during the rebuild are replayed on the new index
+                            _bIndexToLunch.set( true );
                         }
-                        if ( listFormResponses.size( ) == TAILLE_LOT )
+                        // Indexation increment
+                        while ( _bIndexToLunch.compareAndSet( true, false ) )
                         {
-                            indexFormResponseList( listFormResponses );
-                            listFormResponses.clear( );
+                            processIndexing( );
                         }
                     }
-                    indexFormResponseList( listFormResponses );
-                    // Indexation increment
-                    while ( _bIndexToLunch.compareAndSet( true, false ) )
-                    {
-                        processIndexing( );
-
-                    }
+                    while ( _bRebuildToLaunch.get( ) );
                 }
                 catch( Exception e )
                 {
@@ -245,102 +261,328 @@ public class LuceneFormSearchIndexer implements IFormSearchIndexer
 
             } ).start( );
         }
-
     }
 
     /**
-     * {@inheritDoc }
+     * Rebuild the whole index. The lease of the index is held, and extended, during the whole rebuild. The index writer and the lease are kept after the
+     * rebuild, and released when it fails.
+     * 
+     * @throws InterruptedException
+     *             if the thread is interrupted during the rebuild
+     * @throws IOException
+     *             if the rebuild fails, or the side index cannot be created or swapped
      */
-    @Override
-    public void indexDocument( int nIdFormResponse, int nIdTask, Plugin plugin )
+    private synchronized void rebuildIndex( ) throws InterruptedException, IOException
     {
-        addIndexerAction( nIdFormResponse, nIdTask, plugin );
-        _bIndexToLunch.set( true );
-        if ( _bIndexIsRunning.compareAndSet( false, true ) )
+        IndexerActionQueue queue = IndexerActionQueue.getInstance( );
+        if ( !acquireWriterLease( queue ) )
         {
-            new Thread( ( ) -> {
-                try
-                {
-                    while ( _bIndexToLunch.compareAndSet( true, false ) )
-                    {
-                        processIndexing( );
-                    }
-                }
-                catch( Exception e )
+            AppLogService.error( "The forms index is written by another server, it cannot be rebuilt by this one" );
+            return;
+        }
+
+        boolean bRebuilt = false;
+        try
+        {
+            // The index may have been swapped by the server which held the lease before
+            _luceneFormSearchFactory.reloadIndexPath( );
+            Map<Integer, Form> mapForms = getFormMap( );
+            rebuildIndex( listIds -> {
+                if ( !queue.renewWriterLease( INDEXER_NAME ) )
                 {
-                    AppLogService.error( e.getMessage( ), e );
-                    Thread.currentThread( ).interrupt( );
+                    throw new IllegalStateException( "The lease of the forms index has been lost during the rebuild" );
                 }
-                finally
+                return buildDocuments( loadFormResponses( listIds ), mapForms );
+            } );
+            bRebuilt = true;
+        }
+        finally
+        {
+            if ( bRebuilt )
+            {
+                _lLastWrite = System.currentTimeMillis( );
+            }
+            else
+            {
+                releaseIndexWriter( queue );
+            }
+        }
+    }
+
+    /**
+     * Rebuild the whole index with the given document builder. With a side index, the new index is built next to the live one, which keeps serving the
+     * searches until the swap. Otherwise the live index is emptied and refilled in the same commit. In both cases, the live index is left unchanged if a form
+     * response cannot be indexed.
+     * 
+     * @param documentBuilder
+     *            the function which builds the documents of a list of form response ids
+     * @throws InterruptedException
+     *             if the thread is interrupted during the rebuild
+     * @throws IOException
+     *             if the rebuild fails, or the side index cannot be created or swapped
+     */
+    private void rebuildIndex( Function<List<Integer>, List<Document>> documentBuilder ) throws InterruptedException, IOException
+    {
+
+        if ( !AppPropertiesService.getPropertyBoolean( PROPERTY_REBUILD_SIDE_INDEX, true ) )
+        {
+            initIndexing( false );
+            if ( _indexWriter == null )
+            {
+                throw new IOException( "No Lucene Index Writer available to rebuild the forms index" );
+            }
+
+            boolean bCommitted = false;
+            try
+            {
+                _indexWriter.deleteAll( );
+                new FormResponseIndexingPipeline( _indexWriter, documentBuilder, TAILLE_LOT ).run( );
+                _indexWriter.commit( );
+                bCommitted = true;
+            }
+            finally
+            {
+                if ( !bCommitted )
                 {
-                    _bIndexIsRunning.set( false );
+                    _luceneFormSearchFactory.rollbackIndexWriter( );
+                    _indexWriter = null;
                 }
+            }
+            _luceneFormSearchFactory.refreshSearcher( );
+            return;
+        }
 
-            } ).start( );
+        IndexWriter sideIndexWriter = _luceneFormSearchFactory.createSideIndexWriter( );
+        boolean bSwapped = false;
+        try
+        {
+            new FormResponseIndexingPipeline( sideIndexWriter, documentBuilder, TAILLE_LOT ).run( );
+            sideIndexWriter.commit( );
+            _luceneFormSearchFactory.swapIndex( sideIndexWriter );
+            bSwapped = true;
+        }
+        finally
+        {
+            if ( !bSwapped )
+            {
+                _luceneFormSearchFactory.discardSideIndex( sideIndexWriter );
+            }
         }
     }
 
     /**
-     * {@inheritDoc }
+     * {@inheritDoc } The index writer and the lease of the index are kept once the actions are applied, so that the searches of this server keep seeing
+     * the index writer in near real time. They are released by {@link #releaseIdleIndexWriter()} once the indexer has been idle for too long.
      */
     @Override
     public synchronized void processIndexing( )
     {
-        initIndexing( false );
+        IndexerActionQueue queue = IndexerActionQueue.getInstance( );
+        if ( !acquireWriterLease( queue ) )
+        {
+            AppLogService.debug( "The forms index is written by another server, the indexer actions are left to it" );
+            return;
+        }
 
-        Plugin plugin = PluginService.getPlugin( FormsPlugin.PLUGIN_NAME );
-        Set<Integer> listIdsToAdd = new HashSet<>( );
-        Set<Integer> listIdsToDelete = new HashSet<>( );
+        boolean bProcessed = false;
+        try
+        {
+            // The index may have been swapped by the server which held the lease before
+            reloadIndexPath( );
+            initIndexing( false );
+            if ( _indexWriter == null )
+            {
+                releaseIndexWriter( queue );
+                return;
+            }
 
-        // Delete all record which must be delete
-        for ( IndexerAction action : getAllIndexerActionByTask( IndexerAction.TASK_DELETE, plugin ) )
+            List<IndexerAction> listIndexerAction = queue.claim( );
+            while ( !listIndexerAction.isEmpty( ) && processBatch( listIndexerAction ) )
+            {
+                _lLastWrite = System.currentTimeMillis( );
+                if ( !queue.acquireWriterLease( INDEXER_NAME ) )
+                {
+                    AppLogService.error( "The lease of the forms index has been lost, the index writer is closed" );
+                    closeIndexWriter( );
+                    return;
+                }
+                listIndexerAction = queue.claim( );
+            }
+            bProcessed = true;
+        }
+        finally
         {
-            listIdsToDelete.add( action.getIdFormResponse( ) );
-            removeIndexerAction( action.getIdAction( ), plugin );
+            if ( !bProcessed && _bWriterLeaseHeld )
+            {
+                releaseIndexWriter( queue );
+            }
         }
+    }
 
-        // Update all record which must be update
-        for ( IndexerAction action : getAllIndexerActionByTask( IndexerAction.TASK_MODIFY, plugin ) )
+    /**
+     * Release the index writer and the lease of the index once no indexer action has been applied by this server for longer than the idle timeout.
+     * Otherwise the lease is extended, and the index writer is closed if the lease has been lost meanwhile. While this server holds the lease, the actions
+     * queued by the other servers are only applied by this one : the indexing is launched to apply them.
+     */
+    public synchronized void releaseIdleIndexWriter( )
+    {
+        if ( !_bWriterLeaseHeld )
         {
-            listIdsToDelete.add( action.getIdFormResponse( ) );
-            listIdsToAdd.add( action.getIdFormResponse( ) );
-            removeIndexerAction( action.getIdAction( ), plugin );
+            return;
         }
 
-        // Add all form response which must be add
-        for ( IndexerAction action : getAllIndexerActionByTask( IndexerAction.TASK_CREATE, plugin ) )
+        IndexerActionQueue queue = IndexerActionQueue.getInstance( );
+        if ( System.currentTimeMillis( ) - _lLastWrite >= WRITER_IDLE_TIMEOUT )
+        {
+            releaseIndexWriter( queue );
+        }
+        else if ( !queue.renewWriterLease( INDEXER_NAME ) )
+        {
+            AppLogService.error( "The lease of the forms index has been lost, the index writer is closed" );
+            closeIndexWriter( );
+        }
+        else
         {
-            listIdsToAdd.add( action.getIdFormResponse( ) );
-            removeIndexerAction( action.getIdAction( ), plugin );
+            _bIndexToLunch.set( true );
+            launchIndexing( );
         }
+    }
 
-        List<Query> queryList = new ArrayList<>( TAILLE_LOT );
-        for ( Integer nIdFormResponse : listIdsToDelete )
+    /**
+     * Release the index writer and the lease of the index held by this server, called when the application is stopped
+     */
+    public synchronized void shutdown( )
+    {
+        if ( _bWriterLeaseHeld )
         {
-            queryList.add( IntPoint.newExactQuery( FormResponseSearchItem.FIELD_ID_FORM_RESPONSE, nIdFormResponse ) );
-            if ( queryList.size( ) == TAILLE_LOT )
-            {
-                deleteDocument( queryList );
-                queryList.clear( );
-            }
+            releaseIndexWriter( IndexerActionQueue.getInstance( ) );
+        }
+    }
+
+    /**
+     * Acquire or extend the lease of the index. The index writer kept by this server is closed first if the lease may have expired meanwhile, as another
+     * server may then have written the index.
+     * 
+     * @param queue
+     *            the queue of the indexer actions
+     * @return true if this server holds the lease
+     */
+    private boolean acquireWriterLease( IndexerActionQueue queue )
+    {
+        if ( _bWriterLeaseHeld && queue.isWriterLeaseLapsed( ) )
+        {
+            closeIndexWriter( );
+        }
+        if ( queue.acquireWriterLease( INDEXER_NAME ) )
+        {
+            _bWriterLeaseHeld = true;
+            return true;
+        }
+        if ( _bWriterLeaseHeld )
+        {
+            closeIndexWriter( );
+        }
+
+        return false;
+    }
+
+    /**
+     * Read again the marker of the live index, the failure being only logged : the index writer is then opened on the index read last
+     */
+    private void reloadIndexPath( )
+    {
+        try
+        {
+            _luceneFormSearchFactory.reloadIndexPath( );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to read the marker of the live forms index", e );
         }
-        deleteDocument( queryList );
+    }
+
+    /**
+     * Close the index writer, then release the lease of the index. The Lucene write lock is given back with the lease, so that the server which takes the
+     * lease next can open the index writer. All the changes are committed at this point : the writer is rolled back, which discards anything left by a
+     * failure.
+     * 
+     * @param queue
+     *            the queue of the indexer actions
+     */
+    private void releaseIndexWriter( IndexerActionQueue queue )
+    {
+        closeIndexWriter( );
+        queue.releaseWriterLease( INDEXER_NAME );
+    }
 
-        List<FormResponse> listFormResponses = new ArrayList<>( TAILLE_LOT );
-        for ( Integer nIdFormResponse : listIdsToAdd )
+    /**
+     * Close the index writer without releasing the lease of the index, which has been lost or has never been acquired
+     */
+    private void closeIndexWriter( )
+    {
+        _luceneFormSearchFactory.rollbackIndexWriter( );
+        _indexWriter = null;
+        _bWriterLeaseHeld = false;
+    }
+
+    /**
+     * Apply a batch of indexer actions to the index. Only the last action of each form response is applied. The actions are removed from the queue once the
+     * index is committed; if the commit fails, they are left to be leased again when their lease expires.
+     * 
+     * @param listIndexerAction
+     *            the leased actions
+     * @return true if the batch has been committed
+     */
+    private boolean processBatch( List<IndexerAction> listIndexerAction )
+    {
+        long lStart = System.nanoTime( );
+        Map<Integer, Integer> mapTaskByFormResponse = IndexerActionQueue.coalesce( listIndexerAction );
+
+        try
         {
-            FormResponse response = FormResponseHome.findByPrimaryKeyForIndex( nIdFormResponse );
-            if ( response != null )
+            // Form responses are always deleted first, as a rebuild may have indexed them before the actions are replayed
+            List<Query> queryList = new ArrayList<>( TAILLE_LOT );
+            List<Integer> listIdsToAdd = new ArrayList<>( TAILLE_LOT );
+            for ( Map.Entry<Integer, Integer> entry : mapTaskByFormResponse.entrySet( ) )
+            {
+                queryList.add( IntPoint.newExactQuery( FormResponseSearchItem.FIELD_ID_FORM_RESPONSE, entry.getKey( ) ) );
+                if ( queryList.size( ) == TAILLE_LOT )
+                {
+                    _indexWriter.deleteDocuments( queryList.toArray( new Query [ queryList.size( )] ) );
+                    queryList.clear( );
+                }
+                if ( entry.getValue( ) != IndexerAction.TASK_DELETE )
+                {
+                    listIdsToAdd.add( entry.getKey( ) );
+                }
+            }
+            if ( !queryList.isEmpty( ) )
             {
-                listFormResponses.add( response );
+                _indexWriter.deleteDocuments( queryList.toArray( new Query [ queryList.size( )] ) );
             }
-            if ( listFormResponses.size( ) == TAILLE_LOT )
+
+            Map<Integer, Form> mapForms = getFormMap( );
+            for ( int nFrom = 0; nFrom < listIdsToAdd.size( ); nFrom += TAILLE_LOT )
             {
-                indexFormResponseList( listFormResponses );
-                listFormResponses.clear( );
+                List<Integer> listIdsBatch = listIdsToAdd.subList( nFrom, Math.min( nFrom + TAILLE_LOT, listIdsToAdd.size( ) ) );
+                _indexWriter.addDocuments( buildDocuments( loadFormResponses( listIdsBatch ), mapForms ) );
             }
+
+            _indexWriter.commit( );
         }
-        indexFormResponseList( listFormResponses );
+        catch( IOException | RuntimeException e )
+        {
+            AppLogService.error( "Unable to apply the indexer actions, they will be processed again", e );
+            _luceneFormSearchFactory.rollbackIndexWriter( );
+            _indexWriter = null;
+            return false;
+        }
+
+        _luceneFormSearchFactory.refreshSearcher( );
+        IndexerActionQueue.getInstance( ).acknowledge( listIndexerAction );
+        FormsMetricsService.getInstance( ).recordIndexBatch( mapTaskByFormResponse.size( ), lStart );
+
+        return true;
     }
 
     /**
@@ -383,17 +625,39 @@ public class LuceneFormSearchIndexer implements IFormSearchIndexer
     }
 
     /**
-     * {@inheritDoc}
+     * Load the form responses to index
+     * 
+     * @param listIdFormResponse
+     *            the ids of the form responses
+     * @return the form responses to index, without the backups
      */
-    private void indexFormResponseList( List<FormResponse> listFormResponse )
+    private List<FormResponse> loadFormResponses( List<Integer> listIdFormResponse )
     {
-        if ( _indexWriter == null || !_indexWriter.isOpen( ) )
-        {
-            initIndexing( true );
-        }
+        return FormResponseHome.findByPrimaryKeyListForIndex( listIdFormResponse );
+    }
+
+    /**
+     * Get all the forms by id
+     * 
+     * @return the map of the forms by id
+     */
+    private Map<Integer, Form> getFormMap( )
+    {
+        return FormHome.getFormList( ).stream( ).collect( Collectors.toMap( Form::getId, form -> form ) );
+    }
 
-        Map<Integer, Form> mapForms = FormHome.getFormList( ).stream( ).collect( Collectors.toMap( Form::getId, form -> form ) );
-        List<Document> documentList = new ArrayList<>( );
+    /**
+     * Build the documents of a list of form responses
+     * 
+     * @param listFormResponse
+     *            the form responses
+     * @param mapForms
+     *            the forms by id
+     * @return the documents of the form responses
+     */
+    private List<Document> buildDocuments( List<FormResponse> listFormResponse, Map<Integer, Form> mapForms )
+    {
+        List<Document> documentList = new ArrayList<>( listFormResponse.size( ) );
         for ( FormResponse formResponse : listFormResponse )
         {
             Document doc = null;
@@ -424,21 +688,7 @@ public class LuceneFormSearchIndexer implements IFormSearchIndexer
                 documentList.add( doc );
             }
         }
-        addDocuments( documentList );
-        endIndexing( );
-    }
-
-    private void addDocuments( List<Document> documentList )
-    {
-        try
-        {
-            _indexWriter.addDocuments( documentList );
-        }
-        catch( IOException e )
-        {
-            AppLogService.error( "Unable to index form response", e );
-        }
-        documentList.clear( );
+        return documentList;
     }
 
     /**
@@ -452,89 +702,6 @@ public class LuceneFormSearchIndexer implements IFormSearchIndexer
         _indexWriter = _luceneFormSearchFactory.getIndexWriter( boolCreate );
     }
 
-    /**
-     * End the indexing action
-     */
-    private void endIndexing( )
-    {
-        if ( _indexWriter != null )
-        {
-            try
-            {
-                _indexWriter.commit( );
-            }
-            catch( IOException e )
-            {
-                AppLogService.error( "Unable to close index writer ", e );
-            }
-        }
-    }
-
-    /**
-     * {@inheritDoc }
-     */
-    private void deleteIndex( )
-    {
-        if ( _indexWriter == null || !_indexWriter.isOpen( ) )
-        {
-            initIndexing( true );
-        }
-        try
-        {
-            _indexWriter.deleteAll( );
-        }
-        catch( IOException e )
-        {
-            AppLogService.error( "Unable to delete all docs in index ", e );
-        }
-        finally
-        {
-            endIndexing( );
-        }
-    }
-
-    private void deleteDocument( List<Query> luceneQueryList )
-    {
-        try
-        {
-            _indexWriter.deleteDocuments( luceneQueryList.toArray( new Query [ luceneQueryList.size( )] ) );
-        }
-        catch( IOException e )
-        {
-            AppLogService.error( "Unable to delete document ", e );
-        }
-    }
-
-    /**
-     * Remove a Indexer Action
-     * 
-     * @param nIdAction
-     *            the key of the action to remove
-     * @param plugin
-     *            the plugin
-     */
-    private void removeIndexerAction( int nIdAction, Plugin plugin )
-    {
-        IndexerActionHome.remove( nIdAction, plugin );
-    }
-
-    /**
-     * return a list of IndexerAction by task key
-     * 
-     * @param nIdTask
-     *            the task kety
-     * @param plugin
-     *            the plugin
-     * @return a list of IndexerAction
-     */
-    private List<IndexerAction> getAllIndexerActionByTask( int nIdTask, Plugin plugin )
-    {
-        IndexerActionFilter filter = new IndexerActionFilter( );
-        filter.setIdTask( nIdTask );
-
-        return IndexerActionHome.getList( filter, plugin );
-    }
-
     /**
      * Builds a document which will be used by Lucene during the indexing of this record
      * 
@@ -542,9 +709,11 @@ public class LuceneFormSearchIndexer implements IFormSearchIndexer
      *            the formResponse object
      * @param form
      *            the form
+     * @param formResponseState
+     *            the workflow state of the formResponse, or null
      * @return a lucene document filled with the record data
      */
-    private Document getDocument( FormResponse formResponse, Form form, State formResponseState )
+    Document getDocument( FormResponse formResponse, Form form, State formResponseState )
     {
         // make a new, empty document
         Document doc = new Document( );
@@ -89,6 +89,7 @@ public final class FormsConstants
     public static final String MARK_REFERENCE_LIST_SELECT = "ref_list_select";
     public static final String MARK_ANONYMIZATION_HELP = "anonymization_help_message";
     public static final String VALUE_VALIDATOR_LISTEQUESTION_NAME = "forms_listQuestionValidator";
+    public static final String VALUE_VALIDATOR_UNIQUE_NAME = "forms.uniqueValidator";
 
     // Parameters
     public static final String PARAMETER_PAGE = "page";
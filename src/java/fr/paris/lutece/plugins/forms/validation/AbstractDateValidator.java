@@ -65,26 +65,49 @@ public abstract class AbstractDateValidator extends AbstractValidator
 
     @Override
     public boolean validate( FormQuestionResponse questionResponse, Control control )
+    {
+        return compile( control ).validate( questionResponse );
+    }
+
+    /**
+     * {@inheritDoc} The date of the control is parsed once.
+     */
+    @Override
+    public CompiledControl compile( Control control )
     {
         SimpleDateFormat dateFormat = new SimpleDateFormat( "yyyy-MM-dd" );
         try
         {
             Date dateControl = new Date( dateFormat.parse( control.getValue( ) ).getTime( ) );
-            for ( Response response : questionResponse.getEntryResponse( ) )
-            {
-                Date date = new Date( Integer.parseInt( response.getResponseValue( ) ) );
-                if ( !validateDate( dateControl, date ) )
-                {
-                    return false;
-                }
-            }
-            return true;
+            return new CompiledControl( control, questionResponse -> validateResponses( questionResponse, dateControl ) );
         }
         catch( ParseException e )
         {
             AppLogService.error( "Error formatingdate", e );
-            return false;
+            return new CompiledControl( control, questionResponse -> false );
+        }
+    }
+
+    /**
+     * Checks all the values of a response against the date of the control
+     * 
+     * @param questionResponse
+     *            The response to control
+     * @param dateControl
+     *            the date of the control
+     * @return boolean that indicate the validation result
+     */
+    private boolean validateResponses( FormQuestionResponse questionResponse, Date dateControl )
+    {
+        for ( Response response : questionResponse.getEntryResponse( ) )
+        {
+            Date date = new Date( Integer.parseInt( response.getResponseValue( ) ) );
+            if ( !validateDate( dateControl, date ) )
+            {
+                return false;
+            }
         }
+        return true;
     }
 
     @Override
@@ -36,11 +36,14 @@ package fr.paris.lutece.plugins.forms.validation;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.lang3.StringUtils;
 
 import fr.paris.lutece.plugins.forms.business.Control;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.genericattributes.business.Response;
 import fr.paris.lutece.plugins.regularexpression.business.RegularExpressionHome;
@@ -48,16 +51,14 @@ import fr.paris.lutece.portal.business.regularexpression.RegularExpression;
 import fr.paris.lutece.portal.service.i18n.I18nService;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
-import fr.paris.lutece.portal.service.regularexpression.IRegularExpressionService;
-import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.portal.service.template.AppTemplateService;
+import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.html.HtmlTemplate;
 
 public abstract class AbstractPatternValidator extends AbstractValidator
 {
 
-    private static final String BEAN_NAME_REGULAR_EXPRESSION = "regularExpressionService";
     private static final String TEMPLATE_JS_FUNCTION = "/skin/plugins/forms/validators/pattern_function.js";
     private static final String TEMPLATE_DISPLAY_HTML = "/admin/plugins/forms/validators/pattern_template.html";
 
@@ -106,23 +107,60 @@ public abstract class AbstractPatternValidator extends AbstractValidator
 
     @Override
     public boolean validate( FormQuestionResponse questionResponse, Control control )
+    {
+        return compile( control ).validate( questionResponse );
+    }
+
+    /**
+     * {@inheritDoc} The regular expression is loaded and compiled once, and recorded so that its modifications invalidate the compiled forms.
+     */
+    @Override
+    public CompiledControl compile( Control control )
     {
         RegularExpression regularExpression = RegularExpressionHome.findByPrimaryKey( Integer.valueOf( control.getValue( ) ), _plugin );
 
-        if ( regularExpression != null )
+        if ( regularExpression == null )
+        {
+            return new CompiledControl( control, questionResponse -> false );
+        }
+
+        CompiledFormService.getInstance( ).addRegularExpression( regularExpression );
+
+        Pattern pattern;
+
+        try
+        {
+            pattern = Pattern.compile( regularExpression.getValue( ) );
+        }
+        catch( PatternSyntaxException e )
+        {
+            AppLogService.error( "Invalid regular expression " + regularExpression.getIdExpression( ) + " for the control " + control.getId( ), e );
+            return new CompiledControl( control, questionResponse -> false );
+        }
+
+        return new CompiledControl( control, questionResponse -> matches( questionResponse, pattern ) );
+    }
+
+    /**
+     * Checks the first non empty value of a response against a pattern
+     * 
+     * @param questionResponse
+     *            The response to control
+     * @param pattern
+     *            the compiled regular expression
+     * @return boolean that indicate the validation result
+     */
+    private boolean matches( FormQuestionResponse questionResponse, Pattern pattern )
+    {
+        for ( Response response : questionResponse.getEntryResponse( ) )
         {
-            IRegularExpressionService service = SpringContextService.getBean( BEAN_NAME_REGULAR_EXPRESSION );
-            for ( Response response : questionResponse.getEntryResponse( ) )
+            String toValidate = getValueToValidate( response );
+            if ( StringUtils.isNotEmpty( toValidate ) )
             {
-                String toValidate = getValueToValidate( response );
-                if ( StringUtils.isNotEmpty( toValidate ) )
-                {
-                    return service.isMatches( toValidate, regularExpression );
-                }
+                return pattern.matcher( toValidate ).matches( );
             }
-            return !questionResponse.getQuestion( ).getEntry( ).isMandatory( );
         }
-        return false;
+        return !questionResponse.getQuestion( ).getEntry( ).isMandatory( );
     }
 
     protected abstract String getValueToValidate( Response response );
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.validation;
+
+import java.util.function.Predicate;
+
+import fr.paris.lutece.plugins.forms.business.Control;
+import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
+
+/**
+ * Validation control prepared once by its {@link IValidator} : everything that does not depend on the response (regular expression, date bound, ...) is
+ * already resolved, so validating a response is pure computation.
+ */
+public final class CompiledControl
+{
+    private final Control _control;
+    private final Predicate<FormQuestionResponse> _rule;
+
+    /**
+     * Constructor
+     * 
+     * @param control
+     *            the control
+     * @param rule
+     *            the rule telling whether a response is valid
+     */
+    public CompiledControl( Control control, Predicate<FormQuestionResponse> rule )
+    {
+        _control = control;
+        _rule = rule;
+    }
+
+    /**
+     * @return the control. It is shared and must not be modified
+     */
+    public Control getControl( )
+    {
+        return _control;
+    }
+
+    /**
+     * @param questionResponse
+     *            The response to control
+     * @return boolean that indicate the validation result
+     */
+    public boolean validate( FormQuestionResponse questionResponse )
+    {
+        return _rule.test( questionResponse );
+    }
+}
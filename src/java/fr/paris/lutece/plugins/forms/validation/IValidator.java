@@ -79,6 +79,19 @@ public interface IValidator
      */
     boolean validate( FormQuestionResponse questionResponse, Control control );
 
+    /**
+     * Prepares a control for the validation of many responses. The default implementation simply delegates to {@link #validate(FormQuestionResponse, Control)}
+     * ; validators depending on costly resources should resolve them here once.
+     * 
+     * @param control
+     *            The control to verify
+     * @return the compiled control
+     */
+    default CompiledControl compile( Control control )
+    {
+        return new CompiledControl( control, questionResponse -> validate( questionResponse, control ) );
+    }
+
     /**
      * @param questionResponse
      *            The List response to control
@@ -33,7 +33,6 @@
  */
 package fr.paris.lutece.plugins.forms.validation;
 
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,10 +41,9 @@ import org.apache.commons.lang3.StringUtils;
 
 import fr.paris.lutece.plugins.forms.business.Control;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
+import fr.paris.lutece.plugins.forms.business.ResponseUniqueValueHome;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.genericattributes.business.Response;
-import fr.paris.lutece.plugins.genericattributes.business.ResponseFilter;
-import fr.paris.lutece.plugins.genericattributes.business.ResponseHome;
 import fr.paris.lutece.portal.service.i18n.I18nService;
 import fr.paris.lutece.portal.service.template.AppTemplateService;
 import fr.paris.lutece.util.html.HtmlTemplate;
@@ -92,31 +90,14 @@ public class UniqueValidator extends AbstractValidator
         {
             Response response = formQuestionResponse.getEntryResponse( ).get( 0 );
 
-            boolean multiForm = Boolean.parseBoolean( control.getValue( ) );
-            ResponseFilter filter = new ResponseFilter( );
-
-            if ( multiForm )
-            {
-                filter.setCodeEntry( response.getEntry( ).getCode( ) );
-            }
-            else
+            if ( StringUtils.isEmpty( response.getResponseValue( ) ) )
             {
-                filter.setIdEntry( response.getEntry( ).getIdEntry( ) );
+                return true;
             }
-            Collection<Response> listSubmittedResponses = ResponseHome.getResponseList( filter );
 
-            String strValueEntry = response.getResponseValue( );
-
-            for ( Response submittedResponse : listSubmittedResponses )
-            {
-                String strSubmittedResponse = submittedResponse.getToStringValueResponse( );
+            boolean multiForm = Boolean.parseBoolean( control.getValue( ) );
 
-                if ( !strValueEntry.equals( StringUtils.EMPTY ) && ( strSubmittedResponse != null ) && !strSubmittedResponse.equals( StringUtils.EMPTY )
-                        && strValueEntry.equalsIgnoreCase( strSubmittedResponse ) )
-                {
-                    return false;
-                }
-            }
+            return !ResponseUniqueValueHome.exists( response, multiForm );
         }
 
         return true;
@@ -55,6 +55,8 @@ import fr.paris.lutece.plugins.forms.business.Group;
 import fr.paris.lutece.plugins.forms.business.GroupHome;
 import fr.paris.lutece.plugins.forms.business.Question;
 import fr.paris.lutece.plugins.forms.service.FormService;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledForm;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.forms.web.entrytype.DisplayType;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
@@ -95,6 +97,7 @@ public class CompositeGroupDisplay implements ICompositeDisplay
     private final List<ICompositeDisplay> _listChildren = new ArrayList<>( );
     private Group _group;
     private final FormDisplay _formDisplay;
+    private final CompiledForm _compiledForm;
     private String _strIconName;
     private final Map<String, Object> _model = new HashMap<>( );
 
@@ -111,6 +114,7 @@ public class CompositeGroupDisplay implements ICompositeDisplay
     public CompositeGroupDisplay( FormDisplay formDisplay, FormResponse formResponse, int nIterationNumber )
     {
         _formDisplay = formDisplay;
+        _compiledForm = CompiledFormService.getInstance( ).getCompiledForm( formDisplay.getFormId( ) );
 
         initComposite( formResponse );
     }
@@ -127,11 +131,12 @@ public class CompositeGroupDisplay implements ICompositeDisplay
     {
         if ( !StringUtils.isEmpty( _formDisplay.getCompositeType( ) ) )
         {
-            _group = GroupHome.findByPrimaryKey( _formDisplay.getCompositeId( ) );
+            Group group = _compiledForm != null ? _compiledForm.getGroup( _formDisplay.getCompositeId( ) ) : null;
+            _group = group != null ? group : GroupHome.findByPrimaryKey( _formDisplay.getCompositeId( ) );
             _strIconName = AppPropertiesService.getProperty( PROPERTY_COMPOSITE_GROUP_ICON, DEFAULT_GROUP_ICON );
         }
 
-        List<FormDisplay> listFormDisplayChildren = FormDisplayHome.getFormDisplayListByParent( _formDisplay.getStepId( ), _formDisplay.getId( ) );
+        List<FormDisplay> listFormDisplayChildren = getFormDisplayChildren( );
         _nNbBaseChildren = listFormDisplayChildren.size( );
         FormResponseStep formResponseStep = findResponseStep( _formDisplay, formResponse );
         _nIterationNumber = findIterationNumber( listFormDisplayChildren, formResponseStep );
@@ -142,6 +147,21 @@ public class CompositeGroupDisplay implements ICompositeDisplay
         }
     }
 
+    /**
+     * Gives the form displays which are direct children of this instance
+     * 
+     * @return the children form displays
+     */
+    private List<FormDisplay> getFormDisplayChildren( )
+    {
+        if ( _compiledForm != null )
+        {
+            return _compiledForm.getFormDisplayChildren( _formDisplay.getStepId( ), _formDisplay.getId( ) );
+        }
+
+        return FormDisplayHome.getFormDisplayListByParent( _formDisplay.getStepId( ), _formDisplay.getId( ) );
+    }
+
     /**
      * Finds the form response step associated to the step of this instance
      * 
@@ -338,7 +358,7 @@ public class CompositeGroupDisplay implements ICompositeDisplay
         {
             _nIterationNumber++;
 
-            List<FormDisplay> listFormDisplayChildren = FormDisplayHome.getFormDisplayListByParent( _formDisplay.getStepId( ), _formDisplay.getId( ) );
+            List<FormDisplay> listFormDisplayChildren = getFormDisplayChildren( );
 
             addChildren( listFormDisplayChildren, null, _nIterationNumber );
         }
@@ -372,7 +392,7 @@ public class CompositeGroupDisplay implements ICompositeDisplay
 
             _listChildren.subList( nIndexIterationStart, _listChildren.size( ) ).clear( );
 
-            List<FormDisplay> listGroupChildren = FormDisplayHome.getFormDisplayListByParent( _group.getIdStep( ), _formDisplay.getId( ) );
+            List<FormDisplay> listGroupChildren = getFormDisplayChildren( );
 
             updateIterationResponse( formResponse, listGroupChildren, nIndexIterationToRemove );
 
@@ -444,7 +464,7 @@ public class CompositeGroupDisplay implements ICompositeDisplay
         List<ICompositeDisplay> listCompositeDisplay = new ArrayList<>( );
         listCompositeDisplay.add( this );
 
-        for ( FormDisplay child : FormDisplayHome.getFormDisplayListByParent( this.getFormDisplay( ).getStepId( ), this.getFormDisplay( ).getId( ) ) )
+        for ( FormDisplay child : getFormDisplayChildren( ) )
         {
             ICompositeDisplay compositeChild = _formService.formDisplayToComposite( child, null, 0 );
             listCompositeDisplay.addAll( compositeChild.getCompositeList( ) );
@@ -47,8 +47,6 @@ import org.apache.commons.lang3.StringUtils;
 
 import fr.paris.lutece.plugins.forms.business.CompositeDisplayType;
 import fr.paris.lutece.plugins.forms.business.Control;
-import fr.paris.lutece.plugins.forms.business.ControlHome;
-import fr.paris.lutece.plugins.forms.business.ControlType;
 import fr.paris.lutece.plugins.forms.business.FormDisplay;
 import fr.paris.lutece.plugins.forms.business.FormDisplayHome;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
@@ -57,6 +55,8 @@ import fr.paris.lutece.plugins.forms.business.FormResponseStep;
 import fr.paris.lutece.plugins.forms.business.Question;
 import fr.paris.lutece.plugins.forms.business.QuestionHome;
 import fr.paris.lutece.plugins.forms.service.EntryServiceManager;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledForm;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.forms.validation.IValidator;
 import fr.paris.lutece.plugins.forms.web.entrytype.DisplayType;
@@ -67,6 +67,7 @@ import fr.paris.lutece.plugins.genericattributes.service.entrytype.AbstractEntry
 import fr.paris.lutece.plugins.genericattributes.service.entrytype.EntryTypeServiceManager;
 import fr.paris.lutece.plugins.genericattributes.service.entrytype.IEntryTypeService;
 import fr.paris.lutece.portal.service.template.AppTemplateService;
+import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.util.html.HtmlTemplate;
 
 /**
@@ -91,6 +92,7 @@ public class CompositeQuestionDisplay implements ICompositeDisplay
 
     private Question _question;
     private final FormDisplay _formDisplay;
+    private final CompiledForm _compiledForm;
     private String _strIconName;
     private final Map<String, Object> _model;
 
@@ -107,6 +109,7 @@ public class CompositeQuestionDisplay implements ICompositeDisplay
     public CompositeQuestionDisplay( FormDisplay formDisplay, FormResponse formResponse, int nIterationNumber )
     {
         _formDisplay = formDisplay;
+        _compiledForm = CompiledFormService.getInstance( ).getCompiledForm( formDisplay.getFormId( ) );
         _model = new HashMap<>( );
 
         initComposite( formResponse, nIterationNumber );
@@ -122,7 +125,7 @@ public class CompositeQuestionDisplay implements ICompositeDisplay
      */
     private void initComposite( FormResponse formResponse, int nIterationNumber )
     {
-        _question = QuestionHome.findByPrimaryKey( _formDisplay.getCompositeId( ) );
+        _question = findQuestion( _formDisplay.getCompositeId( ) );
 
         if ( _question.getEntry( ) != null && _question.getEntry( ).getEntryType( ) != null )
         {
@@ -139,6 +142,33 @@ public class CompositeQuestionDisplay implements ICompositeDisplay
         }
     }
 
+    /**
+     * Finds a question in the compiled form. The question is copied as its state depends on the current display.
+     * 
+     * @param nIdQuestion
+     *            the question identifier
+     * @return the question
+     */
+    private Question findQuestion( int nIdQuestion )
+    {
+        Question question = _compiledForm != null ? _compiledForm.getQuestion( nIdQuestion ) : null;
+
+        if ( question == null )
+        {
+            return QuestionHome.findByPrimaryKey( nIdQuestion );
+        }
+
+        try
+        {
+            return question.clone( );
+        }
+        catch( CloneNotSupportedException e )
+        {
+            AppLogService.error( e.getMessage( ), e );
+            return QuestionHome.findByPrimaryKey( nIdQuestion );
+        }
+    }
+
     /**
      * 
      * @param formResponse
@@ -217,7 +247,9 @@ public class CompositeQuestionDisplay implements ICompositeDisplay
 
                 if ( CollectionUtils.isNotEmpty( control.getListIdQuestion( ) ) && CollectionUtils.isNotEmpty( listFormQuestionResponse ) )
                 {
-                    int questionControlStep = QuestionHome.findByPrimaryKey( control.getListIdQuestion( ).iterator( ).next( ) ).getIdStep( );
+                    int nIdQuestionControl = control.getListIdQuestion( ).iterator( ).next( );
+                    Question questionControl = _compiledForm != null ? _compiledForm.getQuestion( nIdQuestionControl ) : null;
+                    int questionControlStep = ( questionControl != null ? questionControl : QuestionHome.findByPrimaryKey( nIdQuestionControl ) ).getIdStep( );
                     if ( questionControlStep != _question.getIdStep( ) )
                     {
                         List<FormQuestionResponse> listFormQuestionReponseToCheck = listFormQuestionResponse.stream( )
@@ -316,13 +348,8 @@ public class CompositeQuestionDisplay implements ICompositeDisplay
 
     private void setQuestionVisibilityReadOnlyBO( List<Response> listResponse )
     {
-        List<Control> listConditionalControl = ControlHome.getControlByControlTargetAndType( _formDisplay.getId( ), ControlType.CONDITIONAL );
-        Control controlConditionnalDisplay = null;
-
-        if ( !listConditionalControl.isEmpty( ) )
-        {
-            controlConditionnalDisplay = listConditionalControl.get( 0 );
-        }
+        // The conditional control is loaded with the form display
+        Control controlConditionnalDisplay = _formDisplay.getDisplayControl( );
 
         // No Conditional Display
         if ( controlConditionnalDisplay == null )
@@ -408,7 +435,8 @@ public class CompositeQuestionDisplay implements ICompositeDisplay
     @Override
     public void removeIteration( HttpServletRequest request, int nIdGroupParent, int nIndexIterationToRemove, FormResponse formResponse )
     {
-        FormDisplay formDisplayParent = FormDisplayHome.findByPrimaryKey( _formDisplay.getParentId( ) );
+        FormDisplay formDisplayParent = _compiledForm != null ? _compiledForm.getFormDisplay( _formDisplay.getParentId( ) )
+                : FormDisplayHome.findByPrimaryKey( _formDisplay.getParentId( ) );
 
         if ( formDisplayParent != null && FormsConstants.COMPOSITE_GROUP_TYPE.equals( formDisplayParent.getCompositeType( ) )
                 && formDisplayParent.getCompositeId( ) == nIdGroupParent )
@@ -40,16 +40,15 @@ import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 
 import fr.paris.lutece.plugins.forms.business.Control;
-import fr.paris.lutece.plugins.forms.business.ControlHome;
-import fr.paris.lutece.plugins.forms.business.ControlType;
 import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponseStep;
 import fr.paris.lutece.plugins.forms.business.Step;
-import fr.paris.lutece.plugins.forms.service.EntryServiceManager;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
+import fr.paris.lutece.plugins.forms.service.definition.StepValidationPlan;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
-import fr.paris.lutece.plugins.forms.validation.IValidator;
 import fr.paris.lutece.plugins.genericattributes.business.GenericAttributeError;
 
 /**
@@ -347,35 +346,45 @@ public class FormResponseManager
      * @return the form validation result
      */
     public boolean validateFormResponses( )
+    {
+        long lStart = System.nanoTime( );
+        boolean bValid = validateSteps( );
+
+        FormsMetricsService metricsService = FormsMetricsService.getInstance( );
+        metricsService.recordTime( FormsMetricsService.TIMER_VALIDATION, lStart );
+
+        if ( !bValid )
+        {
+            metricsService.increment( FormsMetricsService.COUNTER_VALIDATION_ERRORS );
+        }
+
+        return bValid;
+    }
+
+    /**
+     * Validates the responses of the validated steps, and goes to the first step in error
+     * 
+     * @return the form validation result
+     */
+    private boolean validateSteps( )
     {
         for ( Step step : _listValidatedStep )
         {
             List<FormQuestionResponse> listFormQuestionResponse = findResponsesFor( step );
+            StepValidationPlan validationPlan = CompiledFormService.getInstance( ).getValidationPlan( step.getId( ) );
 
             for ( FormQuestionResponse formQuestionResponse : listFormQuestionResponse )
             {
                 if ( formQuestionResponse.getQuestion( ).isVisible( ) )
                 {
-                    List<Control> listControl = ControlHome.getControlByQuestionAndType( formQuestionResponse.getQuestion( ).getId( ),
-                            ControlType.VALIDATION.getLabel( ) );
+                    Control control = validationPlan.validate( formQuestionResponse );
 
-                    for ( Control control : listControl )
+                    if ( control != null )
                     {
-                        IValidator validator = EntryServiceManager.getInstance( ).getValidator( control.getValidatorName( ) );
-
-                        if ( !validator.validate( formQuestionResponse, control ) )
-                        {
-                            GenericAttributeError error = new GenericAttributeError( );
+                        setControlError( formQuestionResponse, control );
+                        goTo( _listValidatedStep.indexOf( step ) );
 
-                            error.setIsDisplayableError( true );
-                            error.setErrorMessage( control.getErrorMessage( ) );
-
-                            formQuestionResponse.setError( error );
-
-                            goTo( _listValidatedStep.indexOf( step ) );
-
-                            return false;
-                        }
+                        return false;
                     }
                 }
             }
@@ -384,4 +393,43 @@ public class FormResponseManager
         return true;
     }
 
+    /**
+     * Marks a response as rejected by a control checked while the form response was saved, and goes to the step of its question
+     * 
+     * @param formQuestionResponse
+     *            the rejected response
+     * @param control
+     *            the control which is not satisfied
+     */
+    public void rejectResponse( FormQuestionResponse formQuestionResponse, Control control )
+    {
+        setControlError( formQuestionResponse, control );
+
+        for ( int nIndex = 0; nIndex < _listValidatedStep.size( ); nIndex++ )
+        {
+            if ( _listValidatedStep.get( nIndex ).getId( ) == formQuestionResponse.getQuestion( ).getIdStep( ) )
+            {
+                goTo( nIndex );
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the error of a control on a response
+     * 
+     * @param formQuestionResponse
+     *            the response
+     * @param control
+     *            the control which is not satisfied
+     */
+    private static void setControlError( FormQuestionResponse formQuestionResponse, Control control )
+    {
+        GenericAttributeError error = new GenericAttributeError( );
+
+        error.setIsDisplayableError( true );
+        error.setErrorMessage( control.getErrorMessage( ) );
+
+        formQuestionResponse.setError( error );
+    }
 }
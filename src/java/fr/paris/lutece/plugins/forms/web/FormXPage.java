@@ -39,8 +39,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
@@ -50,7 +49,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
 import fr.paris.lutece.plugins.forms.business.Control;
-import fr.paris.lutece.plugins.forms.business.ControlHome;
 import fr.paris.lutece.plugins.forms.business.ControlType;
 import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormHome;
@@ -58,17 +56,21 @@ import fr.paris.lutece.plugins.forms.business.FormMessage;
 import fr.paris.lutece.plugins.forms.business.FormMessageHome;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
+import fr.paris.lutece.plugins.forms.business.FormResponseQuotaHome;
 import fr.paris.lutece.plugins.forms.business.Question;
-import fr.paris.lutece.plugins.forms.business.QuestionHome;
 import fr.paris.lutece.plugins.forms.business.Step;
-import fr.paris.lutece.plugins.forms.business.StepHome;
 import fr.paris.lutece.plugins.forms.business.Transition;
-import fr.paris.lutece.plugins.forms.business.TransitionHome;
 import fr.paris.lutece.plugins.forms.exception.FormNotFoundException;
+import fr.paris.lutece.plugins.forms.exception.FormResponseQuotaException;
+import fr.paris.lutece.plugins.forms.exception.FormResponseUniqueValueException;
 import fr.paris.lutece.plugins.forms.exception.QuestionValidationException;
 import fr.paris.lutece.plugins.forms.service.EntryServiceManager;
 import fr.paris.lutece.plugins.forms.service.FormService;
+import fr.paris.lutece.plugins.forms.service.cache.FormsCacheService;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledForm;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
 import fr.paris.lutece.plugins.forms.service.entrytype.EntryTypeAutomaticFileReading;
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
 import fr.paris.lutece.plugins.forms.service.upload.FormsAsynchronousUploadHandler;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.forms.validation.IValidator;
@@ -79,8 +81,6 @@ import fr.paris.lutece.plugins.forms.web.http.SynchronousHttpServletRequestWrapp
 import fr.paris.lutece.plugins.genericattributes.business.GenericAttributeError;
 import fr.paris.lutece.plugins.genericattributes.business.Response;
 import fr.paris.lutece.plugins.genericattributes.service.entrytype.IEntryTypeService;
-import fr.paris.lutece.portal.business.file.FileHome;
-import fr.paris.lutece.portal.business.physicalfile.PhysicalFileHome;
 import fr.paris.lutece.portal.service.captcha.CaptchaSecurityService;
 import fr.paris.lutece.portal.service.captcha.ICaptchaSecurityService;
 import fr.paris.lutece.portal.service.i18n.I18nService;
@@ -91,6 +91,7 @@ import fr.paris.lutece.portal.service.security.LuteceUser;
 import fr.paris.lutece.portal.service.security.SecurityService;
 import fr.paris.lutece.portal.service.security.UserNotSignedException;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
 import fr.paris.lutece.portal.util.mvc.xpage.MVCApplication;
@@ -160,14 +161,18 @@ public class FormXPage extends MVCApplication
     private static final String STEP_HTML_MARKER = "stepContent";
     private static final String MARK_LIST_SUMMARY_STEP_DISPLAY = "list_summary_step_display";
     private static final String MARK_FORM_LIST = "form_list";
+    private static final String MARK_RESPONSE_COUNTS = "response_counts";
     private static final String MARK_DISPLAY_CAPTCHA = "display_captcha";
     private static final String MARK_CAPTCHA = "captcha";
 
+    // Properties
+    private static final String PROPERTY_SUBMIT_LOCK_STRIPES = "forms.submit.lock.stripes";
+    private static final int DEFAULT_SUBMIT_LOCK_STRIPES = 256;
+
     // Other
     private static FormService _formService = SpringContextService.getBean( FormService.BEAN_NAME );
     private ICaptchaSecurityService _captchaSecurityService = new CaptchaSecurityService( );
-    private static Map<Integer, Integer> _responsePerFormMap = new HashMap<>( );
-    private static ConcurrentMap<Integer, Object> _lockFormId = new ConcurrentHashMap<>( );
+    private static SessionLocks _sessionLocks = new SessionLocks( AppPropertiesService.getPropertyInt( PROPERTY_SUBMIT_LOCK_STRIPES, DEFAULT_SUBMIT_LOCK_STRIPES ) );
 
     // Attributes
     private FormResponseManager _formResponseManager;
@@ -186,22 +191,20 @@ public class FormXPage extends MVCApplication
     public XPage getListFormView( HttpServletRequest request )
     {
         Locale locale = getLocale( request );
-        List<Form> listFormsAll = FormHome.getFormList( );
+        FormsCacheService cacheService = FormsCacheService.getInstance( );
+        List<Form> listFormsAll = cacheService.getFormList( );
+        Map<String, Integer> mapResponseCounts = new HashMap<>( );
         for ( Form form : listFormsAll )
         {
             if ( form.isCountResponses( ) )
             {
-                form.setCurrentNumberResponse( FormHome.getNumberOfResponseForms( form.getId( ) ) );
-            }
-            if ( form.getLogo( ) != null )
-            {
-                form.setLogo( FileHome.findByPrimaryKey( form.getLogo( ).getIdFile( ) ) );
-                form.getLogo( ).setPhysicalFile( PhysicalFileHome.findByPrimaryKey( form.getLogo( ).getPhysicalFile( ).getIdPhysicalFile( ) ) );
+                mapResponseCounts.put( String.valueOf( form.getId( ) ), cacheService.getNumberOfResponseForms( form.getId( ) ) );
             }
         }
 
         Map<String, Object> model = getModel( );
         model.put( MARK_FORM_LIST, listFormsAll );
+        model.put( MARK_RESPONSE_COUNTS, mapResponseCounts );
         XPage xPage = getXPage( TEMPLATE_LIST_FORMS, locale, model );
         xPage.setTitle( I18nService.getLocalizedString( MESSAGE_LIST_FORMS_PAGETITLE, locale ) );
         xPage.setPathLabel( I18nService.getLocalizedString( MESSAGE_LIST_FORMS_PATHLABEL, locale ) );
@@ -286,6 +289,7 @@ public class FormXPage extends MVCApplication
     @View( value = VIEW_STEP )
     public XPage getStepView( HttpServletRequest request ) throws SiteMessageException, UserNotSignedException
     {
+        long lStart = System.nanoTime( );
         String paramInit = request.getParameter( FormsConstants.PARAMETER_INIT );
         if ( PARAMETER_INIT.equals( paramInit ) )
         {
@@ -310,15 +314,8 @@ public class FormXPage extends MVCApplication
             Form form = FormHome.findByPrimaryKey( _currentStep.getIdForm( ) );
             checkAuthentication( form, request );
 
-            if ( form.isOneResponseByUser( ) || form.getMaxNumberResponse( ) != 0 )
-            {
-                Object lock = getLockOnForm( form );
-                synchronized( lock )
-                {
-                    checkIfUserResponseForm( form, request );
-                    checkNumberMaxResponseForm( form, request );
-                }
-            }
+            checkIfUserResponseForm( form, request );
+            checkNumberMaxResponseForm( form, request );
 
             strTitleForm = I18nService.getLocalizedString( MESSAGE_STEP_TITLE, new String [ ] {
                     form.getTitle( ), _currentStep.getTitle( )
@@ -350,6 +347,8 @@ public class FormXPage extends MVCApplication
         XPage xPage = getXPage( TEMPLATE_VIEW_STEP, getLocale( request ), model );
         xPage.setTitle( strTitleForm );
         xPage.setPathLabel( strPathForm );
+        FormsMetricsService.getInstance( ).recordTime( FormsMetricsService.TIMER_STEP_DISPLAY, ( _currentStep != null ) ? _currentStep.getIdForm( ) : nIdForm,
+                lStart );
 
         return xPage;
     }
@@ -401,12 +400,7 @@ public class FormXPage extends MVCApplication
 
         if ( form.isCountResponses( ) )
         {
-            form.setCurrentNumberResponse( FormHome.getNumberOfResponseForms( form.getId( ) ) );
-        }
-        if ( form.getLogo( ) != null )
-        {
-            form.setLogo( FileHome.findByPrimaryKey( form.getLogo( ).getIdFile( ) ) );
-            form.getLogo( ).setPhysicalFile( PhysicalFileHome.findByPrimaryKey( form.getLogo( ).getPhysicalFile( ).getIdPhysicalFile( ) ) );
+            form.setCurrentNumberResponse( FormsCacheService.getInstance( ).getNumberOfResponseForms( form.getId( ) ) );
         }
         model.put( FormsConstants.MARK_FORM, form );
         model.put( STEP_HTML_MARKER,
@@ -547,7 +541,7 @@ public class FormXPage extends MVCApplication
     {
         if ( form.isCountResponses( ) )
         {
-            form.setCurrentNumberResponse( FormHome.getNumberOfResponseForms( form.getId( ) ) );
+            form.setCurrentNumberResponse( FormsCacheService.getInstance( ).getNumberOfResponseForms( form.getId( ) ) );
         }
 
         Map<String, Object> model = buildModelForSummary( request );
@@ -628,7 +622,31 @@ public class FormXPage extends MVCApplication
      *             Exception
      */
     @Action( value = ACTION_SAVE_FORM_RESPONSE )
-    public synchronized XPage doSaveFormResponse( HttpServletRequest request ) throws SiteMessageException, UserNotSignedException
+    public XPage doSaveFormResponse( HttpServletRequest request ) throws SiteMessageException, UserNotSignedException
+    {
+        Lock lock = _sessionLocks.getLock( request );
+        lock.lock( );
+
+        try
+        {
+            return saveFormResponseFromStep( request );
+        }
+        finally
+        {
+            lock.unlock( );
+        }
+    }
+
+    /**
+     * Saves the form response from the final step. Must be called while holding the lock of the session.
+     * 
+     * @param request
+     *            The Http request
+     * @return the XPage
+     * @throws SiteMessageException
+     *             Exception
+     */
+    private XPage saveFormResponseFromStep( HttpServletRequest request ) throws SiteMessageException
     {
         Form form = null;
         try
@@ -668,7 +686,31 @@ public class FormXPage extends MVCApplication
      *             Exception
      */
     @Action( value = ACTION_SAVE_FORM_RESPONSE_SUMMARY )
-    public synchronized XPage doSaveFormResponseSummary( HttpServletRequest request ) throws SiteMessageException, UserNotSignedException
+    public XPage doSaveFormResponseSummary( HttpServletRequest request ) throws SiteMessageException, UserNotSignedException
+    {
+        Lock lock = _sessionLocks.getLock( request );
+        lock.lock( );
+
+        try
+        {
+            return saveFormResponseFromSummary( request );
+        }
+        finally
+        {
+            lock.unlock( );
+        }
+    }
+
+    /**
+     * Saves the form response from the summary page. Must be called while holding the lock of the session.
+     * 
+     * @param request
+     *            The Http request
+     * @return the XPage
+     * @throws SiteMessageException
+     *             Exception
+     */
+    private XPage saveFormResponseFromSummary( HttpServletRequest request ) throws SiteMessageException
     {
         Form form = null;
         try
@@ -711,7 +753,12 @@ public class FormXPage extends MVCApplication
             return redirectView( request, VIEW_STEP );
         }
 
-        saveFormResponse( form, request );
+        if ( !saveFormResponse( form, request ) )
+        {
+            _currentStep = _formResponseManager.getCurrentStep( );
+            _stepDisplayTree = new StepDisplayTree( _currentStep.getId( ), _formResponseManager.getFormResponse( ) );
+            return redirectView( request, VIEW_STEP );
+        }
         Map<String, Object> model = getModel( );
 
         model.put( FormsConstants.PARAMETER_ID_FORM, form.getId( ) );
@@ -952,22 +999,30 @@ public class FormXPage extends MVCApplication
      */
     private Step getNextStep( List<String> errorList )
     {
-        List<Transition> listTransition = TransitionHome.getTransitionsListFromStep( _currentStep.getId( ) );
+        FormsCacheService cacheService = FormsCacheService.getInstance( );
+        CompiledForm compiledForm = CompiledFormService.getInstance( ).getCompiledFormByStep( _currentStep.getId( ) );
+
+        if ( compiledForm == null )
+        {
+            return null;
+        }
+
+        List<Transition> listTransition = compiledForm.getTransitionsFromStep( _currentStep.getId( ) );
 
         for ( Transition transition : listTransition )
         {
-            List<Control> listTransitionControl = ControlHome.getControlByControlTargetAndType( transition.getId( ), ControlType.TRANSITION );
+            List<Control> listTransitionControl = cacheService.getControlByControlTargetAndType( transition.getId( ), ControlType.TRANSITION );
             boolean controlsValidated = true;
 
             if ( listTransitionControl.isEmpty( ) )
             {
-                return StepHome.findByPrimaryKey( transition.getNextStep( ) );
+                return compiledForm.getStep( transition.getNextStep( ) );
             }
 
             for ( Control transitionControl : listTransitionControl )
             {
-                Question targetQuestion = QuestionHome.findByPrimaryKey( transitionControl.getListIdQuestion( ).iterator( ).next( ) );
-                Step stepTarget = StepHome.findByPrimaryKey( targetQuestion.getIdStep( ) );
+                Question targetQuestion = compiledForm.getQuestion( transitionControl.getListIdQuestion( ).iterator( ).next( ) );
+                Step stepTarget = compiledForm.getStep( targetQuestion.getIdStep( ) );
                 List<FormQuestionResponse> listQuestionResponse = _formResponseManager.findResponsesFor( stepTarget ).stream( )
                         .filter( q -> transitionControl.getListIdQuestion( ).stream( ).anyMatch( t -> t.equals( q.getQuestion( ).getId( ) ) ) )
                         .collect( Collectors.toList( ) );
@@ -983,7 +1038,7 @@ public class FormXPage extends MVCApplication
 
             if ( controlsValidated )
             {
-                return StepHome.findByPrimaryKey( transition.getNextStep( ) );
+                return compiledForm.getStep( transition.getNextStep( ) );
             }
 
         }
@@ -1267,10 +1322,11 @@ public class FormXPage extends MVCApplication
      *            the form
      * @param request
      *            The Http request request
+     * @return true if the response has been saved, false if a response has been rejected by a unique control
      * @throws SiteMessageException
      *             the exception
      */
-    private void saveFormResponse( Form form, HttpServletRequest request ) throws SiteMessageException
+    private boolean saveFormResponse( Form form, HttpServletRequest request ) throws SiteMessageException
     {
         FormResponse formResponse = _formResponseManager.getFormResponse( );
         if ( form.isAuthentificationNeeded( ) )
@@ -1279,29 +1335,25 @@ public class FormXPage extends MVCApplication
             formResponse.setGuid( user.getName( ) );
         }
 
-        if ( form.isOneResponseByUser( ) || form.getMaxNumberResponse( ) != 0 )
+        try
         {
-            Object lock = getLockOnForm( form );
-            synchronized( lock )
-            {
-                checkIfUserResponseForm( form, request );
-                checkNumberMaxResponseForm( form, request );
-                _formService.saveForm( form, formResponse );
-                increaseNumberResponse( form );
-            }
+            _formService.saveForm( form, formResponse );
         }
-        else
+        catch( FormResponseQuotaException e )
         {
-            _formService.saveForm( form, formResponse );
+            SiteMessageService.setMessage( request, e.isByUser( ) ? MESSAGE_ERROR_NOT_RESPONSE_AGAIN_FORM : MESSAGE_ERROR_NUMBER_MAX_RESPONSE_FORM,
+                    SiteMessage.TYPE_ERROR );
+        }
+        catch( FormResponseUniqueValueException e )
+        {
+            _formResponseManager.rejectResponse( e.getFormQuestionResponse( ), e.getControl( ) );
+
+            return false;
         }
 
         _formService.processFormAction( form, formResponse );
-    }
 
-    private static synchronized Object getLockOnForm( Form form )
-    {
-        _lockFormId.putIfAbsent( form.getId( ), new Object( ) );
-        return _lockFormId.get( form.getId( ) );
+        return true;
     }
 
     /**
@@ -1318,28 +1370,13 @@ public class FormXPage extends MVCApplication
     {
         if ( form.getMaxNumberResponse( ) != 0 )
         {
-            int nNumberReponseForm = _responsePerFormMap.computeIfAbsent( form.getId( ), FormHome::getNumberOfResponseForms );
-            if ( nNumberReponseForm >= form.getMaxNumberResponse( ) )
+            if ( FormResponseQuotaHome.isReached( form.getId( ), null, form.getMaxNumberResponse( ) ) )
             {
                 SiteMessageService.setMessage( request, MESSAGE_ERROR_NUMBER_MAX_RESPONSE_FORM, SiteMessage.TYPE_ERROR );
             }
         }
     }
 
-    /**
-     * Increase the number of response of the Form
-     * 
-     * @param form
-     */
-    private static void increaseNumberResponse( Form form )
-    {
-        if ( form.getMaxNumberResponse( ) != 0 )
-        {
-            int nNumberReponseForm = _responsePerFormMap.get( form.getId( ) );
-            _responsePerFormMap.put( form.getId( ), nNumberReponseForm + 1 );
-        }
-    }
-
     /**
      * check if user can answer the form again
      * 
@@ -1354,8 +1391,7 @@ public class FormXPage extends MVCApplication
         if ( form.isAuthentificationNeeded( ) && form.isOneResponseByUser( ) )
         {
             LuteceUser user = SecurityService.getInstance( ).getRegisteredUser( request );
-            int nLimitNumberResponse = FormHome.getNumberOfResponseFormByUser( form.getId( ), user.getName( ) );
-            if ( nLimitNumberResponse >= NumberUtils.INTEGER_ONE )
+            if ( FormResponseQuotaHome.isReached( form.getId( ), user.getName( ), NumberUtils.INTEGER_ONE ) )
             {
                 SiteMessageService.setMessage( request, MESSAGE_ERROR_NOT_RESPONSE_AGAIN_FORM, SiteMessage.TYPE_ERROR );
             }
@@ -1382,7 +1418,8 @@ public class FormXPage extends MVCApplication
      */
     private void init( int nIdForm )
     {
-        _currentStep = StepHome.getInitialStep( nIdForm );
+        CompiledForm compiledForm = CompiledFormService.getInstance( ).getCompiledForm( nIdForm );
+        _currentStep = ( compiledForm != null ) ? compiledForm.getInitialStep( ) : null;
         _formResponseManager = null;
         _stepDisplayTree = null;
         _breadcrumb = null;
@@ -47,6 +47,7 @@ import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormAction;
 import fr.paris.lutece.plugins.forms.business.FormActionHome;
 import fr.paris.lutece.plugins.forms.business.FormHome;
+import fr.paris.lutece.plugins.forms.business.FormResponseCountHome;
 import fr.paris.lutece.portal.business.right.Right;
 import fr.paris.lutece.portal.business.right.RightHome;
 import fr.paris.lutece.portal.business.user.AdminUser;
@@ -98,10 +99,11 @@ public class FormsDashboardComponent extends DashboardComponent
         }
 
         List<FormAction> listFormActions = FormActionHome.selectAllFormActions( plugin, user.getLocale( ) );
+        Map<Integer, Integer> mapResponseCounts = FormResponseCountHome.getCountByForm( );
 
         for ( Form form : displayList )
         {
-            form.setCurrentNumberResponse( FormHome.getNumberOfResponseForms( form.getId( ) ) );
+            form.setCurrentNumberResponse( mapResponseCounts.getOrDefault( form.getId( ), 0 ) );
             List<FormAction> listAuthorisedActions = (List<FormAction>) RBACService.getAuthorizedActionsCollection( listFormActions, form, (User) user );
             form.setActions( listAuthorisedActions );
         }
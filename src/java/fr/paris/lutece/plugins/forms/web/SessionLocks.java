@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.web;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Striped locks protecting the state of a user session. Requests of the same session always get the same lock, while requests of different sessions are
+ * spread over the stripes by the hash of their identifier. Two sessions may fall on the same stripe: their requests are then serialized as well, which is
+ * safe but makes them wait for each other. The number of stripes (forms.submit.lock.stripes) bounds how often it happens.
+ */
+public final class SessionLocks
+{
+    private final Lock [ ] _locks;
+
+    /**
+     * Constructor
+     * 
+     * @param nStripes
+     *            the number of locks
+     */
+    public SessionLocks( int nStripes )
+    {
+        _locks = new Lock [ Math.max( nStripes, 1 )];
+
+        for ( int i = 0; i < _locks.length; i++ )
+        {
+            _locks [i] = new ReentrantLock( );
+        }
+    }
+
+    /**
+     * Gives the lock of the session of a request
+     * 
+     * @param request
+     *            the request
+     * @return the lock
+     */
+    public Lock getLock( HttpServletRequest request )
+    {
+        return getLock( request.getSession( true ).getId( ) );
+    }
+
+    /**
+     * Gives the lock of a session. Sessions falling on the same stripe share their lock.
+     * 
+     * @param strSessionId
+     *            the session identifier
+     * @return the lock
+     */
+    public Lock getLock( String strSessionId )
+    {
+        return _locks [Math.floorMod( strSessionId.hashCode( ), _locks.length )];
+    }
+}
@@ -46,14 +46,13 @@ import org.apache.commons.lang.StringUtils;
 import fr.paris.lutece.plugins.forms.business.Control;
 import fr.paris.lutece.plugins.forms.business.Form;
 import fr.paris.lutece.plugins.forms.business.FormDisplay;
-import fr.paris.lutece.plugins.forms.business.FormDisplayHome;
-import fr.paris.lutece.plugins.forms.business.FormHome;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormResponse;
 import fr.paris.lutece.plugins.forms.business.Question;
 import fr.paris.lutece.plugins.forms.business.Step;
-import fr.paris.lutece.plugins.forms.business.StepHome;
 import fr.paris.lutece.plugins.forms.service.FormService;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledForm;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.plugins.forms.web.entrytype.DisplayType;
 import fr.paris.lutece.plugins.genericattributes.business.Response;
@@ -165,13 +164,14 @@ public class StepDisplayTree
      */
     public void initStepTree( int nIdStep )
     {
-        _step = StepHome.findByPrimaryKey( nIdStep );
+        CompiledForm compiledForm = CompiledFormService.getInstance( ).getCompiledFormByStep( nIdStep );
+        _step = compiledForm != null ? compiledForm.getStep( nIdStep ) : null;
 
         if ( _step != null )
         {
-            _form = FormHome.findByPrimaryKey( _step.getIdForm( ) );
+            _form = compiledForm.getForm( );
 
-            List<FormDisplay> listStepFormDisplay = FormDisplayHome.getFormDisplayListByParent( nIdStep, 0 );
+            List<FormDisplay> listStepFormDisplay = compiledForm.getFormDisplayChildren( nIdStep, 0 );
             _listDisplayControls = new ArrayList<>( );
             for ( FormDisplay formDisplayChild : listStepFormDisplay )
             {
@@ -39,10 +39,14 @@ import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 
 import fr.paris.lutece.api.user.User;
+import fr.paris.lutece.plugins.forms.business.Step;
+import fr.paris.lutece.plugins.forms.business.StepHome;
+import fr.paris.lutece.plugins.forms.service.cache.IFormsCacheInvalidationBus;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.portal.service.admin.AccessDeniedException;
 import fr.paris.lutece.portal.service.admin.AdminUserService;
 import fr.paris.lutece.portal.service.rbac.RBACService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.portal.service.util.AppPathService;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.portal.util.mvc.admin.MVCAdminJspBean;
@@ -131,6 +135,42 @@ public abstract class AbstractJspBean extends MVCAdminJspBean
         return _paginator;
     }
 
+    /**
+     * Publishes the modification of a form on the invalidation bus, so that the front office of all the servers displays the new definition
+     * 
+     * @param nIdForm
+     *            The Form identifier
+     */
+    protected void invalidateFormDefinition( int nIdForm )
+    {
+        IFormsCacheInvalidationBus bus = SpringContextService.getBean( IFormsCacheInvalidationBus.BEAN_NAME );
+        bus.publish( nIdForm );
+    }
+
+    /**
+     * Invalidates the compiled definition of the form containing a step
+     * 
+     * @param nIdStep
+     *            The Step identifier
+     */
+    protected void invalidateFormDefinitionByStep( int nIdStep )
+    {
+        Step step = StepHome.findByPrimaryKey( nIdStep );
+
+        if ( step != null )
+        {
+            invalidateFormDefinition( step.getIdForm( ) );
+        }
+    }
+
+    /**
+     * Invalidates the compiled definitions of all the forms, when the modified form cannot be known cheaply
+     */
+    protected void invalidateAllFormDefinitions( )
+    {
+        invalidateFormDefinition( IFormsCacheInvalidationBus.ALL_FORMS );
+    }
+
     /**
      * Return the URL of the JSP manage step
      * 
@@ -535,6 +535,9 @@ public class FormControlJspBean extends AbstractJspBean
             request.setAttribute( FormsConstants.PARAMETER_INFO_KEY, INFO_CONTROL_CREATED );
         }
 
+        // A control may target a display, a question or a transition of the form
+        invalidateAllFormDefinitions( );
+
         return redirect( request, getControlReturnUrl( request ) );
     }
 
@@ -581,6 +584,7 @@ public class FormControlJspBean extends AbstractJspBean
         if ( _control != null )
         {
             ControlHome.remove( _control.getId( ) );
+            invalidateAllFormDefinitions( );
             ControlListenerManager.notifyListenersControlRemoval( _control, request );
             request.setAttribute( FormsConstants.PARAMETER_INFO_KEY, INFO_CONTROL_REMOVED );
         }
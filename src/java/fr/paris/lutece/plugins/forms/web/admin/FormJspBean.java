@@ -323,6 +323,7 @@ public class FormJspBean extends AbstractJspBean
 
         _formMessage.setIdForm( _form.getId( ) );
         FormMessageHome.create( _formMessage );
+        invalidateFormDefinition( _form.getId( ) );
 
         addInfo( INFO_FORM_CREATED, getLocale( ) );
 
@@ -400,6 +401,7 @@ public class FormJspBean extends AbstractJspBean
             {
                 String json = FormJsonService.getInstance( ).jsonExportForm( nId );
                 FormJsonService.getInstance( ).jsonImportForm( json, getLocale( ) );
+                invalidateFormDefinition( nId );
                 addInfo( INFO_FORM_COPIED, getLocale( ) );
             }
             catch( JsonProcessingException e )
@@ -440,6 +442,7 @@ public class FormJspBean extends AbstractJspBean
 
         FormService formService = SpringContextService.getBean( FormService.BEAN_NAME );
         formService.removeForm( nId, getUser( ) );
+        invalidateFormDefinition( nId );
 
         addInfo( INFO_FORM_REMOVED, getLocale( ) );
 
@@ -823,6 +826,7 @@ public class FormJspBean extends AbstractJspBean
         }
 
         FormHome.update( _form );
+        invalidateFormDefinition( _form.getId( ) );
         _formService.fireFormResponseEventUpdate( _form );
 
         if ( _formMessage.getId( ) == 0 )
@@ -914,6 +918,7 @@ public class FormJspBean extends AbstractJspBean
         try
         {
             FormJsonService.getInstance( ).jsonImportForm( new String( fileItem.get( ) ), getLocale( ) );
+            invalidateFormDefinition( FormsConstants.DEFAULT_ID_VALUE );
             addInfo( INFO_FORM_CREATED, getLocale( ) );
         }
         catch( JsonProcessingException e )
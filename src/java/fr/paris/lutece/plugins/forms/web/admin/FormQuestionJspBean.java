@@ -432,6 +432,7 @@ public class FormQuestionJspBean extends AbstractJspBean
             addError( ERROR_GROUP_NOT_CREATED, getLocale( ) );
         }
 
+        invalidateFormDefinition( _step.getIdForm( ) );
         addInfo( INFO_GROUP_CREATED, getLocale( ) );
         return redirect( request, VIEW_MANAGE_QUESTIONS, FormsConstants.PARAMETER_ID_STEP, _step.getId( ) );
 
@@ -507,6 +508,7 @@ public class FormQuestionJspBean extends AbstractJspBean
         }
 
         GroupHome.update( _group );
+        invalidateFormDefinition( _step.getIdForm( ) );
 
         if ( _group.getId( ) == INTEGER_MINUS_ONE )
         {
@@ -693,6 +695,7 @@ public class FormQuestionJspBean extends AbstractJspBean
             formDisplay.setDepth( nDisplayDepth );
             FormDisplayHome.create( formDisplay );
         }
+        invalidateFormDefinition( _step.getIdForm( ) );
         return null;
     }
 
@@ -775,6 +778,7 @@ public class FormQuestionJspBean extends AbstractJspBean
             formDisplay.setDepth( formDisplayToCopy.getDepth( ) );
             FormDisplayHome.create( formDisplay );
         }
+        invalidateFormDefinition( _step.getIdForm( ) );
 
         return null;
     }
@@ -967,6 +971,7 @@ public class FormQuestionJspBean extends AbstractJspBean
         _question.setDescription( _entry.getComment( ) );
         _question.setMultiviewColumnOrder( NumberUtils.toInt( request.getParameter( FormsConstants.PARAMETER_MULTIVIEW_ORDER ), 0 ) );
         QuestionHome.update( _question );
+        invalidateFormDefinition( _step.getIdForm( ) );
 
         return null;
 
@@ -1067,6 +1072,7 @@ public class FormQuestionJspBean extends AbstractJspBean
         {
             _fileStoreProvider.delete( oldFile.getValue( ) );
             FieldHome.remove( oldFile.getIdField( ) );
+            invalidateFormDefinition( entry.getIdResource( ) );
         }
 
         Map<String, String> additionalParameters = new HashMap<>( );
@@ -1184,6 +1190,7 @@ public class FormQuestionJspBean extends AbstractJspBean
 
         List<FormDisplay> listFormDisplaySibling = FormDisplayHome.getFormDisplayListByParent( _formDisplay.getStepId( ), _formDisplay.getParentId( ) );
         _formDisplayService.rebuildDisplayPositionSequence( listFormDisplaySibling );
+        invalidateFormDefinition( _formDisplay.getFormId( ) );
 
         addInfo( INFO_DELETE_COMPOSITE_SUCCESSFUL, getLocale( ) );
         return redirect( request, VIEW_MANAGE_QUESTIONS, FormsConstants.PARAMETER_ID_STEP, _formDisplay.getStepId( ) );
@@ -1387,6 +1394,7 @@ public class FormQuestionJspBean extends AbstractJspBean
         }
 
         moveDisplay( _formDisplay, nIdStepTarget, nIdParentTarget, nDisplayOrderTarget );
+        invalidateFormDefinition( _formDisplay.getFormId( ) );
 
         addInfo( INFO_MOVE_COMPOSITE_SUCCESSFUL, getLocale( ) );
 
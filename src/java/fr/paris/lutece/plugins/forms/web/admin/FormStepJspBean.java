@@ -294,6 +294,8 @@ public class FormStepJspBean extends AbstractJspBean
             TransitionHome.create( transition );
         }
 
+        invalidateFormDefinition( _step.getIdForm( ) );
+
         return redirect( request, VIEW_MANAGE_STEPS, FormsConstants.MARK_ID_FORM, _step.getIdForm( ) );
     }
 
@@ -376,6 +378,7 @@ public class FormStepJspBean extends AbstractJspBean
                 {
                     String json = FormJsonService.getInstance( ).jsonExportStep( nIdForm, nIdStep );
                     FormJsonService.getInstance( ).jsonImportStep( nIdForm, json, getLocale( ) );
+                    invalidateFormDefinition( nIdForm );
                     addInfo( INFO_STEP_COPIED, getLocale( ) );
                 }
                 catch( JsonProcessingException e )
@@ -417,6 +420,7 @@ public class FormStepJspBean extends AbstractJspBean
         }
         _stepService.removeStep( nIdStep );
         FormResponseStepHome.removeByStep( nIdStep );
+        invalidateFormDefinition( nIdForm );
 
         addInfo( INFO_STEP_REMOVED, getLocale( ) );
 
@@ -507,6 +511,7 @@ public class FormStepJspBean extends AbstractJspBean
         }
 
         StepHome.update( _step );
+        invalidateFormDefinition( _step.getIdForm( ) );
         addInfo( INFO_STEP_UPDATED, getLocale( ) );
 
         return redirect( request, VIEW_MANAGE_STEPS, FormsConstants.PARAMETER_ID_FORM, nIdForm );
@@ -568,6 +573,7 @@ public class FormStepJspBean extends AbstractJspBean
         {
             nIdForm = Integer.parseInt( request.getParameter( FormsConstants.PARAMETER_ID_FORM ) );
             FormJsonService.getInstance( ).jsonImportStep( nIdForm, new String( fileItem.get( ) ), getLocale( ) );
+            invalidateFormDefinition( nIdForm );
             addInfo( INFO_STEP_CREATED, getLocale( ) );
         }
         catch( JsonProcessingException e )
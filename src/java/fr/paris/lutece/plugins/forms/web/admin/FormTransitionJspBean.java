@@ -338,6 +338,7 @@ public class FormTransitionJspBean extends AbstractJspBean
         }
 
         TransitionHome.create( _transition );
+        invalidateFormDefinitionByStep( _transition.getFromStep( ) );
 
         return true;
     }
@@ -366,6 +367,7 @@ public class FormTransitionJspBean extends AbstractJspBean
         }
 
         TransitionHome.update( _transition );
+        invalidateFormDefinitionByStep( _transition.getFromStep( ) );
 
         addInfo( INFO_TRANSITION_UPDATED, getLocale( ) );
 
@@ -433,6 +435,7 @@ public class FormTransitionJspBean extends AbstractJspBean
             ControlHome.removeByControlTarget( _transition.getId( ), ControlType.TRANSITION );
 
             TransitionHome.rebuildPrioritySequence( _transition.getFromStep( ) );
+            invalidateFormDefinitionByStep( _transition.getFromStep( ) );
 
             addInfo( INFO_TRANSITION_REMOVED, getLocale( ) );
         }
@@ -504,6 +507,7 @@ public class FormTransitionJspBean extends AbstractJspBean
         }
         _transition.setPriority( nNewPriority );
         TransitionHome.update( _transition );
+        invalidateFormDefinition( _step.getIdForm( ) );
 
         return redirect( request, VIEW_MANAGE_TRANSITIONS, FormsConstants.PARAMETER_ID_STEP, _transition.getFromStep( ) );
     }
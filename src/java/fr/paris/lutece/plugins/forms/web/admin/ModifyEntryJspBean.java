@@ -286,6 +286,7 @@ public class ModifyEntryJspBean extends AbstractJspBean
         }
 
         FieldHome.create( field );
+        invalidateFormDefinition( _step.getIdForm( ) );
 
         return redirectToViewModifyQuestion( request, _step.getId( ), _question.getId( ) );
     }
@@ -335,7 +336,7 @@ public class ModifyEntryJspBean extends AbstractJspBean
             }
 
             FieldHome.update( field );
-
+            invalidateFormDefinition( _step.getIdForm( ) );
         }
         else
         {
@@ -415,6 +416,7 @@ public class ModifyEntryJspBean extends AbstractJspBean
         if ( nIdField != -1 )
         {
             FieldHome.remove( nIdField );
+            invalidateFormDefinition( _step.getIdForm( ) );
 
             return redirectToViewModifyQuestion( request, _step.getId( ), _question.getId( ) );
         }
@@ -499,6 +501,7 @@ public class ModifyEntryJspBean extends AbstractJspBean
             field.setPosition( nNewPosition );
             FieldHome.update( field );
             FieldHome.update( fieldToInversePosition );
+            invalidateFormDefinition( _step.getIdForm( ) );
         }
 
         return redirectToViewModifyQuestion( request, _step.getId( ), _question.getId( ) );
@@ -33,6 +33,7 @@
  */
 package fr.paris.lutece.plugins.forms.web.admin;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -441,14 +442,29 @@ public class MultiviewFormsJspBean extends AbstractJspBean
             reloadFormFilterList( listFormFilter, request );
         }
 
+        // Only the rows of the active panel, or of the first one if none is active, are displayed
+        IFormPanelDisplay formPanelDisplayToPopulate = MultiviewFormService.getInstance( ).findActiveFormPanel( _listAuthorizedFormPanelDisplay );
+        if ( formPanelDisplayToPopulate == null && CollectionUtils.isNotEmpty( _listAuthorizedFormPanelDisplay ) )
+        {
+            formPanelDisplayToPopulate = _listAuthorizedFormPanelDisplay.get( 0 );
+        }
+
+        List<FormPanel> listFormPanelToCount = new ArrayList<>( );
         for ( IFormPanelDisplay formPanelDisplay : _listAuthorizedFormPanelDisplay )
         {
             // Retrieve the FormPanel from the FormPanelDisplay
             FormPanel formPanel = formPanelDisplay.getFormPanel( );
 
-            // Populate the FormColumns from the information of the list of FormResponseItem
-            // of the given FormPanel
-            MultiviewFormService.getInstance( ).populateFormColumns( formPanel, _listFormColumn, listFormFilter, nIndexStart, nPageSize, sortConfig );
+            if ( formPanelDisplay == formPanelDisplayToPopulate )
+            {
+                // Populate the FormColumns from the information of the list of FormResponseItem
+                // of the given FormPanel
+                MultiviewFormService.getInstance( ).populateFormColumns( formPanel, _listFormColumn, listFormFilter, nIndexStart, nPageSize, sortConfig );
+            }
+            else
+            {
+                listFormPanelToCount.add( formPanel );
+            }
 
             // Associate for each FormColumnDisplay its FormColumnValues if the panel is
             // active
@@ -456,10 +472,13 @@ public class MultiviewFormsJspBean extends AbstractJspBean
             {
                 _formPanelDisplayActive = formPanelDisplay;
             }
-
-            // Build the template of the form list panel
-            formPanelDisplay.buildTemplate( getLocale( ) );
         }
+
+        // The other panels only display their number of form responses
+        MultiviewFormService.getInstance( ).populateFormResponseItemCounts( listFormPanelToCount, listFormFilter );
+
+        // Build the template of the form list panels
+        _listAuthorizedFormPanelDisplay.forEach( formPanelDisplay -> formPanelDisplay.buildTemplate( getLocale( ) ) );
     }
 
     /**
@@ -41,14 +41,11 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 
 import fr.paris.lutece.plugins.forms.business.Control;
-import fr.paris.lutece.plugins.forms.business.ControlHome;
-import fr.paris.lutece.plugins.forms.business.ControlType;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponse;
 import fr.paris.lutece.plugins.forms.business.FormQuestionResponseHome;
 import fr.paris.lutece.plugins.forms.business.Question;
-import fr.paris.lutece.plugins.forms.service.EntryServiceManager;
+import fr.paris.lutece.plugins.forms.service.definition.CompiledFormService;
 import fr.paris.lutece.plugins.forms.service.entrytype.IResponseComparator;
-import fr.paris.lutece.plugins.forms.validation.IValidator;
 import fr.paris.lutece.plugins.genericattributes.business.Entry;
 import fr.paris.lutece.plugins.genericattributes.business.GenericAttributeError;
 import fr.paris.lutece.plugins.genericattributes.business.Response;
@@ -63,6 +60,8 @@ import fr.paris.lutece.portal.service.i18n.I18nService;
  */
 public class EntryTypeDefaultDataService implements IEntryDataService
 {
+    private static final String METHOD_SAVE = "save";
+
     private String _strEntryServiceName = StringUtils.EMPTY;
 
     /**
@@ -91,9 +90,7 @@ public class EntryTypeDefaultDataService implements IEntryDataService
     @Override
     public void save( FormQuestionResponse questionResponse )
     {
-        FormQuestionResponse responseSaved = FormQuestionResponseHome.findByPrimaryKey( questionResponse.getId( ) );
-
-        if ( responseSaved == null )
+        if ( questionResponse.getId( ) <= 0 || FormQuestionResponseHome.findByPrimaryKey( questionResponse.getId( ) ) == null )
         {
             FormQuestionResponseHome.create( questionResponse );
         }
@@ -104,6 +101,22 @@ public class EntryTypeDefaultDataService implements IEntryDataService
 
     }
 
+    /**
+     * {@inheritDoc} The responses are saved by batch unless a subclass overrides {@link #save(FormQuestionResponse)}.
+     */
+    @Override
+    public boolean isBatchSaveSupported( )
+    {
+        try
+        {
+            return getClass( ).getMethod( METHOD_SAVE, FormQuestionResponse.class ).getDeclaringClass( ) == EntryTypeDefaultDataService.class;
+        }
+        catch( NoSuchMethodException e )
+        {
+            return false;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -119,22 +132,16 @@ public class EntryTypeDefaultDataService implements IEntryDataService
         {
             formQuestionResponse.setError( error );
 
-            List<Control> listControl = ControlHome.getControlByQuestionAndType( question.getId( ), ControlType.VALIDATION.getLabel( ) );
+            Control control = CompiledFormService.getInstance( ).getValidationPlan( question.getIdStep( ) ).validate( formQuestionResponse );
 
-            for ( Control control : listControl )
+            if ( control != null )
             {
-                IValidator validator = EntryServiceManager.getInstance( ).getValidator( control.getValidatorName( ) );
-                if ( !validator.validate( formQuestionResponse, control ) )
-                {
-                    error = new GenericAttributeError( );
-
-                    error.setIsDisplayableError( true );
-                    error.setErrorMessage( control.getErrorMessage( ) );
+                error = new GenericAttributeError( );
 
-                    formQuestionResponse.setError( error );
+                error.setIsDisplayableError( true );
+                error.setErrorMessage( control.getErrorMessage( ) );
 
-                    break;
-                }
+                formQuestionResponse.setError( error );
             }
         }
         else
@@ -58,6 +58,17 @@ public interface IEntryDataService
      */
     void save( FormQuestionResponse questionResponse );
 
+    /**
+     * Tells if the responses of this service may be saved with batches of statements, together with the responses of the other entry types, instead of
+     * through {@link #save(FormQuestionResponse)}
+     * 
+     * @return {@code true} if the responses are saved by the generic storage of the form question responses, {@code false} otherwise
+     */
+    default boolean isBatchSaveSupported( )
+    {
+        return false;
+    }
+
     /**
      * Creates the response values from request for the given question
      * 
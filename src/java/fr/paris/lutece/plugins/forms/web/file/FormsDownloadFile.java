@@ -34,19 +34,24 @@
 package fr.paris.lutece.plugins.forms.web.file;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
+import fr.paris.lutece.plugins.forms.business.Form;
+import fr.paris.lutece.plugins.forms.business.FormHome;
+import fr.paris.lutece.plugins.forms.business.file.PhysicalFileChunkHome;
 import fr.paris.lutece.plugins.forms.service.FormService;
+import fr.paris.lutece.plugins.forms.service.download.PhysicalFileInputStream;
 import fr.paris.lutece.plugins.forms.util.FormsConstants;
 import fr.paris.lutece.portal.business.file.File;
 import fr.paris.lutece.portal.business.file.FileHome;
-import fr.paris.lutece.portal.business.physicalfile.PhysicalFile;
-import fr.paris.lutece.portal.business.physicalfile.PhysicalFileHome;
 import fr.paris.lutece.portal.service.message.AdminMessage;
 import fr.paris.lutece.portal.service.message.AdminMessageService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
@@ -55,7 +60,8 @@ import fr.paris.lutece.portal.web.constants.Messages;
 import fr.paris.lutece.util.filesystem.FileSystemUtil;
 
 /**
- * Class used to download a File for the plugin Forms
+ * Class used to download a File for the plugin Forms. The content of the file is streamed from the database by chunks, and the requests can use the
+ * {@code ETag}, {@code If-None-Match}, {@code Range} and {@code If-Range} headers
  */
 public final class FormsDownloadFile
 {
@@ -65,9 +71,24 @@ public final class FormsDownloadFile
     // Messages
     private static final String MESSAGE_ERROR_DURING_DOWNLOAD_FILE = "forms.error.downloadFile";
 
+    // Headers
+    private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_IF_RANGE = "If-Range";
+    private static final String HEADER_RANGE = "Range";
+
     // Constants
     private static final int ID_FILE_INCORRECT = NumberUtils.INTEGER_MINUS_ONE;
     private static final int ID_RESPONSE_INCORRECT = NumberUtils.INTEGER_MINUS_ONE;
+    private static final int ID_FORM_INCORRECT = NumberUtils.INTEGER_MINUS_ONE;
+    private static final String RANGE_UNIT = "bytes";
+    private static final String RANGE_UNIT_PREFIX = RANGE_UNIT + "=";
+    private static final String CONTENT_DISPOSITION_ATTACHMENT = "attachment";
+    private static final String CONTENT_DISPOSITION_INLINE = "inline";
+    private static final long [ ] RANGE_NOT_SATISFIABLE = new long [ 0];
 
     /**
      * Private constructor
@@ -97,37 +118,101 @@ public final class FormsDownloadFile
             return AdminMessageService.getMessageUrl( request, Messages.USER_ACCESS_DENIED, AdminMessage.TYPE_STOP );
         }
 
-        PhysicalFile physicalFile = null;
         File file = FileHome.findByPrimaryKey( nIdFile );
-        if ( file != null )
+
+        if ( file != null && file.getPhysicalFile( ) != null )
         {
-            physicalFile = PhysicalFileHome.findByPrimaryKey( file.getPhysicalFile( ).getIdPhysicalFile( ) );
+            addFileContentToResponse( request, response, file, CONTENT_DISPOSITION_ATTACHMENT );
         }
 
-        if ( physicalFile != null )
+        return AdminMessageService.getMessageUrl( request, MESSAGE_ERROR_DURING_DOWNLOAD_FILE, AdminMessage.TYPE_STOP );
+    }
+
+    /**
+     * Write in the HttpServletResponse the logo of a form
+     * 
+     * @param request
+     *            The HttpServletRequest to use to retrieve the identifier of the form
+     * @param response
+     *            The HttpServletResponse to set the logo
+     * @return {@code true} if the logo has been written, {@code false} if the form has no logo
+     */
+    public static boolean doDownloadLogo( HttpServletRequest request, HttpServletResponse response )
+    {
+        Form form = FormHome.findByPrimaryKey( NumberUtils.toInt( request.getParameter( FormsConstants.PARAMETER_ID_FORM ), ID_FORM_INCORRECT ) );
+
+        if ( form == null || form.getLogo( ) == null )
         {
-            addFileContentToResponse( response, file, physicalFile );
+            return false;
         }
 
-        return AdminMessageService.getMessageUrl( request, MESSAGE_ERROR_DURING_DOWNLOAD_FILE, AdminMessage.TYPE_STOP );
+        File file = FileHome.findByPrimaryKey( form.getLogo( ).getIdFile( ) );
+
+        return file != null && file.getPhysicalFile( ) != null && addFileContentToResponse( request, response, file, CONTENT_DISPOSITION_INLINE );
     }
 
     /**
-     * Add the information of the given File with the content of its PhysicalFile to the HttpServletResponse
+     * Add the information of the given File with the content of its PhysicalFile to the HttpServletResponse. The content is copied by chunks, restricted to
+     * the requested range if any
      * 
+     * @param request
+     *            The HttpServletRequest containing the conditional and range headers
      * @param response
      *            The httpServletResponse on which to add the content of the PhysicalFile
      * @param file
      *            The File with the information to set in the HttpServletResponse
-     * @param physicalFile
-     *            The content of the given File to set in the HttpServletResponse
+     * @param strDisposition
+     *            the content disposition type
+     * @return {@code true} if the response has been written, {@code false} if the physical file does not exist
      */
-    private static void addFileContentToResponse( HttpServletResponse response, File file, PhysicalFile physicalFile )
+    private static boolean addFileContentToResponse( HttpServletRequest request, HttpServletResponse response, File file, String strDisposition )
     {
+        int nIdPhysicalFile = file.getPhysicalFile( ).getIdPhysicalFile( );
+        long lLength = PhysicalFileChunkHome.getLength( nIdPhysicalFile );
+
+        if ( lLength < 0 )
+        {
+            return false;
+        }
+
+        String strETag = "\"" + file.getIdFile( ) + "-" + nIdPhysicalFile + "-" + lLength + "\"";
+
         try
         {
-            byte [ ] byteFileOutPut = physicalFile.getValue( );
-            addHeaderResponse( response, file.getTitle( ) );
+            addHeaderResponse( response, file.getTitle( ), strDisposition );
+            response.setHeader( HEADER_ETAG, strETag );
+            response.setHeader( HEADER_ACCEPT_RANGES, RANGE_UNIT );
+
+            if ( isETagMatching( request.getHeader( HEADER_IF_NONE_MATCH ), strETag ) )
+            {
+                response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+                response.flushBuffer( );
+
+                return true;
+            }
+
+            String strIfRange = request.getHeader( HEADER_IF_RANGE );
+            long [ ] range = ( strIfRange == null || strIfRange.equals( strETag ) ) ? parseRange( request.getHeader( HEADER_RANGE ), lLength ) : null;
+
+            if ( range == RANGE_NOT_SATISFIABLE )
+            {
+                response.setHeader( HEADER_CONTENT_RANGE, RANGE_UNIT + " */" + lLength );
+                response.setStatus( HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE );
+                response.flushBuffer( );
+
+                return true;
+            }
+
+            long lStart = 0;
+            long lEnd = lLength - 1;
+
+            if ( range != null )
+            {
+                lStart = range [0];
+                lEnd = range [1];
+                response.setStatus( HttpServletResponse.SC_PARTIAL_CONTENT );
+                response.setHeader( HEADER_CONTENT_RANGE, RANGE_UNIT + " " + lStart + "-" + lEnd + "/" + lLength );
+            }
 
             String strMimeType = file.getMimeType( );
             if ( strMimeType == null )
@@ -136,16 +221,104 @@ public final class FormsDownloadFile
             }
 
             response.setContentType( strMimeType );
-            response.setContentLength( byteFileOutPut.length );
+            response.setHeader( HEADER_CONTENT_LENGTH, String.valueOf( lEnd - lStart + 1 ) );
 
-            OutputStream outputStream = response.getOutputStream( );
-            outputStream.write( byteFileOutPut );
-            outputStream.close( );
+            try ( InputStream inputStream = new PhysicalFileInputStream( nIdPhysicalFile, lStart, lEnd + 1 );
+                    OutputStream outputStream = response.getOutputStream( ) )
+            {
+                IOUtils.copyLarge( inputStream, outputStream );
+            }
         }
         catch( IOException e )
         {
             AppLogService.error( e );
         }
+
+        return true;
+    }
+
+    /**
+     * Tells if the value of an {@code If-None-Match} header matches the entity tag of the file
+     * 
+     * @param strIfNoneMatch
+     *            the value of the header, may be null
+     * @param strETag
+     *            the entity tag of the file
+     * @return {@code true} if the client already has the file
+     */
+    static boolean isETagMatching( String strIfNoneMatch, String strETag )
+    {
+        if ( StringUtils.isBlank( strIfNoneMatch ) )
+        {
+            return false;
+        }
+
+        for ( String strTag : strIfNoneMatch.split( "," ) )
+        {
+            String strTrimmedTag = StringUtils.removeStart( strTag.trim( ), "W/" );
+
+            if ( "*".equals( strTrimmedTag ) || strETag.equals( strTrimmedTag ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Parses the value of a {@code Range} header. Only a single range of bytes is supported, the other requests get the whole content
+     * 
+     * @param strRange
+     *            the value of the header, may be null
+     * @param lLength
+     *            the length of the content
+     * @return the first and last positions of the range, null to send the whole content, or an empty array if the range cannot be satisfied
+     */
+    static long [ ] parseRange( String strRange, long lLength )
+    {
+        if ( strRange == null || !strRange.startsWith( RANGE_UNIT_PREFIX ) || strRange.indexOf( ',' ) >= 0 )
+        {
+            return null;
+        }
+
+        String strSpec = strRange.substring( RANGE_UNIT_PREFIX.length( ) ).trim( );
+        int nDash = strSpec.indexOf( '-' );
+
+        if ( nDash < 0 )
+        {
+            return null;
+        }
+
+        long lFirst = NumberUtils.toLong( strSpec.substring( 0, nDash ).trim( ), -1 );
+        long lLast = NumberUtils.toLong( strSpec.substring( nDash + 1 ).trim( ), -1 );
+
+        if ( nDash == 0 )
+        {
+            // Suffix range: the last bytes of the content
+            if ( lLast <= 0 || lLength == 0 )
+            {
+                return lLast < 0 ? null : RANGE_NOT_SATISFIABLE;
+            }
+
+            return new long [ ] {
+                    Math.max( 0, lLength - lLast ), lLength - 1
+            };
+        }
+
+        if ( lFirst < 0 || ( nDash < strSpec.length( ) - 1 && lLast < lFirst ) )
+        {
+            return null;
+        }
+
+        if ( lFirst >= lLength )
+        {
+            return RANGE_NOT_SATISFIABLE;
+        }
+
+        return new long [ ] {
+                lFirst, ( lLast < 0 || lLast >= lLength ) ? lLength - 1 : lLast
+        };
     }
 
     /**
@@ -155,10 +328,12 @@ public final class FormsDownloadFile
      *            The HttpServletResponse to modify
      * @param strFileName
      *            The name of the file who must be insert in the HttpServletResponse
+     * @param strDisposition
+     *            the content disposition type
      */
-    private static void addHeaderResponse( HttpServletResponse response, String strFileName )
+    private static void addHeaderResponse( HttpServletResponse response, String strFileName, String strDisposition )
     {
-        response.setHeader( "Content-Disposition", "attachment ;filename=\"" + strFileName + "\"" );
+        response.setHeader( "Content-Disposition", strDisposition + " ;filename=\"" + strFileName + "\"" );
         response.setHeader( "Pragma", "public" );
         response.setHeader( "Expires", "0" );
         response.setHeader( "Cache-Control", "must-revalidate,post-check=0,pre-check=0" );
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.web.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+
+import fr.paris.lutece.plugins.forms.service.metrics.FormsMetricsService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Servlet exposing the metrics of the plugin in the Prometheus text format. It is disabled by default, and requires the bearer token of the property
+ * {@value #PROPERTY_TOKEN} : the metrics are refused while no token is set.
+ */
+public class FormsMetricsServlet extends HttpServlet
+{
+    private static final long serialVersionUID = -6452319718210465839L;
+
+    private static final String PROPERTY_ENABLED = "forms.metrics.enabled";
+    private static final String PROPERTY_TOKEN = "forms.metrics.token";
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doGet( HttpServletRequest request, HttpServletResponse response ) throws IOException
+    {
+        if ( !AppPropertiesService.getPropertyBoolean( PROPERTY_ENABLED, false ) )
+        {
+            response.sendError( HttpServletResponse.SC_NOT_FOUND );
+
+            return;
+        }
+
+        if ( !isAuthorized( request ) )
+        {
+            response.sendError( HttpServletResponse.SC_UNAUTHORIZED );
+
+            return;
+        }
+
+        byte [ ] metrics = FormsMetricsService.getInstance( ).scrape( ).getBytes( StandardCharsets.UTF_8 );
+        response.setContentType( CONTENT_TYPE );
+        response.setContentLength( metrics.length );
+        response.getOutputStream( ).write( metrics );
+    }
+
+    /**
+     * Check the bearer token of the request
+     * 
+     * @param request
+     *            the request
+     * @return true if a token is configured and the request gives it
+     */
+    private static boolean isAuthorized( HttpServletRequest request )
+    {
+        String strToken = AppPropertiesService.getProperty( PROPERTY_TOKEN );
+
+        if ( StringUtils.isBlank( strToken ) )
+        {
+            AppLogService.error( "The metrics of the plugin forms are enabled without the token " + PROPERTY_TOKEN + " : the requests are refused" );
+
+            return false;
+        }
+
+        String strAuthorization = StringUtils.defaultString( request.getHeader( HEADER_AUTHORIZATION ) );
+
+        return MessageDigest.isEqual( ( BEARER_PREFIX + strToken ).getBytes( StandardCharsets.UTF_8 ), strAuthorization.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
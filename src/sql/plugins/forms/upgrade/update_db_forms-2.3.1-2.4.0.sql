@@ -0,0 +1,69 @@
+DROP TABLE IF EXISTS forms_response_unique_value;
+CREATE TABLE forms_response_unique_value (
+  id_entry_response int default '0' NOT NULL,
+  id_entry int default '0' NOT NULL,
+  code_entry varchar(100) default NULL,
+  value_key char(64) NOT NULL,
+  PRIMARY KEY (id_entry_response)
+);
+CREATE INDEX idx_fruv_id_entry_value on forms_response_unique_value ( id_entry, value_key );
+CREATE INDEX idx_fruv_code_entry_value on forms_response_unique_value ( code_entry, value_key );
+
+-- The unique values of the existing responses are stored by the formsResponseUniqueValue daemon
+
+DROP TABLE IF EXISTS forms_response_quota;
+CREATE TABLE forms_response_quota (
+  id_form int default '0' NOT NULL,
+  guid varchar(255) default '' NOT NULL,
+  nb_response int default '0' NOT NULL,
+  PRIMARY KEY (id_form, guid)
+);
+
+DROP TABLE IF EXISTS forms_response_count;
+CREATE TABLE forms_response_count (
+  id_form int default '0' NOT NULL,
+  response_day date NOT NULL,
+  nb_response int default '0' NOT NULL,
+  PRIMARY KEY (id_form, response_day)
+);
+
+INSERT INTO forms_response_count ( id_form, response_day, nb_response )
+  SELECT id_form, CAST( creation_date AS DATE ), COUNT( id_response ) FROM forms_response WHERE from_save = 0 GROUP BY id_form, CAST( creation_date AS DATE );
+
+DROP TABLE IF EXISTS forms_cache_invalidation;
+CREATE TABLE forms_cache_invalidation (
+  id_invalidation int AUTO_INCREMENT,
+  id_form int default '0' NOT NULL,
+  date_invalidation timestamp default CURRENT_TIMESTAMP NOT NULL,
+  PRIMARY KEY (id_invalidation)
+);
+CREATE INDEX idx_fci_date_invalidation on forms_cache_invalidation ( date_invalidation );
+
+DROP TABLE IF EXISTS forms_post_submit_task;
+CREATE TABLE forms_post_submit_task (
+  id_task int AUTO_INCREMENT,
+  id_form_response int default '0' NOT NULL,
+  id_form int default '0' NOT NULL,
+  task_type varchar(50) NOT NULL,
+  status smallint default '0' NOT NULL,
+  nb_attempts int default '0' NOT NULL,
+  date_creation timestamp default CURRENT_TIMESTAMP NOT NULL,
+  date_next_attempt timestamp default CURRENT_TIMESTAMP NOT NULL,
+  last_error varchar(255) default NULL,
+  PRIMARY KEY (id_task)
+);
+CREATE INDEX idx_fpst_status_next_attempt on forms_post_submit_task ( status, date_next_attempt );
+CREATE INDEX idx_fpst_id_form_response on forms_post_submit_task ( id_form_response, id_task );
+
+ALTER TABLE forms_indexer_action ADD COLUMN date_creation timestamp default CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE forms_indexer_action ADD COLUMN lease_owner varchar(255) default NULL;
+ALTER TABLE forms_indexer_action ADD COLUMN lease_expiration timestamp NULL;
+CREATE INDEX idx_fia_lease_owner on forms_indexer_action  ( lease_owner );
+
+DROP TABLE IF EXISTS forms_index_writer_lease;
+CREATE TABLE forms_index_writer_lease (
+  index_name varchar(255) NOT NULL,
+  lease_owner varchar(255) NOT NULL,
+  lease_expiration timestamp NOT NULL,
+  PRIMARY KEY (index_name)
+);
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fr.paris.lutece.plugins.genericattributes.business.Entry;
+import fr.paris.lutece.plugins.genericattributes.business.EntryHome;
+import fr.paris.lutece.plugins.genericattributes.business.EntryTypeHome;
+import fr.paris.lutece.plugins.genericattributes.business.Response;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * This is the business class test for the loading of the FormResponse objects by the exports and the indexer
+ */
+public class FormResponseBusinessTest extends LuteceTestCase
+{
+    private static final int ENTRY_TYPE_TEXT_ID = 106;
+    private static final int NB_ITERATIONS = 3;
+
+    /**
+     * Test that each question response loaded in bulk keeps its own iteration number
+     */
+    public void testFindByPrimaryKeyListForIndexKeepsIterations( )
+    {
+        Form form = new Form( );
+        form.setTitle( "Iterations" );
+        form.setBreadcrumbName( "forms.horizontalBreadcrumb" );
+        FormHome.create( form );
+
+        Step step = new Step( );
+        step.setTitle( "Iterations step" );
+        step.setIdForm( form.getId( ) );
+        StepHome.create( step );
+
+        Entry entry = new Entry( );
+        entry.setEntryType( EntryTypeHome.findByPrimaryKey( ENTRY_TYPE_TEXT_ID ) );
+        entry.setTitle( "Iterated question" );
+        entry.setIdResource( form.getId( ) );
+        entry.setResourceType( Form.RESOURCE_TYPE );
+        EntryHome.create( entry );
+
+        Question question = new Question( );
+        question.setTitle( entry.getTitle( ) );
+        question.setCode( "iterated" );
+        question.setColumnTitle( entry.getTitle( ) );
+        question.setIdEntry( entry.getIdEntry( ) );
+        question.setIdStep( step.getId( ) );
+        QuestionHome.create( question );
+        question.setEntry( entry );
+
+        FormResponse formResponse = new FormResponse( );
+        formResponse.setFormId( form.getId( ) );
+        formResponse.setGuid( "iterations" );
+        formResponse.setFromSave( Boolean.FALSE );
+        FormResponseHome.create( formResponse );
+
+        List<FormQuestionResponse> listQuestionResponse = new ArrayList<>( );
+        for ( int nIteration = 0; nIteration < NB_ITERATIONS; nIteration++ )
+        {
+            Question questionIteration = new Question( );
+            questionIteration.setId( question.getId( ) );
+            questionIteration.setIdEntry( entry.getIdEntry( ) );
+            questionIteration.setEntry( entry );
+            questionIteration.setIterationNumber( nIteration );
+
+            Response response = new Response( );
+            response.setEntry( entry );
+            response.setResponseValue( "value " + nIteration );
+
+            FormQuestionResponse formQuestionResponse = new FormQuestionResponse( );
+            formQuestionResponse.setIdFormResponse( formResponse.getId( ) );
+            formQuestionResponse.setIdStep( step.getId( ) );
+            formQuestionResponse.setQuestion( questionIteration );
+            formQuestionResponse.setEntryResponse( new ArrayList<>( Collections.singletonList( response ) ) );
+            listQuestionResponse.add( formQuestionResponse );
+        }
+        FormQuestionResponseHome.createList( listQuestionResponse );
+
+        FormResponseStep formResponseStep = new FormResponseStep( );
+        formResponseStep.setFormResponseId( formResponse.getId( ) );
+        formResponseStep.setStep( step );
+        formResponseStep.setOrder( 0 );
+        FormResponseStepHome.create( formResponseStep );
+
+        List<FormResponse> listFormResponse = FormResponseHome.findByPrimaryKeyListForIndex( Collections.singletonList( formResponse.getId( ) ) );
+        assertEquals( 1, listFormResponse.size( ) );
+
+        List<FormQuestionResponse> listLoaded = listFormResponse.get( 0 ).getSteps( ).get( 0 ).getQuestions( );
+        assertEquals( NB_ITERATIONS, listLoaded.size( ) );
+
+        boolean [ ] iterationFound = new boolean [ NB_ITERATIONS];
+        for ( FormQuestionResponse formQuestionResponse : listLoaded )
+        {
+            int nIteration = formQuestionResponse.getQuestion( ).getIterationNumber( );
+            assertEquals( "value " + nIteration, formQuestionResponse.getEntryResponse( ).get( 0 ).getResponseValue( ) );
+            assertEquals( question.getTitle( ), formQuestionResponse.getQuestion( ).getTitle( ) );
+            iterationFound [nIteration] = true;
+        }
+        for ( boolean bFound : iterationFound )
+        {
+            assertTrue( bFound );
+        }
+
+        FormResponseHome.remove( formResponse.getId( ) );
+        QuestionHome.remove( question.getId( ) );
+        EntryHome.remove( entry.getIdEntry( ) );
+        StepHome.remove( step.getId( ) );
+        FormHome.remove( form.getId( ) );
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.sql.Timestamp;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+public class FormResponseCountBusinessTest extends LuteceTestCase
+{
+    private static final int ID_FORM = 987654;
+
+    public void testIncrementAndDecrement( )
+    {
+        Timestamp dateNow = new Timestamp( System.currentTimeMillis( ) );
+
+        FormResponseCountHome.increment( ID_FORM, dateNow );
+        FormResponseCountHome.increment( ID_FORM, dateNow );
+        FormResponseCountHome.decrement( ID_FORM, dateNow );
+
+        assertEquals( 1, FormResponseCountHome.getCount( ID_FORM ) );
+        assertEquals( Integer.valueOf( 1 ), FormResponseCountHome.getCountByForm( ).get( ID_FORM ) );
+
+        // The decrement of a response of another day does not change the counter of today
+        FormResponseCountHome.decrement( ID_FORM, new Timestamp( dateNow.getTime( ) - 2 * 24 * 3600 * 1000L ) );
+        assertEquals( 1, FormResponseCountHome.getCount( ID_FORM ) );
+
+        // No response is stored for this form : the reconciliation resets its counter
+        assertTrue( FormResponseCountHome.reconcile( ) > 0 );
+        assertEquals( 0, FormResponseCountHome.getCount( ID_FORM ) );
+
+        FormResponseCountHome.removeByForm( ID_FORM );
+        assertFalse( FormResponseCountHome.getCountByForm( ).containsKey( ID_FORM ) );
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+public class FormResponseQuotaBusinessTest extends LuteceTestCase
+{
+    private static final int ID_FORM = 987655;
+    private static final String GUID = "quota-user";
+
+    public void testConsumeAndRelease( )
+    {
+        FormResponseQuotaHome.prepare( ID_FORM, null );
+        FormResponseQuotaHome.prepare( ID_FORM, GUID );
+        // A second preparation keeps the existing counters
+        FormResponseQuotaHome.prepare( ID_FORM, null );
+
+        assertTrue( FormResponseQuotaHome.consume( ID_FORM, null, 2 ) );
+        assertTrue( FormResponseQuotaHome.consume( ID_FORM, GUID, 1 ) );
+        assertFalse( FormResponseQuotaHome.consume( ID_FORM, GUID, 1 ) );
+        assertFalse( FormResponseQuotaHome.isReached( ID_FORM, null, 2 ) );
+        assertTrue( FormResponseQuotaHome.isReached( ID_FORM, GUID, 1 ) );
+
+        // Removing the response of the user gives back its quota and one response of the form
+        FormResponseQuotaHome.release( ID_FORM, GUID );
+        assertFalse( FormResponseQuotaHome.isReached( ID_FORM, GUID, 1 ) );
+        assertTrue( FormResponseQuotaHome.consume( ID_FORM, GUID, 1 ) );
+
+        // The counters never go below zero
+        FormResponseQuotaHome.release( ID_FORM, null );
+        FormResponseQuotaHome.release( ID_FORM, null );
+        assertTrue( FormResponseQuotaHome.consume( ID_FORM, null, 1 ) );
+        assertFalse( FormResponseQuotaHome.consume( ID_FORM, null, 1 ) );
+
+        FormResponseQuotaHome.removeByForm( ID_FORM );
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.business;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import fr.paris.lutece.plugins.forms.business.postsubmit.PostSubmitTask;
+import fr.paris.lutece.plugins.forms.business.postsubmit.PostSubmitTaskHome;
+import fr.paris.lutece.test.LuteceTestCase;
+
+public class PostSubmitTaskBusinessTest extends LuteceTestCase
+{
+    private static final int ID_FORM_RESPONSE = 987654;
+
+    public void testOrderAndClaim( )
+    {
+        Timestamp dateNow = new Timestamp( System.currentTimeMillis( ) );
+        PostSubmitTask first = PostSubmitTaskHome.create( newTask( dateNow ) );
+        PostSubmitTask second = PostSubmitTaskHome.create( newTask( dateNow ) );
+
+        // Only the first task of the form response is ready
+        assertTrue( containsTask( PostSubmitTaskHome.getReadyTasks( dateNow, 1000 ), first.getId( ) ) );
+        assertFalse( containsTask( PostSubmitTaskHome.getReadyTasks( dateNow, 1000 ), second.getId( ) ) );
+
+        Timestamp dateLeaseEnd = new Timestamp( dateNow.getTime( ) + 60000 );
+        assertTrue( PostSubmitTaskHome.claim( first.getId( ), dateLeaseEnd ) );
+        assertFalse( PostSubmitTaskHome.claim( first.getId( ), dateLeaseEnd ) );
+
+        // The second task waits while the first one is running
+        assertFalse( containsTask( PostSubmitTaskHome.getReadyTasks( dateNow, 1000 ), second.getId( ) ) );
+
+        PostSubmitTaskHome.remove( first.getId( ) );
+        assertTrue( containsTask( PostSubmitTaskHome.getReadyTasks( dateNow, 1000 ), second.getId( ) ) );
+
+        PostSubmitTaskHome.remove( second.getId( ) );
+    }
+
+    private static PostSubmitTask newTask( Timestamp dateNow )
+    {
+        PostSubmitTask task = new PostSubmitTask( );
+        task.setIdFormResponse( ID_FORM_RESPONSE );
+        task.setIdForm( 1 );
+        task.setTaskType( "FORM_RESPONSE_CREATED" );
+        task.setStatus( PostSubmitTask.STATUS_WAITING );
+        task.setDateCreation( dateNow );
+        task.setDateNextAttempt( dateNow );
+
+        return task;
+    }
+
+    private static boolean containsTask( List<PostSubmitTask> listTasks, int nIdTask )
+    {
+        return listTasks.stream( ).anyMatch( task -> task.getId( ) == nIdTask );
+    }
+}
@@ -35,6 +35,7 @@ package fr.paris.lutece.plugins.forms.business.form.list;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItem;
 import fr.paris.lutece.plugins.forms.business.form.FormResponseItemSortConfig;
@@ -96,4 +97,36 @@ public class FormListDAOMock implements IFormListDAO
         }
         return listFormResponseItem;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void processAllFormResponseItem( FormPanel formPanel, List<IFormColumn> listFormColumn, List<FormFilter> listFormFilter,
+            FormResponseItemSortConfig sortConfig, int nChunkSize, Consumer<List<FormResponseItem>> chunkConsumer )
+    {
+        chunkConsumer.accept( searchAllFormResponseItem( formPanel, listFormColumn, listFormFilter, sortConfig ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFormResponseInPanel( FormPanel formPanel, int nIdFormResponse )
+    {
+        return _listIdAuthorizedFormResponse.contains( nIdFormResponse );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void populateFormResponseItemCounts( List<FormPanel> listFormPanel, List<FormFilter> listFormFilter )
+    {
+        for ( FormPanel formPanel : listFormPanel )
+        {
+            formPanel.setTotalFormResponseItemCount( _listIdAuthorizedFormResponse.size( ) );
+            formPanel.setFormResponseItemList( new ArrayList<>( ) );
+        }
+    }
 }
@@ -44,7 +44,6 @@ import org.junit.After;
 import org.junit.Before;
 import org.springframework.mock.web.MockHttpServletRequest;
 
-import fr.paris.lutece.plugins.forms.business.form.column.FormColumnFactory;
 import fr.paris.lutece.plugins.forms.business.form.column.IFormColumn;
 import fr.paris.lutece.plugins.forms.business.form.column.impl.FormColumnFormResponseDateCreationMock;
 import fr.paris.lutece.plugins.forms.business.form.column.impl.FormColumnFormsMock;
@@ -67,7 +66,6 @@ public class FormsMultiviewAuthorizationServiceTest extends LuteceTestCase
 {
     // Variables
     private FormPanel _formPanel;
-    private FormColumnFactory _formColumnFactory;
 
     /**
      * {@inheritDoc}
@@ -89,7 +87,6 @@ public class FormsMultiviewAuthorizationServiceTest extends LuteceTestCase
         listFormColumn.add( new FormColumnFormsMock( 1, "form" ) );
         listFormColumn.add( new FormColumnFormResponseDateCreationMock( 2, "date creation" ) );
         listFormColumn.add( new FormColumnWorkflowStateMock( 3, "workflow state" ) );
-        _formColumnFactory = new FormColumnFactory( );
     }
 
     /**
@@ -113,7 +110,7 @@ public class FormsMultiviewAuthorizationServiceTest extends LuteceTestCase
         FormListDAOMock formListDAOMock = new FormListDAOMock( listAuthorizedId );
         FormListFacade formListFacade = new FormListFacade( formListDAOMock );
         IFormsMultiviewAuthorizationService formsMultiviewAuthorizationService = new FormsMultiviewAuthorizationService(
-                _formPanel.getFormPanelConfiguration( ), formListFacade, _formColumnFactory );
+                _formPanel.getFormPanelConfiguration( ), formListFacade );
 
         boolean bIsUserAuthorize = formsMultiviewAuthorizationService.isUserAuthorizedOnFormResponse( new MockHttpServletRequest( ), nIdFormResponse );
         assertThat( bIsUserAuthorize, is( Boolean.TRUE ) );
@@ -131,12 +128,32 @@ public class FormsMultiviewAuthorizationServiceTest extends LuteceTestCase
         FormListDAOMock formListDAOMock = new FormListDAOMock( listAuthorizedId );
         FormListFacade formListFacade = new FormListFacade( formListDAOMock );
         IFormsMultiviewAuthorizationService formsMultiviewAuthorizationService = new FormsMultiviewAuthorizationService(
-                _formPanel.getFormPanelConfiguration( ), formListFacade, _formColumnFactory );
+                _formPanel.getFormPanelConfiguration( ), formListFacade );
 
         boolean bIsUserAuthorize = formsMultiviewAuthorizationService.isUserAuthorizedOnFormResponse( new MockHttpServletRequest( ), nIdFormResponse );
         assertThat( bIsUserAuthorize, is( Boolean.FALSE ) );
     }
 
+    /**
+     * Test of the method {@link FormsMultiviewAuthorizationService#isUserAuthorizedOnFormResponse(request,int)} on several form responses in a row with
+     * the same service
+     */
+    public void testIsUserAthorizedOnSeveralFormResponses( )
+    {
+        List<Integer> listAuthorizedId = Arrays.asList( 1, 2, 3, 4 );
+
+        FormListDAOMock formListDAOMock = new FormListDAOMock( listAuthorizedId );
+        FormListFacade formListFacade = new FormListFacade( formListDAOMock );
+        IFormsMultiviewAuthorizationService formsMultiviewAuthorizationService = new FormsMultiviewAuthorizationService(
+                _formPanel.getFormPanelConfiguration( ), formListFacade );
+
+        for ( int nIdFormResponse = 1; nIdFormResponse <= 6; nIdFormResponse++ )
+        {
+            boolean bIsUserAuthorize = formsMultiviewAuthorizationService.isUserAuthorizedOnFormResponse( new MockHttpServletRequest( ), nIdFormResponse );
+            assertThat( bIsUserAuthorize, is( listAuthorizedId.contains( nIdFormResponse ) ) );
+        }
+    }
+
     /**
      * Test of the method {@link FormsMultiviewAuthorizationService#isUserAuthorizedOnFormResponse(request,int)} with a bad id for a form response
      */
@@ -148,7 +165,7 @@ public class FormsMultiviewAuthorizationServiceTest extends LuteceTestCase
         FormListDAOMock formListDAOMock = new FormListDAOMock( listAuthorizedId );
         FormListFacade formListFacade = new FormListFacade( formListDAOMock );
         IFormsMultiviewAuthorizationService formsMultiviewAuthorizationService = new FormsMultiviewAuthorizationService(
-                _formPanel.getFormPanelConfiguration( ), formListFacade, _formColumnFactory );
+                _formPanel.getFormPanelConfiguration( ), formListFacade );
 
         boolean bIsUserAuthorize = formsMultiviewAuthorizationService.isUserAuthorizedOnFormResponse( new MockHttpServletRequest( ), nIdFormResponse );
         assertThat( bIsUserAuthorize, is( Boolean.FALSE ) );
@@ -164,8 +181,7 @@ public class FormsMultiviewAuthorizationServiceTest extends LuteceTestCase
 
         FormListDAOMock formListDAOMock = new FormListDAOMock( listAuthorizedId );
         FormListFacade formListFacade = new FormListFacade( formListDAOMock );
-        IFormsMultiviewAuthorizationService formsMultiviewAuthorizationService = new FormsMultiviewAuthorizationService( null, formListFacade,
-                _formColumnFactory );
+        IFormsMultiviewAuthorizationService formsMultiviewAuthorizationService = new FormsMultiviewAuthorizationService( null, formListFacade );
 
         boolean bIsUserAuthorize = formsMultiviewAuthorizationService.isUserAuthorizedOnFormResponse( new MockHttpServletRequest( ), nIdFormResponse );
         assertThat( bIsUserAuthorize, is( Boolean.FALSE ) );
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test class for the FormsCache
+ */
+public class FormsCacheTest extends LuteceTestCase
+{
+    private static final String NAME = "test";
+
+    /**
+     * Test that loaded values are reused and the least recently used entry is evicted
+     */
+    public void testLoadAndEviction( )
+    {
+        AtomicInteger nLoadCount = new AtomicInteger( );
+        FormsCache<Integer, String> cache = new FormsCache<>( NAME, 2, 0 );
+
+        assertEquals( "1", cache.get( 1, key -> load( key, nLoadCount ) ) );
+        assertEquals( "1", cache.get( 1, key -> load( key, nLoadCount ) ) );
+        assertEquals( 1, nLoadCount.get( ) );
+        assertEquals( 1, cache.getHitCount( ) );
+        assertEquals( 1, cache.getMissCount( ) );
+
+        cache.get( 2, key -> load( key, nLoadCount ) );
+        cache.get( 1, key -> load( key, nLoadCount ) );
+        cache.get( 3, key -> load( key, nLoadCount ) );
+
+        assertEquals( 2, cache.getSize( ) );
+        assertEquals( 1, cache.getEvictionCount( ) );
+
+        cache.get( 2, key -> load( key, nLoadCount ) );
+        assertEquals( 4, nLoadCount.get( ) );
+    }
+
+    /**
+     * Test that the values can be read without being loaded
+     */
+    public void testGetIfPresent( )
+    {
+        AtomicInteger nLoadCount = new AtomicInteger( );
+        FormsCache<Integer, String> cache = new FormsCache<>( NAME, 10, 0 );
+
+        assertNull( cache.getIfPresent( 1 ) );
+        cache.get( 1, key -> load( key, nLoadCount ) );
+        assertEquals( "1", cache.getIfPresent( 1 ) );
+        cache.clear( );
+        assertNull( cache.getIfPresent( 1 ) );
+        assertEquals( 1, nLoadCount.get( ) );
+    }
+
+    /**
+     * Test that a cleared or disabled cache reloads the values
+     */
+    public void testClearAndDisabled( )
+    {
+        AtomicInteger nLoadCount = new AtomicInteger( );
+        FormsCache<Integer, String> cache = new FormsCache<>( NAME, 10, 0 );
+
+        cache.get( 1, key -> load( key, nLoadCount ) );
+        cache.clear( );
+        assertEquals( 0, cache.getSize( ) );
+        cache.get( 1, key -> load( key, nLoadCount ) );
+        assertEquals( 2, nLoadCount.get( ) );
+
+        FormsCache<Integer, String> disabledCache = new FormsCache<>( NAME, 0, 0 );
+        disabledCache.get( 1, key -> load( key, nLoadCount ) );
+        disabledCache.get( 1, key -> load( key, nLoadCount ) );
+        assertEquals( 4, nLoadCount.get( ) );
+        assertEquals( 0, disabledCache.getSize( ) );
+    }
+
+    private static String load( Integer key, AtomicInteger nLoadCount )
+    {
+        nLoadCount.incrementAndGet( );
+        return String.valueOf( key );
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.definition;
+
+import fr.paris.lutece.plugins.forms.business.CompositeDisplayType;
+import fr.paris.lutece.plugins.forms.business.Form;
+import fr.paris.lutece.plugins.forms.business.FormDisplay;
+import fr.paris.lutece.plugins.forms.business.FormDisplayHome;
+import fr.paris.lutece.plugins.forms.business.FormHome;
+import fr.paris.lutece.plugins.forms.business.Group;
+import fr.paris.lutece.plugins.forms.business.GroupHome;
+import fr.paris.lutece.plugins.forms.business.Step;
+import fr.paris.lutece.plugins.forms.business.StepHome;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test class for the compiled form definitions
+ */
+public class CompiledFormServiceTest extends LuteceTestCase
+{
+    private static final String TITLE = "Title";
+
+    /**
+     * Test that the definition is shared until it is invalidated
+     */
+    public void testCompileAndInvalidate( )
+    {
+        Form form = new Form( );
+        form.setTitle( TITLE );
+        FormHome.create( form );
+
+        Step step = new Step( );
+        step.setTitle( TITLE );
+        step.setIdForm( form.getId( ) );
+        step.setInitial( true );
+        StepHome.create( step );
+
+        Group group = new Group( );
+        group.setTitle( TITLE );
+        group.setIdStep( step.getId( ) );
+        GroupHome.create( group );
+
+        FormDisplay formDisplayGroup = createGroupDisplay( form, step, group );
+
+        try
+        {
+            CompiledFormService service = CompiledFormService.getInstance( );
+            CompiledForm compiledForm = service.getCompiledFormByStep( step.getId( ) );
+
+            assertNotNull( compiledForm );
+            assertEquals( form.getId( ), compiledForm.getForm( ).getId( ) );
+            assertEquals( step.getId( ), compiledForm.getStep( step.getId( ) ).getId( ) );
+            assertEquals( group.getId( ), compiledForm.getGroup( group.getId( ) ).getId( ) );
+            assertEquals( 1, compiledForm.getFormDisplayChildren( step.getId( ), 0 ).size( ) );
+            assertSame( compiledForm, service.getCompiledForm( form.getId( ) ) );
+
+            FormDisplay formDisplayGroup2 = createGroupDisplay( form, step, group );
+
+            // The definition is not reloaded before its invalidation
+            assertEquals( 1, service.getCompiledForm( form.getId( ) ).getFormDisplayChildren( step.getId( ), 0 ).size( ) );
+
+            service.invalidate( form.getId( ) );
+
+            CompiledForm compiledFormNew = service.getCompiledForm( form.getId( ) );
+            assertNotSame( compiledForm, compiledFormNew );
+            assertTrue( compiledFormNew.getVersion( ) > compiledForm.getVersion( ) );
+            assertEquals( 2, compiledFormNew.getFormDisplayChildren( step.getId( ), 0 ).size( ) );
+            assertEquals( formDisplayGroup2.getId( ), compiledFormNew.getFormDisplayChildren( step.getId( ), 0 ).get( 1 ).getId( ) );
+
+            FormDisplayHome.remove( formDisplayGroup2.getId( ) );
+        }
+        finally
+        {
+            FormDisplayHome.remove( formDisplayGroup.getId( ) );
+            GroupHome.remove( group.getId( ) );
+            StepHome.remove( step.getId( ) );
+            FormHome.remove( form.getId( ) );
+            CompiledFormService.getInstance( ).invalidate( form.getId( ) );
+        }
+    }
+
+    /**
+     * Creates a display of a group at the root of a step, after the existing displays
+     * 
+     * @param form
+     *            the form
+     * @param step
+     *            the step
+     * @param group
+     *            the group
+     * @return the created display
+     */
+    private FormDisplay createGroupDisplay( Form form, Step step, Group group )
+    {
+        FormDisplay formDisplay = new FormDisplay( );
+        formDisplay.setFormId( form.getId( ) );
+        formDisplay.setStepId( step.getId( ) );
+        formDisplay.setCompositeId( group.getId( ) );
+        formDisplay.setParentId( 0 );
+        formDisplay.setCompositeType( CompositeDisplayType.GROUP.getLabel( ) );
+        FormDisplayHome.create( formDisplay );
+
+        return formDisplay;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test class for the FormsMetricsRegistry
+ */
+public class FormsMetricsRegistryTest extends LuteceTestCase
+{
+    private static final String TIMER = "test_timer";
+    private static final String COUNTER = "test_counter";
+    private static final String GAUGE = "test_gauge";
+    private static final String LABELED_TIMER = "test_labeled_timer";
+    private static final String REGISTERED_COUNTER = "test_registered_counter";
+    private static final String LABEL = "id_form";
+
+    /**
+     * Test the Prometheus text of the timers, counters and gauges
+     */
+    public void testScrape( )
+    {
+        FormsMetricsRegistry registry = new FormsMetricsRegistry( );
+        registry.recordTime( TIMER, TimeUnit.MILLISECONDS.toNanos( 2 ) );
+        registry.recordTime( TIMER, TimeUnit.MILLISECONDS.toNanos( 200 ) );
+        registry.increment( COUNTER, 3 );
+        registry.registerCounter( REGISTERED_COUNTER, ( ) -> 7 );
+        registry.registerGauge( GAUGE, ( ) -> 42 );
+
+        String strMetrics = registry.scrape( );
+
+        assertTrue( strMetrics.contains( "# TYPE test_timer_seconds histogram\n" ) );
+        assertTrue( strMetrics.contains( "test_timer_seconds_bucket{le=\"0.001\"} 0\n" ) );
+        assertTrue( strMetrics.contains( "test_timer_seconds_bucket{le=\"0.0025\"} 1\n" ) );
+        assertTrue( strMetrics.contains( "test_timer_seconds_bucket{le=\"0.25\"} 2\n" ) );
+        assertTrue( strMetrics.contains( "test_timer_seconds_bucket{le=\"+Inf\"} 2\n" ) );
+        assertTrue( strMetrics.contains( "test_timer_seconds_count 2\n" ) );
+        assertTrue( strMetrics.contains( "test_counter_total 3\n" ) );
+        assertTrue( strMetrics.contains( "# TYPE test_registered_counter_total counter\n" ) );
+        assertTrue( strMetrics.contains( "test_registered_counter_total 7\n" ) );
+        assertTrue( strMetrics.contains( "test_gauge 42.0\n" ) );
+    }
+
+    /**
+     * Test the labels of a timer and the bound of their values
+     */
+    public void testLabeledTimer( )
+    {
+        FormsMetricsRegistry registry = new FormsMetricsRegistry( );
+
+        for ( int nIdForm = 1; nIdForm <= 150; nIdForm++ )
+        {
+            registry.recordTime( LABELED_TIMER, LABEL, Integer.toString( nIdForm ), TimeUnit.MILLISECONDS.toNanos( 2 ) );
+        }
+        registry.recordTime( LABELED_TIMER, LABEL, "1", TimeUnit.MILLISECONDS.toNanos( 2 ) );
+
+        String strMetrics = registry.scrape( );
+
+        assertEquals( strMetrics.indexOf( "# TYPE test_labeled_timer_seconds histogram\n" ), strMetrics.lastIndexOf( "# TYPE test_labeled_timer_seconds" ) );
+        assertTrue( strMetrics.contains( "test_labeled_timer_seconds_bucket{id_form=\"1\",le=\"+Inf\"} 2\n" ) );
+        assertTrue( strMetrics.contains( "test_labeled_timer_seconds_count{id_form=\"100\"} 1\n" ) );
+        assertFalse( strMetrics.contains( "id_form=\"101\"" ) );
+        assertTrue( strMetrics.contains( "test_labeled_timer_seconds_count{id_form=\"other\"} 50\n" ) );
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.service.search;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.forms.business.form.search.IndexWriterLeaseHome;
+import fr.paris.lutece.plugins.forms.business.form.search.IndexerAction;
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test class for the IndexerActionQueue
+ */
+public class IndexerActionQueueTest extends LuteceTestCase
+{
+    /**
+     * Test that only the last action of each form response is kept
+     */
+    public void testCoalesce( )
+    {
+        List<IndexerAction> listIndexerAction = new ArrayList<>( );
+        listIndexerAction.add( createIndexerAction( 1, 10, IndexerAction.TASK_CREATE ) );
+        listIndexerAction.add( createIndexerAction( 2, 11, IndexerAction.TASK_CREATE ) );
+        listIndexerAction.add( createIndexerAction( 3, 10, IndexerAction.TASK_MODIFY ) );
+        listIndexerAction.add( createIndexerAction( 5, 11, IndexerAction.TASK_DELETE ) );
+        listIndexerAction.add( createIndexerAction( 4, 11, IndexerAction.TASK_MODIFY ) );
+
+        Map<Integer, Integer> mapTaskByFormResponse = IndexerActionQueue.coalesce( listIndexerAction );
+
+        assertEquals( 2, mapTaskByFormResponse.size( ) );
+        assertEquals( Integer.valueOf( IndexerAction.TASK_MODIFY ), mapTaskByFormResponse.get( 10 ) );
+        assertEquals( Integer.valueOf( IndexerAction.TASK_DELETE ), mapTaskByFormResponse.get( 11 ) );
+    }
+
+    /**
+     * Test that the lease of an index is handed over to another server once released or expired, and never shared
+     */
+    public void testWriterLeaseHandover( )
+    {
+        String strIndexName = "forms-test-" + System.currentTimeMillis( );
+        String strOtherNode = "other-node";
+        IndexerActionQueue queue = IndexerActionQueue.getInstance( );
+        Timestamp dateExpiration = new Timestamp( System.currentTimeMillis( ) + 60000 );
+
+        assertTrue( queue.acquireWriterLease( strIndexName ) );
+        assertTrue( queue.renewWriterLease( strIndexName ) );
+        assertFalse( IndexWriterLeaseHome.acquire( strIndexName, strOtherNode, dateExpiration ) );
+
+        // Released: the other server takes the lease, this one cannot take it back
+        queue.releaseWriterLease( strIndexName );
+        assertTrue( IndexWriterLeaseHome.acquire( strIndexName, strOtherNode, dateExpiration ) );
+        assertFalse( queue.acquireWriterLease( strIndexName ) );
+
+        // Expired: this server takes the lease over, the other one has lost it
+        assertTrue( IndexWriterLeaseHome.acquire( strIndexName, strOtherNode, new Timestamp( System.currentTimeMillis( ) - 1000 ) ) );
+        assertTrue( queue.acquireWriterLease( strIndexName ) );
+        assertFalse( IndexWriterLeaseHome.acquire( strIndexName, strOtherNode, dateExpiration ) );
+
+        queue.releaseWriterLease( strIndexName );
+        IndexWriterLeaseHome.release( strIndexName, strOtherNode );
+    }
+
+    private IndexerAction createIndexerAction( int nIdAction, int nIdFormResponse, int nIdTask )
+    {
+        IndexerAction indexerAction = new IndexerAction( );
+        indexerAction.setIdAction( nIdAction );
+        indexerAction.setIdFormResponse( nIdFormResponse );
+        indexerAction.setIdTask( nIdTask );
+
+        return indexerAction;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.web;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Test of the session locks used by the front office submits. The tests synchronize the threads with latches, so they do not depend on the timing of the
+ * machine.
+ */
+public class SessionLocksTest extends LuteceTestCase
+{
+    private static final int NB_STRIPES = 256;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Test that the submits of different sessions hold their lock at the same time
+     * 
+     * @throws Exception
+     *             if a submit fails
+     */
+    public void testDifferentSessionsRunConcurrently( ) throws Exception
+    {
+        SessionLocks sessionLocks = new SessionLocks( NB_STRIPES );
+        String strSession1 = "session1";
+        String strSession2 = "session2";
+
+        assertNotSame( sessionLocks.getLock( strSession1 ), sessionLocks.getLock( strSession2 ) );
+
+        CountDownLatch latchHolding = new CountDownLatch( 2 );
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+
+        try
+        {
+            Future<Boolean> future1 = executor.submit( ( ) -> holdUntilAllHolding( sessionLocks.getLock( strSession1 ), latchHolding ) );
+            Future<Boolean> future2 = executor.submit( ( ) -> holdUntilAllHolding( sessionLocks.getLock( strSession2 ), latchHolding ) );
+
+            assertTrue( future1.get( TIMEOUT_SECONDS, TimeUnit.SECONDS ) );
+            assertTrue( future2.get( TIMEOUT_SECONDS, TimeUnit.SECONDS ) );
+        }
+        finally
+        {
+            executor.shutdownNow( );
+        }
+    }
+
+    /**
+     * Test that a submit of a session waits until the submit holding the lock of the same session releases it
+     * 
+     * @throws Exception
+     *             if a submit fails
+     */
+    public void testSameSessionIsSerialized( ) throws Exception
+    {
+        SessionLocks sessionLocks = new SessionLocks( NB_STRIPES );
+        Lock lock = sessionLocks.getLock( "session" );
+        CountDownLatch latchAcquired = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newSingleThreadExecutor( );
+
+        lock.lock( );
+
+        try
+        {
+            assertFalse( executor.submit( ( ) -> tryLock( sessionLocks.getLock( "session" ) ) ).get( TIMEOUT_SECONDS, TimeUnit.SECONDS ) );
+
+            Future<?> future = executor.submit( ( ) -> {
+                Lock lockSameSession = sessionLocks.getLock( "session" );
+                lockSameSession.lock( );
+                latchAcquired.countDown( );
+                lockSameSession.unlock( );
+            } );
+
+            assertEquals( 1, latchAcquired.getCount( ) );
+            lock.unlock( );
+
+            assertTrue( latchAcquired.await( TIMEOUT_SECONDS, TimeUnit.SECONDS ) );
+            future.get( TIMEOUT_SECONDS, TimeUnit.SECONDS );
+        }
+        finally
+        {
+            executor.shutdownNow( );
+        }
+    }
+
+    /**
+     * Test that sessions falling on the same stripe share their lock
+     */
+    public void testSessionsOfSameStripeShareTheirLock( )
+    {
+        SessionLocks sessionLocks = new SessionLocks( 1 );
+
+        assertSame( sessionLocks.getLock( "session1" ), sessionLocks.getLock( "session2" ) );
+    }
+
+    /**
+     * Holds a lock until all the threads hold theirs
+     * 
+     * @param lock
+     *            the lock
+     * @param latchHolding
+     *            the latch counting the threads holding their lock
+     * @return true if all the threads have held their lock at the same time
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    private static boolean holdUntilAllHolding( Lock lock, CountDownLatch latchHolding ) throws InterruptedException
+    {
+        lock.lock( );
+
+        try
+        {
+            latchHolding.countDown( );
+
+            return latchHolding.await( TIMEOUT_SECONDS, TimeUnit.SECONDS );
+        }
+        finally
+        {
+            lock.unlock( );
+        }
+    }
+
+    /**
+     * Tries to acquire a lock without waiting, and releases it when acquired
+     * 
+     * @param lock
+     *            the lock
+     * @return true if the lock has been acquired
+     */
+    private static boolean tryLock( Lock lock )
+    {
+        if ( lock.tryLock( ) )
+        {
+            lock.unlock( );
+
+            return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.forms.web.file;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * Tests of the conditional and range headers of the file downloads
+ */
+public class FormsDownloadFileTest extends LuteceTestCase
+{
+    private static final long LENGTH = 1000;
+    private static final String ETAG = "\"12-34-1000\"";
+
+    /**
+     * Test the parsing of the single ranges of bytes
+     */
+    public void testParseRange( )
+    {
+        assertRange( 0, 499, FormsDownloadFile.parseRange( "bytes=0-499", LENGTH ) );
+        assertRange( 500, 999, FormsDownloadFile.parseRange( "bytes=500-", LENGTH ) );
+        assertRange( 900, 999, FormsDownloadFile.parseRange( "bytes=-100", LENGTH ) );
+        assertRange( 0, 999, FormsDownloadFile.parseRange( "bytes=-5000", LENGTH ) );
+        assertRange( 990, 999, FormsDownloadFile.parseRange( "bytes=990-5000", LENGTH ) );
+    }
+
+    /**
+     * Test that the unsupported or invalid ranges give the whole content, and that the ranges outside of the content cannot be satisfied
+     */
+    public void testParseInvalidRange( )
+    {
+        assertNull( FormsDownloadFile.parseRange( null, LENGTH ) );
+        assertNull( FormsDownloadFile.parseRange( "items=0-10", LENGTH ) );
+        assertNull( FormsDownloadFile.parseRange( "bytes=0-10,20-30", LENGTH ) );
+        assertNull( FormsDownloadFile.parseRange( "bytes=10-5", LENGTH ) );
+        assertNull( FormsDownloadFile.parseRange( "bytes=a-b", LENGTH ) );
+
+        assertEquals( 0, FormsDownloadFile.parseRange( "bytes=1000-", LENGTH ).length );
+        assertEquals( 0, FormsDownloadFile.parseRange( "bytes=-0", LENGTH ).length );
+    }
+
+    /**
+     * Test the matching of the entity tags
+     */
+    public void testIsETagMatching( )
+    {
+        assertTrue( FormsDownloadFile.isETagMatching( ETAG, ETAG ) );
+        assertTrue( FormsDownloadFile.isETagMatching( "\"1-2-3\", W/" + ETAG, ETAG ) );
+        assertTrue( FormsDownloadFile.isETagMatching( "*", ETAG ) );
+        assertFalse( FormsDownloadFile.isETagMatching( "\"1-2-3\"", ETAG ) );
+        assertFalse( FormsDownloadFile.isETagMatching( null, ETAG ) );
+    }
+
+    /**
+     * Checks a range
+     * 
+     * @param lFirst
+     *            the expected first position
+     * @param lLast
+     *            the expected last position
+     * @param range
+     *            the range
+     */
+    private void assertRange( long lFirst, long lLast, long [ ] range )
+    {
+        assertNotNull( range );
+        assertEquals( 2, range.length );
+        assertEquals( lFirst, range [0] );
+        assertEquals( lLast, range [1] );
+    }
+}
@@ -0,0 +1,7 @@
+<%@page import="fr.paris.lutece.plugins.forms.web.file.FormsDownloadFile"%>
+<% 
+	 if ( !FormsDownloadFile.doDownloadLogo(request,response) && !response.isCommitted() )
+	{
+		  response.sendError( HttpServletResponse.SC_NOT_FOUND );
+	}
+%>